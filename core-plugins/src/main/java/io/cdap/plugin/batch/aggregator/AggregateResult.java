@@ -18,20 +18,43 @@ package io.cdap.plugin.batch.aggregator;
 
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+import io.cdap.plugin.batch.aggregator.function.PrimitiveState;
 
-import java.io.Serializable;
-import java.util.Map;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 /**
  * A class which represents the aggregation result of a group by aggregator.
  * This class is needed to have the schema since we don't have schema propagation in prepareRun if
  * schema is macro-enabled
+ *
+ * The result is serialized with a hand written format. The input schema is written as a shared object, so that
+ * the results written to the same stream only carry a reference to it. Functions implementing
+ * {@link PrimitiveState} only write their primitive state, other functions are Java serialized. Functions read
+ * back from their primitive state are created from the {@link AggregationPlan} of the input schema the first time
+ * the functions are accessed.
  */
-public class AggregateResult implements Serializable {
-  private final Schema inputSchema;
-  private final Map<String, AggregateFunction> functions;
+public class AggregateResult implements Externalizable {
+  private Schema inputSchema;
+  private AggregateFunction[] functions;
+  // primitive state of the functions that are not created yet, which are null in the functions array
+  private byte[] primitiveStates;
+
+  /**
+   * Constructor used by Java serialization.
+   */
+  public AggregateResult() {
+  }
 
-  public AggregateResult(Schema inputSchema, Map<String, AggregateFunction> functions) {
+  public AggregateResult(Schema inputSchema, AggregateFunction[] functions) {
     this.inputSchema = inputSchema;
     this.functions = functions;
   }
@@ -40,7 +63,104 @@ public class AggregateResult implements Serializable {
     return inputSchema;
   }
 
-  public Map<String, AggregateFunction> getFunctions() {
+  /**
+   * Returns the aggregate functions, creating the ones that were read in primitive form from the given plan.
+   *
+   * @param plan the aggregation plan of the input schema
+   * @return the aggregate functions, in the order of the configured aggregates
+   */
+  AggregateFunction[] getFunctions(AggregationPlan plan) {
+    if (primitiveStates == null) {
+      return functions;
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(primitiveStates))) {
+      for (int i = 0; i < functions.length; i++) {
+        if (functions[i] == null) {
+          AggregateFunction function = plan.newAggregate(i);
+          ((PrimitiveState) function).readState(in);
+          functions[i] = function;
+        }
+      }
+    } catch (IOException e) {
+      // cannot happen when reading from a byte array
+      throw new IllegalStateException("Failed to read the state of aggregate functions.", e);
+    }
+    primitiveStates = null;
     return functions;
   }
+
+  /**
+   * Writes the state of the aggregate functions, without the input schema. This is the form in which the state of a
+   * group is persisted across runs, which only depends on the aggregates and the schemas of their fields.
+   *
+   * @param out the output to write to
+   * @param plan the aggregation plan of the input schema
+   */
+  void writeState(DataOutput out, AggregationPlan plan) throws IOException {
+    for (AggregateFunction function : getFunctions(plan)) {
+      getPrimitiveState(function).writeState(out);
+    }
+  }
+
+  /**
+   * Reads the state written by {@link #writeState(DataOutput, AggregationPlan)}.
+   *
+   * @param in the input to read from
+   * @param plan the aggregation plan of the input schema, which creates the aggregate functions
+   * @return the result holding the state
+   */
+  static AggregateResult readState(DataInput in, AggregationPlan plan) throws IOException {
+    AggregateFunction[] functions = plan.newAggregates();
+    for (AggregateFunction function : functions) {
+      getPrimitiveState(function).readState(in);
+    }
+    return new AggregateResult(plan.getInputSchema(), functions);
+  }
+
+  private static PrimitiveState getPrimitiveState(AggregateFunction function) {
+    if (!(function instanceof PrimitiveState)) {
+      throw new IllegalStateException(String.format("The state of aggregate function %s cannot be persisted.",
+                                                    function.getClass().getSimpleName()));
+    }
+    return (PrimitiveState) function;
+  }
+
+  @Override
+  public void writeExternal(ObjectOutput out) throws IOException {
+    out.writeObject(inputSchema);
+    out.writeInt(functions.length);
+    byte[] states = primitiveStates;
+    if (states == null) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream stateOut = new DataOutputStream(bytes);
+      for (AggregateFunction function : functions) {
+        if (function instanceof PrimitiveState) {
+          ((PrimitiveState) function).writeState(stateOut);
+        }
+      }
+      states = bytes.toByteArray();
+    }
+    for (AggregateFunction function : functions) {
+      boolean primitive = function == null || function instanceof PrimitiveState;
+      out.writeBoolean(primitive);
+      if (!primitive) {
+        out.writeObject(function);
+      }
+    }
+    out.writeInt(states.length);
+    out.write(states);
+  }
+
+  @Override
+  public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+    inputSchema = (Schema) in.readObject();
+    functions = new AggregateFunction[in.readInt()];
+    for (int i = 0; i < functions.length; i++) {
+      if (!in.readBoolean()) {
+        functions[i] = (AggregateFunction) in.readObject();
+      }
+    }
+    primitiveStates = new byte[in.readInt()];
+    in.readFully(primitiveStates);
+  }
 }
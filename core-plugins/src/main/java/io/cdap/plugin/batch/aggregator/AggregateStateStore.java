@@ -0,0 +1,296 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.dataset.lib.KeyValueTable;
+import io.cdap.cdap.api.exception.ErrorCategory;
+import io.cdap.cdap.api.exception.ErrorType;
+import io.cdap.cdap.api.exception.ErrorUtils;
+import io.cdap.cdap.etl.api.Arguments;
+import io.cdap.cdap.format.StructuredRecordStringConverter;
+import io.cdap.plugin.batch.aggregator.function.PrimitiveState;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * Persists the {@link AggregateResult} of each group in a {@link KeyValueTable}, so that a later run of the pipeline
+ * can merge its input into the aggregates of the previous runs.
+ *
+ * The row key is the JSON representation of the group key. The value starts with the version of its format and a
+ * signature of the group by fields, grouping sets and aggregates. Results written with a different signature cannot be
+ * merged with the current aggregates, and cause the pipeline to fail. It then holds the id of the run that wrote it,
+ * the state of the group before that run, if any, and the state merged with the input of that run. States are written
+ * in the binary form of {@link PrimitiveState}.
+ *
+ * A run only becomes current once it is committed with {@link #commit(KeyValueTable, long)}, which writes a marker
+ * row. A run merges its input into the state before the run that last wrote the row if that run did not commit, or if
+ * it is the current run, so that retried tasks, speculative attempts and failed runs do not count their input twice.
+ *
+ * Runs are identified by a random id that is generated when the run is prepared, with {@link #newRunId()}, rather than
+ * by their logical start time, which repeats when a run is started again with the same logical start time. A run
+ * started again is a new run, which merges its input into the state committed by the run it repeats.
+ */
+final class AggregateStateStore {
+  // version of the format of the values, to increment when the format or the state of a function changes
+  static final byte FORMAT_VERSION = 1;
+  private static final String COMMIT_PREFIX = "commit:";
+  private static final String RUN_ID_ARGUMENT_SUFFIX = ".state.run.id";
+
+  private final KeyValueTable table;
+  private final long runId;
+  private final String signature;
+  // whether the runs that wrote the rows read so far committed
+  private final Map<Long, Boolean> committedRuns;
+
+  /**
+   * @param table table holding the state
+   * @param runId id of the current run, as generated by {@link #newRunId()}
+   */
+  AggregateStateStore(KeyValueTable table, long runId, List<String> groupByFields,
+                      @Nullable GroupingSets groupingSets, List<GroupByConfig.FunctionInfo> functionInfos) {
+    this.table = table;
+    this.runId = runId;
+    this.signature = getSignature(groupByFields, groupingSets, functionInfos);
+    this.committedRuns = new HashMap<>();
+  }
+
+  /**
+   * Reads the state of a group before the current run.
+   *
+   * @param groupKey key of the group
+   * @return the state of the group, which is empty if no committed run had records of the group
+   */
+  GroupState read(StructuredRecord groupKey) {
+    byte[] key = encodeKey(groupKey);
+    byte[] value = table.read(key);
+    if (value == null) {
+      return new GroupState(key, null);
+    }
+    Row row = decodeValue(signature, value);
+    if (row.runId == runId || !isCommitted(row.runId)) {
+      return new GroupState(key, row.base);
+    }
+    return new GroupState(key, row.state);
+  }
+
+  /**
+   * Persists the state of a group merged with the input of the current run.
+   *
+   * @param group state of the group before the current run, as read by {@link #read(StructuredRecord)}
+   * @param result the merged result
+   * @param plan the aggregation plan of the input schema of the result
+   */
+  void write(GroupState group, AggregateResult result, AggregationPlan plan) {
+    table.write(group.key, encodeValue(signature, runId, group.base, encodeState(result, plan)));
+  }
+
+  /**
+   * Makes the state written by a run current, which is called once the run succeeded.
+   */
+  static void commit(KeyValueTable table, long runId) {
+    table.write(Bytes.toBytes(COMMIT_PREFIX + runId), Bytes.toBytes(System.currentTimeMillis()));
+  }
+
+  /**
+   * @return a new run id, which is random so that it is different for every run with a negligible probability of
+   *   collision
+   */
+  static long newRunId() {
+    return UUID.randomUUID().getMostSignificantBits();
+  }
+
+  /**
+   * @return the name of the runtime argument that holds the run id of the given stage
+   */
+  static String getRunIdArgument(String stageName) {
+    return stageName + RUN_ID_ARGUMENT_SUFFIX;
+  }
+
+  /**
+   * @return the run id of the given stage, as set in the runtime arguments when the run was prepared
+   */
+  static long getRunId(Arguments arguments, String stageName) {
+    String runId = arguments.get(getRunIdArgument(stageName));
+    if (runId == null) {
+      String error = String.format("The id of the current run is not set in the runtime argument '%s'.",
+                                   getRunIdArgument(stageName));
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+        error, error, ErrorType.SYSTEM, false, null);
+    }
+    return Long.parseLong(runId);
+  }
+
+  private boolean isCommitted(long stateRunId) {
+    return committedRuns.computeIfAbsent(stateRunId, id -> table.read(Bytes.toBytes(COMMIT_PREFIX + id)) != null);
+  }
+
+  static String getSignature(List<String> groupByFields, @Nullable GroupingSets groupingSets,
+                             List<GroupByConfig.FunctionInfo> functionInfos) {
+    StringBuilder signature = new StringBuilder(String.join(",", groupByFields));
+    if (groupingSets != null) {
+      signature.append(" sets ").append(groupingSets);
+    }
+    for (GroupByConfig.FunctionInfo functionInfo : functionInfos) {
+      signature.append(';').append(functionInfo.getName()).append(':').append(functionInfo.getFunction())
+        .append('(').append(functionInfo.getField());
+      for (String argument : functionInfo.getArguments()) {
+        signature.append(',').append(argument);
+      }
+      signature.append(')');
+      if (functionInfo.getCondition() != null) {
+        signature.append(":condition(").append(functionInfo.getCondition().trim()).append(')');
+      }
+    }
+    return signature.toString();
+  }
+
+  static byte[] encodeKey(StructuredRecord groupKey) {
+    try {
+      return Bytes.toBytes(StructuredRecordStringConverter.toJsonString(groupKey));
+    } catch (IOException e) {
+      String error = String.format("Failed to encode the group key %s: %s", groupKey, e.getMessage());
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+        error, error, ErrorType.SYSTEM, false, e);
+    }
+  }
+
+  static byte[] encodeState(AggregateResult result, AggregationPlan plan) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      result.writeState(out, plan);
+    } catch (IOException e) {
+      String error = String.format("Failed to serialize the aggregate state: %s", e.getMessage());
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+        error, error, ErrorType.SYSTEM, false, e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static AggregateResult decodeState(byte[] state, AggregationPlan plan) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(state))) {
+      return AggregateResult.readState(in, plan);
+    } catch (IOException e) {
+      String error = String.format("Failed to read the persisted aggregate state: %s", e.getMessage());
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+        error, error, ErrorType.SYSTEM, false, e);
+    }
+  }
+
+  static byte[] encodeValue(String signature, long runId, @Nullable byte[] base, byte[] state) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(FORMAT_VERSION);
+      out.writeUTF(signature);
+      out.writeLong(runId);
+      out.writeBoolean(base != null);
+      if (base != null) {
+        out.writeInt(base.length);
+        out.write(base);
+      }
+      out.writeInt(state.length);
+      out.write(state);
+    } catch (IOException e) {
+      // cannot happen when writing to a byte array
+      throw new IllegalStateException("Failed to encode the aggregate state.", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static Row decodeValue(String signature, byte[] value) {
+    if (value.length == 0 || value[0] != FORMAT_VERSION) {
+      String error = String.format(
+        "The persisted aggregate state has format version %d, which is not supported by this version of the plugin " +
+          "that uses format version %d. Use a new state table.", value.length == 0 ? -1 : value[0], FORMAT_VERSION);
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+        error, error, ErrorType.USER, false, null);
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value, 1, value.length - 1))) {
+      String stateSignature = in.readUTF();
+      if (!signature.equals(stateSignature)) {
+        String error = String.format(
+          "The persisted aggregate state was computed for '%s', which is different from the current group by " +
+            "fields and aggregates '%s'. Use a new state table when changing the group by fields or aggregates.",
+          stateSignature, signature);
+        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+          error, error, ErrorType.USER, false, null);
+      }
+      long runId = in.readLong();
+      byte[] base = in.readBoolean() ? readBytes(in) : null;
+      return new Row(runId, base, readBytes(in));
+    } catch (IOException e) {
+      String error = String.format("Failed to read the persisted aggregate state: %s", e.getMessage());
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+        error, error, ErrorType.SYSTEM, false, e);
+    }
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * The state of a group before the current run.
+   */
+  static final class GroupState {
+    private final byte[] key;
+    @Nullable
+    private final byte[] base;
+
+    private GroupState(byte[] key, @Nullable byte[] base) {
+      this.key = key;
+      this.base = base;
+    }
+
+    /**
+     * @param plan the aggregation plan of the input schema
+     * @return the result of the previous runs, or null if no committed run had records of the group
+     */
+    @Nullable
+    AggregateResult getResult(AggregationPlan plan) {
+      return base == null ? null : decodeState(base, plan);
+    }
+  }
+
+  /**
+   * A decoded value of the table.
+   */
+  static final class Row {
+    final long runId;
+    @Nullable
+    final byte[] base;
+    final byte[] state;
+
+    private Row(long runId, @Nullable byte[] base, byte[] state) {
+      this.runId = runId;
+      this.base = base;
+      this.state = state;
+    }
+  }
+}
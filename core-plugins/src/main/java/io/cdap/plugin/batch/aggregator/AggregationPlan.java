@@ -0,0 +1,234 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.exception.ErrorCategory;
+import io.cdap.cdap.api.exception.ErrorType;
+import io.cdap.cdap.api.exception.ErrorUtils;
+import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+import io.cdap.plugin.batch.aggregator.function.CollectionLimit;
+import io.cdap.plugin.batch.aggregator.function.Condition;
+import io.cdap.plugin.batch.aggregator.function.JexlCondition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Aggregation plan of a {@link GroupByAggregator} compiled for a single input schema.
+ *
+ * The plan resolves the group by and aggregate fields against the input schema once, and holds the group key
+ * schema, the output schema and one function factory per aggregate. Per group work is then limited to allocating
+ * the aggregate functions that hold the accumulator state. Aggregates with the same condition share a single compiled
+ * condition, which is evaluated once per record.
+ */
+final class AggregationPlan {
+  private final Schema inputSchema;
+  private final Schema groupKeySchema;
+  private final Schema outputSchema;
+  private final String[] groupByFields;
+  @Nullable
+  private final GroupingSets groupingSets;
+  private final String[] aggregateNames;
+  private final FunctionFactory[] functionFactories;
+
+  private AggregationPlan(Schema inputSchema, Schema groupKeySchema, Schema outputSchema, String[] groupByFields,
+                          @Nullable GroupingSets groupingSets, String[] aggregateNames,
+                          FunctionFactory[] functionFactories) {
+    this.inputSchema = inputSchema;
+    this.groupKeySchema = groupKeySchema;
+    this.outputSchema = outputSchema;
+    this.groupByFields = groupByFields;
+    this.groupingSets = groupingSets;
+    this.aggregateNames = aggregateNames;
+    this.functionFactories = functionFactories;
+  }
+
+  static AggregationPlan compile(Schema inputSchema, List<String> groupByFields,
+                                 List<GroupByConfig.FunctionInfo> functionInfos) {
+    return compile(inputSchema, groupByFields, functionInfos, CollectionLimit.UNBOUNDED, null);
+  }
+
+  /**
+   * Compiles the plan for the given input schema.
+   *
+   * @param inputSchema schema of the records to aggregate
+   * @param groupByFields fields to group by
+   * @param functionInfos aggregates to compute for each group
+   * @param collectionLimit limit on the values held in memory by collecting aggregates
+   * @param groupingSets grouping sets to aggregate the records by, or null to only group by all the group by fields
+   * @return the compiled plan
+   */
+  static AggregationPlan compile(Schema inputSchema, List<String> groupByFields,
+                                 List<GroupByConfig.FunctionInfo> functionInfos, CollectionLimit collectionLimit,
+                                 @Nullable GroupingSets groupingSets) {
+    List<Schema.Field> keyFields = getGroupKeyFields(inputSchema, groupByFields, groupingSets);
+
+    List<Schema.Field> outputFields = new ArrayList<>(keyFields);
+    String[] aggregateNames = new String[functionInfos.size()];
+    FunctionFactory[] functionFactories = new FunctionFactory[functionInfos.size()];
+    Map<String, Condition> conditions = new HashMap<>();
+    for (int i = 0; i < functionInfos.size(); i++) {
+      GroupByConfig.FunctionInfo functionInfo = functionInfos.get(i);
+      Schema.Field inputField = inputSchema.getField(functionInfo.getField());
+      Condition condition = functionInfo.getCondition() == null ? null :
+        conditions.computeIfAbsent(functionInfo.getCondition().trim(), JexlCondition::of);
+      FunctionFactory factory = new FunctionFactory(functionInfo, inputField == null ? null : inputField.getSchema(),
+                                                    condition, collectionLimit);
+      aggregateNames[i] = functionInfo.getName();
+      functionFactories[i] = factory;
+      outputFields.add(Schema.Field.of(functionInfo.getName(), factory.outputSchema));
+    }
+
+    return new AggregationPlan(inputSchema, Schema.recordOf("group.key.schema", keyFields),
+                               Schema.recordOf(inputSchema.getRecordName() + ".agg", outputFields),
+                               groupByFields.toArray(new String[0]), groupingSets, aggregateNames,
+                               functionFactories);
+  }
+
+  /**
+   * Returns the fields of the group key, which start the output records. With grouping sets, the group by fields
+   * that are not in all the sets are nullable, and the grouping id field follows the group by fields.
+   */
+  static List<Schema.Field> getGroupKeyFields(Schema inputSchema, List<String> groupByFields,
+                                              @Nullable GroupingSets groupingSets) {
+    List<Schema.Field> keyFields = new ArrayList<>(groupByFields.size() + 1);
+    for (int i = 0; i < groupByFields.size(); i++) {
+      String groupByField = groupByFields.get(i);
+      Schema.Field field = inputSchema.getField(groupByField);
+      if (field == null) {
+        String error = String.format(
+          "Cannot group by field '%s' because it does not exist in input schema %s",
+          groupByField, inputSchema);
+        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+          error, error, ErrorType.USER, false, null);
+      }
+      if (groupingSets != null && !groupingSets.isInAllSets(i) && !field.getSchema().isNullable()) {
+        field = Schema.Field.of(groupByField, Schema.nullableOf(field.getSchema()));
+      }
+      keyFields.add(field);
+    }
+    if (groupingSets != null) {
+      keyFields.add(Schema.Field.of(groupingSets.getGroupingIdField(), Schema.of(Schema.Type.LONG)));
+    }
+    return keyFields;
+  }
+
+  Schema getInputSchema() {
+    return inputSchema;
+  }
+
+  Schema getOutputSchema() {
+    return outputSchema;
+  }
+
+  /**
+   * @return the number of group keys of every record, which is the number of grouping sets
+   */
+  int getNumGroupKeys() {
+    return groupingSets == null ? 1 : groupingSets.size();
+  }
+
+  /**
+   * @return the group key of the given record
+   */
+  StructuredRecord getGroupKey(StructuredRecord record) {
+    return getGroupKey(record, 0);
+  }
+
+  /**
+   * @return the group key of the given record for the grouping set at the given index
+   */
+  StructuredRecord getGroupKey(StructuredRecord record, int groupingSet) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(groupKeySchema);
+    for (int i = 0; i < groupByFields.length; i++) {
+      if (groupingSets == null || groupingSets.contains(groupingSet, i)) {
+        builder.set(groupByFields[i], record.get(groupByFields[i]));
+      }
+    }
+    if (groupingSets != null) {
+      builder.set(groupingSets.getGroupingIdField(), groupingSets.getGroupingId(groupingSet));
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return newly created and initialized aggregate functions, in the order of the configured aggregates
+   */
+  AggregateFunction[] newAggregates() {
+    AggregateFunction[] functions = new AggregateFunction[functionFactories.length];
+    for (int i = 0; i < functionFactories.length; i++) {
+      functions[i] = newAggregate(i);
+    }
+    return functions;
+  }
+
+  /**
+   * @return a newly created and initialized aggregate function for the aggregate at the given index
+   */
+  AggregateFunction newAggregate(int index) {
+    AggregateFunction function = functionFactories[index].create();
+    function.initialize();
+    return function;
+  }
+
+  /**
+   * Builds the output record of a group from its key and its aggregate functions.
+   */
+  StructuredRecord buildOutput(StructuredRecord groupKey, AggregateFunction[] functions) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(outputSchema);
+    for (String groupByField : groupByFields) {
+      builder.set(groupByField, groupKey.get(groupByField));
+    }
+    if (groupingSets != null) {
+      builder.set(groupingSets.getGroupingIdField(), groupKey.get(groupingSets.getGroupingIdField()));
+    }
+    for (int i = 0; i < functions.length; i++) {
+      builder.set(aggregateNames[i], functions[i].getAggregate());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates the aggregate function of a single aggregate. The condition of conditional functions is compiled once
+   * and shared by all the functions created by the factory.
+   */
+  private static final class FunctionFactory {
+    private final GroupByConfig.FunctionInfo functionInfo;
+    private final Schema fieldSchema;
+    private final Condition condition;
+    private final CollectionLimit collectionLimit;
+    private final Schema outputSchema;
+
+    private FunctionFactory(GroupByConfig.FunctionInfo functionInfo, @Nullable Schema fieldSchema,
+                            @Nullable Condition condition, CollectionLimit collectionLimit) {
+      this.functionInfo = functionInfo;
+      this.fieldSchema = fieldSchema;
+      this.condition = condition;
+      this.collectionLimit = collectionLimit;
+      this.outputSchema = create().getOutputSchema();
+    }
+
+    private AggregateFunction create() {
+      return functionInfo.getAggregateFunction(fieldSchema, condition, collectionLimit);
+    }
+  }
+}
@@ -45,7 +45,9 @@ import io.cdap.plugin.common.TransformLineageRecorderUtils;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nullable;
 
@@ -60,6 +62,10 @@ import javax.annotation.Nullable;
 public class DedupAggregator extends RecordReducibleAggregator<StructuredRecord> implements LinearRelationalTransform {
   private final DedupConfig dedupConfig;
   private List<String> uniqueFields;
+  private boolean fingerprintKeys;
+  private Map<Schema, Schema> groupKeySchemas;
+  private Schema lastInputSchema;
+  private Schema lastGroupKeySchema;
   private DedupConfig.DedupFunctionInfo filterFunction;
   private SelectionFunction selectionFunction;
   private static final EnumSet<Schema.Type> ALLOWED_SCHEMA_TYPES = EnumSet.of(Schema.Type.INT, Schema.Type.LONG,
@@ -116,21 +122,18 @@ public class DedupAggregator extends RecordReducibleAggregator<StructuredRecord>
   @Override
   public void initialize(BatchRuntimeContext context) {
     uniqueFields = dedupConfig.getUniqueFields();
+    fingerprintKeys = dedupConfig.useFingerprintKeys();
+    groupKeySchemas = new HashMap<>();
     filterFunction = dedupConfig.getFilter();
   }
 
   @Override
   public void groupBy(StructuredRecord record, Emitter<StructuredRecord> emitter) {
-    if (uniqueFields == null) {
-      emitter.emit(record);
+    if (uniqueFields.isEmpty()) {
+      emitter.emit(fingerprintKeys ? RecordFingerprint.of(record) : record);
       return;
     }
-
-    StructuredRecord.Builder builder = StructuredRecord.builder(getGroupKeySchema(record.getSchema()));
-    for (String fieldName : uniqueFields) {
-      builder.set(fieldName, record.get(fieldName));
-    }
-    emitter.emit(builder.build());
+    emitter.emit(getGroupKey(record));
   }
 
   @Override
@@ -154,6 +157,11 @@ public class DedupAggregator extends RecordReducibleAggregator<StructuredRecord>
   }
 
   private StructuredRecord select(StructuredRecord record1, StructuredRecord record2) {
+    if (fingerprintKeys && uniqueFields.isEmpty()) {
+      RecordFingerprint.verify(record1, record2);
+    } else if (fingerprintKeys) {
+      RecordFingerprint.verify(record1, record2, uniqueFields);
+    }
     if (filterFunction == null) {
       return record1;
     }
@@ -173,6 +181,34 @@ public class DedupAggregator extends RecordReducibleAggregator<StructuredRecord>
     return selectionFunction.select(record1, record2);
   }
 
+  private StructuredRecord getGroupKey(StructuredRecord record) {
+    if (fingerprintKeys) {
+      return RecordFingerprint.of(record, uniqueFields);
+    }
+    StructuredRecord.Builder builder = StructuredRecord.builder(getCachedGroupKeySchema(record.getSchema()));
+    for (String fieldName : uniqueFields) {
+      builder.set(fieldName, record.get(fieldName));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the group key schema for the given input schema, building it the first time the schema is seen.
+   */
+  private Schema getCachedGroupKeySchema(Schema inputSchema) {
+    if (inputSchema == lastInputSchema) {
+      return lastGroupKeySchema;
+    }
+    Schema groupKeySchema = groupKeySchemas.get(inputSchema);
+    if (groupKeySchema == null) {
+      groupKeySchema = getGroupKeySchema(inputSchema);
+      groupKeySchemas.put(inputSchema, groupKeySchema);
+    }
+    lastInputSchema = inputSchema;
+    lastGroupKeySchema = groupKeySchema;
+    return groupKeySchema;
+  }
+
   private Schema getGroupKeySchema(Schema inputSchema) {
     List<Schema.Field> fields = new ArrayList<>();
     for (String fieldName : dedupConfig.getUniqueFields()) {
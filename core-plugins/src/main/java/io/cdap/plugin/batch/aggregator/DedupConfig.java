@@ -61,6 +61,13 @@ public class DedupConfig extends AggregatorConfig {
   @Macro
   private String filterOperation;
 
+  @Description("Whether to group records by a 128 bit fingerprint of the unique fields instead of by the fields " +
+    "themselves. Fingerprint keys are smaller to shuffle and faster to compare when deduplicating on many or wide " +
+    "fields. Records with the same fingerprint are verified to have the same unique field values. Defaults to false.")
+  @Nullable
+  @Macro
+  private Boolean fingerprintKeys;
+
   public DedupConfig() {
     this.uniqueFields = "";
     this.filterOperation = "";
@@ -68,8 +75,18 @@ public class DedupConfig extends AggregatorConfig {
 
   @VisibleForTesting
   DedupConfig(String uniqueFields, String filterOperation) {
+    this(uniqueFields, filterOperation, false);
+  }
+
+  @VisibleForTesting
+  DedupConfig(String uniqueFields, String filterOperation, boolean fingerprintKeys) {
     this.uniqueFields = uniqueFields;
     this.filterOperation = filterOperation;
+    this.fingerprintKeys = fingerprintKeys;
+  }
+
+  boolean useFingerprintKeys() {
+    return Boolean.TRUE.equals(fingerprintKeys);
   }
 
   List<String> getUniqueFields() {
@@ -39,7 +39,9 @@ import io.cdap.plugin.common.TransformLineageRecorderUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nullable;
 
 /**
@@ -52,8 +54,12 @@ import javax.annotation.Nullable;
   "on just those fields.")
 public class DistinctAggregator extends RecordReducibleAggregator<StructuredRecord> {
   private final Conf conf;
-  private Iterable<String> fields;
+  private List<String> fields;
+  private boolean fingerprintKeys;
   private Schema outputSchema;
+  private Map<Schema, Schema> outputSchemas;
+  private Schema lastInputSchema;
+  private Schema lastOutputSchema;
 
   /**
    * Plugin Configuration
@@ -67,9 +73,21 @@ public class DistinctAggregator extends RecordReducibleAggregator<StructuredReco
     @Macro
     private String fields;
 
+    @Nullable
+    @Description("Whether to group records by a 128 bit fingerprint of the distinct fields instead of by the fields " +
+      "themselves. Fingerprint keys are smaller to shuffle and faster to compare when the distinct is performed on " +
+      "many or wide fields. Records with the same fingerprint are verified to have the same field values. " +
+      "Defaults to false.")
+    @Macro
+    private Boolean fingerprintKeys;
+
     Iterable<String> getFields() {
       return fields == null ? Collections.emptyList() : Splitter.on(',').trimResults().split(fields);
     }
+
+    boolean useFingerprintKeys() {
+      return Boolean.TRUE.equals(fingerprintKeys);
+    }
   }
 
   public DistinctAggregator(Conf conf) {
@@ -125,42 +143,79 @@ public class DistinctAggregator extends RecordReducibleAggregator<StructuredReco
   @Override
   public void initialize(BatchRuntimeContext context) {
     outputSchema = context.getOutputSchema();
-    fields = conf.getFields();
+    fields = Lists.newArrayList(conf.getFields());
+    fingerprintKeys = conf.useFingerprintKeys();
+    outputSchemas = new HashMap<>();
   }
 
   @Override
   public void groupBy(StructuredRecord record, Emitter<StructuredRecord> emitter) {
-    if (fields == null || !fields.iterator().hasNext()) {
-      emitter.emit(record);
+    if (fingerprintKeys) {
+      emitter.emit(fields.isEmpty() ? RecordFingerprint.of(record) : RecordFingerprint.of(record, fields));
       return;
     }
-
-    Schema recordSchema = outputSchema == null ? getOutputSchema(record.getSchema(), fields) : outputSchema;
-    StructuredRecord.Builder builder = StructuredRecord.builder(recordSchema);
-    for (String fieldName : fields) {
-      builder.set(fieldName, record.get(fieldName));
-    }
-    emitter.emit(builder.build());
+    emitter.emit(project(record));
   }
 
   @Override
   public StructuredRecord initializeAggregateValue(StructuredRecord record) {
-    return record;
+    // with fingerprint keys, the distinct values are carried by the aggregate value instead of the group key
+    return fingerprintKeys ? project(record) : record;
   }
 
   @Override
   public StructuredRecord mergeValues(StructuredRecord aggValue, StructuredRecord record) {
+    if (fingerprintKeys) {
+      RecordFingerprint.verify(aggValue, project(record));
+    }
     return aggValue;
   }
 
   @Override
   public StructuredRecord mergePartitions(StructuredRecord aggVal1, StructuredRecord aggVal2) {
+    if (fingerprintKeys) {
+      RecordFingerprint.verify(aggVal1, aggVal2);
+    }
     return aggVal1;
   }
 
   @Override
   public void finalize(StructuredRecord groupKey, StructuredRecord aggValue, Emitter<StructuredRecord> emitter) {
-    emitter.emit(groupKey);
+    emitter.emit(fingerprintKeys ? aggValue : groupKey);
+  }
+
+  /**
+   * @return the record projected to the distinct fields
+   */
+  private StructuredRecord project(StructuredRecord record) {
+    if (fields.isEmpty()) {
+      return record;
+    }
+    StructuredRecord.Builder builder = StructuredRecord.builder(getCachedOutputSchema(record.getSchema()));
+    for (String fieldName : fields) {
+      builder.set(fieldName, record.get(fieldName));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the output schema for the given input schema, building it the first time the schema is seen.
+   */
+  private Schema getCachedOutputSchema(Schema inputSchema) {
+    if (outputSchema != null) {
+      return outputSchema;
+    }
+    if (inputSchema == lastInputSchema) {
+      return lastOutputSchema;
+    }
+    Schema recordSchema = outputSchemas.get(inputSchema);
+    if (recordSchema == null) {
+      recordSchema = getOutputSchema(inputSchema, fields);
+      outputSchemas.put(inputSchema, recordSchema);
+    }
+    lastInputSchema = inputSchema;
+    lastOutputSchema = recordSchema;
+    return recordSchema;
   }
 
   private static Schema getOutputSchema(Schema inputSchema, Iterable<String> fields) {
@@ -22,6 +22,9 @@ import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.dataset.DatasetManagementException;
+import io.cdap.cdap.api.dataset.DatasetProperties;
+import io.cdap.cdap.api.dataset.lib.KeyValueTable;
 import io.cdap.cdap.api.exception.ErrorCategory;
 import io.cdap.cdap.api.exception.ErrorType;
 import io.cdap.cdap.api.exception.ErrorUtils;
@@ -45,6 +48,7 @@ import io.cdap.cdap.etl.api.relational.Relation;
 import io.cdap.cdap.etl.api.relational.RelationalTranformContext;
 import io.cdap.cdap.etl.api.relational.StringExpressionFactoryType;
 import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+import io.cdap.plugin.batch.aggregator.function.CollectionLimit;
 import io.cdap.plugin.batch.aggregator.function.JexlCondition;
 import io.cdap.plugin.common.SchemaValidator;
 
@@ -56,6 +60,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import javax.annotation.Nullable;
 
 /**
  * Batch group by aggregator.
@@ -109,6 +114,14 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
     put("CORRECTEDSUMOFSQUARESIF", "CorrectedSumOfSquaresIf");
     put("SUMOFSQUARESIF", "SumOfSquaresIf");
     put("ANYIF", "AnyIf");
+    put("APPROXCOUNTDISTINCT", "ApproxCountDistinct");
+    put("APPROXCOUNTDISTINCTIF", "ApproxCountDistinctIf");
+    put("PERCENTILE", "Percentile");
+    put("PERCENTILEIF", "PercentileIf");
+    put("MEDIAN", "Median");
+    put("MEDIANIF", "MedianIf");
+    put("TOPK", "TopK");
+    put("TOPKIF", "TopKIf");
   }};
 
   // Ansi SQL aggregations
@@ -142,11 +155,18 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
           "STRING_AGG(CAST(%s AS STRING) ORDER BY LENGTH(CAST(%<s AS STRING)) ASC LIMIT 1)");
       put(GroupByConfig.Function.LONGESTSTRING,
           "STRING_AGG(CAST(%s AS STRING) ORDER BY LENGTH(CAST(%<s AS STRING)) DESC LIMIT 1)");
+      put(GroupByConfig.Function.APPROXCOUNTDISTINCT,
+          "APPROX_COUNT_DISTINCT(%s) + COALESCE(MAX(CASE WHEN %<s IS NULL THEN 1 ELSE 0 END), 0)");
     }};
 
   private List<String> groupByFields;
   private List<GroupByConfig.FunctionInfo> functionInfos;
-  private Schema outputSchema;
+  private CollectionLimit collectionLimit;
+  private GroupingSets groupingSets;
+  private Map<Schema, AggregationPlan> plans;
+  private AggregationPlan lastPlan;
+  private BatchRuntimeContext runtimeContext;
+  private AggregateStateStore stateStore;
   private GroupByAggregationDefinition aggregationDefinition;
 
   public GroupByAggregator(GroupByConfig conf) {
@@ -172,6 +192,11 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
           .addFailure("Number of Partitions cannot be less than zero.", null)
           .withConfigProperty(AggregatorConfig.NUM_PARTITIONS);
     }
+    conf.validateCollectionLimit(stageConfigurer.getFailureCollector());
+    conf.validateGroupingSets(stageConfigurer.getFailureCollector());
+    if (!conf.containsMacro(GroupByConfig.STATE_TABLE_NAME) && conf.getStateTableName() != null) {
+      pipelineConfigurer.createDataset(conf.getStateTableName(), KeyValueTable.class);
+    }
     // if null, the input schema is unknown, or its multiple schemas.
     // if groupByFields is empty or aggregates is empty, that means they contain macros, which means the
     // output schema is not known at configure time.
@@ -221,6 +246,10 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
       if (GroupByConfig.Function.COUNTDISTINCT == functionInfo.getFunction()) {
         validateCountDistinct(inputField, collector, collectorFieldName);
       }
+
+      if (inputField != null && functionInfo.getFunction().getMaxArguments() > 0) {
+        validateArguments(functionInfo, inputField, collector, collectorFieldName);
+      }
     }
     validateConditionalFunctions(inputSchema, conf.getAggregates(), collector);
   }
@@ -240,11 +269,28 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
     }
   }
 
+  private void validateArguments(GroupByConfig.FunctionInfo functionInfo, Schema.Field inputField,
+                                 FailureCollector collector, String validationFieldName) {
+    try {
+      functionInfo.getAggregateFunction(inputField.getSchema());
+    } catch (RuntimeException e) {
+      collector.addFailure(e.getMessage(), null).withConfigElement("aggregates", validationFieldName);
+    }
+  }
+
   @Override
   public void prepareRun(BatchAggregatorContext context) throws Exception {
     super.prepareRun(context);
     validate(context.getInputSchema(), conf.getGroupByFields(), conf.getAggregates(), context.getFailureCollector());
+    conf.validateCollectionLimit(context.getFailureCollector());
+    conf.validateGroupingSets(context.getFailureCollector());
     context.getFailureCollector().getOrThrowException();
+    createStateTable(context);
+    if (conf.getStateTableName() != null) {
+      // the tasks of the run and onRunFinish identify the state they write and commit by this id
+      context.getArguments().set(AggregateStateStore.getRunIdArgument(context.getStageName()),
+                                 Long.toString(AggregateStateStore.newRunId()));
+    }
     LinkedList<FieldOperation> fllOperations = new LinkedList<>();
     // in configurePipeline all the necessary checks have been performed already to set output schema
     if (SchemaValidator.canRecordLineage(context.getOutputSchema(), "output")) {
@@ -263,6 +309,43 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
     context.record(fllOperations);
   }
 
+  @Override
+  public void onRunFinish(boolean succeeded, BatchAggregatorContext context) {
+    super.onRunFinish(succeeded, context);
+    String stateTableName = conf.getStateTableName();
+    // the state written by a failed run is ignored by the next runs
+    if (succeeded && stateTableName != null) {
+      KeyValueTable table = context.getDataset(stateTableName);
+      AggregateStateStore.commit(table, AggregateStateStore.getRunId(context.getArguments(), context.getStageName()));
+    }
+  }
+
+  @Nullable
+  private GroupingSets getGroupingSets() {
+    try {
+      return conf.getGroupingSets();
+    } catch (IllegalArgumentException e) {
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+        e.getMessage(), e.getMessage(), ErrorType.USER, false, e);
+    }
+  }
+
+  private void createStateTable(BatchAggregatorContext context) {
+    String stateTableName = conf.getStateTableName();
+    if (stateTableName == null) {
+      return;
+    }
+    try {
+      if (!context.datasetExists(stateTableName)) {
+        context.createDataset(stateTableName, KeyValueTable.class.getName(), DatasetProperties.EMPTY);
+      }
+    } catch (DatasetManagementException e) {
+      String error = String.format("Failed to create the state table '%s': %s", stateTableName, e.getMessage());
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+        error, error, ErrorType.SYSTEM, false, e);
+    }
+  }
+
   private void validateConditionalFunctions(Schema outputSchema, List<GroupByConfig.FunctionInfo> aggregates,
                                             FailureCollector failureCollector) {
     // skip if output schema is null
@@ -323,72 +406,79 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
   public void initialize(BatchRuntimeContext context) throws Exception {
     groupByFields = conf.getGroupByFields();
     functionInfos = conf.getAggregates();
+    runtimeContext = context;
+    collectionLimit = conf.getCollectionLimit();
+    groupingSets = getGroupingSets();
+    plans = new HashMap<>();
     if (context.getInputSchema() != null) {
-      initAggregates(context.getInputSchema());
+      getPlan(context.getInputSchema());
     }
   }
 
   @Override
   public void groupBy(StructuredRecord record, Emitter<StructuredRecord> emitter) {
-    // app should provide some way to make some data calculated in configurePipeline available here.
-    // then we wouldn't have to calculate schema here
-    StructuredRecord.Builder builder = StructuredRecord.builder(getGroupKeySchema(record.getSchema()));
-    for (String groupByField : conf.getGroupByFields()) {
-      builder.set(groupByField, record.get(groupByField));
+    AggregationPlan plan = getPlan(record.getSchema());
+    if (groupingSets != null) {
+      for (int i = 0; i < plan.getNumGroupKeys(); i++) {
+        emitter.emit(plan.getGroupKey(record, i));
+      }
+      return;
     }
-    emitter.emit(builder.build());
+    emitter.emit(plan.getGroupKey(record));
   }
 
   @Override
   public AggregateResult initializeAggregateValue(StructuredRecord record) {
-    Map<String, AggregateFunction> functions = initAggregates(record.getSchema());
-    functions.values().forEach(AggregateFunction::initialize);
+    AggregationPlan plan = getPlan(record.getSchema());
+    AggregateFunction[] functions = plan.newAggregates();
     updateAggregates(functions, record);
-    return new AggregateResult(record.getSchema(), functions);
+    return new AggregateResult(plan.getInputSchema(), functions);
   }
 
   @Override
   public AggregateResult mergeValues(AggregateResult agg, StructuredRecord record) {
-    updateAggregates(agg.getFunctions(), record);
+    updateAggregates(agg.getFunctions(getPlan(agg.getInputSchema())), record);
     return agg;
   }
 
   @Override
   public AggregateResult mergePartitions(AggregateResult agg1, AggregateResult agg2) {
-    mergeAggregates(agg1.getFunctions(), agg2.getFunctions());
+    AggregationPlan plan = getPlan(agg1.getInputSchema());
+    mergeAggregates(agg1.getFunctions(plan), agg2.getFunctions(getPlan(agg2.getInputSchema())));
     return agg1;
   }
 
   @Override
   public void finalize(StructuredRecord groupKey, AggregateResult aggValue,
                        Emitter<StructuredRecord> emitter) {
-    initAggregates(aggValue.getInputSchema());
-    StructuredRecord.Builder builder = StructuredRecord.builder(outputSchema);
-    for (String groupByField : groupByFields) {
-      builder.set(groupByField, groupKey.get(groupByField));
+    AggregationPlan plan = getPlan(aggValue.getInputSchema());
+    if (conf.getStateTableName() == null) {
+      emitter.emit(plan.buildOutput(groupKey, aggValue.getFunctions(plan)));
+      return;
     }
+    // merge the result of the group into the state persisted by the previous runs
+    AggregateStateStore.GroupState state = getStateStore().read(groupKey);
+    AggregateResult previous = state.getResult(plan);
+    // the previous runs come first, for the aggregates that depend on the order of the records
+    AggregateResult merged = previous == null ? aggValue : mergePartitions(previous, aggValue);
+    emitter.emit(plan.buildOutput(groupKey, merged.getFunctions(plan)));
+    stateStore.write(state, merged, plan);
+  }
 
-    for (Map.Entry<String, AggregateFunction> aggregateFunction : aggValue.getFunctions().entrySet()) {
-      builder.set(aggregateFunction.getKey(), aggregateFunction.getValue().getAggregate());
+  private AggregateStateStore getStateStore() {
+    if (stateStore == null) {
+      KeyValueTable table = runtimeContext.getDataset(conf.getStateTableName());
+      long runId = AggregateStateStore.getRunId(runtimeContext.getArguments(), runtimeContext.getStageName());
+      stateStore = new AggregateStateStore(table, runId, groupByFields, groupingSets, functionInfos);
     }
-    emitter.emit(builder.build());
+    return stateStore;
   }
 
   private Schema getOutputSchema(Schema inputSchema, List<String> groupByFields,
                                  List<GroupByConfig.FunctionInfo> aggregates) {
     // Check that all the group by fields exist in the input schema,
-    List<Schema.Field> outputFields = new ArrayList<>(groupByFields.size() + aggregates.size());
-    for (String groupByField : groupByFields) {
-      Schema.Field field = inputSchema.getField(groupByField);
-      if (field == null) {
-        String error = String.format(
-          "Cannot group by field '%s' because it does not exist in input schema %s.",
-          groupByField, inputSchema);
-        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
-          error, error, ErrorType.USER, false, null);
-      }
-      outputFields.add(field);
-    }
+    List<Schema.Field> outputFields = new ArrayList<>(groupByFields.size() + aggregates.size() + 1);
+    outputFields.addAll(AggregationPlan.getGroupKeyFields(inputSchema, groupByFields, getGroupingSets()));
 
     // add all the required output field schema depending on the aggregate functions
     for (GroupByConfig.FunctionInfo functionInfo : aggregates) {
@@ -397,15 +487,15 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
     return Schema.recordOf(inputSchema.getRecordName() + ".agg", outputFields);
   }
 
-  private void updateAggregates(Map<String, AggregateFunction> aggregateFunctions, StructuredRecord groupVal) {
-    for (AggregateFunction aggregateFunction : aggregateFunctions.values()) {
+  private void updateAggregates(AggregateFunction[] aggregateFunctions, StructuredRecord groupVal) {
+    for (AggregateFunction aggregateFunction : aggregateFunctions) {
       aggregateFunction.mergeValue(groupVal);
     }
   }
 
-  private void mergeAggregates(Map<String, AggregateFunction> agg1, Map<String, AggregateFunction> agg2) {
-    for (Map.Entry<String, AggregateFunction> aggregateFunction : agg1.entrySet()) {
-      aggregateFunction.getValue().mergeAggregates(agg2.get(aggregateFunction.getKey()));
+  private void mergeAggregates(AggregateFunction[] agg1, AggregateFunction[] agg2) {
+    for (int i = 0; i < agg1.length; i++) {
+      agg1[i].mergeAggregates(agg2[i]);
     }
   }
 
@@ -428,38 +518,20 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
     return Schema.Field.of(functionInfo.getName(), aggregateFunction.getOutputSchema());
   }
 
-  private Map<String, AggregateFunction> initAggregates(Schema valueSchema) {
-    List<Schema.Field> outputFields = new ArrayList<>(groupByFields.size() + functionInfos.size());
-    for (String groupByField : groupByFields) {
-      outputFields.add(valueSchema.getField(groupByField));
-    }
-
-    Map<String, AggregateFunction> functions = new HashMap<>();
-    for (GroupByConfig.FunctionInfo functionInfo : functionInfos) {
-      Schema.Field inputField = valueSchema.getField(functionInfo.getField());
-      Schema fieldSchema = inputField == null ? null : inputField.getSchema();
-      AggregateFunction aggregateFunction = functionInfo.getAggregateFunction(fieldSchema);
-      outputFields.add(Schema.Field.of(functionInfo.getName(), aggregateFunction.getOutputSchema()));
-      functions.put(functionInfo.getName(), aggregateFunction);
+  /**
+   * Returns the aggregation plan for the given input schema, compiling it the first time the schema is seen.
+   */
+  private AggregationPlan getPlan(Schema inputSchema) {
+    if (lastPlan != null && lastPlan.getInputSchema() == inputSchema) {
+      return lastPlan;
     }
-    outputSchema = Schema.recordOf(valueSchema.getRecordName() + ".agg", outputFields);
-    return functions;
-  }
-
-  private Schema getGroupKeySchema(Schema inputSchema) {
-    List<Schema.Field> fields = new ArrayList<>();
-    for (String groupByField : conf.getGroupByFields()) {
-      Schema.Field fieldSchema = inputSchema.getField(groupByField);
-      if (fieldSchema == null) {
-        String error = String.format(
-          "Cannot group by field '%s' because it does not exist in input schema %s",
-          groupByField, inputSchema);
-        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
-          error, error, ErrorType.USER, false, null);
-      }
-      fields.add(fieldSchema);
+    AggregationPlan plan = plans.get(inputSchema);
+    if (plan == null) {
+      plan = AggregationPlan.compile(inputSchema, groupByFields, functionInfos, collectionLimit, groupingSets);
+      plans.put(inputSchema, plan);
     }
-    return Schema.recordOf("group.key.schema", fields);
+    lastPlan = plan;
+    return plan;
   }
 
   @Override
@@ -489,12 +561,22 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
    * @return true if all aggregations have SQL representation, false if not.
    */
   private boolean areAllAggregatesSupportedInRelationalTransform() {
+    // aggregates computed in SQL cannot be merged with the persisted state
+    if (conf.getStateTableName() != null) {
+      return false;
+    }
+    boolean collectionLimited = conf.getCollectionLimit().isBounded();
     for (GroupByConfig.FunctionInfo aggregate : conf.getAggregates()) {
       GroupByConfig.Function func = aggregate.getFunction();
       // If the function is not supported in ANSI SQL or BigQuery, this relation is not supported by this engine.
       if (!functionSqlMap.containsKey(func) && !functionBQSqlMap.containsKey(func)) {
         return false;
       }
+      // SQL aggregates do not apply the collection limit
+      if (collectionLimited && (func == GroupByConfig.Function.COLLECTLIST || func == GroupByConfig.Function.COLLECTSET
+        || func == GroupByConfig.Function.CONCAT || func == GroupByConfig.Function.CONCATDISTINCT)) {
+        return false;
+      }
     }
 
     return true;
@@ -510,7 +592,8 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
    */
   private Optional<ExpressionFactory<String>> getExpressionFactory(RelationalTranformContext ctx) {
     List<GroupByConfig.FunctionInfo> functionInfos = conf.getAggregates();
-    boolean requiresBigQueryCapability = false;
+    // the GROUPING function is not part of ANSI SQL
+    boolean requiresBigQueryCapability = getGroupingSets() != null;
 
     for (GroupByConfig.FunctionInfo aggregate : functionInfos) {
       GroupByConfig.Function func = aggregate.getFunction();
@@ -539,13 +622,23 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
     List<Expression> groupByExpressions = new ArrayList<>(groupByFields.size());
     Map<String, Expression> selectExpressions = new HashMap<>();
 
+    List<String> groupByColumns = new ArrayList<>(groupByFields.size());
     for (String field : groupByFields) {
       String columnName = getColumnName(expressionFactory, relation, field);
       Expression groupByExpression = expressionFactory.compile(columnName);
+      groupByColumns.add(columnName);
       groupByExpressions.add(groupByExpression);
       selectExpressions.put(field, groupByExpression);
     }
 
+    GroupingSets groupingSets = getGroupingSets();
+    if (groupingSets != null) {
+      groupByExpressions = Collections.singletonList(
+        expressionFactory.compile(groupingSets.getGroupBySql(groupByColumns)));
+      selectExpressions.put(groupingSets.getGroupingIdField(),
+                            expressionFactory.compile(groupingSets.getGroupingIdSql(groupByColumns)));
+    }
+
     for (GroupByConfig.FunctionInfo aggregate : functionInfos) {
       String alias = aggregate.getName();
       String columnName = getColumnName(expressionFactory, relation, aggregate.getField());
@@ -26,18 +26,23 @@ import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.exception.ErrorCategory;
 import io.cdap.cdap.api.exception.ErrorType;
 import io.cdap.cdap.api.exception.ErrorUtils;
+import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
 import io.cdap.plugin.batch.aggregator.function.AnyIf;
+import io.cdap.plugin.batch.aggregator.function.ApproxCountDistinct;
+import io.cdap.plugin.batch.aggregator.function.ApproxCountDistinctIf;
 import io.cdap.plugin.batch.aggregator.function.Avg;
 import io.cdap.plugin.batch.aggregator.function.AvgIf;
 import io.cdap.plugin.batch.aggregator.function.CollectList;
 import io.cdap.plugin.batch.aggregator.function.CollectListIf;
 import io.cdap.plugin.batch.aggregator.function.CollectSet;
 import io.cdap.plugin.batch.aggregator.function.CollectSetIf;
+import io.cdap.plugin.batch.aggregator.function.CollectionLimit;
 import io.cdap.plugin.batch.aggregator.function.Concat;
 import io.cdap.plugin.batch.aggregator.function.ConcatDistinct;
 import io.cdap.plugin.batch.aggregator.function.ConcatDistinctIf;
 import io.cdap.plugin.batch.aggregator.function.ConcatIf;
+import io.cdap.plugin.batch.aggregator.function.Condition;
 import io.cdap.plugin.batch.aggregator.function.CorrectedSumOfSquares;
 import io.cdap.plugin.batch.aggregator.function.CorrectedSumOfSquaresIf;
 import io.cdap.plugin.batch.aggregator.function.Count;
@@ -47,6 +52,7 @@ import io.cdap.plugin.batch.aggregator.function.CountDistinctIf;
 import io.cdap.plugin.batch.aggregator.function.CountIf;
 import io.cdap.plugin.batch.aggregator.function.CountNulls;
 import io.cdap.plugin.batch.aggregator.function.First;
+import io.cdap.plugin.batch.aggregator.function.HyperLogLog;
 import io.cdap.plugin.batch.aggregator.function.JexlCondition;
 import io.cdap.plugin.batch.aggregator.function.Last;
 import io.cdap.plugin.batch.aggregator.function.LogicalAnd;
@@ -59,6 +65,9 @@ import io.cdap.plugin.batch.aggregator.function.Max;
 import io.cdap.plugin.batch.aggregator.function.MaxIf;
 import io.cdap.plugin.batch.aggregator.function.Min;
 import io.cdap.plugin.batch.aggregator.function.MinIf;
+import io.cdap.plugin.batch.aggregator.function.Percentile;
+import io.cdap.plugin.batch.aggregator.function.PercentileIf;
+import io.cdap.plugin.batch.aggregator.function.QuantileSketch;
 import io.cdap.plugin.batch.aggregator.function.ShortestString;
 import io.cdap.plugin.batch.aggregator.function.ShortestStringIf;
 import io.cdap.plugin.batch.aggregator.function.Stddev;
@@ -67,19 +76,30 @@ import io.cdap.plugin.batch.aggregator.function.Sum;
 import io.cdap.plugin.batch.aggregator.function.SumIf;
 import io.cdap.plugin.batch.aggregator.function.SumOfSquares;
 import io.cdap.plugin.batch.aggregator.function.SumOfSquaresIf;
+import io.cdap.plugin.batch.aggregator.function.TopK;
+import io.cdap.plugin.batch.aggregator.function.TopKIf;
 import io.cdap.plugin.batch.aggregator.function.Variance;
 import io.cdap.plugin.batch.aggregator.function.VarianceIf;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import javax.annotation.Nullable;
 
 /**
  * Config for group by types of plugins.
  */
 public class GroupByConfig extends AggregatorConfig {
+  public static final String MAX_COLLECTION_SIZE = "maxCollectionSize";
+  public static final String MAX_COLLECTION_BYTES = "maxCollectionBytes";
+  public static final String COLLECTION_OVERFLOW = "collectionOverflow";
+  public static final String STATE_TABLE_NAME = "stateTableName";
+  public static final String GROUPING_SETS = "groupingSets";
+  public static final String GROUPING_ID_FIELD = "groupingIdField";
+  private static final String DEFAULT_GROUPING_ID_FIELD = "groupingId";
 
   @Macro
   @Description("Aggregates to compute on grouped records. " +
@@ -99,15 +119,186 @@ public class GroupByConfig extends AggregatorConfig {
     "output records will have a 'user' field and 'numActions' field.")
   private final String groupByFields;
 
+  @Macro
+  @Nullable
+  @Description("Maximum number of values that the collectList, collectSet, concat and concatDistinct aggregates " +
+    "hold in memory for a group. If not specified, the number of values is not limited.")
+  private final Integer maxCollectionSize;
+
+  @Macro
+  @Nullable
+  @Description("Maximum estimated size in bytes of the values that the collectList, collectSet, concat and " +
+    "concatDistinct aggregates hold in memory for a group. If not specified, the size is not limited.")
+  private final Long maxCollectionBytes;
+
+  @Macro
+  @Nullable
+  @Description("What to do with the values of a group beyond the collection limits. 'first' keeps the first " +
+    "values, 'sample' keeps a uniform random sample of the values, 'fail' fails the pipeline, and 'spill' writes " +
+    "the values beyond the limits to local disk and reads them back when the group is output. Spilled values are " +
+    "written to the local directories of the container, from the SPARK_LOCAL_DIRS or LOCAL_DIRS environment " +
+    "variables, or to the java.io.tmpdir directory when neither is set, which must then have enough space. " +
+    "Defaults to 'first'.")
+  private final String collectionOverflow;
+
+  @Macro
+  @Nullable
+  @Description("Name of a key value table that persists the aggregate state of every group across runs. When set, " +
+    "the records of a run are merged into the state of the previous runs, the updated state is written back, and " +
+    "only the groups that received records in the run are output, with their aggregates over all runs. The state " +
+    "written by a run only becomes current when the run succeeds. " +
+    "If not specified, every run only aggregates its own input.")
+  private final String stateTableName;
+
+  @Macro
+  @Nullable
+  @Description("Subsets of the group by fields to aggregate the records by, in a single pass over the records. " +
+    "Either 'rollup', 'cube', or a list of sets separated by semicolons, where each set is a comma separated list of " +
+    "group by fields and '()' is the grand total. For example, 'country,city;country;()' is the same as 'rollup' " +
+    "when grouping by 'country,city'. The group by fields that are not in a set are null in the output records of " +
+    "the set. If not specified, the records are only aggregated by all the group by fields.")
+  private final String groupingSets;
+
+  @Macro
+  @Nullable
+  @Description("Name of the output field that identifies the grouping set of an output record when grouping sets " +
+    "are specified. It has one bit per group by field, the first field being the most significant bit, which is " +
+    "set if the field is not in the grouping set. Defaults to 'groupingId'.")
+  private final String groupingIdField;
+
   public GroupByConfig() {
     this.groupByFields = "";
     this.aggregates = "";
+    this.maxCollectionSize = null;
+    this.maxCollectionBytes = null;
+    this.collectionOverflow = null;
+    this.stateTableName = null;
+    this.groupingSets = null;
+    this.groupingIdField = null;
   }
 
   @VisibleForTesting
   GroupByConfig(String groupByFields, String aggregates) {
+    this(groupByFields, aggregates, null, null, null);
+  }
+
+  @VisibleForTesting
+  GroupByConfig(String groupByFields, String aggregates, @Nullable String groupingSets,
+                @Nullable String groupingIdField) {
+    this(groupByFields, aggregates, null, null, null, groupingSets, groupingIdField);
+  }
+
+  @VisibleForTesting
+  GroupByConfig(String groupByFields, String aggregates, @Nullable Integer maxCollectionSize,
+                @Nullable Long maxCollectionBytes, @Nullable String collectionOverflow) {
+    this(groupByFields, aggregates, maxCollectionSize, maxCollectionBytes, collectionOverflow, null, null);
+  }
+
+  private GroupByConfig(String groupByFields, String aggregates, @Nullable Integer maxCollectionSize,
+                        @Nullable Long maxCollectionBytes, @Nullable String collectionOverflow,
+                        @Nullable String groupingSets, @Nullable String groupingIdField) {
     this.groupByFields = groupByFields;
     this.aggregates = aggregates;
+    this.maxCollectionSize = maxCollectionSize;
+    this.maxCollectionBytes = maxCollectionBytes;
+    this.collectionOverflow = collectionOverflow;
+    this.stateTableName = null;
+    this.groupingSets = groupingSets;
+    this.groupingIdField = groupingIdField;
+  }
+
+  /**
+   * @return the name of the table that persists the aggregate state across runs, or null if aggregation is not
+   *   incremental
+   */
+  @Nullable
+  String getStateTableName() {
+    return Strings.isNullOrEmpty(stateTableName) ? null : stateTableName;
+  }
+
+  /**
+   * Validates the grouping sets properties.
+   */
+  void validateGroupingSets(FailureCollector collector) {
+    if (containsMacro(GROUPING_SETS) || containsMacro(GROUPING_ID_FIELD) || containsMacro("groupByFields")) {
+      return;
+    }
+    GroupingSets sets;
+    try {
+      sets = getGroupingSets();
+    } catch (IllegalArgumentException e) {
+      collector.addFailure(e.getMessage(), null).withConfigProperty(GROUPING_SETS);
+      return;
+    }
+    if (sets == null || containsMacro("aggregates")) {
+      return;
+    }
+    for (FunctionInfo functionInfo : getAggregates()) {
+      if (functionInfo.getName().equals(sets.getGroupingIdField())) {
+        collector.addFailure(String.format("The grouping id field '%s' cannot be the name of an aggregate.",
+                                           sets.getGroupingIdField()), "Use a different grouping id field.")
+          .withConfigProperty(GROUPING_ID_FIELD);
+      }
+    }
+  }
+
+  /**
+   * @return the grouping sets, or null if the records are only grouped by all the group by fields
+   * @throws IllegalArgumentException if the grouping sets are invalid
+   */
+  @Nullable
+  GroupingSets getGroupingSets() {
+    if (Strings.isNullOrEmpty(groupingSets)) {
+      return null;
+    }
+    return GroupingSets.parse(groupingSets, getGroupByFields(),
+                              Strings.isNullOrEmpty(groupingIdField) ? DEFAULT_GROUPING_ID_FIELD : groupingIdField);
+  }
+
+  /**
+   * Validates the collection limit properties.
+   */
+  void validateCollectionLimit(FailureCollector collector) {
+    if (!containsMacro(MAX_COLLECTION_SIZE) && maxCollectionSize != null && maxCollectionSize <= 0) {
+      collector.addFailure("Maximum collection size must be a positive number.", null)
+        .withConfigProperty(MAX_COLLECTION_SIZE);
+    }
+    if (!containsMacro(MAX_COLLECTION_BYTES) && maxCollectionBytes != null && maxCollectionBytes <= 0L) {
+      collector.addFailure("Maximum collection bytes must be a positive number.", null)
+        .withConfigProperty(MAX_COLLECTION_BYTES);
+    }
+    if (!containsMacro(COLLECTION_OVERFLOW) && getCollectionOverflow() == null) {
+      collector.addFailure(String.format("Invalid collection overflow '%s'.", collectionOverflow),
+                           "Set it to 'first', 'sample', 'fail' or 'spill'.")
+        .withConfigProperty(COLLECTION_OVERFLOW);
+    }
+  }
+
+  /**
+   * @return the limit on the values held in memory by collecting aggregates for a group
+   */
+  CollectionLimit getCollectionLimit() {
+    CollectionLimit.Overflow overflow = getCollectionOverflow();
+    if (overflow == null) {
+      String error = String.format("Invalid collection overflow '%s'. It must be 'first', 'sample', 'fail' or " +
+                                     "'spill'.", collectionOverflow);
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+        error, error, ErrorType.USER, false, null);
+    }
+    return new CollectionLimit(maxCollectionSize == null ? 0 : maxCollectionSize,
+                               maxCollectionBytes == null ? 0L : maxCollectionBytes, overflow);
+  }
+
+  @Nullable
+  private CollectionLimit.Overflow getCollectionOverflow() {
+    if (Strings.isNullOrEmpty(collectionOverflow)) {
+      return CollectionLimit.Overflow.FIRST;
+    }
+    try {
+      return CollectionLimit.Overflow.valueOf(collectionOverflow.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
   }
 
   /**
@@ -140,7 +331,7 @@ public class GroupByConfig extends AggregatorConfig {
       return functionInfos;
     }
     Set<String> aggregateNames = new HashSet<>();
-    for (String aggregate : Splitter.on(',').trimResults().split(aggregates)) {
+    for (String aggregate : splitAggregates(aggregates)) {
       int colonIdx = aggregate.indexOf(':');
       if (colonIdx < 0) {
         String error = String.format(
@@ -189,13 +380,33 @@ public class GroupByConfig extends AggregatorConfig {
       int conditionIndex = functionAndField.toLowerCase().indexOf("condition(");
       // check if condition involved extract substring up to condition otherwise extract up to length of string
       int fieldEndIndex = (conditionIndex == -1) ? functionAndField.length() - 1 : conditionIndex - 2;
-      String field = functionAndField.substring(leftParanIdx + 1, fieldEndIndex).trim();
+      List<String> fieldAndArguments = new ArrayList<>();
+      for (String part : Splitter.on(',').trimResults().split(
+        functionAndField.substring(leftParanIdx + 1, fieldEndIndex))) {
+        fieldAndArguments.add(part);
+      }
+      String field = fieldAndArguments.get(0);
+      List<String> arguments = fieldAndArguments.subList(1, fieldAndArguments.size());
       if (field.isEmpty()) {
         String error = String.format(
           "Invalid function '%s'. A field must be given as an argument.", functionAndField);
         throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
           error, error, ErrorType.USER, false, null);
       }
+      if (arguments.size() < function.getMinArguments()) {
+        String error = String.format(
+          "Invalid function '%s'. Function '%s' takes at least %d argument(s) after the field.",
+          functionAndField, functionStr, function.getMinArguments());
+        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+          error, error, ErrorType.USER, false, null);
+      }
+      if (arguments.size() > function.getMaxArguments()) {
+        String error = String.format(
+          "Invalid function '%s'. Function '%s' takes at most %d argument(s) after the field.",
+          functionAndField, functionStr, function.getMaxArguments());
+        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+          error, error, ErrorType.USER, false, null);
+      }
       if (conditionIndex == -1 && function.isConditional()) {
         String error = "Missing 'condition' property for conditional function.";
         throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
@@ -215,7 +426,7 @@ public class GroupByConfig extends AggregatorConfig {
         }
         functionCondition = functionCondition.trim();
       }
-      functionInfos.add(new FunctionInfo(name, field, function, functionCondition));
+      functionInfos.add(new FunctionInfo(name, field, function, functionCondition, arguments));
     }
 
     if (functionInfos.isEmpty()) {
@@ -226,6 +437,36 @@ public class GroupByConfig extends AggregatorConfig {
     return functionInfos;
   }
 
+  /**
+   * Splits the aggregates on the commas that are not within parentheses or quotes, so that functions can take
+   * arguments and conditions can contain commas.
+   */
+  private static List<String> splitAggregates(String aggregates) {
+    List<String> result = new ArrayList<>();
+    int depth = 0;
+    char quote = 0;
+    int start = 0;
+    for (int i = 0; i < aggregates.length(); i++) {
+      char c = aggregates.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (c == ',' && depth == 0) {
+        result.add(aggregates.substring(start, i).trim());
+        start = i + 1;
+      }
+    }
+    result.add(aggregates.substring(start).trim());
+    return result;
+  }
+
   /**
    * Class to hold information for an aggregate function.
    */
@@ -234,19 +475,22 @@ public class GroupByConfig extends AggregatorConfig {
     private final String field;
     private final Function function;
     private final String condition;
+    private final List<String> arguments;
 
-    FunctionInfo(String name, String field, Function function, String condition) {
+    FunctionInfo(String name, String field, Function function, String condition, List<String> arguments) {
       this.name = name;
       this.field = field;
       this.function = function;
       this.condition = condition;
+      this.arguments = Collections.unmodifiableList(new ArrayList<>(arguments));
+    }
+
+    FunctionInfo(String name, String field, Function function, String condition) {
+      this(name, field, function, condition, Collections.emptyList());
     }
 
     FunctionInfo(String name, String field, Function function) {
-      this.name = name;
-      this.field = field;
-      this.function = function;
-      this.condition = null;
+      this(name, field, function, null);
     }
 
     public String getName() {
@@ -265,7 +509,88 @@ public class GroupByConfig extends AggregatorConfig {
       return condition;
     }
 
+    /**
+     * @return the arguments given to the function after the field
+     */
+    public List<String> getArguments() {
+      return arguments;
+    }
+
+    /**
+     * Returns an integer argument of the function.
+     *
+     * @param index index of the argument, after the field
+     * @param defaultValue value to return if the argument is not given
+     * @param min minimum allowed value
+     * @param max maximum allowed value
+     * @return the argument value
+     */
+    int getIntArgument(int index, int defaultValue, int min, int max) {
+      if (index >= arguments.size()) {
+        return defaultValue;
+      }
+      String argument = arguments.get(index);
+      int value;
+      try {
+        value = Integer.parseInt(argument);
+      } catch (NumberFormatException e) {
+        value = Integer.MIN_VALUE;
+      }
+      if (value < min || value > max) {
+        String error = String.format("Invalid argument '%s' for function '%s' of aggregate '%s'. " +
+                                       "It must be an integer between %d and %d.",
+                                     argument, function, name, min, max);
+        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+          error, error, ErrorType.USER, false, null);
+      }
+      return value;
+    }
+
+    /**
+     * Returns a double argument of the function.
+     *
+     * @param index index of the argument, after the field
+     * @param min minimum allowed value
+     * @param max maximum allowed value
+     * @return the argument value
+     */
+    double getDoubleArgument(int index, double min, double max) {
+      String argument = index < arguments.size() ? arguments.get(index) : "";
+      double value;
+      try {
+        value = Double.parseDouble(argument);
+      } catch (NumberFormatException e) {
+        value = Double.NaN;
+      }
+      if (!(value >= min && value <= max)) {
+        String error = String.format("Invalid argument '%s' for function '%s' of aggregate '%s'. " +
+                                       "It must be a number between %s and %s.",
+                                     argument, function, name, min, max);
+        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+          error, error, ErrorType.USER, false, null);
+      }
+      return value;
+    }
+
     public AggregateFunction getAggregateFunction(Schema fieldSchema) {
+      return getAggregateFunction(fieldSchema, condition == null ? null : JexlCondition.of(condition));
+    }
+
+    public AggregateFunction getAggregateFunction(Schema fieldSchema, @Nullable Condition functionCondition) {
+      return getAggregateFunction(fieldSchema, functionCondition, CollectionLimit.UNBOUNDED);
+    }
+
+    /**
+     * Creates the aggregate function using an already compiled condition, so that the condition can be shared by
+     * all the functions created for the same aggregate.
+     *
+     * @param fieldSchema schema of the field to aggregate, or null if the field is not in the input schema
+     * @param functionCondition compiled condition, used by conditional functions only
+     * @param collectionLimit limit on the values held in memory, used by collecting functions only
+     * @return the aggregate function
+     */
+    public AggregateFunction getAggregateFunction(Schema fieldSchema, @Nullable Condition functionCondition,
+                                                  CollectionLimit collectionLimit) {
       switch (function) {
         case COUNT:
           if ("*".equals(field)) {
@@ -273,7 +598,7 @@ public class GroupByConfig extends AggregatorConfig {
           }
           return new Count(field);
         case COUNTDISTINCT:
-          return new CountDistinct(field);
+          return new CountDistinct(field, fieldSchema);
         case SUM:
           return new Sum(field, fieldSchema);
         case AVG:
@@ -291,9 +616,9 @@ public class GroupByConfig extends AggregatorConfig {
         case VARIANCE:
           return new Variance(field, fieldSchema);
         case COLLECTLIST:
-          return new CollectList(field, fieldSchema);
+          return new CollectList(field, fieldSchema, collectionLimit);
         case COLLECTSET:
-          return new CollectSet(field, fieldSchema);
+          return new CollectSet(field, fieldSchema, collectionLimit);
         case LONGESTSTRING:
           return new LongestString(field, fieldSchema);
         case SHORTESTSTRING:
@@ -301,9 +626,9 @@ public class GroupByConfig extends AggregatorConfig {
         case COUNTNULLS:
           return new CountNulls(field);
         case CONCAT:
-          return new Concat(field, fieldSchema);
+          return new Concat(field, fieldSchema, collectionLimit);
         case CONCATDISTINCT:
-          return new ConcatDistinct(field, fieldSchema);
+          return new ConcatDistinct(field, fieldSchema, collectionLimit);
         case LOGICALAND:
           return new LogicalAnd(field, fieldSchema);
         case LOGICALOR:
@@ -312,44 +637,74 @@ public class GroupByConfig extends AggregatorConfig {
           return new CorrectedSumOfSquares(field, fieldSchema);
         case SUMOFSQUARES:
           return new SumOfSquares(field, fieldSchema);
+        case APPROXCOUNTDISTINCT:
+          return new ApproxCountDistinct(field, getIntArgument(0, HyperLogLog.DEFAULT_PRECISION,
+                                                               HyperLogLog.MIN_PRECISION, HyperLogLog.MAX_PRECISION));
+        case PERCENTILE:
+          return new Percentile(field, fieldSchema, getDoubleArgument(0, 0d, 1d),
+                                getIntArgument(1, QuantileSketch.DEFAULT_K, QuantileSketch.MIN_K,
+                                               QuantileSketch.MAX_K));
+        case MEDIAN:
+          return new Percentile(field, fieldSchema, 0.5d,
+                                getIntArgument(0, QuantileSketch.DEFAULT_K, QuantileSketch.MIN_K,
+                                               QuantileSketch.MAX_K));
+        case TOPK:
+          return new TopK(field, fieldSchema, getIntArgument(0, 1, 1, TopK.MAX_K), getTopKCapacity());
         case COUNTIF:
-          return new CountIf(field, JexlCondition.of(condition));
+          return new CountIf(field, functionCondition);
         case COUNTDISTINCTIF:
-          return new CountDistinctIf(field, JexlCondition.of(condition));
+          return new CountDistinctIf(field, fieldSchema, functionCondition);
         case SUMIF:
-          return new SumIf(field, fieldSchema, JexlCondition.of(condition));
+          return new SumIf(field, fieldSchema, functionCondition);
         case AVGIF:
-          return new AvgIf(field, fieldSchema, JexlCondition.of(condition));
+          return new AvgIf(field, fieldSchema, functionCondition);
         case MINIF:
-          return new MinIf(field, fieldSchema, JexlCondition.of(condition));
+          return new MinIf(field, fieldSchema, functionCondition);
         case MAXIF:
-          return new MaxIf(field, fieldSchema, JexlCondition.of(condition));
+          return new MaxIf(field, fieldSchema, functionCondition);
         case STDDEVIF:
-          return new StddevIf(field, fieldSchema, JexlCondition.of(condition));
+          return new StddevIf(field, fieldSchema, functionCondition);
         case VARIANCEIF:
-          return new VarianceIf(field, fieldSchema, JexlCondition.of(condition));
+          return new VarianceIf(field, fieldSchema, functionCondition);
         case COLLECTLISTIF:
-          return new CollectListIf(field, fieldSchema, JexlCondition.of(condition));
+          return new CollectListIf(field, fieldSchema, collectionLimit, functionCondition);
         case COLLECTSETIF:
-          return new CollectSetIf(field, fieldSchema, JexlCondition.of(condition));
+          return new CollectSetIf(field, fieldSchema, collectionLimit, functionCondition);
         case LONGESTSTRINGIF:
-          return new LongestStringIf(field, fieldSchema, JexlCondition.of(condition));
+          return new LongestStringIf(field, fieldSchema, functionCondition);
         case SHORTESTSTRINGIF:
-          return new ShortestStringIf(field, fieldSchema, JexlCondition.of(condition));
+          return new ShortestStringIf(field, fieldSchema, functionCondition);
         case CONCATIF:
-          return new ConcatIf(field, fieldSchema, JexlCondition.of(condition));
+          return new ConcatIf(field, fieldSchema, collectionLimit, functionCondition);
         case CONCATDISTINCTIF:
-          return new ConcatDistinctIf(field, fieldSchema, JexlCondition.of(condition));
+          return new ConcatDistinctIf(field, fieldSchema, collectionLimit, functionCondition);
         case LOGICALANDIF:
-          return new LogicalAndIf(field, fieldSchema, JexlCondition.of(condition));
+          return new LogicalAndIf(field, fieldSchema, functionCondition);
         case LOGICALORIF:
-          return new LogicalOrIf(field, fieldSchema, JexlCondition.of(condition));
+          return new LogicalOrIf(field, fieldSchema, functionCondition);
         case CORRECTEDSUMOFSQUARESIF:
-          return new CorrectedSumOfSquaresIf(field, fieldSchema, JexlCondition.of(condition));
+          return new CorrectedSumOfSquaresIf(field, fieldSchema, functionCondition);
         case SUMOFSQUARESIF:
-          return new SumOfSquaresIf(field, fieldSchema, JexlCondition.of(condition));
+          return new SumOfSquaresIf(field, fieldSchema, functionCondition);
         case ANYIF:
-          return new AnyIf(field, fieldSchema, JexlCondition.of(condition));
+          return new AnyIf(field, fieldSchema, functionCondition);
+        case APPROXCOUNTDISTINCTIF:
+          return new ApproxCountDistinctIf(field, getIntArgument(0, HyperLogLog.DEFAULT_PRECISION,
+                                                                 HyperLogLog.MIN_PRECISION, HyperLogLog.MAX_PRECISION),
+                                           functionCondition);
+        case PERCENTILEIF:
+          return new PercentileIf(field, fieldSchema, getDoubleArgument(0, 0d, 1d),
+                                  getIntArgument(1, QuantileSketch.DEFAULT_K, QuantileSketch.MIN_K,
+                                                 QuantileSketch.MAX_K),
+                                  functionCondition);
+        case MEDIANIF:
+          return new PercentileIf(field, fieldSchema, 0.5d,
+                                  getIntArgument(0, QuantileSketch.DEFAULT_K, QuantileSketch.MIN_K,
+                                                 QuantileSketch.MAX_K),
+                                  functionCondition);
+        case TOPKIF:
+          return new TopKIf(field, fieldSchema, getIntArgument(0, 1, 1, TopK.MAX_K), getTopKCapacity(),
+                            functionCondition);
       }
       // should never happen
       String error = String.format("Failed to fetch Aggregate function for schema %s. Unknown function type %s.",
@@ -358,6 +713,11 @@ public class GroupByConfig extends AggregatorConfig {
         error, error, ErrorType.USER, false, null);
     }
 
+    private int getTopKCapacity() {
+      int k = getIntArgument(0, 1, 1, TopK.MAX_K);
+      return getIntArgument(1, Math.min(k * TopK.CAPACITY_FACTOR, TopK.MAX_CAPACITY), k, TopK.MAX_CAPACITY);
+    }
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
@@ -372,12 +732,13 @@ public class GroupByConfig extends AggregatorConfig {
       return Objects.equals(name, that.name) &&
         Objects.equals(field, that.field) &&
         Objects.equals(function, that.function) &&
-        Objects.equals(condition, that.condition);
+        Objects.equals(condition, that.condition) &&
+        Objects.equals(arguments, that.arguments);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(name, field, function, condition);
+      return Objects.hash(name, field, function, condition, arguments);
     }
 
     @Override
@@ -387,6 +748,7 @@ public class GroupByConfig extends AggregatorConfig {
         ", field='" + field + '\'' +
         ", function=" + function + '\'' +
         ", condition=" + condition +
+        ", arguments=" + arguments +
         '}';
     }
   }
@@ -418,6 +780,10 @@ public class GroupByConfig extends AggregatorConfig {
     LOGICALOR(FunctionType.NONE),
     CORRECTEDSUMOFSQUARES(FunctionType.NONE),
     SUMOFSQUARES(FunctionType.NONE),
+    APPROXCOUNTDISTINCT(FunctionType.NONE, 1),
+    PERCENTILE(FunctionType.NONE, 1, 2),
+    MEDIAN(FunctionType.NONE, 0, 1),
+    TOPK(FunctionType.NONE, 1, 2),
     COUNTIF(FunctionType.CONDITIONAL),
     COUNTDISTINCTIF(FunctionType.CONDITIONAL),
     SUMIF(FunctionType.CONDITIONAL),
@@ -436,16 +802,46 @@ public class GroupByConfig extends AggregatorConfig {
     LOGICALORIF(FunctionType.CONDITIONAL),
     CORRECTEDSUMOFSQUARESIF(FunctionType.CONDITIONAL),
     SUMOFSQUARESIF(FunctionType.CONDITIONAL),
-    ANYIF(FunctionType.CONDITIONAL);
+    ANYIF(FunctionType.CONDITIONAL),
+    APPROXCOUNTDISTINCTIF(FunctionType.CONDITIONAL, 1),
+    PERCENTILEIF(FunctionType.CONDITIONAL, 1, 2),
+    MEDIANIF(FunctionType.CONDITIONAL, 0, 1),
+    TOPKIF(FunctionType.CONDITIONAL, 1, 2);
 
     private final FunctionType type;
+    private final int minArguments;
+    private final int maxArguments;
 
     Function(final FunctionType type) {
+      this(type, 0);
+    }
+
+    Function(final FunctionType type, int maxArguments) {
+      this(type, 0, maxArguments);
+    }
+
+    Function(final FunctionType type, int minArguments, int maxArguments) {
       this.type = type;
+      this.minArguments = minArguments;
+      this.maxArguments = maxArguments;
     }
 
     public boolean isConditional() {
       return this.type == FunctionType.CONDITIONAL;
     }
+
+    /**
+     * @return the minimum number of arguments the function takes after the field
+     */
+    public int getMinArguments() {
+      return minArguments;
+    }
+
+    /**
+     * @return the maximum number of arguments the function takes after the field
+     */
+    public int getMaxArguments() {
+      return maxArguments;
+    }
   }
 }
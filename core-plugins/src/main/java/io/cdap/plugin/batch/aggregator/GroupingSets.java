@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import com.google.common.base.Splitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Grouping sets of a {@link GroupByAggregator}, which aggregates the records for several subsets of the group by
+ * fields in a single pass.
+ *
+ * The grouping sets are either 'rollup', 'cube', or a list of sets separated by semicolons, where each set is a comma
+ * separated list of group by fields and '()' is the empty set. The group by fields that are not in a grouping set are
+ * null in the output records of that set. The grouping id of a set identifies it like the SQL GROUPING_ID function:
+ * it has one bit per group by field, the first field being the most significant bit, which is set if the field is not
+ * in the set.
+ */
+final class GroupingSets {
+  static final String ROLLUP = "rollup";
+  static final String CUBE = "cube";
+  // each set is output with a separate group key for every record, so the number of sets must stay small
+  static final int MAX_GROUPING_SETS = 4096;
+  // the grouping id has one bit per group by field
+  static final int MAX_FIELDS = 62;
+
+  private final String type;
+  private final List<String> groupByFields;
+  private final String groupingIdField;
+  private final boolean[][] sets;
+
+  private GroupingSets(String type, List<String> groupByFields, String groupingIdField, boolean[][] sets) {
+    this.type = type;
+    this.groupByFields = groupByFields;
+    this.groupingIdField = groupingIdField;
+    this.sets = sets;
+  }
+
+  /**
+   * Parses grouping sets.
+   *
+   * @param spec the grouping sets
+   * @param groupByFields the group by fields
+   * @param groupingIdField name of the output field that holds the grouping id
+   * @return the parsed grouping sets
+   * @throws IllegalArgumentException if the grouping sets are invalid
+   */
+  static GroupingSets parse(String spec, List<String> groupByFields, String groupingIdField) {
+    if (groupByFields.size() > MAX_FIELDS) {
+      throw new IllegalArgumentException(String.format(
+        "Grouping sets cannot be used with more than %d group by fields.", MAX_FIELDS));
+    }
+    if (groupByFields.contains(groupingIdField)) {
+      throw new IllegalArgumentException(String.format(
+        "The grouping id field '%s' cannot be a group by field.", groupingIdField));
+    }
+    int numFields = groupByFields.size();
+    String trimmed = spec.trim();
+    if (ROLLUP.equalsIgnoreCase(trimmed)) {
+      boolean[][] sets = new boolean[numFields + 1][numFields];
+      for (int i = 0; i <= numFields; i++) {
+        Arrays.fill(sets[i], 0, numFields - i, true);
+      }
+      return new GroupingSets(ROLLUP, groupByFields, groupingIdField, sets);
+    }
+    if (CUBE.equalsIgnoreCase(trimmed)) {
+      if (numFields >= 31 || 1 << numFields > MAX_GROUPING_SETS) {
+        throw new IllegalArgumentException(String.format(
+          "Cube of %d group by fields has more than the maximum of %d grouping sets.", numFields, MAX_GROUPING_SETS));
+      }
+      boolean[][] sets = new boolean[1 << numFields][numFields];
+      for (int i = 0; i < sets.length; i++) {
+        // the grouping id of each set is its index
+        for (int j = 0; j < numFields; j++) {
+          sets[i][j] = (i & (1 << (numFields - 1 - j))) == 0;
+        }
+      }
+      return new GroupingSets(CUBE, groupByFields, groupingIdField, sets);
+    }
+
+    List<boolean[]> sets = new ArrayList<>();
+    Set<String> distinctSets = new HashSet<>();
+    for (String set : Splitter.on(';').trimResults().split(trimmed)) {
+      if (set.startsWith("(") && set.endsWith(")")) {
+        set = set.substring(1, set.length() - 1).trim();
+      } else if (set.isEmpty()) {
+        throw new IllegalArgumentException("Grouping sets cannot be empty, use '()' for the grand total.");
+      }
+      boolean[] fields = new boolean[numFields];
+      if (!set.isEmpty()) {
+        for (String field : Splitter.on(',').trimResults().split(set)) {
+          int index = groupByFields.indexOf(field);
+          if (index < 0) {
+            throw new IllegalArgumentException(String.format(
+              "Grouping set field '%s' is not a group by field.", field));
+          }
+          fields[index] = true;
+        }
+      }
+      if (!distinctSets.add(Arrays.toString(fields))) {
+        throw new IllegalArgumentException(String.format("Grouping set '(%s)' is listed more than once.", set));
+      }
+      sets.add(fields);
+    }
+    if (sets.size() > MAX_GROUPING_SETS) {
+      throw new IllegalArgumentException(String.format(
+        "There are more than the maximum of %d grouping sets.", MAX_GROUPING_SETS));
+    }
+    return new GroupingSets(null, groupByFields, groupingIdField, sets.toArray(new boolean[0][]));
+  }
+
+  String getGroupingIdField() {
+    return groupingIdField;
+  }
+
+  int size() {
+    return sets.length;
+  }
+
+  /**
+   * @return whether the group by field at the given index is in the given grouping set
+   */
+  boolean contains(int set, int fieldIndex) {
+    return sets[set][fieldIndex];
+  }
+
+  /**
+   * @return whether the group by field at the given index is in all the grouping sets
+   */
+  boolean isInAllSets(int fieldIndex) {
+    for (boolean[] set : sets) {
+      if (!set[fieldIndex]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  long getGroupingId(int set) {
+    long groupingId = 0L;
+    for (int i = 0; i < groupByFields.size(); i++) {
+      groupingId = groupingId << 1 | (sets[set][i] ? 0L : 1L);
+    }
+    return groupingId;
+  }
+
+  /**
+   * @param columnNames the SQL column names of the group by fields
+   * @return the SQL group by expression of the grouping sets
+   */
+  String getGroupBySql(List<String> columnNames) {
+    if (type != null) {
+      return String.format("%s(%s)", type.toUpperCase(), String.join(", ", columnNames));
+    }
+    List<String> sqlSets = new ArrayList<>(sets.length);
+    for (boolean[] set : sets) {
+      List<String> columns = new ArrayList<>();
+      for (int i = 0; i < set.length; i++) {
+        if (set[i]) {
+          columns.add(columnNames.get(i));
+        }
+      }
+      sqlSets.add("(" + String.join(", ", columns) + ")");
+    }
+    return String.format("GROUPING SETS(%s)", String.join(", ", sqlSets));
+  }
+
+  /**
+   * @param columnNames the SQL column names of the group by fields
+   * @return the SQL expression of the grouping id
+   */
+  String getGroupingIdSql(List<String> columnNames) {
+    List<String> terms = new ArrayList<>(columnNames.size());
+    for (int i = 0; i < columnNames.size(); i++) {
+      int shift = columnNames.size() - 1 - i;
+      terms.add(shift == 0 ? String.format("GROUPING(%s)", columnNames.get(i)) :
+                  String.format("GROUPING(%s) * %d", columnNames.get(i), 1L << shift));
+    }
+    return terms.isEmpty() ? "0" : String.join(" + ", terms);
+  }
+
+  @Override
+  public String toString() {
+    List<String> descriptions = new ArrayList<>(sets.length);
+    for (int i = 0; i < sets.length; i++) {
+      descriptions.add(Long.toString(getGroupingId(i)));
+    }
+    return groupingIdField + ":" + String.join(",", descriptions);
+  }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.exception.ErrorCategory;
+import io.cdap.cdap.api.exception.ErrorType;
+import io.cdap.cdap.api.exception.ErrorUtils;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 128 bit fingerprint of the values of some fields of a record, used as a compact group key by the aggregators that
+ * deduplicate records. The fingerprint is a murmur3 style hash over a canonical encoding of the values, so it is the
+ * same for equal values in any JVM.
+ */
+final class RecordFingerprint {
+  static final Schema SCHEMA = Schema.recordOf("fingerprint",
+                                               Schema.Field.of("high", Schema.of(Schema.Type.LONG)),
+                                               Schema.Field.of("low", Schema.of(Schema.Type.LONG)));
+
+  // type tags of the canonical encoding
+  private static final int NULL = 0;
+  private static final int STRING = 1;
+  private static final int INTEGRAL = 2;
+  private static final int FLOATING = 3;
+  private static final int BOOLEAN = 4;
+  private static final int FALSE = 5;
+  private static final int BYTES = 6;
+  private static final int RECORD = 7;
+  private static final int SEQUENCE = 8;
+  private static final int MAP = 9;
+  private static final int DECIMAL = 10;
+  private static final int OTHER = 11;
+
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private long h1;
+  private long h2;
+  private long length;
+
+  private RecordFingerprint() {
+  }
+
+  /**
+   * @return the fingerprint of the given fields of the record, as a record of the fingerprint {@link #SCHEMA}
+   */
+  static StructuredRecord of(StructuredRecord record, List<String> fields) {
+    RecordFingerprint fingerprint = new RecordFingerprint();
+    for (String field : fields) {
+      fingerprint.add(record.get(field));
+    }
+    return fingerprint.build();
+  }
+
+  /**
+   * @return the fingerprint of all the fields of the record, as a record of the fingerprint {@link #SCHEMA}
+   */
+  static StructuredRecord of(StructuredRecord record) {
+    RecordFingerprint fingerprint = new RecordFingerprint();
+    fingerprint.addRecord(record);
+    return fingerprint.build();
+  }
+
+  /**
+   * Checks that the given fields of two records that have the same fingerprint are equal. Fingerprints of different
+   * values are equal with a negligible probability, but the records are compared anyway so that a collision fails
+   * the pipeline instead of silently merging different groups. Values are compared in the same canonical form as they
+   * are fingerprinted, so that equal values of different Java types, such as an int and a long, or a list and an
+   * array, are equal.
+   */
+  static void verify(StructuredRecord record1, StructuredRecord record2, List<String> fields) {
+    for (String field : fields) {
+      verify(record1, record2, field);
+    }
+  }
+
+  /**
+   * Checks that all the fields of two records that have the same fingerprint are equal.
+   */
+  static void verify(StructuredRecord record1, StructuredRecord record2) {
+    for (Schema.Field field : record1.getSchema().getFields()) {
+      verify(record1, record2, field.getName());
+    }
+  }
+
+  private static void verify(StructuredRecord record1, StructuredRecord record2, String field) {
+    if (!valueEquals(record1.get(field), record2.get(field))) {
+      String error = String.format("Records with different values for field '%s' have the same fingerprint. " +
+                                     "Disable fingerprint keys to process this data.", field);
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+        error, error, ErrorType.USER, false, null);
+    }
+  }
+
+  /**
+   * Returns whether two values have the same canonical encoding, which is whether they are equal once numbers,
+   * bytes, arrays and collections are compared regardless of their Java type.
+   */
+  private static boolean valueEquals(Object value1, Object value2) {
+    int kind = kind(value1);
+    if (kind != kind(value2)) {
+      return false;
+    }
+    switch (kind) {
+      case NULL:
+        return true;
+      case INTEGRAL:
+        return ((Number) value1).longValue() == ((Number) value2).longValue();
+      case FLOATING:
+        return Double.doubleToLongBits(((Number) value1).doubleValue()) ==
+          Double.doubleToLongBits(((Number) value2).doubleValue());
+      case BYTES:
+        return toByteBuffer(value1).equals(toByteBuffer(value2));
+      case RECORD:
+        return recordEquals((StructuredRecord) value1, (StructuredRecord) value2);
+      case SEQUENCE:
+        return sequenceEquals(toList(value1), toList(value2));
+      case MAP:
+        return mapEquals((Map<?, ?>) value1, (Map<?, ?>) value2);
+      case OTHER:
+        return value1.toString().equals(value2.toString());
+      default:
+        return value1.equals(value2);
+    }
+  }
+
+  private static boolean recordEquals(StructuredRecord record1, StructuredRecord record2) {
+    List<Schema.Field> fields1 = record1.getSchema().getFields();
+    List<Schema.Field> fields2 = record2.getSchema().getFields();
+    int size = fields1 == null ? 0 : fields1.size();
+    if (size != (fields2 == null ? 0 : fields2.size())) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (!valueEquals(record1.get(fields1.get(i).getName()), record2.get(fields2.get(i).getName()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean sequenceEquals(List<?> list1, List<?> list2) {
+    if (list1.size() != list2.size()) {
+      return false;
+    }
+    Iterator<?> iterator2 = list2.iterator();
+    for (Object element : list1) {
+      if (!valueEquals(element, iterator2.next())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean mapEquals(Map<?, ?> map1, Map<?, ?> map2) {
+    if (map1.size() != map2.size()) {
+      return false;
+    }
+    for (Map.Entry<?, ?> entry : map1.entrySet()) {
+      // keys of the same canonical value may be of different types, in which case the map cannot look them up
+      Object value2 = map2.get(entry.getKey());
+      if (value2 != null && valueEquals(entry.getValue(), value2)) {
+        continue;
+      }
+      boolean found = false;
+      for (Map.Entry<?, ?> entry2 : map2.entrySet()) {
+        if (valueEquals(entry.getKey(), entry2.getKey()) && valueEquals(entry.getValue(), entry2.getValue())) {
+          found = true;
+          break;
+        }
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static ByteBuffer toByteBuffer(Object value) {
+    return value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : ((ByteBuffer) value).duplicate();
+  }
+
+  private static List<?> toList(Object value) {
+    if (value instanceof List) {
+      return (List<?>) value;
+    }
+    if (value instanceof Collection) {
+      return new ArrayList<>((Collection<?>) value);
+    }
+    int size = Array.getLength(value);
+    List<Object> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(Array.get(value, i));
+    }
+    return list;
+  }
+
+  /**
+   * Returns the kind of a value in the canonical encoding, which is also its type tag in the encoding.
+   */
+  private static int kind(Object value) {
+    if (value == null) {
+      return NULL;
+    } else if (value instanceof String) {
+      return STRING;
+    } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+      || value instanceof Byte) {
+      return INTEGRAL;
+    } else if (value instanceof Float || value instanceof Double) {
+      return FLOATING;
+    } else if (value instanceof Boolean) {
+      return BOOLEAN;
+    } else if (value instanceof byte[] || value instanceof ByteBuffer) {
+      return BYTES;
+    } else if (value instanceof StructuredRecord) {
+      return RECORD;
+    } else if (value instanceof Collection) {
+      return SEQUENCE;
+    } else if (value instanceof Map) {
+      return MAP;
+    } else if (value instanceof BigDecimal) {
+      return DECIMAL;
+    } else if (value.getClass().isArray()) {
+      return SEQUENCE;
+    }
+    return OTHER;
+  }
+
+  private StructuredRecord build() {
+    long k1 = h1 ^ length;
+    long k2 = h2 ^ length;
+    k1 += k2;
+    k2 += k1;
+    k1 = fmix(k1);
+    k2 = fmix(k2);
+    k1 += k2;
+    k2 += k1;
+    return StructuredRecord.builder(SCHEMA).set("high", k1).set("low", k2).build();
+  }
+
+  private void addRecord(StructuredRecord record) {
+    List<Schema.Field> fields = record.getSchema().getFields();
+    addLong(fields == null ? 0 : fields.size());
+    if (fields != null) {
+      for (Schema.Field field : fields) {
+        add(record.get(field.getName()));
+      }
+    }
+  }
+
+  /**
+   * Adds a value with a type tag, so that values of different types or structures are encoded differently.
+   */
+  private void add(Object value) {
+    switch (kind(value)) {
+      case NULL:
+        addLong(NULL);
+        return;
+      case STRING:
+        String str = (String) value;
+        addLong(STRING);
+        addLong(str.length());
+        for (int i = 0; i < str.length(); i += 4) {
+          long word = 0L;
+          for (int j = i; j < Math.min(i + 4, str.length()); j++) {
+            word = (word << 16) | str.charAt(j);
+          }
+          addLong(word);
+        }
+        return;
+      case INTEGRAL:
+        addLong(INTEGRAL);
+        addLong(((Number) value).longValue());
+        return;
+      case FLOATING:
+        addLong(FLOATING);
+        addLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+        return;
+      case BOOLEAN:
+        addLong((Boolean) value ? BOOLEAN : FALSE);
+        return;
+      case BYTES:
+        addBytes(toByteBuffer(value));
+        return;
+      case RECORD:
+        addLong(RECORD);
+        addRecord((StructuredRecord) value);
+        return;
+      case SEQUENCE:
+        // arrays are encoded like collections of the same elements
+        List<?> elements = toList(value);
+        addLong(SEQUENCE);
+        addLong(elements.size());
+        for (Object element : elements) {
+          add(element);
+        }
+        return;
+      case MAP:
+        // map entries are combined in an order independent way, as equal maps may iterate in different orders
+        long entries1 = 0L;
+        long entries2 = 0L;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          RecordFingerprint entryFingerprint = new RecordFingerprint();
+          entryFingerprint.add(entry.getKey());
+          entryFingerprint.add(entry.getValue());
+          StructuredRecord entryHash = entryFingerprint.build();
+          entries1 += entryHash.<Long>get("high");
+          entries2 += entryHash.<Long>get("low");
+        }
+        addLong(MAP);
+        addLong(entries1);
+        addLong(entries2);
+        return;
+      case DECIMAL:
+        BigDecimal decimal = (BigDecimal) value;
+        addLong(DECIMAL);
+        addLong(decimal.scale());
+        addBytes(ByteBuffer.wrap(decimal.unscaledValue().toByteArray()));
+        return;
+      default:
+        addLong(OTHER);
+        add(value.toString());
+    }
+  }
+
+  private void addBytes(ByteBuffer buffer) {
+    addLong(BYTES);
+    addLong(buffer.remaining());
+    while (buffer.remaining() >= 8) {
+      addLong(buffer.getLong());
+    }
+    long word = 0L;
+    while (buffer.hasRemaining()) {
+      word = (word << 8) | (buffer.get() & 0xffL);
+    }
+    addLong(word);
+  }
+
+  private void addLong(long value) {
+    long k1 = value * C1;
+    k1 = Long.rotateLeft(k1, 31);
+    k1 *= C2;
+    h1 ^= k1;
+    h1 = Long.rotateLeft(h1, 27) + h2;
+    h1 = h1 * 5 + 0x52dce729;
+
+    long k2 = value * C2;
+    k2 = Long.rotateLeft(k2, 33);
+    k2 *= C1;
+    h2 ^= k2;
+    h2 = Long.rotateLeft(h2, 31) + h1;
+    h2 = h2 * 5 + 0x38495ab5;
+    length += 8;
+  }
+
+  private static long fmix(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+}
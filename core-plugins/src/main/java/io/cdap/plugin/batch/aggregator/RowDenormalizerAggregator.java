@@ -29,14 +29,12 @@ import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
 import io.cdap.cdap.etl.api.StageConfigurer;
 import io.cdap.cdap.etl.api.batch.BatchAggregator;
-import io.cdap.cdap.etl.api.batch.BatchAggregatorContext;
 import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Batch RowDenormalizer Aggregator Plugin - It is used to de-normalize data based on the key column.
@@ -48,30 +46,27 @@ import java.util.Set;
   "an option to use an alias for the output field name. " +
   "For example, " +
   "'ADDRESS' in the input is mapped to 'addr' in the output schema. The denormalized data is easier to query.")
-public class RowDenormalizerAggregator extends BatchAggregator<String, StructuredRecord, StructuredRecord> {
+public class RowDenormalizerAggregator extends RecordReducibleAggregator<String[]> {
 
   private static final String KEY_FIELD = "keyField";
   private static final String NAME_FIELD = "nameField";
   private static final String VALUE_FIELD = "valueField";
   private final RowDenormalizerConfig conf;
-  private Map<String, String> outputMappings;
-  private Set<String> outputFields;
+  // output field names and the index of the partial row value of each input name, after applying the aliases
+  private String[] outputFieldNames;
+  private Map<String, Integer> outputFieldIndexes;
   private Schema outputSchema;
+  private Schema groupKeySchema;
+  private Schema lastInputSchema;
   private String keyField;
   private String nameField;
   private String valueField;
 
   public RowDenormalizerAggregator(RowDenormalizerConfig conf) {
+    super(conf.numPartitions);
     this.conf = conf;
   }
 
-  @Override
-  public void prepareRun(BatchAggregatorContext context) throws Exception {
-    if (conf.numPartitions != null) {
-      context.setNumPartitions(conf.numPartitions);
-    }
-  }
-
   @Override
   public void configurePipeline(PipelineConfigurer pipelineConfigurer) {
     StageConfigurer stageConfigurer = pipelineConfigurer.getStageConfigurer();
@@ -83,62 +78,96 @@ public class RowDenormalizerAggregator extends BatchAggregator<String, Structure
 
   @Override
   public void initialize(BatchRuntimeContext context) throws Exception {
-    outputFields = conf.getOutputSchemaFields();
-    outputMappings = conf.getFieldAliases();
+    outputFieldNames = conf.getOutputSchemaFields().toArray(new String[0]);
+    Map<String, String> outputMappings = conf.getFieldAliases();
+    Map<String, Integer> fieldIndexes = new HashMap<>();
+    for (int i = 0; i < outputFieldNames.length; i++) {
+      fieldIndexes.put(outputFieldNames[i], i);
+    }
+    outputFieldIndexes = new HashMap<>();
+    for (String outputFieldName : outputFieldNames) {
+      if (!outputMappings.containsKey(outputFieldName)) {
+        outputFieldIndexes.put(outputFieldName, fieldIndexes.get(outputFieldName));
+      }
+    }
+    for (Map.Entry<String, String> mapping : outputMappings.entrySet()) {
+      if (fieldIndexes.containsKey(mapping.getValue())) {
+        outputFieldIndexes.put(mapping.getKey(), fieldIndexes.get(mapping.getValue()));
+      }
+    }
     keyField = conf.getKeyField();
     nameField = conf.getNameField();
     valueField = conf.getValueField();
     outputSchema = initializeOutputSchema();
+    groupKeySchema = Schema.recordOf("group.key.schema", outputSchema.getField(keyField));
   }
 
   @Override
-  public void groupBy(StructuredRecord record, Emitter<String> emitter) throws Exception {
-    if (record.get(keyField) == null) {
-      if (record.getSchema().getField(keyField) == null) {
-        String error = String.format("Keyfield '%s' does not exist in input schema %s",
-                keyField, record.getSchema());
-        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
-                error, error, ErrorType.USER, false, null);
-      }
-      return;
+  public void groupBy(StructuredRecord record, Emitter<StructuredRecord> emitter) throws Exception {
+    // the fields only need to be checked once for each input schema
+    if (record.getSchema() != lastInputSchema) {
+      checkInputSchema(record.getSchema());
+      lastInputSchema = record.getSchema();
     }
-    if (record.get(nameField) == null && record.getSchema().getField(nameField) == null) {
-      String error = String.format("Namefield '%s' does not exist in input schema %s",
-              nameField, record.getSchema());
-      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
-              error, error, ErrorType.USER, false, null);
-    }
-    if (record.get(valueField) == null && record.getSchema().getField(valueField) == null) {
-      String error = String.format("Valuefield '%s' does not exist in input schema %s",
-              valueField, record.getSchema());
-      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
-              error, error, ErrorType.USER, false, null);
+    String key = record.get(keyField);
+    if (key == null) {
+      return;
     }
-    emitter.emit((String) record.get(keyField));
+    emitter.emit(StructuredRecord.builder(groupKeySchema).set(keyField, key).build());
   }
 
   @Override
-  public void aggregate(String groupKey, Iterator<StructuredRecord> iterator,
-                        Emitter<StructuredRecord> emitter) throws Exception {
-    if (!iterator.hasNext()) {
-      return;
-    }
-    StructuredRecord.Builder builder = StructuredRecord.builder(outputSchema);
-    builder.set(conf.getKeyField(), groupKey);
-    while (iterator.hasNext()) {
-      StructuredRecord record = iterator.next();
-      String outputFieldName = record.get(nameField);
+  public String[] initializeAggregateValue(StructuredRecord record) {
+    return mergeValues(new String[outputFieldNames.length], record);
+  }
+
+  @Override
+  public String[] mergeValues(String[] aggValue, StructuredRecord record) {
+    String outputFieldName = record.get(nameField);
+    Integer index = outputFieldIndexes.get(outputFieldName);
+    if (index != null) {
       String outputFieldValue = record.get(valueField);
+      if (outputFieldValue != null) {
+        aggValue[index] = outputFieldValue;
+      }
+    }
+    return aggValue;
+  }
 
-      outputFieldName = outputMappings.containsKey(outputFieldName) ? outputMappings.get(outputFieldName) :
-        outputFieldName;
-      if (outputFields.contains(outputFieldName)) {
-        builder.set(outputFieldName, outputFieldValue);
+  @Override
+  public String[] mergePartitions(String[] aggValue1, String[] aggValue2) {
+    for (int i = 0; i < aggValue2.length; i++) {
+      if (aggValue2[i] != null) {
+        aggValue1[i] = aggValue2[i];
       }
     }
+    return aggValue1;
+  }
+
+  @Override
+  public void finalize(StructuredRecord groupKey, String[] aggValue, Emitter<StructuredRecord> emitter) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(outputSchema);
+    builder.set(keyField, groupKey.get(keyField));
+    for (int i = 0; i < outputFieldNames.length; i++) {
+      builder.set(outputFieldNames[i], aggValue[i]);
+    }
     emitter.emit(builder.build());
   }
 
+  private void checkInputSchema(Schema inputSchema) {
+    checkFieldExists(inputSchema, keyField, "Keyfield");
+    checkFieldExists(inputSchema, nameField, "Namefield");
+    checkFieldExists(inputSchema, valueField, "Valuefield");
+  }
+
+  private static void checkFieldExists(Schema inputSchema, String fieldName, String fieldType) {
+    if (inputSchema.getField(fieldName) == null) {
+      String error = String.format("%s '%s' does not exist in input schema %s", fieldType, fieldName, inputSchema);
+      throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+              error, error, ErrorType.USER, false, null);
+    }
+  }
+
   /**
    * Builds the output schema, using output fields provided by user.
    */
@@ -19,12 +19,16 @@ package io.cdap.plugin.batch.aggregator.function;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Return the first non-null in a group of {@link StructuredRecord}s. If all values are null, returns null.
  *
  * @param <T> type of aggregate value
  */
-public class Any<T> implements SelectionFunction, AggregateFunction<T, Any<T>> {
+public class Any<T> implements SelectionFunction, AggregateFunction<T, Any<T>>, PrimitiveState {
   private final String fieldName;
   private final Schema fieldSchema;
   private T val;
@@ -78,4 +82,14 @@ public class Any<T> implements SelectionFunction, AggregateFunction<T, Any<T>> {
     // Return first record by default.
     return record1;
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    StateValues.write(out, fieldSchema, val);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    val = StateValues.read(in, fieldSchema);
+  }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Approximate count of the distinct values of a specific column, using a {@link HyperLogLog} sketch.
+ * Like {@link CountDistinct}, null is counted as a distinct value.
+ */
+public class ApproxCountDistinct implements AggregateFunction<Long, ApproxCountDistinct>, PrimitiveState {
+  private static final Schema SCHEMA = Schema.of(Schema.Type.LONG);
+  private final String fieldName;
+  private final int precision;
+  private HyperLogLog sketch;
+  private boolean hasNull;
+
+  public ApproxCountDistinct(String fieldName, int precision) {
+    this.fieldName = fieldName;
+    this.precision = precision;
+  }
+
+  @Override
+  public void initialize() {
+    sketch = new HyperLogLog(precision);
+    hasNull = false;
+  }
+
+  @Override
+  public void mergeValue(StructuredRecord record) {
+    Object value = record.get(fieldName);
+    if (value == null) {
+      hasNull = true;
+      return;
+    }
+    sketch.add(value);
+  }
+
+  @Override
+  public void mergeAggregates(ApproxCountDistinct otherAgg) {
+    sketch.merge(otherAgg.sketch);
+    hasNull |= otherAgg.hasNull;
+  }
+
+  @Override
+  public Long getAggregate() {
+    return sketch.cardinality() + (hasNull ? 1L : 0L);
+  }
+
+  @Override
+  public Schema getOutputSchema() {
+    return SCHEMA;
+  }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeBoolean(hasNull);
+    sketch.write(out);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    hasNull = in.readBoolean();
+    sketch = HyperLogLog.read(in);
+  }
+}
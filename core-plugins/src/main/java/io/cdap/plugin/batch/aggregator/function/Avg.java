@@ -20,10 +20,14 @@ import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.batch.aggregator.AggregationUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Calculates the average of a column. Does not protect against overflow.
  */
-public class Avg implements AggregateFunction<Double, Avg> {
+public class Avg implements AggregateFunction<Double, Avg>, PrimitiveState {
   private final String fieldName;
   private final Schema outputSchema;
   private double avg;
@@ -78,4 +82,16 @@ public class Avg implements AggregateFunction<Double, Avg> {
     count += deltaCount;
     avg = avg + (oldAvg.doubleValue() - avg) * deltaCount / count;
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeDouble(avg);
+    out.writeLong(count);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    avg = in.readDouble();
+    count = in.readLong();
+  }
 }
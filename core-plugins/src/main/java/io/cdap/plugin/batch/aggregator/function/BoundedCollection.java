@@ -0,0 +1,620 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.UnsignedBytes;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.exception.ErrorCategory;
+import io.cdap.cdap.api.exception.ErrorType;
+import io.cdap.cdap.api.exception.ErrorUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+
+/**
+ * Values collected by an aggregate function for a single group, held within a {@link CollectionLimit}.
+ *
+ * Without a limit every value is kept in memory, as the collecting functions always did. With a limit, the values
+ * beyond it are dropped, sampled with reservoir sampling, rejected with an error, or spilled to a local run file,
+ * depending on the overflow mode. The file is created in one of the local directories of the container, which YARN and
+ * Spark clean up with the application, or in the temporary directory of the JVM if the container has none. Spilled
+ * values are buffered and appended to the file in batches, or runs, and the file is only open while a run is written
+ * or read, so that many overflowing groups do not hold many open files. They are streamed back when the collection is
+ * iterated, and are written inline when the collection is serialized, so that the file never has to leave the
+ * executor that wrote it. Serializing the collection, or writing its state, leaves it unchanged. The file is deleted
+ * once the values are output or merged into another collection.
+ *
+ * The runs of a distinct collection are sorted by the serialized form of the values and hold no duplicates. They are
+ * merged when they are read, which skips the values spilled by several runs, and are merged into a single run once
+ * there are too many of them, so that the spilled values grow with the number of distinct values rather than with the
+ * number of values added.
+ *
+ * @param <T> type of the values
+ */
+final class BoundedCollection<T> implements Serializable {
+  private static final long serialVersionUID = -1869462717294563342L;
+  // spilled values are appended to the file once they take this many bytes
+  static final int SPILL_BATCH_BYTES = 64 * 1024;
+  // runs of a distinct collection are merged into one once there are more than this many
+  static final int MAX_SPILL_RUNS = 16;
+  private static final Comparator<byte[]> ENTRY_ORDER = UnsignedBytes.lexicographicalComparator();
+  // environment variables that hold the local directories of the container, as set by YARN and by Spark
+  private static final String[] LOCAL_DIRS_VARIABLES = {"SPARK_LOCAL_DIRS", "LOCAL_DIRS"};
+  private static volatile List<File> spillDirectories;
+
+  private final CollectionLimit limit;
+  private final boolean distinct;
+  private final String description;
+  private transient List<T> values;
+  // the values in memory, to skip duplicates of distinct collections
+  private transient Set<T> index;
+  private transient long bytes;
+  // number of values offered to a sampled collection
+  private transient long seen;
+  private transient Random random;
+  private transient File spillFile;
+  // serialized spilled values that are not written to the file yet, sorted and without duplicates if distinct
+  private transient Collection<byte[]> spillBuffer;
+  private transient int spillBufferBytes;
+  // number of spilled values, counting a distinct value once per run that holds it
+  private transient int numSpilled;
+  // offset in the spill file and number of values of each run
+  private transient List<Long> runOffsets;
+  private transient List<Integer> runLengths;
+
+  /**
+   * @param limit limit on the values held in memory
+   * @param distinct whether duplicate values are skipped
+   * @param description description of the collecting function, used in error messages
+   */
+  BoundedCollection(CollectionLimit limit, boolean distinct, String description) {
+    this.limit = limit;
+    this.distinct = distinct;
+    this.description = description;
+    init();
+  }
+
+  private void init() {
+    values = new ArrayList<>();
+    index = distinct ? new HashSet<>() : null;
+    bytes = 0L;
+    seen = 0L;
+    spillFile = null;
+    spillBuffer = null;
+    spillBufferBytes = 0;
+    numSpilled = 0;
+    runOffsets = new ArrayList<>();
+    runLengths = new ArrayList<>();
+  }
+
+  /**
+   * @return whether the collection holds no values
+   */
+  boolean isEmpty() {
+    return values.isEmpty() && numSpilled == 0;
+  }
+
+  void add(T value) {
+    if (distinct && index.contains(value)) {
+      return;
+    }
+    seen++;
+    if (!limit.isBounded() || !limit.isReached(values.size(), bytes)) {
+      addToMemory(value);
+      return;
+    }
+    switch (limit.getOverflow()) {
+      case FIRST:
+        return;
+      case SAMPLE:
+        sample(value);
+        return;
+      case FAIL:
+        String error = String.format(
+          "Aggregate %s collected more than %s for a group. Increase the collection limit, or set the " +
+            "overflow to 'first', 'sample' or 'spill'.", description, limitDescription());
+        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN),
+          error, error, ErrorType.USER, false, null);
+      case SPILL:
+        spill(value);
+        return;
+    }
+  }
+
+  /**
+   * Adds all the values of another collection with the same limit. The other collection must not be used after.
+   */
+  void addAll(BoundedCollection<T> other) {
+    if (limit.getOverflow() == CollectionLimit.Overflow.SAMPLE && other.seen > other.values.size()) {
+      mergeSample(other);
+      return;
+    }
+    other.forEach(this::add);
+    other.deleteSpillFile();
+  }
+
+  /**
+   * Calls the consumer for every value, in memory values first, then the spilled ones.
+   */
+  void forEach(Consumer<? super T> consumer) {
+    values.forEach(consumer);
+    if (numSpilled == 0) {
+      return;
+    }
+    try {
+      forEachSpilledEntry(entry -> consumer.accept(deserialize(entry)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read values spilled to " + spillFile, e);
+    }
+  }
+
+  /**
+   * Copies all the values into the given collection, which skips duplicates of spilled values if it is a set. Spilled
+   * values are moved back into memory and the spill file is deleted, as the values are about to be output anyway.
+   */
+  <C extends Collection<T>> C toCollection(C collection) {
+    if (numSpilled == 0) {
+      collection.addAll(values);
+      return collection;
+    }
+    List<T> all = new ArrayList<>(values.size() + numSpilled);
+    forEach(all::add);
+    deleteSpillFile();
+    values = all;
+    collection.addAll(all);
+    return collection;
+  }
+
+  private void addToMemory(T value) {
+    values.add(value);
+    if (distinct) {
+      index.add(value);
+    }
+    if (limit.getMaxBytes() > 0L) {
+      bytes += CollectionLimit.estimateSize(value);
+    }
+  }
+
+  /**
+   * Reservoir sampling, keeping every value offered so far with the same probability.
+   */
+  private void sample(T value) {
+    if (random == null) {
+      random = new Random(seen);
+    }
+    long slot = (long) (random.nextDouble() * seen);
+    if (slot < values.size()) {
+      T replaced = values.set((int) slot, value);
+      if (distinct) {
+        index.remove(replaced);
+        index.add(value);
+      }
+    }
+  }
+
+  /**
+   * Merges two samples, drawing each kept value from one or the other in proportion to the number of values each
+   * sample was drawn from.
+   */
+  private void mergeSample(BoundedCollection<T> other) {
+    if (seen == values.size()) {
+      // this collection is not a sample, so the values it holds can be offered to the other sample
+      List<T> complete = values;
+      values = other.values;
+      index = other.index;
+      bytes = other.bytes;
+      seen = other.seen;
+      random = other.random;
+      complete.forEach(this::add);
+      return;
+    }
+    if (random == null) {
+      random = new Random(seen);
+    }
+    int size = Math.max(values.size(), other.values.size());
+    List<T> mine = new ArrayList<>(values);
+    List<T> theirs = new ArrayList<>(other.values);
+    Collections.shuffle(mine, random);
+    Collections.shuffle(theirs, random);
+    Iterator<T> mineIter = mine.iterator();
+    Iterator<T> theirsIter = theirs.iterator();
+    long total = seen + other.seen;
+    init();
+    seen = total;
+    while (values.size() < size && (mineIter.hasNext() || theirsIter.hasNext())) {
+      boolean pickMine = !theirsIter.hasNext() ||
+        (mineIter.hasNext() && random.nextDouble() * total < total - other.seen);
+      T value = pickMine ? mineIter.next() : theirsIter.next();
+      if (!distinct || !index.contains(value)) {
+        addToMemory(value);
+      }
+    }
+  }
+
+  private void spill(T value) {
+    try {
+      if (spillBuffer == null) {
+        spillBuffer = distinct ? new TreeSet<>(ENTRY_ORDER) : new ArrayList<>();
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+        out.writeObject(value);
+      }
+      if (!spillBuffer.add(bytes.toByteArray())) {
+        // a distinct value that is already buffered
+        return;
+      }
+      spillBufferBytes += bytes.size();
+      numSpilled++;
+      if (spillBufferBytes >= SPILL_BATCH_BYTES) {
+        writeSpillRun();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to spill values of aggregate " + description, e);
+    }
+  }
+
+  /**
+   * Appends the buffered values to the spill file as a new run, and closes the file. The runs of a distinct collection
+   * are merged into one once there are too many of them.
+   */
+  private void writeSpillRun() throws IOException {
+    if (spillFile == null) {
+      spillFile = createSpillFile();
+    }
+    runOffsets.add(spillFile.length());
+    runLengths.add(spillBuffer.size());
+    try (DataOutputStream out = openSpillFile(spillFile, true)) {
+      for (byte[] entry : spillBuffer) {
+        writeEntry(out, entry);
+      }
+    }
+    spillBuffer.clear();
+    spillBufferBytes = 0;
+    if (distinct && runLengths.size() > MAX_SPILL_RUNS) {
+      mergeSpillRuns();
+    }
+  }
+
+  /**
+   * Merges the runs of a distinct collection into a single run without duplicates, in a new spill file.
+   */
+  private void mergeSpillRuns() throws IOException {
+    File merged = createSpillFile();
+    int length;
+    try (DataOutputStream out = openSpillFile(merged, false)) {
+      length = mergeSpilledEntries(false, entry -> writeEntry(out, entry));
+    } catch (IOException e) {
+      merged.delete();
+      throw e;
+    }
+    spillFile.delete();
+    spillFile = merged;
+    runOffsets = new ArrayList<>(Collections.singletonList(0L));
+    runLengths = new ArrayList<>(Collections.singletonList(length));
+    numSpilled = length + spillBuffer.size();
+  }
+
+  /**
+   * Calls the consumer for the serialized form of every spilled value, and returns the number of values. The values of
+   * a distinct collection are merged from its runs and buffer, so that each is only passed once.
+   */
+  private int forEachSpilledEntry(EntryConsumer consumer) throws IOException {
+    if (distinct) {
+      return mergeSpilledEntries(true, consumer);
+    }
+    int numInFile = numSpilled - spillBuffer.size();
+    if (numInFile > 0) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile)))) {
+        for (int i = 0; i < numInFile; i++) {
+          consumer.accept(readEntry(in));
+        }
+      }
+    }
+    for (byte[] entry : spillBuffer) {
+      consumer.accept(entry);
+    }
+    return numSpilled;
+  }
+
+  /**
+   * Merges the sorted runs of a distinct collection, and its buffer if asked to, skipping the values held by several
+   * of them.
+   *
+   * @return the number of values passed to the consumer
+   */
+  private int mergeSpilledEntries(boolean withBuffer, EntryConsumer consumer) throws IOException {
+    PriorityQueue<SpillRun> queue = new PriorityQueue<>((run1, run2) -> ENTRY_ORDER.compare(run1.entry, run2.entry));
+    List<FileInputStream> files = new ArrayList<>();
+    try {
+      for (int i = 0; i < runLengths.size(); i++) {
+        FileInputStream file = new FileInputStream(spillFile);
+        files.add(file);
+        file.getChannel().position(runOffsets.get(i));
+        offer(queue, new SpillRun(new DataInputStream(new BufferedInputStream(file)), runLengths.get(i), null));
+      }
+      if (withBuffer && spillBuffer != null) {
+        offer(queue, new SpillRun(null, 0, spillBuffer.iterator()));
+      }
+      int count = 0;
+      byte[] last = null;
+      while (!queue.isEmpty()) {
+        SpillRun run = queue.poll();
+        if (last == null || ENTRY_ORDER.compare(last, run.entry) != 0) {
+          last = run.entry;
+          consumer.accept(last);
+          count++;
+        }
+        offer(queue, run);
+      }
+      return count;
+    } finally {
+      for (FileInputStream file : files) {
+        file.close();
+      }
+    }
+  }
+
+  private static void offer(PriorityQueue<SpillRun> queue, SpillRun run) throws IOException {
+    if (run.next()) {
+      queue.add(run);
+    }
+  }
+
+  /**
+   * @return the number of distinct values of the spilled values of a distinct collection, or the number of spilled
+   *   values otherwise
+   */
+  private int countSpilled() throws IOException {
+    int numSources = runLengths.size() + (spillBuffer == null || spillBuffer.isEmpty() ? 0 : 1);
+    if (!distinct || numSources <= 1) {
+      return numSpilled;
+    }
+    return mergeSpilledEntries(true, entry -> { });
+  }
+
+  private static File createSpillFile() throws IOException {
+    if (spillDirectories == null) {
+      spillDirectories = getSpillDirectories(System.getenv());
+    }
+    File directory = spillDirectories.get(ThreadLocalRandom.current().nextInt(spillDirectories.size()));
+    File file = File.createTempFile("collection-", ".run", directory);
+    // the file is deleted once its values are output, this only covers the copies that were serialized and dropped
+    file.deleteOnExit();
+    return file;
+  }
+
+  /**
+   * Returns the local directories of the container, which executors and tasks use for scratch data, or the temporary
+   * directory of the JVM if there are none.
+   *
+   * @param env the environment variables of the process
+   */
+  @VisibleForTesting
+  static List<File> getSpillDirectories(Map<String, String> env) {
+    for (String variable : LOCAL_DIRS_VARIABLES) {
+      String value = env.get(variable);
+      if (value == null) {
+        continue;
+      }
+      List<File> directories = new ArrayList<>();
+      for (String path : value.split(",")) {
+        File directory = new File(path.trim());
+        if (!path.trim().isEmpty() && directory.isDirectory() && directory.canWrite()) {
+          directories.add(directory);
+        }
+      }
+      if (!directories.isEmpty()) {
+        return directories;
+      }
+    }
+    return Collections.singletonList(new File(System.getProperty("java.io.tmpdir")));
+  }
+
+  private static DataOutputStream openSpillFile(File file, boolean append) throws IOException {
+    return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, append)));
+  }
+
+  private static void writeEntry(DataOutputStream out, byte[] entry) throws IOException {
+    out.writeInt(entry.length);
+    out.write(entry);
+  }
+
+  private static byte[] readEntry(DataInputStream in) throws IOException {
+    byte[] entry = new byte[in.readInt()];
+    in.readFully(entry);
+    return entry;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T deserialize(byte[] entry) throws IOException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(entry))) {
+      return (T) in.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Failed to read spilled value", e);
+    }
+  }
+
+  private void deleteSpillFile() {
+    if (spillFile != null) {
+      spillFile.delete();
+      spillFile = null;
+    }
+    spillBuffer = null;
+    spillBufferBytes = 0;
+    numSpilled = 0;
+    runOffsets = new ArrayList<>();
+    runLengths = new ArrayList<>();
+  }
+
+  @VisibleForTesting
+  @Nullable
+  File getSpillFile() {
+    return spillFile;
+  }
+
+  private String limitDescription() {
+    if (limit.getMaxValues() > 0 && values.size() >= limit.getMaxValues()) {
+      return limit.getMaxValues() + " values";
+    }
+    return limit.getMaxBytes() + " bytes";
+  }
+
+  /**
+   * Writes the values of the collection in the binary form of {@link StateValues}.
+   *
+   * @param out the output to write to
+   * @param valueSchema schema of the values
+   */
+  void writeState(DataOutput out, Schema valueSchema) throws IOException {
+    writeValues(out, value -> StateValues.write(out, valueSchema, value));
+  }
+
+  /**
+   * Reads the values written by {@link #writeState(DataOutput, Schema)}, replacing the values of the collection.
+   *
+   * @param in the input to read from
+   * @param valueSchema schema of the values
+   */
+  void readState(DataInput in, Schema valueSchema) throws IOException {
+    deleteSpillFile();
+    init();
+    long numSeen = in.readLong();
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      add(StateValues.read(in, valueSchema));
+    }
+    seen = numSeen;
+  }
+
+  /**
+   * Writes the number of values offered to a sample and all the values, including the spilled ones.
+   */
+  private void writeValues(DataOutput out, ValueWriter<T> writer) throws IOException {
+    out.writeLong(seen);
+    out.writeInt(values.size() + countSpilled());
+    try {
+      forEach(value -> {
+        try {
+          writer.write(value);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    writeValues(out, out::writeObject);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    init();
+    long numSeen = in.readLong();
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      add((T) in.readObject());
+    }
+    seen = numSeen;
+  }
+
+  /**
+   * Writes a single value.
+   */
+  private interface ValueWriter<T> {
+    void write(T value) throws IOException;
+  }
+
+  /**
+   * Consumes the serialized form of a spilled value.
+   */
+  private interface EntryConsumer {
+    void accept(byte[] entry) throws IOException;
+  }
+
+  /**
+   * A run of spilled values being merged, read from the spill file or from the buffer, along with its current value.
+   */
+  private static final class SpillRun {
+    @Nullable
+    private final DataInputStream in;
+    @Nullable
+    private final Iterator<byte[]> buffer;
+    private int remaining;
+    private byte[] entry;
+
+    private SpillRun(@Nullable DataInputStream in, int length, @Nullable Iterator<byte[]> buffer) {
+      this.in = in;
+      this.remaining = length;
+      this.buffer = buffer;
+    }
+
+    /**
+     * Moves to the next value of the run, and returns whether there is one.
+     */
+    private boolean next() throws IOException {
+      if (buffer != null) {
+        if (!buffer.hasNext()) {
+          return false;
+        }
+        entry = buffer.next();
+        return true;
+      }
+      if (remaining == 0) {
+        return false;
+      }
+      remaining--;
+      entry = readEntry(in);
+      return true;
+    }
+  }
+}
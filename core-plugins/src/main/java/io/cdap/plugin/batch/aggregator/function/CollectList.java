@@ -20,26 +20,35 @@ package io.cdap.plugin.batch.aggregator.function;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Collect List of a specific column
+ * Collect List of a specific column, holding at most the values allowed by the collection limit in memory
  * @param <T> type of aggregate value
  */
-public class CollectList<T> implements AggregateFunction<List<T>, CollectList<T>> {
+public class CollectList<T> implements AggregateFunction<List<T>, CollectList<T>>, PrimitiveState {
   private final String fieldName;
   private final Schema fieldSchema;
-  private List<T> result;
+  private final CollectionLimit limit;
+  private BoundedCollection<T> result;
 
   public CollectList(String fieldName, Schema fieldSchema) {
+    this(fieldName, fieldSchema, CollectionLimit.UNBOUNDED);
+  }
+
+  public CollectList(String fieldName, Schema fieldSchema, CollectionLimit limit) {
     this.fieldName = fieldName;
     this.fieldSchema = fieldSchema;
+    this.limit = limit;
   }
 
   @Override
   public void initialize() {
-    this.result = new ArrayList<>();
+    this.result = new BoundedCollection<>(limit, false, String.format("collectList(%s)", fieldName));
   }
 
   @Override
@@ -54,11 +63,21 @@ public class CollectList<T> implements AggregateFunction<List<T>, CollectList<T>
 
   @Override
   public List<T> getAggregate() {
-    return result;
+    return result.toCollection(new ArrayList<>());
   }
 
   @Override
   public Schema getOutputSchema() {
     return Schema.arrayOf(fieldSchema);
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    result.writeState(out, fieldSchema);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    result.readState(in, fieldSchema);
+  }
 }
@@ -31,7 +31,11 @@ public class CollectListIf<T> extends CollectList<T> implements Serializable {
   private final Condition condition;
 
   public CollectListIf(String fieldName, Schema fieldSchema, Condition condition) {
-    super(fieldName, fieldSchema);
+    this(fieldName, fieldSchema, CollectionLimit.UNBOUNDED, condition);
+  }
+
+  public CollectListIf(String fieldName, Schema fieldSchema, CollectionLimit limit, Condition condition) {
+    super(fieldName, fieldSchema, limit);
     this.condition = condition;
   }
 
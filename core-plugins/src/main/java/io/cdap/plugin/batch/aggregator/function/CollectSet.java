@@ -19,26 +19,35 @@ package io.cdap.plugin.batch.aggregator.function;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
- * Collect Set of a specific column
+ * Collect Set of a specific column, holding at most the values allowed by the collection limit in memory
  * @param <T> type of aggregate value
  */
-public class CollectSet<T> implements AggregateFunction<Set<T>, CollectSet<T>> {
+public class CollectSet<T> implements AggregateFunction<Set<T>, CollectSet<T>>, PrimitiveState {
   private final String fieldName;
   private final Schema fieldSchema;
-  private Set<T> result;
+  private final CollectionLimit limit;
+  private BoundedCollection<T> result;
 
   public CollectSet(String fieldName, Schema fieldSchema) {
+    this(fieldName, fieldSchema, CollectionLimit.UNBOUNDED);
+  }
+
+  public CollectSet(String fieldName, Schema fieldSchema, CollectionLimit limit) {
     this.fieldName = fieldName;
     this.fieldSchema = fieldSchema;
+    this.limit = limit;
   }
 
   @Override
   public void initialize() {
-    this.result = new HashSet<>();
+    this.result = new BoundedCollection<>(limit, true, String.format("collectSet(%s)", fieldName));
   }
 
   @Override
@@ -53,11 +62,21 @@ public class CollectSet<T> implements AggregateFunction<Set<T>, CollectSet<T>> {
 
   @Override
   public Set<T> getAggregate() {
-    return result;
+    return result.toCollection(new HashSet<>());
   }
 
   @Override
   public Schema getOutputSchema() {
     return Schema.arrayOf(fieldSchema);
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    result.writeState(out, fieldSchema);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    result.readState(in, fieldSchema);
+  }
 }
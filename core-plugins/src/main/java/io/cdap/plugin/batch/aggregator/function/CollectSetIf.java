@@ -30,7 +30,11 @@ public class CollectSetIf<T> extends CollectSet<T> implements Serializable {
   private final Condition condition;
 
   public CollectSetIf(String fieldName, Schema fieldSchema, Condition condition) {
-    super(fieldName, fieldSchema);
+    this(fieldName, fieldSchema, CollectionLimit.UNBOUNDED, condition);
+  }
+
+  public CollectSetIf(String fieldName, Schema fieldSchema, CollectionLimit limit, Condition condition) {
+    super(fieldName, fieldSchema, limit);
     this.condition = condition;
   }
 
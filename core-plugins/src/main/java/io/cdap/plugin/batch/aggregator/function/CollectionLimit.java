@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Limit on the values held in memory by a collecting aggregate function, such as collectList or concat, for a
+ * single group, along with what to do with the values beyond the limit.
+ */
+public final class CollectionLimit implements Serializable {
+  public static final CollectionLimit UNBOUNDED = new CollectionLimit(0, 0L, Overflow.FIRST);
+
+  /**
+   * What to do with the values of a group once the limit is reached.
+   */
+  public enum Overflow {
+    // keep the first values and drop the rest
+    FIRST,
+    // keep a uniform random sample of the values
+    SAMPLE,
+    // fail the pipeline
+    FAIL,
+    // write the values beyond the limit to a local file, and read them back when the aggregate is computed
+    SPILL
+  }
+
+  private final int maxValues;
+  private final long maxBytes;
+  private final Overflow overflow;
+
+  /**
+   * @param maxValues maximum number of values per group, or 0 for no limit
+   * @param maxBytes maximum estimated size in bytes of the values per group, or 0 for no limit
+   * @param overflow what to do with the values beyond the limit
+   */
+  public CollectionLimit(int maxValues, long maxBytes, Overflow overflow) {
+    this.maxValues = maxValues;
+    this.maxBytes = maxBytes;
+    this.overflow = overflow;
+  }
+
+  public int getMaxValues() {
+    return maxValues;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public Overflow getOverflow() {
+    return overflow;
+  }
+
+  public boolean isBounded() {
+    return maxValues > 0 || maxBytes > 0L;
+  }
+
+  /**
+   * @return whether a collection of the given number of values and estimated size has reached the limit
+   */
+  boolean isReached(int numValues, long numBytes) {
+    return (maxValues > 0 && numValues >= maxValues) || (maxBytes > 0L && numBytes >= maxBytes);
+  }
+
+  /**
+   * Estimates the heap size of a value, including the reference to it.
+   */
+  static long estimateSize(Object value) {
+    if (value == null) {
+      return 8L;
+    }
+    if (value instanceof String) {
+      return 48L + 2L * ((String) value).length();
+    }
+    if (value instanceof byte[]) {
+      return 24L + ((byte[]) value).length;
+    }
+    if (value instanceof ByteBuffer) {
+      return 72L + ((ByteBuffer) value).remaining();
+    }
+    if (value instanceof Collection) {
+      long size = 48L;
+      for (Object element : (Collection<?>) value) {
+        size += estimateSize(element);
+      }
+      return size;
+    }
+    if (value instanceof Map) {
+      long size = 48L;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        size += 40L + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+      }
+      return size;
+    }
+    if (value instanceof StructuredRecord) {
+      StructuredRecord record = (StructuredRecord) value;
+      long size = 64L;
+      if (record.getSchema().getFields() != null) {
+        for (io.cdap.cdap.api.data.schema.Schema.Field field : record.getSchema().getFields()) {
+          size += 40L + estimateSize(record.get(field.getName()));
+        }
+      }
+      return size;
+    }
+    // boxed primitives and other small values
+    return 24L;
+  }
+
+  @Override
+  public String toString() {
+    return "CollectionLimit{" +
+      "maxValues=" + maxValues +
+      ", maxBytes=" + maxBytes +
+      ", overflow=" + overflow +
+      '}';
+  }
+}
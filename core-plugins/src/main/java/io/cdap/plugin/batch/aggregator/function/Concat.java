@@ -20,19 +20,32 @@ import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.data.schema.Schema.Type;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+
 /**
- * Concatenates the values in the group with a comma
+ * Concatenates the values in the group with a comma, holding at most the values allowed by the collection limit in
+ * memory
  */
-public class Concat implements AggregateFunction<String, Concat> {
+public class Concat implements AggregateFunction<String, Concat>, PrimitiveState {
 
   private static final String SEPARATOR = ", ";
+  private static final Schema VALUE_SCHEMA = Schema.of(Type.STRING);
   private final String fieldName;
   private final Schema fieldSchema;
-  private StringBuilder stringBuilder;
+  private final CollectionLimit limit;
+  private BoundedCollection<String> values;
 
   public Concat(String fieldName, Schema fieldSchema) {
+    this(fieldName, fieldSchema, CollectionLimit.UNBOUNDED);
+  }
+
+  public Concat(String fieldName, Schema fieldSchema, CollectionLimit limit) {
     this.fieldName = fieldName;
     this.fieldSchema = fieldSchema;
+    this.limit = limit;
     Type inputType =
       fieldSchema.isNullable() ? fieldSchema.getNonNullable().getType() : fieldSchema.getType();
 
@@ -45,35 +58,25 @@ public class Concat implements AggregateFunction<String, Concat> {
 
   @Override
   public void initialize() {
-    this.stringBuilder = new StringBuilder();
+    this.values = new BoundedCollection<>(limit, false, String.format("concat(%s)", fieldName));
   }
 
   @Override
   public void mergeValue(StructuredRecord record) {
     if (record.get(fieldName) != null) {
       String value = record.get(fieldName);
-      if (stringBuilder.length() > 0) {
-        stringBuilder.append(SEPARATOR);
-      }
-      stringBuilder.append(value);
+      values.add(value);
     }
   }
 
   @Override
   public void mergeAggregates(Concat otherAgg) {
-    if (otherAgg.stringBuilder.length() == 0) {
-      return;
-    }
-    if (stringBuilder.length() == 0) {
-      stringBuilder = otherAgg.stringBuilder;
-      return;
-    }
-    stringBuilder.append(SEPARATOR).append(otherAgg.stringBuilder);
+    values.addAll(otherAgg.values);
   }
 
   @Override
   public String getAggregate() {
-    return stringBuilder.toString();
+    return String.join(SEPARATOR, values.toCollection(new ArrayList<>()));
   }
 
   @Override
@@ -81,4 +84,14 @@ public class Concat implements AggregateFunction<String, Concat> {
     return fieldSchema;
   }
 
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    values.writeState(out, VALUE_SCHEMA);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    values.readState(in, VALUE_SCHEMA);
+  }
+
 }
@@ -16,27 +16,35 @@
 
 package io.cdap.plugin.batch.aggregator.function;
 
-import com.google.common.base.Strings;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.data.schema.Schema.Type;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.LinkedHashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
- * Concatenates only distinct values in the group with a comma
+ * Concatenates only distinct values in the group with a comma, holding at most the values allowed by the collection
+ * limit in memory
  */
-public class ConcatDistinct implements AggregateFunction<String, ConcatDistinct> {
+public class ConcatDistinct implements AggregateFunction<String, ConcatDistinct>, PrimitiveState {
 
+  private static final Schema VALUE_SCHEMA = Schema.of(Type.STRING);
   private final String fieldName;
   private final Schema fieldSchema;
-  private Set<String> values;
+  private final CollectionLimit limit;
+  private BoundedCollection<String> values;
 
   public ConcatDistinct(String fieldName, Schema fieldSchema) {
+    this(fieldName, fieldSchema, CollectionLimit.UNBOUNDED);
+  }
+
+  public ConcatDistinct(String fieldName, Schema fieldSchema, CollectionLimit limit) {
     this.fieldName = fieldName;
     this.fieldSchema = fieldSchema;
+    this.limit = limit;
     Type inputType = fieldSchema.isNullable() ? fieldSchema.getNonNullable().getType() : fieldSchema.getType();
 
     if (!inputType.equals(Type.STRING)) {
@@ -47,7 +55,7 @@ public class ConcatDistinct implements AggregateFunction<String, ConcatDistinct>
 
   @Override
   public void initialize() {
-    values = new LinkedHashSet<>();
+    values = new BoundedCollection<>(limit, true, String.format("concatDistinct(%s)", fieldName));
   }
 
   @Override
@@ -65,7 +73,7 @@ public class ConcatDistinct implements AggregateFunction<String, ConcatDistinct>
 
   @Override
   public String getAggregate() {
-    return String.join(", ", values);
+    return String.join(", ", values.toCollection(new LinkedHashSet<>()));
   }
 
   @Override
@@ -73,4 +81,14 @@ public class ConcatDistinct implements AggregateFunction<String, ConcatDistinct>
     return fieldSchema;
   }
 
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    values.writeState(out, VALUE_SCHEMA);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    values.readState(in, VALUE_SCHEMA);
+  }
+
 }
@@ -29,7 +29,11 @@ public class ConcatDistinctIf extends ConcatDistinct implements Serializable {
   private final Condition condition;
 
   public ConcatDistinctIf(String fieldName, Schema fieldSchema, Condition condition) {
-    super(fieldName, fieldSchema);
+    this(fieldName, fieldSchema, CollectionLimit.UNBOUNDED, condition);
+  }
+
+  public ConcatDistinctIf(String fieldName, Schema fieldSchema, CollectionLimit limit, Condition condition) {
+    super(fieldName, fieldSchema, limit);
     this.condition = condition;
   }
 
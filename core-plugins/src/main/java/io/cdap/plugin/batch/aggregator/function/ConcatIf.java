@@ -29,7 +29,11 @@ public class ConcatIf extends Concat implements Serializable {
   private final Condition condition;
 
   public ConcatIf(String fieldName, Schema fieldSchema, Condition condition) {
-    super(fieldName, fieldSchema);
+    this(fieldName, fieldSchema, CollectionLimit.UNBOUNDED, condition);
+  }
+
+  public ConcatIf(String fieldName, Schema fieldSchema, CollectionLimit limit, Condition condition) {
+    super(fieldName, fieldSchema, limit);
     this.condition = condition;
   }
 
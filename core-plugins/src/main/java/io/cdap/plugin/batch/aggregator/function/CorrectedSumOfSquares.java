@@ -20,10 +20,14 @@ import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.batch.aggregator.AggregationUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Calculates the Standard Deviation
  */
-public class CorrectedSumOfSquares implements AggregateFunction<Double, CorrectedSumOfSquares> {
+public class CorrectedSumOfSquares implements AggregateFunction<Double, CorrectedSumOfSquares>, PrimitiveState {
 
   private final String fieldName;
   private final Schema outputSchema;
@@ -90,4 +94,19 @@ public class CorrectedSumOfSquares implements AggregateFunction<Double, Correcte
   public Schema getOutputSchema() {
     return outputSchema;
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeLong(numEntries);
+    out.writeDouble(sum);
+    out.writeDouble(sumOfSquares);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    initialize();
+    numEntries = in.readLong();
+    sum = in.readDouble();
+    sumOfSquares = in.readDouble();
+  }
 }
@@ -19,10 +19,14 @@ package io.cdap.plugin.batch.aggregator.function;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Counts the number of records in a group. This is the function for count(*).
  */
-public class CountAll implements AggregateFunction<Long, CountAll> {
+public class CountAll implements AggregateFunction<Long, CountAll>, PrimitiveState {
   private static final Schema SCHEMA = Schema.of(Schema.Type.LONG);
   private long count;
 
@@ -50,4 +54,14 @@ public class CountAll implements AggregateFunction<Long, CountAll> {
   public Schema getOutputSchema() {
     return SCHEMA;
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeLong(count);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    count = in.readLong();
+  }
 }
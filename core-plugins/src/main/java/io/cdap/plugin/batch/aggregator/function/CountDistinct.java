@@ -19,6 +19,9 @@ package io.cdap.plugin.batch.aggregator.function;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -27,13 +30,15 @@ import java.util.Set;
  *
  * @param <T> type of aggregate value
  */
-public class CountDistinct<T> implements AggregateFunction<Integer, CountDistinct<T>> {
+public class CountDistinct<T> implements AggregateFunction<Integer, CountDistinct<T>>, PrimitiveState {
   private static final Schema SCHEMA = Schema.of(Schema.Type.INT);
   private final String fieldName;
+  private final Schema fieldSchema;
   private Set<T> collectSet;
 
-  public CountDistinct(String fieldName) {
+  public CountDistinct(String fieldName, Schema fieldSchema) {
     this.fieldName = fieldName;
+    this.fieldSchema = fieldSchema;
   }
 
   @Override
@@ -60,4 +65,21 @@ public class CountDistinct<T> implements AggregateFunction<Integer, CountDistinc
   public Schema getOutputSchema() {
     return SCHEMA;
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeInt(collectSet.size());
+    for (T value : collectSet) {
+      StateValues.write(out, fieldSchema, value);
+    }
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    int size = in.readInt();
+    collectSet = new HashSet<>();
+    for (int i = 0; i < size; i++) {
+      collectSet.add(StateValues.read(in, fieldSchema));
+    }
+  }
 }
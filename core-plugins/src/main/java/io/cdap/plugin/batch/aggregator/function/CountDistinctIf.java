@@ -17,6 +17,7 @@
 package io.cdap.plugin.batch.aggregator.function;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
 
 import java.io.Serializable;
 
@@ -29,8 +30,8 @@ import java.io.Serializable;
 public class CountDistinctIf<T> extends CountDistinct<T> implements Serializable {
   private final Condition condition;
 
-  public CountDistinctIf(String fieldName, Condition condition) {
-    super(fieldName);
+  public CountDistinctIf(String fieldName, Schema fieldSchema, Condition condition) {
+    super(fieldName, fieldSchema);
     this.condition = condition;
   }
 
@@ -19,10 +19,14 @@ package io.cdap.plugin.batch.aggregator.function;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Returns the number of null values in the group
  */
-public class CountNulls implements AggregateFunction<Long, CountNulls> {
+public class CountNulls implements AggregateFunction<Long, CountNulls>, PrimitiveState {
 
   private final String fieldName;
   private long count;
@@ -57,4 +61,14 @@ public class CountNulls implements AggregateFunction<Long, CountNulls> {
   public Schema getOutputSchema() {
     return Schema.of(Schema.Type.LONG);
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeLong(count);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    count = in.readLong();
+  }
 }
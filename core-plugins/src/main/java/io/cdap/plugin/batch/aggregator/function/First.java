@@ -19,12 +19,16 @@ package io.cdap.plugin.batch.aggregator.function;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Return the first element in a group of {@link StructuredRecord}s.
  *
  * @param <T> type of aggregate value
  */
-public class First<T> implements SelectionFunction, AggregateFunction<T, First<T>> {
+public class First<T> implements SelectionFunction, AggregateFunction<T, First<T>>, PrimitiveState {
   private final String fieldName;
   private final Schema fieldSchema;
   private boolean isFirst;
@@ -68,4 +72,16 @@ public class First<T> implements SelectionFunction, AggregateFunction<T, First<T
   public StructuredRecord select(StructuredRecord record1, StructuredRecord record2) {
     return record1;
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeBoolean(isFirst);
+    StateValues.write(out, fieldSchema, first);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    isFirst = in.readBoolean();
+    first = StateValues.read(in, fieldSchema);
+  }
 }
@@ -0,0 +1,272 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values it was given, using {@code 2^precision} registers.
+ * The relative standard error of the estimate is about {@code 1.04 / sqrt(2^precision)}.
+ *
+ * As long as few registers are set, the sketch is kept sparse as a sorted array of register and rank entries, so
+ * that small groups stay small. Once the sparse form would take more space than the registers, the sketch switches
+ * to a fixed size array of registers. Two sketches of the same precision can be merged.
+ */
+public final class HyperLogLog implements Serializable {
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 18;
+  public static final int DEFAULT_PRECISION = 12;
+
+  private static final int RANK_BITS = 6;
+  private static final int RANK_MASK = (1 << RANK_BITS) - 1;
+
+  private final int precision;
+  // sorted (register << RANK_BITS | rank) entries, used until the sketch becomes dense
+  private int[] sparse;
+  private int sparseSize;
+  private byte[] registers;
+
+  public HyperLogLog(int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException(String.format("Precision must be between %d and %d, but is %d.",
+                                                       MIN_PRECISION, MAX_PRECISION, precision));
+    }
+    this.precision = precision;
+    this.sparse = new int[4];
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  /**
+   * Adds a value to the sketch.
+   *
+   * @param value the value to add, must not be null
+   */
+  public void add(Object value) {
+    addHash(hash(value));
+  }
+
+  /**
+   * Adds a 64 bit hash of a value to the sketch.
+   */
+  public void addHash(long hash) {
+    int register = (int) (hash >>> (Long.SIZE - precision));
+    // the bit set at the end bounds the rank, so that it always fits in RANK_BITS
+    int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    set(register, rank);
+  }
+
+  /**
+   * Merges another sketch into this one.
+   *
+   * @param other the sketch to merge, which must have the same precision
+   */
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new IllegalArgumentException(String.format("Cannot merge sketches of precision %d and %d.",
+                                                       precision, other.precision));
+    }
+    if (other.registers == null) {
+      for (int i = 0; i < other.sparseSize; i++) {
+        set(other.sparse[i] >>> RANK_BITS, other.sparse[i] & RANK_MASK);
+      }
+      return;
+    }
+    if (registers == null) {
+      toDense();
+    }
+    for (int i = 0; i < registers.length; i++) {
+      if (other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  /**
+   * @return the estimated number of distinct values added to the sketch
+   */
+  public long cardinality() {
+    int numRegisters = 1 << precision;
+    double sum = 0d;
+    int zeros;
+    if (registers == null) {
+      zeros = numRegisters - sparseSize;
+      sum = zeros;
+      for (int i = 0; i < sparseSize; i++) {
+        sum += 1d / (1L << (sparse[i] & RANK_MASK));
+      }
+    } else {
+      zeros = 0;
+      for (byte rank : registers) {
+        if (rank == 0) {
+          zeros++;
+        }
+        sum += 1d / (1L << rank);
+      }
+    }
+
+    double estimate = alpha(numRegisters) * numRegisters * numRegisters / sum;
+    // use linear counting for small cardinalities, where the raw estimate is biased
+    if (estimate <= 2.5d * numRegisters && zeros > 0) {
+      estimate = numRegisters * Math.log((double) numRegisters / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * Writes the sketch in its compact binary form.
+   */
+  public void write(DataOutput out) throws IOException {
+    out.writeByte(precision);
+    out.writeBoolean(registers != null);
+    if (registers != null) {
+      out.write(registers);
+      return;
+    }
+    out.writeInt(sparseSize);
+    for (int i = 0; i < sparseSize; i++) {
+      out.writeInt(sparse[i]);
+    }
+  }
+
+  /**
+   * Reads a sketch written by {@link #write(DataOutput)}.
+   */
+  public static HyperLogLog read(DataInput in) throws IOException {
+    HyperLogLog sketch = new HyperLogLog(in.readByte());
+    if (in.readBoolean()) {
+      sketch.registers = new byte[1 << sketch.precision];
+      sketch.sparse = null;
+      in.readFully(sketch.registers);
+      return sketch;
+    }
+    sketch.sparseSize = in.readInt();
+    sketch.sparse = new int[Math.max(4, sketch.sparseSize)];
+    for (int i = 0; i < sketch.sparseSize; i++) {
+      sketch.sparse[i] = in.readInt();
+    }
+    return sketch;
+  }
+
+  private void set(int register, int rank) {
+    if (registers != null) {
+      if (rank > registers[register]) {
+        registers[register] = (byte) rank;
+      }
+      return;
+    }
+
+    // ranks are never 0, so this finds the position of the register entry, or where it should be inserted
+    int pos = -Arrays.binarySearch(sparse, 0, sparseSize, register << RANK_BITS) - 1;
+    if (pos < sparseSize && sparse[pos] >>> RANK_BITS == register) {
+      if (rank > (sparse[pos] & RANK_MASK)) {
+        sparse[pos] = register << RANK_BITS | rank;
+      }
+      return;
+    }
+
+    // switch to registers once the sparse entries take more space than them
+    if ((sparseSize + 1) * Integer.BYTES > 1 << precision) {
+      toDense();
+      set(register, rank);
+      return;
+    }
+    if (sparseSize == sparse.length) {
+      sparse = Arrays.copyOf(sparse, sparse.length * 2);
+    }
+    System.arraycopy(sparse, pos, sparse, pos + 1, sparseSize - pos);
+    sparse[pos] = register << RANK_BITS | rank;
+    sparseSize++;
+  }
+
+  private void toDense() {
+    registers = new byte[1 << precision];
+    for (int i = 0; i < sparseSize; i++) {
+      registers[sparse[i] >>> RANK_BITS] = (byte) (sparse[i] & RANK_MASK);
+    }
+    sparse = null;
+    sparseSize = 0;
+  }
+
+  private static double alpha(int numRegisters) {
+    switch (numRegisters) {
+      case 16:
+        return 0.673d;
+      case 32:
+        return 0.697d;
+      case 64:
+        return 0.709d;
+      default:
+        return 0.7213d / (1d + 1.079d / numRegisters);
+    }
+  }
+
+  /**
+   * Computes a 64 bit hash of a value. Numbers are hashed from their bits, so that values of different types but
+   * equal bits hash the same, which is fine since a sketch only sees the values of a single field.
+   */
+  static long hash(Object value) {
+    if (value instanceof CharSequence) {
+      CharSequence chars = (CharSequence) value;
+      long hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < chars.length(); i++) {
+        hash ^= chars.charAt(i);
+        hash *= 0x100000001b3L;
+      }
+      return mix(hash);
+    }
+    if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      return mix(((Number) value).longValue());
+    }
+    if (value instanceof Double || value instanceof Float) {
+      return mix(Double.doubleToLongBits(((Number) value).doubleValue()));
+    }
+    if (value instanceof Boolean) {
+      return mix((Boolean) value ? 1L : 0L);
+    }
+    if (value instanceof ByteBuffer || value instanceof byte[]) {
+      ByteBuffer bytes = value instanceof ByteBuffer ?
+        ((ByteBuffer) value).duplicate() : ByteBuffer.wrap((byte[]) value);
+      long hash = 0xcbf29ce484222325L;
+      while (bytes.hasRemaining()) {
+        hash ^= bytes.get() & 0xff;
+        hash *= 0x100000001b3L;
+      }
+      return mix(hash);
+    }
+    return hash(value.toString());
+  }
+
+  /**
+   * Finalization mix of MurmurHash3, which spreads every input bit over the whole hash.
+   */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb93fe53e5a83L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -22,22 +22,29 @@ import org.apache.commons.jexl3.JexlBuilder;
 import org.apache.commons.jexl3.JexlContext;
 import org.apache.commons.jexl3.JexlEngine;
 import org.apache.commons.jexl3.JexlScript;
-import org.apache.commons.jexl3.MapContext;
 
 import java.io.Serializable;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
- * Class used for evaluating Jexl condition
+ * Class used for evaluating Jexl condition.
+ *
+ * The script is compiled once, and the paths of its variables are resolved against the schema of the records once per
+ * schema. Records are evaluated through a reusable context that reads variables from the current record when the
+ * script asks for them. The result for the last record is remembered, so that functions sharing the condition
+ * evaluate it once per record.
  */
 public class JexlCondition implements Condition, Serializable {
+  private static final JexlEngine ENGINE = new JexlBuilder().cache(1024).strict(true).silent(false).create();
 
   private final String condition;
-  private transient JexlEngine engine;
   private transient JexlScript script;
+  private transient RecordContext context;
+  private transient StructuredRecord lastRecord;
+  private transient boolean lastResult;
 
   private JexlCondition(String condition) {
     this.condition = condition;
@@ -45,65 +52,31 @@ public class JexlCondition implements Condition, Serializable {
 
   @Override
   public boolean apply(StructuredRecord record) {
-    JexlScript script = getScript();
-    Set<List<String>> variables = script.getVariables();
-    JexlContext context = new MapContext();
-
-    for (List<String> variable : variables) {
-      Object value = getValue(record, variable);
-      context.set(variable.stream().collect(Collectors.joining(".")), value);
+    if (record == lastRecord) {
+      return lastResult;
+    }
+    if (script == null) {
+      script = ENGINE.createScript(condition);
+      context = new RecordContext(script.getVariables());
     }
 
-    Object result = this.script.execute(context);
+    Object result;
+    try {
+      context.setRecord(record);
+      result = script.execute(context);
+    } finally {
+      context.setRecord(null);
+    }
 
     if (result instanceof Boolean) {
-      return (boolean) result;
+      lastRecord = record;
+      lastResult = (boolean) result;
+      return lastResult;
     } else {
       throw new IllegalArgumentException("incorrect condition");
     }
   }
 
-  /**
-   * Return value of a field from a record based on provided path
-   *
-   * @param record {@link StructuredRecord}
-   * @param path   path to a field in record
-   * @return {@link Object} value of a field in record
-   */
-  private Object getValue(StructuredRecord record, List<String> path) {
-    StructuredRecord structuredRecord = record;
-    Iterator<String> iterator = path.iterator();
-    Object value = null;
-    Schema.Field field = null;
-    while (iterator.hasNext()) {
-      field = structuredRecord.getSchema().getField(iterator.next());
-      if (field == null) {
-        throw new IllegalArgumentException("Field provided in condition is not in input schema.");
-      }
-      if (field.getSchema().getType().equals(Schema.Type.RECORD)) {
-        structuredRecord = structuredRecord.get(field.getName());
-      } else {
-        value = structuredRecord.get(field.getName());
-      }
-    }
-    return value;
-  }
-
-  /**
-   * Generates JexlScript containing condition
-   *
-   * @return {@link JexlScript}
-   */
-  private synchronized JexlScript getScript() {
-    if (engine == null) {
-      engine = new JexlBuilder().cache(1024).strict(true).silent(false).create();
-    }
-    if (script == null) {
-      script = engine.createScript(condition);
-    }
-    return script;
-  }
-
   /**
    * Generates the actual condition based on the given string
    *
@@ -121,9 +94,88 @@ public class JexlCondition implements Condition, Serializable {
    * @return set of lists representing full path of each variable
    */
   public static Set<List<String>> getVariables(String condition) {
-    JexlEngine engine = new JexlBuilder().cache(1024).strict(true).silent(false).create();
-    JexlScript script = engine.createScript(condition);
+    JexlScript script = ENGINE.createScript(condition);
 
     return script.getVariables();
   }
+
+  /**
+   * Jexl context backed by the record being evaluated. Each variable of the script is read from the record only if
+   * the script evaluates it, through the path of fields resolved when the schema of the records changes.
+   */
+  private static final class RecordContext implements JexlContext {
+    private final Map<String, Integer> variableIndexes;
+    private final String[][] paths;
+    private Schema schema;
+    private StructuredRecord record;
+    private Map<String, Object> assigned;
+
+    private RecordContext(Set<List<String>> variables) {
+      this.variableIndexes = new HashMap<>();
+      this.paths = new String[variables.size()][];
+      int index = 0;
+      for (List<String> variable : variables) {
+        variableIndexes.put(String.join(".", variable), index);
+        paths[index++] = variable.toArray(new String[0]);
+      }
+    }
+
+    private void setRecord(StructuredRecord record) {
+      if (record != null && record.getSchema() != schema) {
+        resolve(record.getSchema());
+        schema = record.getSchema();
+      }
+      this.record = record;
+      this.assigned = null;
+    }
+
+    /**
+     * Checks that every variable is a path of fields in the schema, where all but the last field are records.
+     */
+    private void resolve(Schema recordSchema) {
+      for (String[] path : paths) {
+        Schema current = recordSchema;
+        for (int i = 0; i < path.length; i++) {
+          Schema.Field field = current == null ? null : current.getField(path[i]);
+          if (field == null) {
+            throw new IllegalArgumentException("Field provided in condition is not in input schema.");
+          }
+          Schema fieldSchema = field.getSchema().isNullable() ? field.getSchema().getNonNullable() : field.getSchema();
+          current = fieldSchema.getType() == Schema.Type.RECORD ? fieldSchema : null;
+        }
+      }
+    }
+
+    @Override
+    public Object get(String name) {
+      if (assigned != null && assigned.containsKey(name)) {
+        return assigned.get(name);
+      }
+      Integer index = variableIndexes.get(name);
+      if (index == null) {
+        return null;
+      }
+      Object value = record;
+      for (String field : paths[index]) {
+        if (value == null) {
+          return null;
+        }
+        value = ((StructuredRecord) value).get(field);
+      }
+      return value;
+    }
+
+    @Override
+    public void set(String name, Object value) {
+      if (assigned == null) {
+        assigned = new HashMap<>();
+      }
+      assigned.put(name, value);
+    }
+
+    @Override
+    public boolean has(String name) {
+      return variableIndexes.containsKey(name) || (assigned != null && assigned.containsKey(name));
+    }
+  }
 }
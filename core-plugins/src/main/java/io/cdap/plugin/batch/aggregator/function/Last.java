@@ -19,6 +19,9 @@ package io.cdap.plugin.batch.aggregator.function;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import javax.annotation.Nullable;
 
 /**
@@ -26,7 +29,7 @@ import javax.annotation.Nullable;
  *
  * @param <T> type of aggregate value
  */
-public class Last<T> implements SelectionFunction, AggregateFunction<T, Last<T>> {
+public class Last<T> implements SelectionFunction, AggregateFunction<T, Last<T>>, PrimitiveState {
   private final String fieldName;
   private final Schema fieldSchema;
   private T last;
@@ -66,4 +69,14 @@ public class Last<T> implements SelectionFunction, AggregateFunction<T, Last<T>>
   public StructuredRecord select(StructuredRecord record1, StructuredRecord record2) {
     return record2;
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    StateValues.write(out, fieldSchema, last);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    last = StateValues.read(in, fieldSchema);
+  }
 }
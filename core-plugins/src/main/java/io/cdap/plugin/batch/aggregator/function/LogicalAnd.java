@@ -21,11 +21,15 @@ import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.data.schema.Schema.Type;
 import io.cdap.plugin.batch.aggregator.AggregationUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Returns true if all the values in the group are true, false even if there is a single false
  * value
  */
-public class LogicalAnd implements AggregateFunction<Boolean, LogicalAnd> {
+public class LogicalAnd implements AggregateFunction<Boolean, LogicalAnd>, PrimitiveState {
 
   private final String fieldName;
   private boolean logicalAnd;
@@ -67,4 +71,14 @@ public class LogicalAnd implements AggregateFunction<Boolean, LogicalAnd> {
   public Schema getOutputSchema() {
     return Schema.of(Type.BOOLEAN);
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeBoolean(logicalAnd);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    logicalAnd = in.readBoolean();
+  }
 }
@@ -21,11 +21,15 @@ import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.data.schema.Schema.Type;
 import io.cdap.plugin.batch.aggregator.AggregationUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Returns true even if there is a single true value in the group, false if all values in the group
  * are false.
  */
-public class LogicalOr implements AggregateFunction<Boolean, LogicalOr> {
+public class LogicalOr implements AggregateFunction<Boolean, LogicalOr>, PrimitiveState {
 
   private final String fieldName;
   private boolean logicalOr;
@@ -67,4 +71,14 @@ public class LogicalOr implements AggregateFunction<Boolean, LogicalOr> {
   public Schema getOutputSchema() {
     return Schema.of(Type.BOOLEAN);
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeBoolean(logicalOr);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    logicalOr = in.readBoolean();
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.batch.aggregator.AggregationUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import javax.annotation.Nullable;
+
+/**
+ * Estimates a percentile of a numeric column using a {@link QuantileSketch}. The median is the 0.5 percentile.
+ * Null values are ignored, and the percentile is null if every value is null.
+ */
+public class Percentile implements AggregateFunction<Double, Percentile>, PrimitiveState {
+  private static final Schema SCHEMA = Schema.nullableOf(Schema.of(Schema.Type.DOUBLE));
+  private final String fieldName;
+  private final double percentile;
+  private final int sketchSize;
+  private QuantileSketch sketch;
+
+  /**
+   * @param fieldName name of the field
+   * @param fieldSchema schema of the field
+   * @param percentile the percentile to estimate, between 0 and 1
+   * @param sketchSize size parameter of the sketch, trading memory for accuracy
+   */
+  public Percentile(String fieldName, Schema fieldSchema, double percentile, int sketchSize) {
+    this.fieldName = fieldName;
+    this.percentile = percentile;
+    this.sketchSize = sketchSize;
+    AggregationUtils.ensureNumericType(fieldSchema, fieldName, "percentile");
+  }
+
+  @Override
+  public void initialize() {
+    sketch = new QuantileSketch(sketchSize);
+  }
+
+  @Override
+  public void mergeValue(StructuredRecord record) {
+    Object val = record.get(fieldName);
+    if (val == null) {
+      return;
+    }
+    sketch.add(((Number) val).doubleValue());
+  }
+
+  @Override
+  public void mergeAggregates(Percentile otherAgg) {
+    sketch.merge(otherAgg.sketch);
+  }
+
+  @Nullable
+  @Override
+  public Double getAggregate() {
+    if (sketch.getCount() == 0) {
+      return null;
+    }
+    return sketch.getQuantile(percentile);
+  }
+
+  @Override
+  public Schema getOutputSchema() {
+    return SCHEMA;
+  }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    sketch.write(out);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    sketch = QuantileSketch.read(in);
+  }
+}
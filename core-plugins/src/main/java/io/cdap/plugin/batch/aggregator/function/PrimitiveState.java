@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * An {@link AggregateFunction} whose accumulator state can be written in a compact binary form, made of primitive
+ * values and of field values written against the schema of the field. The state of such functions is shuffled in this
+ * form, instead of Java serializing the function together with its field name and schemas, and is the form in which
+ * the group by aggregator persists the state of the aggregates. Changing the form of a function therefore requires a
+ * new format version of the persisted state.
+ */
+public interface PrimitiveState {
+
+  /**
+   * Writes the accumulator state.
+   *
+   * @param out the output to write to
+   */
+  void writeState(DataOutput out) throws IOException;
+
+  /**
+   * Reads the accumulator state written by {@link #writeState(DataOutput)}, replacing the current state.
+   *
+   * @param in the input to read from
+   */
+  void readState(DataInput in) throws IOException;
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * KLL quantile sketch, which estimates the quantiles of a stream of values in bounded memory.
+ *
+ * Values are kept in a hierarchy of compactors, where a value at level {@code h} stands for {@code 2^h} input values.
+ * When the sketch is full, the lowest compactor over its capacity is sorted and every other value is promoted to the
+ * next level. The capacity of a level decreases geometrically from {@code k} at the top level, so the sketch holds
+ * about {@code 3k} values and the rank error of a quantile is about {@code 1.7 / k}. Two sketches with the same
+ * {@code k} can be merged.
+ */
+public final class QuantileSketch implements Serializable {
+  public static final int MIN_K = 8;
+  public static final int MAX_K = 65535;
+  public static final int DEFAULT_K = 200;
+
+  private static final double CAPACITY_DECAY = 2d / 3d;
+
+  private final int k;
+  private double[][] levels;
+  private int[] sizes;
+  private int numLevels;
+  private long count;
+  private double min;
+  private double max;
+  // state of the generator choosing which half of a compactor is promoted
+  private long random;
+
+  public QuantileSketch(int k) {
+    if (k < MIN_K || k > MAX_K) {
+      throw new IllegalArgumentException(String.format("Sketch size must be between %d and %d, but is %d.",
+                                                       MIN_K, MAX_K, k));
+    }
+    this.k = k;
+    this.levels = new double[1][];
+    this.levels[0] = new double[capacity(0, 1)];
+    this.sizes = new int[1];
+    this.numLevels = 1;
+    this.min = Double.NaN;
+    this.max = Double.NaN;
+    this.random = 0x9e3779b97f4a7c15L;
+  }
+
+  public int getK() {
+    return k;
+  }
+
+  /**
+   * @return the number of values added to the sketch
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Adds a value to the sketch.
+   */
+  public void add(double value) {
+    append(0, value);
+    min = count == 0 || value < min ? value : min;
+    max = count == 0 || value > max ? value : max;
+    count++;
+    compress();
+  }
+
+  /**
+   * Merges another sketch into this one.
+   *
+   * @param other the sketch to merge, which must have the same k
+   */
+  public void merge(QuantileSketch other) {
+    if (other.k != k) {
+      throw new IllegalArgumentException(String.format("Cannot merge sketches of size %d and %d.", k, other.k));
+    }
+    if (other.count == 0) {
+      return;
+    }
+    for (int h = 0; h < other.numLevels; h++) {
+      while (h >= numLevels) {
+        addLevel();
+      }
+      for (int i = 0; i < other.sizes[h]; i++) {
+        append(h, other.levels[h][i]);
+      }
+    }
+    min = count == 0 || other.min < min ? other.min : min;
+    max = count == 0 || other.max > max ? other.max : max;
+    count += other.count;
+    compress();
+  }
+
+  /**
+   * Returns the estimated value at the given quantile, which is the smallest value such that at least the given
+   * fraction of the values are less than or equal to it.
+   *
+   * @param quantile the quantile, between 0 and 1
+   * @return the value at the quantile, or NaN if the sketch is empty
+   */
+  public double getQuantile(double quantile) {
+    if (count == 0) {
+      return Double.NaN;
+    }
+    if (quantile <= 0d) {
+      return min;
+    }
+    if (quantile >= 1d) {
+      return max;
+    }
+
+    // merge the sorted levels into a single list of weighted values
+    double[] values = new double[0];
+    long[] weights = new long[0];
+    for (int h = 0; h < numLevels; h++) {
+      double[] level = Arrays.copyOf(levels[h], sizes[h]);
+      Arrays.sort(level);
+      double[] mergedValues = new double[values.length + level.length];
+      long[] mergedWeights = new long[mergedValues.length];
+      int i = 0;
+      int j = 0;
+      for (int m = 0; m < mergedValues.length; m++) {
+        if (j >= level.length || (i < values.length && values[i] <= level[j])) {
+          mergedValues[m] = values[i];
+          mergedWeights[m] = weights[i++];
+        } else {
+          mergedValues[m] = level[j++];
+          mergedWeights[m] = 1L << h;
+        }
+      }
+      values = mergedValues;
+      weights = mergedWeights;
+    }
+
+    double rank = quantile * count;
+    long cumulative = 0L;
+    for (int i = 0; i < values.length; i++) {
+      cumulative += weights[i];
+      if (cumulative >= rank) {
+        return values[i];
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Writes the sketch in its compact binary form.
+   */
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(k);
+    out.writeLong(count);
+    out.writeDouble(min);
+    out.writeDouble(max);
+    out.writeInt(numLevels);
+    for (int h = 0; h < numLevels; h++) {
+      out.writeInt(sizes[h]);
+      for (int i = 0; i < sizes[h]; i++) {
+        out.writeDouble(levels[h][i]);
+      }
+    }
+  }
+
+  /**
+   * Reads a sketch written by {@link #write(DataOutput)}.
+   */
+  public static QuantileSketch read(DataInput in) throws IOException {
+    QuantileSketch sketch = new QuantileSketch(in.readInt());
+    sketch.count = in.readLong();
+    sketch.min = in.readDouble();
+    sketch.max = in.readDouble();
+    int numLevels = in.readInt();
+    for (int h = 0; h < numLevels; h++) {
+      while (h >= sketch.numLevels) {
+        sketch.addLevel();
+      }
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        sketch.append(h, in.readDouble());
+      }
+    }
+    return sketch;
+  }
+
+  private int capacity(int level, int numLevels) {
+    return Math.max(2, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, numLevels - 1 - level)));
+  }
+
+  private void append(int level, double value) {
+    if (sizes[level] == levels[level].length) {
+      levels[level] = Arrays.copyOf(levels[level], Math.max(2, levels[level].length * 2));
+    }
+    levels[level][sizes[level]++] = value;
+  }
+
+  private void addLevel() {
+    levels = Arrays.copyOf(levels, numLevels + 1);
+    sizes = Arrays.copyOf(sizes, numLevels + 1);
+    levels[numLevels] = new double[2];
+    numLevels++;
+  }
+
+  private void compress() {
+    while (true) {
+      int size = 0;
+      int capacity = 0;
+      int fullLevel = -1;
+      for (int h = 0; h < numLevels; h++) {
+        size += sizes[h];
+        int levelCapacity = capacity(h, numLevels);
+        capacity += levelCapacity;
+        if (fullLevel < 0 && sizes[h] >= levelCapacity) {
+          fullLevel = h;
+        }
+      }
+      if (size <= capacity || fullLevel < 0) {
+        return;
+      }
+      compact(fullLevel);
+    }
+  }
+
+  /**
+   * Promotes every other value of a level to the next level, where each value stands for twice as many values.
+   */
+  private void compact(int level) {
+    if (level == numLevels - 1) {
+      addLevel();
+    }
+    double[] items = levels[level];
+    int size = sizes[level];
+    Arrays.sort(items, 0, size);
+    // with an odd number of values, the smallest one stays at this level
+    int start = size % 2;
+    random ^= random << 13;
+    random ^= random >>> 7;
+    random ^= random << 17;
+    for (int i = start + (int) (random & 1L); i < size; i += 2) {
+      append(level + 1, items[i]);
+    }
+    sizes[level] = start;
+  }
+}
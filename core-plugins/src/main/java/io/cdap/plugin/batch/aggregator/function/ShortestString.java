@@ -20,10 +20,14 @@ import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.data.schema.Schema.Type;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Returns the shortest string in the group
  */
-public class ShortestString implements AggregateFunction<String, ShortestString> {
+public class ShortestString implements AggregateFunction<String, ShortestString>, PrimitiveState {
 
   private final String fieldName;
   private final Schema outputSchema;
@@ -76,4 +80,14 @@ public class ShortestString implements AggregateFunction<String, ShortestString>
     return outputSchema;
   }
 
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    StateValues.write(out, outputSchema, shortestString);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    shortestString = StateValues.read(in, outputSchema);
+  }
+
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Writes and reads the field values held in the {@link PrimitiveState} of aggregate functions, in a binary form that
+ * is driven by the schema of the field instead of the Java classes of the values.
+ *
+ * Every value starts with a null flag, and values of unions with the index of their branch. Values are read back as
+ * types that {@link StructuredRecord} accepts for their schema: strings and enum symbols as {@link String}, arrays as
+ * {@link List}, maps as {@link Map} and records as {@link StructuredRecord}. Bytes are read back as a
+ * {@link ByteBuffer} or a byte array, whichever they were written as.
+ */
+final class StateValues {
+
+  private StateValues() {
+  }
+
+  static void write(DataOutput out, Schema schema, @Nullable Object value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value == null) {
+      return;
+    }
+    if (schema.getType() == Schema.Type.UNION) {
+      int branch = getBranch(schema, value);
+      out.writeInt(branch);
+      schema = schema.getUnionSchema(branch);
+    }
+    switch (schema.getType()) {
+      case BOOLEAN:
+        out.writeBoolean((Boolean) value);
+        return;
+      case INT:
+        out.writeInt(((Number) value).intValue());
+        return;
+      case LONG:
+        out.writeLong(((Number) value).longValue());
+        return;
+      case FLOAT:
+        out.writeFloat(((Number) value).floatValue());
+        return;
+      case DOUBLE:
+        out.writeDouble(((Number) value).doubleValue());
+        return;
+      case STRING:
+      case ENUM:
+        writeBytes(out, value.toString().getBytes(StandardCharsets.UTF_8));
+        return;
+      case BYTES:
+        out.writeBoolean(value instanceof ByteBuffer);
+        if (value instanceof ByteBuffer) {
+          ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+          byte[] bytes = new byte[buffer.remaining()];
+          buffer.get(bytes);
+          writeBytes(out, bytes);
+        } else {
+          writeBytes(out, (byte[]) value);
+        }
+        return;
+      case ARRAY:
+        Schema componentSchema = schema.getComponentSchema();
+        if (value instanceof Collection) {
+          out.writeInt(((Collection<?>) value).size());
+          for (Object element : (Collection<?>) value) {
+            write(out, componentSchema, element);
+          }
+        } else {
+          int length = Array.getLength(value);
+          out.writeInt(length);
+          for (int i = 0; i < length; i++) {
+            write(out, componentSchema, Array.get(value, i));
+          }
+        }
+        return;
+      case MAP:
+        Map.Entry<Schema, Schema> mapSchema = schema.getMapSchema();
+        out.writeInt(((Map<?, ?>) value).size());
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          write(out, mapSchema.getKey(), entry.getKey());
+          write(out, mapSchema.getValue(), entry.getValue());
+        }
+        return;
+      case RECORD:
+        StructuredRecord record = (StructuredRecord) value;
+        for (Schema.Field field : schema.getFields()) {
+          write(out, field.getSchema(), record.get(field.getName()));
+        }
+        return;
+      default:
+        throw new IOException(String.format("Cannot write a value of schema %s.", schema));
+    }
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  static <T> T read(DataInput in, Schema schema) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    if (schema.getType() == Schema.Type.UNION) {
+      int branch = in.readInt();
+      if (branch < 0 || branch >= schema.getUnionSchemas().size()) {
+        throw new IOException(String.format("Invalid branch %d of the union %s.", branch, schema));
+      }
+      schema = schema.getUnionSchema(branch);
+    }
+    switch (schema.getType()) {
+      case BOOLEAN:
+        return (T) Boolean.valueOf(in.readBoolean());
+      case INT:
+        return (T) Integer.valueOf(in.readInt());
+      case LONG:
+        return (T) Long.valueOf(in.readLong());
+      case FLOAT:
+        return (T) Float.valueOf(in.readFloat());
+      case DOUBLE:
+        return (T) Double.valueOf(in.readDouble());
+      case STRING:
+      case ENUM:
+        return (T) new String(readBytes(in), StandardCharsets.UTF_8);
+      case BYTES:
+        boolean buffer = in.readBoolean();
+        byte[] bytes = readBytes(in);
+        return (T) (buffer ? ByteBuffer.wrap(bytes) : bytes);
+      case ARRAY:
+        int length = in.readInt();
+        List<Object> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+          list.add(read(in, schema.getComponentSchema()));
+        }
+        return (T) list;
+      case MAP:
+        Map.Entry<Schema, Schema> mapSchema = schema.getMapSchema();
+        int size = in.readInt();
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+          map.put(read(in, mapSchema.getKey()), read(in, mapSchema.getValue()));
+        }
+        return (T) map;
+      case RECORD:
+        StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+        for (Schema.Field field : schema.getFields()) {
+          builder.set(field.getName(), read(in, field.getSchema()));
+        }
+        return (T) builder.build();
+      default:
+        throw new IOException(String.format("Cannot read a value of schema %s.", schema));
+    }
+  }
+
+  private static int getBranch(Schema union, Object value) throws IOException {
+    List<Schema> branches = union.getUnionSchemas();
+    for (int i = 0; i < branches.size(); i++) {
+      if (matches(branches.get(i), value)) {
+        return i;
+      }
+    }
+    throw new IOException(String.format("Value of type %s does not match any schema of the union %s.",
+                                        value.getClass().getName(), union));
+  }
+
+  private static boolean matches(Schema schema, Object value) {
+    switch (schema.getType()) {
+      case BOOLEAN:
+        return value instanceof Boolean;
+      case INT:
+        return value instanceof Integer || value instanceof Short || value instanceof Byte;
+      case LONG:
+        return value instanceof Long;
+      case FLOAT:
+        return value instanceof Float;
+      case DOUBLE:
+        return value instanceof Double;
+      case STRING:
+        return value instanceof CharSequence;
+      case ENUM:
+        return (value instanceof CharSequence || value instanceof Enum)
+          && schema.getEnumIndex(value.toString()) >= 0;
+      case BYTES:
+        return value instanceof ByteBuffer || value instanceof byte[];
+      case ARRAY:
+        return value instanceof Collection || (value.getClass().isArray() && !(value instanceof byte[]));
+      case MAP:
+        return value instanceof Map;
+      case RECORD:
+        return value instanceof StructuredRecord
+          && schema.getRecordName().equals(((StructuredRecord) value).getSchema().getRecordName());
+      default:
+        return false;
+    }
+  }
+
+  private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInput in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+}
@@ -20,12 +20,15 @@ import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.batch.aggregator.AggregationUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import javax.annotation.Nullable;
 
 /**
  * Calculates the sum of squares
  */
-public class SumOfSquares implements AggregateFunction<Double, SumOfSquares> {
+public class SumOfSquares implements AggregateFunction<Double, SumOfSquares>, PrimitiveState {
 
   private final String fieldName;
   private final Schema outputSchema;
@@ -74,4 +77,14 @@ public class SumOfSquares implements AggregateFunction<Double, SumOfSquares> {
   public Schema getOutputSchema() {
     return outputSchema;
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeDouble(sumOfSquares);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    sumOfSquares = in.readDouble();
+  }
 }
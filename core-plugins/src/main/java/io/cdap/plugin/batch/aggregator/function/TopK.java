@@ -0,0 +1,388 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.exception.ErrorCategory;
+import io.cdap.cdap.api.exception.ErrorType;
+import io.cdap.cdap.api.exception.ErrorUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Finds the most frequent values of a column with the space saving algorithm.
+ *
+ * At most {@code capacity} values are counted per group. When a new value is seen and all the counters are in use,
+ * a value with the lowest count is replaced and the new value inherits its count. Every value that occurs more than
+ * {@code n / capacity} times in a group of {@code n} values is guaranteed to be counted, and a count overestimates the
+ * number of occurrences by at most {@code n / capacity}. The aggregate is a list of up to {@code k} records with the
+ * value and its count, most frequent first. Null values are ignored.
+ *
+ * The counts of two partitions are merged as mergeable space saving summaries, so that the guarantees hold for the
+ * whole group. A value that a full summary does not count may have occurred as many times as its lowest count, so it
+ * is counted that many times in the merged counts, which then keep the most frequent values up to the capacity.
+ */
+public class TopK implements AggregateFunction<List<StructuredRecord>, TopK>, PrimitiveState {
+  public static final int MAX_K = 10000;
+  public static final int MAX_CAPACITY = 1000000;
+  public static final int CAPACITY_FACTOR = 10;
+
+  private static final Comparator<Map.Entry<Object, Long>> MOST_FREQUENT_FIRST =
+    new Comparator<Map.Entry<Object, Long>>() {
+      @Override
+      public int compare(Map.Entry<Object, Long> e1, Map.Entry<Object, Long> e2) {
+        int cmp = Long.compare(e2.getValue(), e1.getValue());
+        return cmp != 0 ? cmp : String.valueOf(e1.getKey()).compareTo(String.valueOf(e2.getKey()));
+      }
+    };
+
+  private final String fieldName;
+  private final int k;
+  private final int capacity;
+  private final Schema entrySchema;
+  // the counters are Java serialized through their primitive state
+  private transient Map<Object, Counter> counters;
+  // the bucket of the least frequent values, which links to the buckets of higher counts
+  private transient Bucket minBucket;
+
+  /**
+   * @param fieldName name of the field
+   * @param fieldSchema schema of the field
+   * @param k number of values to return
+   * @param capacity maximum number of values counted per group, which must be at least k
+   */
+  public TopK(String fieldName, Schema fieldSchema, int k, int capacity) {
+    this.fieldName = fieldName;
+    this.k = k;
+    this.capacity = capacity;
+    Schema valueSchema = fieldSchema.isNullable() ? fieldSchema.getNonNullable() : fieldSchema;
+    switch (valueSchema.getType()) {
+      case STRING:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case BOOLEAN:
+        break;
+      default:
+        String error = String.format(
+          "Cannot compute top k on field %s because its type %s is not a string, number or boolean.", fieldName,
+          valueSchema.getLogicalType() == null ? valueSchema.getType() : valueSchema.getLogicalType());
+        throw ErrorUtils.getProgramFailureException(new ErrorCategory(ErrorCategory.ErrorCategoryEnum.PLUGIN), error,
+                                                    error, ErrorType.USER, false, null);
+    }
+    this.entrySchema = Schema.recordOf(fieldName + ".topk",
+                                       Schema.Field.of("value", valueSchema),
+                                       Schema.Field.of("count", Schema.of(Schema.Type.LONG)));
+  }
+
+  @Override
+  public void initialize() {
+    counters = new HashMap<>();
+    minBucket = null;
+  }
+
+  @Override
+  public void mergeValue(StructuredRecord record) {
+    Object val = record.get(fieldName);
+    if (val == null) {
+      return;
+    }
+    Counter counter = counters.get(val);
+    if (counter != null) {
+      increment(counter);
+      return;
+    }
+    if (counters.size() < capacity) {
+      counter = new Counter(val);
+      counters.put(val, counter);
+      if (minBucket == null || minBucket.count != 1L) {
+        insertBucketAfter(null, new Bucket(1L));
+      }
+      minBucket.add(counter);
+      return;
+    }
+    // replace a least frequent value, and count the new value from its count
+    counter = minBucket.head;
+    counters.remove(counter.value);
+    counter.value = val;
+    counters.put(val, counter);
+    increment(counter);
+  }
+
+  @Override
+  public void mergeAggregates(TopK otherAgg) {
+    long minCount = getMinCount();
+    long otherMinCount = otherAgg.getMinCount();
+    Map<Object, Long> counts = getCounts();
+    Map<Object, Long> otherCounts = otherAgg.getCounts();
+    for (Map.Entry<Object, Long> entry : counts.entrySet()) {
+      Long otherCount = otherCounts.remove(entry.getKey());
+      entry.setValue(entry.getValue() + (otherCount == null ? otherMinCount : otherCount));
+    }
+    for (Map.Entry<Object, Long> entry : otherCounts.entrySet()) {
+      counts.put(entry.getKey(), entry.getValue() + minCount);
+    }
+    setCounts(counts);
+  }
+
+  @Override
+  public List<StructuredRecord> getAggregate() {
+    List<Map.Entry<Object, Long>> entries = sortedEntries(getCounts());
+    List<StructuredRecord> topK = new ArrayList<>(Math.min(k, entries.size()));
+    for (Map.Entry<Object, Long> entry : entries.subList(0, Math.min(k, entries.size()))) {
+      topK.add(StructuredRecord.builder(entrySchema)
+                 .set("value", entry.getKey())
+                 .set("count", entry.getValue())
+                 .build());
+    }
+    return topK;
+  }
+
+  @Override
+  public Schema getOutputSchema() {
+    return Schema.arrayOf(entrySchema);
+  }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeInt(counters.size());
+    for (Counter counter : counters.values()) {
+      writeValue(out, counter.value);
+      out.writeLong(counter.bucket.count);
+    }
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    int size = in.readInt();
+    Map<Object, Long> counts = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      counts.put(readValue(in), in.readLong());
+    }
+    setCounts(counts);
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    writeState(out);
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    readState(in);
+  }
+
+  /**
+   * Moves a counter to the bucket of the next count, which is the next bucket or a new one.
+   */
+  private void increment(Counter counter) {
+    Bucket bucket = counter.bucket;
+    Bucket next = bucket.next;
+    if (next == null || next.count != bucket.count + 1) {
+      next = new Bucket(bucket.count + 1);
+      insertBucketAfter(bucket, next);
+    }
+    bucket.remove(counter);
+    if (bucket.head == null) {
+      removeBucket(bucket);
+    }
+    next.add(counter);
+  }
+
+  private void insertBucketAfter(@Nullable Bucket previous, Bucket bucket) {
+    Bucket next = previous == null ? minBucket : previous.next;
+    bucket.prev = previous;
+    bucket.next = next;
+    if (next != null) {
+      next.prev = bucket;
+    }
+    if (previous == null) {
+      minBucket = bucket;
+    } else {
+      previous.next = bucket;
+    }
+  }
+
+  private void removeBucket(Bucket bucket) {
+    if (bucket.prev == null) {
+      minBucket = bucket.next;
+    } else {
+      bucket.prev.next = bucket.next;
+    }
+    if (bucket.next != null) {
+      bucket.next.prev = bucket.prev;
+    }
+  }
+
+  /**
+   * @return the most times a value that is not counted may have occurred, which is the lowest count once all the
+   *   counters are in use, and 0 before, as no value has been replaced yet
+   */
+  private long getMinCount() {
+    return counters.size() < capacity || minBucket == null ? 0L : minBucket.count;
+  }
+
+  private Map<Object, Long> getCounts() {
+    Map<Object, Long> counts = new HashMap<>();
+    for (Bucket bucket = minBucket; bucket != null; bucket = bucket.next) {
+      for (Counter counter = bucket.head; counter != null; counter = counter.next) {
+        counts.put(counter.value, bucket.count);
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * Replaces the counters with the most frequent of the given values, up to the capacity.
+   */
+  private void setCounts(Map<Object, Long> counts) {
+    List<Map.Entry<Object, Long>> entries = sortedEntries(counts);
+    initialize();
+    Bucket bucket = null;
+    // the buckets are created from the least frequent value kept
+    for (int i = Math.min(capacity, entries.size()) - 1; i >= 0; i--) {
+      Map.Entry<Object, Long> entry = entries.get(i);
+      if (bucket == null || bucket.count != entry.getValue()) {
+        Bucket next = new Bucket(entry.getValue());
+        if (bucket == null) {
+          insertBucketAfter(null, next);
+        } else {
+          insertBucketAfter(bucket, next);
+        }
+        bucket = next;
+      }
+      Counter counter = new Counter(entry.getKey());
+      bucket.add(counter);
+      counters.put(entry.getKey(), counter);
+    }
+  }
+
+  private static List<Map.Entry<Object, Long>> sortedEntries(Map<Object, Long> counts) {
+    List<Map.Entry<Object, Long>> entries = new ArrayList<>(counts.entrySet());
+    entries.sort(MOST_FREQUENT_FIRST);
+    return entries;
+  }
+
+  private static void writeValue(DataOutput out, Object value) throws IOException {
+    if (value instanceof String) {
+      byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+      out.writeByte(0);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    } else if (value instanceof Integer) {
+      out.writeByte(1);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(2);
+      out.writeLong((Long) value);
+    } else if (value instanceof Float) {
+      out.writeByte(3);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      out.writeByte(4);
+      out.writeDouble((Double) value);
+    } else {
+      out.writeByte(5);
+      out.writeBoolean((Boolean) value);
+    }
+  }
+
+  private static Object readValue(DataInput in) throws IOException {
+    switch (in.readByte()) {
+      case 0:
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+      case 1:
+        return in.readInt();
+      case 2:
+        return in.readLong();
+      case 3:
+        return in.readFloat();
+      case 4:
+        return in.readDouble();
+      default:
+        return in.readBoolean();
+    }
+  }
+
+  /**
+   * Counts a value, and is linked to the other values of its bucket.
+   */
+  private static final class Counter {
+    private Object value;
+    private Bucket bucket;
+    private Counter prev;
+    private Counter next;
+
+    private Counter(Object value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * The values with the same count, linked to the buckets of the next lower and higher counts, as in the stream
+   * summary of the space saving algorithm. Incrementing a count and finding a least frequent value both take constant
+   * time.
+   */
+  private static final class Bucket {
+    private final long count;
+    private Counter head;
+    private Bucket prev;
+    private Bucket next;
+
+    private Bucket(long count) {
+      this.count = count;
+    }
+
+    private void add(Counter counter) {
+      counter.bucket = this;
+      counter.prev = null;
+      counter.next = head;
+      if (head != null) {
+        head.prev = counter;
+      }
+      head = counter;
+    }
+
+    private void remove(Counter counter) {
+      if (counter.prev == null) {
+        head = counter.next;
+      } else {
+        counter.prev.next = counter.next;
+      }
+      if (counter.next != null) {
+        counter.next.prev = counter.prev;
+      }
+      counter.prev = null;
+      counter.next = null;
+    }
+  }
+}
@@ -20,6 +20,9 @@ import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.batch.aggregator.AggregationUtils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import javax.annotation.Nullable;
 
 /**
@@ -27,7 +30,7 @@ import javax.annotation.Nullable;
  * Uses E(x^2) - [E(x)]^2 formula for variance calculation
  * Uses ((n1 * E1) + (n2 * E2)) / (n1 + n2) formula when merging partition
  */
-public class Variance implements AggregateFunction<Double, Variance> {
+public class Variance implements AggregateFunction<Double, Variance>, PrimitiveState {
   private static final String AGG_KEY = "variance";
   private static final String AGG_SQUARE_MEAN_KEY = "squareMean";
   private static final String AGG_COUNT_KEY = "count";
@@ -128,4 +131,28 @@ public class Variance implements AggregateFunction<Double, Variance> {
   public Schema getOutputSchema() {
     return outputSchema;
   }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeBoolean(variance != null);
+    if (variance == null) {
+      return;
+    }
+    out.writeDouble(variance);
+    out.writeDouble(mean);
+    out.writeDouble(squaredMean);
+    out.writeLong(count);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    initialize();
+    if (!in.readBoolean()) {
+      return;
+    }
+    variance = in.readDouble();
+    mean = in.readDouble();
+    squaredMean = in.readDouble();
+    count = in.readLong();
+  }
 }
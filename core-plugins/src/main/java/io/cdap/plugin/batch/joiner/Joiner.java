@@ -43,6 +43,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -96,7 +97,15 @@ public class Joiner extends BatchAutoJoiner {
     }
 
     Set<String> requiredStages = conf.getRequiredInputs();
-    Set<String> broadcastStages = conf.getBroadcastInputs();
+    boolean distributionValid = conf.isDistributionValid(collector);
+    Set<String> broadcastStages = new HashSet<>(conf.getBroadcastInputs());
+    if (distributionValid) {
+      // distribution cannot be used if either input is loaded in memory
+      LOG.debug("Not loading inputs in memory automatically because distribution is enabled.");
+    } else {
+      broadcastStages.addAll(getAutoBroadcastStages(context.getInputStages().keySet(), requiredStages,
+                                                    broadcastStages, collector));
+    }
     List<JoinStage> inputs = new ArrayList<>(context.getInputStages().size());
     boolean useOutputSchema = false;
     for (JoinStage joinStage : context.getInputStages().values()) {
@@ -123,7 +132,11 @@ public class Joiner extends BatchAutoJoiner {
          Spark will just choose to broadcast the right side because it doesn't know how big the input datasets are.
          See CDAP-17718 for more info.
        */
-      if (requiredStages.size() < inputs.size() && broadcastStages.isEmpty()) {
+      /*
+         Interval conditions contain the equality of the join keys, so the engine joins on the keys and only
+         evaluates the range condition on the records with the same key, even for outer joins.
+       */
+      if (!conf.isIntervalCondition() && requiredStages.size() < inputs.size() && broadcastStages.isEmpty()) {
         collector.addFailure("Advanced outer joins must specify an input to load in memory.", null)
           .withConfigProperty(JoinerConfig.MEMORY_INPUTS);
       }
@@ -140,14 +153,25 @@ public class Joiner extends BatchAutoJoiner {
         .withConfigProperty(JoinerConfig.DISTRIBUTION_STAGE);
     }
 
+    String skewedStage = conf.distributionStageNameConstainsMacro() ? null : conf.getDistributionStageName();
+    if (distributionValid && Strings.isNullOrEmpty(skewedStage)) {
+      // only possible with auto distribution
+      skewedStage = getSkewedStage(inputs);
+      if (skewedStage == null) {
+        collector.addFailure("The skewed stage can only be chosen automatically for an outer join of two inputs.",
+                             "Specify the skewed input stage.")
+          .withConfigProperty(JoinerConfig.DISTRIBUTION_STAGE);
+        distributionValid = false;
+      }
+    }
 
     try {
       JoinDefinition.Builder joinBuilder = JoinDefinition.builder();
 
       // If the user has specified one side as the most skewed, move this to the left side of the join.
       // This is useful for BigQuery Pushdown Joins
-      if (!conf.distributionStageNameConstainsMacro() && !Strings.isNullOrEmpty(conf.getDistributionStageName())) {
-        reorderJoinStages(inputs, conf.getDistributionStageName());
+      if (!Strings.isNullOrEmpty(skewedStage)) {
+        reorderJoinStages(inputs, skewedStage);
       }
 
       joinBuilder
@@ -160,8 +184,8 @@ public class Joiner extends BatchAutoJoiner {
         joinBuilder.setOutputSchemaName("join.output");
       }
 
-      if (conf.isDistributionValid(collector)) {
-        joinBuilder.setDistributionFactor(conf.getDistributionFactor(), conf.getDistributionStageName());
+      if (distributionValid) {
+        joinBuilder.setDistributionFactor(conf.getDistributionFactor(conf.getNumPartitions()), skewedStage);
       }
       return joinBuilder.build();
     } catch (InvalidJoinException e) {
@@ -206,14 +230,15 @@ public class Joiner extends BatchAutoJoiner {
   public void prepareRun(BatchJoinerContext context) {
     if (conf.getNumPartitions() != null) {
       context.setNumPartitions(conf.getNumPartitions());
-      if (conf.getDistributionFactor() != null && conf.getDistributionFactor() < conf.getNumPartitions()) {
+      Integer distributionFactor = conf.getDistributionFactor(conf.getNumPartitions());
+      if (distributionFactor != null && distributionFactor > conf.getNumPartitions()) {
         LOG.warn("Number of partitions ({}) should be greater than or equal to distribution factor ({}) for optimal "
-                   + "results.", conf.getNumPartitions(), conf.getDistributionFactor());
+                   + "results.", conf.getNumPartitions(), distributionFactor);
       }
     }
     FailureCollector collector = context.getFailureCollector();
     JoinCondition.Op conditionType = conf.getCondition(collector).getOp();
-    Set<JoinKey> keys = conditionType == JoinCondition.Op.KEY_EQUALITY ?
+    Set<JoinKey> keys = conditionType == JoinCondition.Op.KEY_EQUALITY || conf.isIntervalCondition() ?
       conf.getJoinKeys(collector) : Collections.emptySet();
     context.record(createFieldOperations(conf.getSelectedFields(collector), keys));
   }
@@ -289,6 +314,62 @@ public class Joiner extends BatchAutoJoiner {
     return operations;
   }
 
+  /**
+   * Chooses the inputs to load in memory from their size hints. The smallest inputs with a size of at most the
+   * broadcast threshold are loaded in memory, as long as at least one input is not loaded in memory. In an outer join,
+   * only the inputs that are not required can be loaded in memory, since the engine must read all the records of the
+   * required inputs.
+   *
+   * @param stages names of the input stages
+   * @param requiredStages names of the required input stages
+   * @param broadcastStages names of the input stages that are configured to be loaded in memory
+   * @param collector failure collector
+   * @return names of the additional input stages to load in memory
+   */
+  private Set<String> getAutoBroadcastStages(Set<String> stages, Set<String> requiredStages,
+                                             Set<String> broadcastStages, FailureCollector collector) {
+    Long threshold = conf.getBroadcastThreshold(collector);
+    if (threshold == null) {
+      return Collections.emptySet();
+    }
+    Map<String, Long> sizes = conf.getInputSizeHints(collector);
+    for (String stage : sizes.keySet()) {
+      if (!stages.contains(stage)) {
+        collector.addFailure(String.format("Input size hint is given for stage '%s', which is not an input.", stage),
+                             null).withConfigProperty(JoinerConfig.INPUT_SIZE_HINTS);
+      }
+    }
+
+    boolean innerJoin = requiredStages.containsAll(stages);
+    List<String> candidates = stages.stream()
+      .filter(stage -> !broadcastStages.contains(stage) && (innerJoin || !requiredStages.contains(stage)))
+      .filter(stage -> sizes.containsKey(stage) && sizes.get(stage) <= threshold)
+      .sorted(Comparator.comparing(sizes::get))
+      .collect(Collectors.toList());
+    int maxStages = Math.max(0, Math.min(candidates.size(), stages.size() - broadcastStages.size() - 1));
+    Set<String> selected = new LinkedHashSet<>(candidates.subList(0, maxStages));
+    LOG.info("Input size hints are {} with a broadcast threshold of {} bytes. Loading {} in memory automatically.",
+             sizes, threshold, selected.isEmpty() ? "no input" : selected);
+    return selected;
+  }
+
+  /**
+   * Chooses the skewed stage of a join with distribution when it is not specified. Distribution is only possible for
+   * a join of two inputs where the skewed input is required, so the skewed stage is known from the join itself when
+   * exactly one of the inputs is required. In an inner join, either input could be skewed, and it must be specified.
+   *
+   * @param stages list of input stages
+   * @return the name of the skewed stage, or null if it cannot be chosen
+   */
+  @Nullable
+  @VisibleForTesting
+  static String getSkewedStage(List<JoinStage> stages) {
+    if (stages.size() != 2 || stages.get(0).isRequired() == stages.get(1).isRequired()) {
+      return null;
+    }
+    return stages.get(0).isRequired() ? stages.get(0).getStageName() : stages.get(1).getStageName();
+  }
+
   /**
    * Reorders join stages so the supplied stage name is always first.
    * @param stages list of input stages
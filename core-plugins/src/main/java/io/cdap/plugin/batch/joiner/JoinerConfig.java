@@ -19,7 +19,9 @@ package io.cdap.plugin.batch.joiner;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Name;
@@ -56,8 +58,11 @@ public class JoinerConfig extends PluginConfig {
   public static final String CONDITION_EXPR = "conditionExpression";
   public static final String DISTRIBUTION_ENABLED = "distributionEnabled";
   public static final String DISTRIBUTION_FACTOR = "distributionFactor";
+  public static final String DISTRIBUTION_MODE = "distributionMode";
   public static final String DISTRIBUTION_STAGE = "distributionStageName";
   public static final String INPUT_ALIASES = "inputAliases";
+  public static final String INPUT_SIZE_HINTS = "inputSizeHints";
+  public static final String BROADCAST_THRESHOLD = "broadcastThreshold";
   public static final String JOIN_KEYS = "joinKeys";
   public static final String JOIN_NULL_KEYS = "joinNullKeys";
   public static final String MEMORY_INPUTS = "inMemoryInputs";
@@ -65,8 +70,16 @@ public class JoinerConfig extends PluginConfig {
   public static final String REQUIRED_INPUTS = "requiredInputs";
   public static final String SELECTED_FIELDS = "selectedFields";
   public static final String OUTPUT_SCHEMA = "schema";
+  public static final String RANGE_FIELD = "rangeField";
+  public static final String RANGE_START_FIELD = "rangeStartField";
+  public static final String RANGE_END_FIELD = "rangeEndField";
   private static final String BASIC = "basic";
   private static final String ADVANCED = "advanced";
+  private static final String INTERVAL = "interval";
+  private static final String DISTRIBUTION_MODE_MANUAL = "manual";
+  private static final String DISTRIBUTION_MODE_AUTO = "auto";
+  // bounds how much the non-skewed input grows when the distribution size is chosen automatically
+  static final int MAX_AUTO_DISTRIBUTION_FACTOR = 16;
 
   @Macro
   @Nullable
@@ -119,6 +132,22 @@ public class JoinerConfig extends PluginConfig {
     "Whether it is actually loaded into memory is up to the engine. This property is ignored when MapReduce is used.")
   private String inMemoryInputs;
 
+  @Macro
+  @Nullable
+  @Name(INPUT_SIZE_HINTS)
+  @Description("Estimated size in bytes of the input stages, used to choose the inputs to load in memory when a "
+    + "broadcast threshold is set. Specified as a list of '<stageName>:<bytes>' separated by ';'. Use macros to "
+    + "provide sizes computed before the pipeline runs, such as the size of the input files.")
+  private String inputSizeHints;
+
+  @Macro
+  @Nullable
+  @Name(BROADCAST_THRESHOLD)
+  @Description("Maximum estimated size in bytes of an input that is automatically loaded in memory. Inputs whose "
+    + "size hint is at most this value are loaded in memory, in addition to the inputs to load in memory, when "
+    + "the join allows it. If not set, only the inputs to load in memory are loaded in memory.")
+  private Long broadcastThreshold;
+
   @Macro
   @Nullable
   @Name(JOIN_NULL_KEYS)
@@ -149,6 +178,15 @@ public class JoinerConfig extends PluginConfig {
     + "increase the parallelism for skewed data.")
   private Boolean distributionEnabled;
 
+  @Macro
+  @Nullable
+  @Name(DISTRIBUTION_MODE)
+  @Description("How the skewed stage and the distribution size are chosen when distribution is enabled. With "
+    + "'manual', both must be specified. With 'auto', the specified values are used, and missing values are chosen "
+    + "from the join: the required input of an outer join is the skewed stage, and the distribution size is the "
+    + "number of partitions, up to a maximum of 16. Defaults to 'manual'.")
+  private String distributionMode;
+
   @Macro
   @Nullable
   @Name(CONDITION_TYPE)
@@ -161,6 +199,27 @@ public class JoinerConfig extends PluginConfig {
   @Description("Join condition as a SQL expression.")
   private String conditionExpression;
 
+  @Macro
+  @Nullable
+  @Name(RANGE_FIELD)
+  @Description("Field that must be within the range of the other input when the condition type is 'interval'. "
+    + "It must be prefixed with '<stageName>.'. For example, 'events.ts'.")
+  private String rangeField;
+
+  @Macro
+  @Nullable
+  @Name(RANGE_START_FIELD)
+  @Description("Field of the other input that holds the inclusive start of the range when the condition type is "
+    + "'interval'. It must be prefixed with '<stageName>.'. For example, 'sessions.start'.")
+  private String rangeStartField;
+
+  @Macro
+  @Nullable
+  @Name(RANGE_END_FIELD)
+  @Description("Field of the other input that holds the inclusive end of the range when the condition type is "
+    + "'interval'. It must be prefixed with '<stageName>.'. For example, 'sessions.end'.")
+  private String rangeEndField;
+
   @Macro
   @Nullable
   @Name(INPUT_ALIASES)
@@ -189,6 +248,40 @@ public class JoinerConfig extends PluginConfig {
     this.distributionStageName = distributionStageName;
   }
 
+  @VisibleForTesting
+  JoinerConfig(String joinKeys, String selectedFields, String requiredInputs, @Nullable Integer numPartitions,
+               String distributionMode) {
+    this(joinKeys, selectedFields, requiredInputs);
+    this.numPartitions = numPartitions;
+    this.distributionEnabled = true;
+    this.distributionMode = distributionMode;
+  }
+
+  @VisibleForTesting
+  JoinerConfig(String joinKeys, String selectedFields, String requiredInputs, String rangeField,
+               String rangeStartField, String rangeEndField) {
+    this(joinKeys, selectedFields, requiredInputs);
+    this.conditionType = INTERVAL;
+    this.rangeField = rangeField;
+    this.rangeStartField = rangeStartField;
+    this.rangeEndField = rangeEndField;
+  }
+
+  @VisibleForTesting
+  JoinerConfig(String joinKeys, String selectedFields, String requiredInputs, String rangeField,
+               String rangeStartField, String rangeEndField, boolean joinNullKeys) {
+    this(joinKeys, selectedFields, requiredInputs, rangeField, rangeStartField, rangeEndField);
+    this.joinNullKeys = joinNullKeys;
+  }
+
+  @VisibleForTesting
+  JoinerConfig(String joinKeys, String selectedFields, String requiredInputs, String inputSizeHints,
+               long broadcastThreshold) {
+    this(joinKeys, selectedFields, requiredInputs);
+    this.inputSizeHints = inputSizeHints;
+    this.broadcastThreshold = broadcastThreshold;
+  }
+
   @VisibleForTesting
   JoinerConfig(String selectedFields, String conditionExpression, Set<String> requiredInputs) {
     this.selectedFields = selectedFields;
@@ -217,17 +310,27 @@ public class JoinerConfig extends PluginConfig {
     return containsMacro(SELECTED_FIELDS) || containsMacro(REQUIRED_INPUTS) ||
       containsMacro(OUTPUT_SCHEMA) || containsMacro(CONDITION_TYPE) ||
       (BASIC.equalsIgnoreCase(conditionType) && containsMacro(JOIN_KEYS)) ||
-      (ADVANCED.equalsIgnoreCase(conditionType) && containsMacro(CONDITION_EXPR));
+      (ADVANCED.equalsIgnoreCase(conditionType) && containsMacro(CONDITION_EXPR)) ||
+      (INTERVAL.equalsIgnoreCase(conditionType) && (containsMacro(JOIN_KEYS) || containsMacro(RANGE_FIELD) ||
+        containsMacro(RANGE_START_FIELD) || containsMacro(RANGE_END_FIELD)));
+  }
+
+  /**
+   * @return whether the condition is an equality of join keys with a range condition, which is joined as an expression
+   */
+  boolean isIntervalCondition() {
+    return INTERVAL.equalsIgnoreCase(conditionType);
   }
 
   private JoinCondition.Op getConditionType(FailureCollector failureCollector) {
     if (conditionType == null || conditionType.isEmpty() || BASIC.equals(conditionType)) {
       return JoinCondition.Op.KEY_EQUALITY;
     }
-    if (ADVANCED.equalsIgnoreCase(conditionType)) {
+    if (ADVANCED.equalsIgnoreCase(conditionType) || INTERVAL.equalsIgnoreCase(conditionType)) {
       return JoinCondition.Op.EXPRESSION;
     }
-    failureCollector.addFailure("Invalid condition type " + conditionType, "Set it to 'basic' or 'advanced'.");
+    failureCollector.addFailure("Invalid condition type " + conditionType,
+                                "Set it to 'basic', 'advanced' or 'interval'.");
     throw failureCollector.getOrThrowException();
   }
 
@@ -256,6 +359,11 @@ public class JoinerConfig extends PluginConfig {
           .setNullSafe(isNullSafe())
           .build();
       case EXPRESSION:
+        if (isIntervalCondition()) {
+          return JoinCondition.onExpression()
+            .setExpression(getIntervalExpression(failureCollector))
+            .build();
+        }
         if (conditionExpression == null || conditionExpression.isEmpty()) {
           failureCollector.addFailure("A join condition must be specified.", null)
             .withConfigProperty(CONDITION_EXPR);
@@ -272,6 +380,73 @@ public class JoinerConfig extends PluginConfig {
       error, error, ErrorType.USER, false, null);
   }
 
+  /**
+   * Builds the expression of an interval condition, which is the equality of the join keys of the two inputs and a
+   * range condition on a field of one input between two fields of the other input. Since the condition contains the
+   * equality of the keys, the engine can join the inputs on the keys and only compare the records of the same key.
+   * The keys are compared with the null-safe equality operator if null keys are joined.
+   */
+  @VisibleForTesting
+  String getIntervalExpression(FailureCollector failureCollector) {
+    List<JoinKey> keys = new ArrayList<>(getJoinKeys(failureCollector));
+    JoinField field = getRangeField(RANGE_FIELD, rangeField, failureCollector);
+    JoinField start = getRangeField(RANGE_START_FIELD, rangeStartField, failureCollector);
+    JoinField end = getRangeField(RANGE_END_FIELD, rangeEndField, failureCollector);
+    failureCollector.getOrThrowException();
+
+    if (keys.size() != 2) {
+      failureCollector.addFailure("Interval join conditions can only be used when joining two inputs.", null)
+        .withConfigProperty(JOIN_KEYS);
+      throw failureCollector.getOrThrowException();
+    }
+    Set<String> stages = keys.stream().map(JoinKey::getStageName).collect(Collectors.toSet());
+    if (!start.getStageName().equals(end.getStageName())) {
+      failureCollector.addFailure("The start and end of the range must be fields of the same input.", null)
+        .withConfigProperty(RANGE_END_FIELD);
+    } else if (field.getStageName().equals(start.getStageName())) {
+      failureCollector.addFailure("The range field must be a field of the other input than the range.", null)
+        .withConfigProperty(RANGE_FIELD);
+    }
+    for (Map.Entry<String, JoinField> entry : ImmutableMap.of(RANGE_FIELD, field, RANGE_START_FIELD, start,
+                                                              RANGE_END_FIELD, end).entrySet()) {
+      if (!stages.contains(entry.getValue().getStageName())) {
+        failureCollector.addFailure(String.format("Stage '%s' is not one of the joined inputs.",
+                                                  entry.getValue().getStageName()), null)
+          .withConfigProperty(entry.getKey());
+      }
+    }
+    failureCollector.getOrThrowException();
+
+    List<String> conditions = new ArrayList<>();
+    JoinKey left = keys.get(0);
+    JoinKey right = keys.get(1);
+    String equality = isNullSafe() ? "<=>" : "=";
+    for (int i = 0; i < left.getFields().size(); i++) {
+      conditions.add(String.format("%s %s %s", getSqlName(left.getStageName(), left.getFields().get(i)), equality,
+                                   getSqlName(right.getStageName(), right.getFields().get(i))));
+    }
+    String fieldName = getSqlName(field.getStageName(), field.getFieldName());
+    conditions.add(String.format("%s >= %s", fieldName, getSqlName(start.getStageName(), start.getFieldName())));
+    conditions.add(String.format("%s <= %s", fieldName, getSqlName(end.getStageName(), end.getFieldName())));
+    return String.join(" AND ", conditions);
+  }
+
+  private JoinField getRangeField(String property, @Nullable String value, FailureCollector failureCollector) {
+    List<String> stageField = Strings.isNullOrEmpty(value) ? Collections.emptyList() :
+      Lists.newArrayList(Splitter.on('.').trimResults().omitEmptyStrings().split(value));
+    if (stageField.size() != 2) {
+      failureCollector.addFailure(String.format("Invalid range field '%s'. Range fields must be of syntax " +
+                                                  "<stageName>.<fieldName>.", value == null ? "" : value), null)
+        .withConfigProperty(property);
+      return new JoinField("", "");
+    }
+    return new JoinField(stageField.get(0), stageField.get(1));
+  }
+
+  private static String getSqlName(String stageName, String fieldName) {
+    return String.format("`%s`.`%s`", stageName, fieldName);
+  }
+
   Set<JoinKey> getJoinKeys(FailureCollector failureCollector) {
     // Use a LinkedHashMap to maintain the ordering as the input config.
     // This helps making error report deterministic.
@@ -358,6 +533,44 @@ public class JoinerConfig extends PluginConfig {
     return getSet(inMemoryInputs);
   }
 
+  /**
+   * @return the broadcast threshold, or null if inputs should not be loaded in memory automatically
+   */
+  @Nullable
+  Long getBroadcastThreshold(FailureCollector failureCollector) {
+    if (containsMacro(BROADCAST_THRESHOLD) || containsMacro(INPUT_SIZE_HINTS) || broadcastThreshold == null) {
+      return null;
+    }
+    if (broadcastThreshold < 0) {
+      failureCollector.addFailure("Broadcast threshold cannot be negative.", null)
+        .withConfigProperty(BROADCAST_THRESHOLD);
+      return null;
+    }
+    return broadcastThreshold;
+  }
+
+  Map<String, Long> getInputSizeHints(FailureCollector failureCollector) {
+    if (Strings.isNullOrEmpty(inputSizeHints)) {
+      return Collections.emptyMap();
+    }
+    Map<String, Long> sizes = new HashMap<>();
+    KeyValueListParser kvParser = new KeyValueListParser(";", ":");
+    try {
+      for (KeyValue<String, String> size : kvParser.parse(inputSizeHints)) {
+        long bytes = Long.parseLong(size.getValue());
+        if (bytes < 0) {
+          throw new IllegalArgumentException(String.format("Size of input '%s' cannot be negative.", size.getKey()));
+        }
+        sizes.put(size.getKey(), bytes);
+      }
+    } catch (IllegalArgumentException e) {
+      failureCollector.addFailure("Invalid input size hints: " + e.getMessage(),
+                                  "Specify sizes in bytes as '<stageName>:<bytes>' separated by ';'.")
+        .withConfigProperty(INPUT_SIZE_HINTS);
+    }
+    return sizes;
+  }
+
   boolean isNullSafe() {
     return joinNullKeys == null ? true : joinNullKeys;
   }
@@ -383,6 +596,25 @@ public class JoinerConfig extends PluginConfig {
     return distributionStageName;
   }
 
+  /**
+   * Returns the distribution size. When it is not specified with the 'auto' distribution mode, it is the number of
+   * partitions, up to {@link #MAX_AUTO_DISTRIBUTION_FACTOR}, or that maximum if the number of partitions is not set.
+   */
+  @Nullable
+  Integer getDistributionFactor(@Nullable Integer numPartitions) {
+    if (distributionFactor != null || !isAutoDistribution()) {
+      return distributionFactor;
+    }
+    if (numPartitions == null || numPartitions <= 0) {
+      return MAX_AUTO_DISTRIBUTION_FACTOR;
+    }
+    return Math.min(numPartitions, MAX_AUTO_DISTRIBUTION_FACTOR);
+  }
+
+  boolean isAutoDistribution() {
+    return !containsMacro(DISTRIBUTION_MODE) && DISTRIBUTION_MODE_AUTO.equalsIgnoreCase(distributionMode);
+  }
+
   public boolean isDistributionValid(FailureCollector collector) {
     int startFailures = collector.getValidationFailures().size();
 
@@ -391,11 +623,19 @@ public class JoinerConfig extends PluginConfig {
       return false;
     }
 
-    if (!containsMacro(DISTRIBUTION_FACTOR) && distributionFactor == null) {
+    if (!containsMacro(DISTRIBUTION_MODE) && !Strings.isNullOrEmpty(distributionMode)
+      && !DISTRIBUTION_MODE_MANUAL.equalsIgnoreCase(distributionMode) && !isAutoDistribution()) {
+      collector.addFailure(String.format("Invalid distribution mode '%s'.", distributionMode),
+                           "Set it to 'manual' or 'auto'.")
+        .withConfigProperty(DISTRIBUTION_MODE);
+    }
+    // with auto distribution, the distribution size and skewed stage are chosen when they are not specified
+    boolean auto = isAutoDistribution();
+    if (!auto && !containsMacro(DISTRIBUTION_FACTOR) && distributionFactor == null) {
       collector.addFailure("Distribution Size is a required value if distribution is enabled.", "")
         .withConfigProperty(DISTRIBUTION_FACTOR);
     }
-    if (!containsMacro(DISTRIBUTION_STAGE) && Strings.isNullOrEmpty(distributionStageName)) {
+    if (!auto && !containsMacro(DISTRIBUTION_STAGE) && Strings.isNullOrEmpty(distributionStageName)) {
       collector.addFailure("Skewed Stage name is a required value if distribution is enabled.", "")
         .withConfigProperty(DISTRIBUTION_STAGE);
     }
@@ -411,7 +651,8 @@ public class JoinerConfig extends PluginConfig {
   public boolean distributionContainsMacro() {
     return containsMacro("distributionEnabled") ||
       containsMacro(DISTRIBUTION_FACTOR) ||
-      containsMacro(DISTRIBUTION_STAGE);
+      containsMacro(DISTRIBUTION_STAGE) ||
+      containsMacro(DISTRIBUTION_MODE);
   }
 
   public boolean distributionStageNameConstainsMacro() {
@@ -64,6 +64,18 @@ public class FileSourceConfig extends AbstractFileSourceConfig {
   @Nullable
   @Description("The maximum number of rows that will get investigated for automatic data type detection.")
   private Long sampleSize;
+
+  @Macro
+  @Nullable
+  @Description("The maximum number of files that will get investigated for automatic data type detection. The " +
+    "first file is always investigated, and the others are chosen at random. The default value is 1.")
+  private Integer sampleFiles;
+
+  @Macro
+  @Nullable
+  @Description("The maximum number of bytes that will get read from all files for automatic data type detection. " +
+    "If none is given, only the sample size limits the rows read.")
+  private Long sampleBytes;
   
   FileSourceConfig() {
     super();
@@ -30,8 +30,10 @@ import java.nio.ByteBuffer;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
@@ -78,6 +80,8 @@ public class StructuredRecordToCubeFact {
   private static final class CubeFactBuilder {
     private final TimestampResolver timestampResolver;
     private final Collection<MeasurementResolver> measurementResolvers;
+    private Schema lastSchema;
+    private DimensionField[] dimensionFields;
 
     CubeFactBuilder(Map<String, String> properties) {
       Map<String, String> props = new HashMap<>(properties);
@@ -100,19 +104,35 @@ public class StructuredRecordToCubeFact {
       CubeFact fact = new CubeFact(timestampResolver.getTimestamp(record) / 1000);
       addMeasurements(record, fact);
 
-      for (Schema.Field field : record.getSchema().getFields()) {
-        Object value = record.get(field.getName());
+      for (DimensionField dimension : getDimensionFields(record.getSchema())) {
+        Object value = record.get(dimension.name);
         if (value != null) {
-          String stringValue = getStringValue(field, value);
-          if (stringValue != null) {
-            fact.addDimensionValue(field.getName(), stringValue);
-          }
+          fact.addDimensionValue(dimension.name, dimension.getStringValue(value));
         }
       }
 
       return fact;
     }
 
+    /**
+     * Returns the fields that are mapped to dimensions, which are resolved once for each schema, since all the
+     * records of a stage usually share the same schema.
+     */
+    private DimensionField[] getDimensionFields(Schema schema) {
+      if (schema != lastSchema) {
+        List<DimensionField> fields = new ArrayList<>();
+        for (Schema.Field field : schema.getFields()) {
+          Schema.Type type = validateAndGetType(field);
+          if (type != null) {
+            fields.add(new DimensionField(field.getName(), type == Schema.Type.BYTES));
+          }
+        }
+        dimensionFields = fields.toArray(new DimensionField[0]);
+        lastSchema = schema;
+      }
+      return dimensionFields;
+    }
+
     private void addMeasurements(StructuredRecord record, CubeFact fact) {
       for (MeasurementResolver resolver : measurementResolvers) {
         Measurement measurement = resolver.getMeasurement(record);
@@ -121,27 +141,28 @@ public class StructuredRecordToCubeFact {
         }
       }
     }
+  }
 
-    @Nullable
-    private String getStringValue(Schema.Field field, Object value) {
-      Schema.Type type = validateAndGetType(field);
-      if (type == null) {
-        return null;
+  /**
+   * A field of simple type that is mapped to a dimension.
+   */
+  private static final class DimensionField {
+    private final String name;
+    private final boolean bytes;
+
+    DimensionField(String name, boolean bytes) {
+      this.name = name;
+      this.bytes = bytes;
+    }
+
+    String getStringValue(Object value) {
+      if (!bytes) {
+        return value.toString();
       }
-      String dimValue;
-      switch (type) {
-        case BYTES:
-          if (value instanceof ByteBuffer) {
-            dimValue = Bytes.toString((ByteBuffer) value);
-          } else {
-            dimValue = Bytes.toStringBinary((byte[]) value);
-          }
-          break;
-        default:
-          dimValue = value.toString();
+      if (value instanceof ByteBuffer) {
+        return Bytes.toString((ByteBuffer) value);
       }
-
-      return dimValue;
+      return Bytes.toStringBinary((byte[]) value);
     }
   }
 
@@ -229,6 +250,9 @@ public class StructuredRecordToCubeFact {
 
     private Long getValue(StructuredRecord record) {
       Object val = record.get(name);
+      if (val instanceof Integer || val instanceof Long) {
+        return ((Number) val).longValue();
+      }
       if (val != null) {
         return Double.valueOf(val.toString()).longValue();
       }
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the serialized form of {@link AggregateResult}, which is shuffled for every group, with the previous form,
+ * which Java serialized the input schema along with a map of the aggregate functions of the group. It reports the
+ * bytes per group and the time to serialize and deserialize a group, for ten aggregates. It is not run as part of the
+ * tests:
+ *
+ * java -cp ... io.cdap.plugin.batch.aggregator.AggregateResultBenchmark
+ */
+public final class AggregateResultBenchmark {
+  static final Schema INPUT_SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("quantity", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("price", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+  static final GroupByConfig CONFIG = new GroupByConfig(
+    "user", "total:sum(price),average:avg(price),cheapest:min(price),largest:max(quantity)," +
+    "numPrices:count(price),num:count(*),deviation:stddev(price),var:variance(price)," +
+    "noPrice:countNulls(price),squares:sumOfSquares(quantity)");
+  private static final int NUM_GROUPS = 10000;
+  private static final int RECORDS_PER_GROUP = 3;
+
+  public static void main(String[] args) throws Exception {
+    List<AggregateResult> results = newResults(NUM_GROUPS);
+    List<LegacyAggregateResult> legacyResults = newLegacyResults(NUM_GROUPS);
+    for (int i = 0; i < 3; i++) {
+      run("previous", legacyResults);
+      run("current", results);
+    }
+  }
+
+  private static void run(String name, List<?> objects) throws Exception {
+    long start = System.nanoTime();
+    byte[] bytes = serialize(objects);
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      for (int i = 0; i < objects.size(); i++) {
+        in.readObject();
+      }
+    }
+    long nanos = System.nanoTime() - start;
+    System.out.printf("%-10s %6d bytes/group %8.1f us/group%n", name, bytes.length / objects.size(),
+                      nanos / 1000d / objects.size());
+  }
+
+  /**
+   * @return the results of the given number of groups, which share the aggregation plan of the input schema
+   */
+  static List<AggregateResult> newResults(int numGroups) {
+    AggregationPlan plan = AggregationPlan.compile(INPUT_SCHEMA, CONFIG.getGroupByFields(), CONFIG.getAggregates());
+    List<AggregateResult> results = new ArrayList<>(numGroups);
+    for (int i = 0; i < numGroups; i++) {
+      results.add(new AggregateResult(plan.getInputSchema(), aggregate(plan, i)));
+    }
+    return results;
+  }
+
+  /**
+   * @return the results of the given number of groups in the previous form, which created the functions and their
+   *   output schemas for every group
+   */
+  static List<LegacyAggregateResult> newLegacyResults(int numGroups) {
+    List<LegacyAggregateResult> results = new ArrayList<>(numGroups);
+    for (int i = 0; i < numGroups; i++) {
+      AggregationPlan plan = AggregationPlan.compile(INPUT_SCHEMA, CONFIG.getGroupByFields(), CONFIG.getAggregates());
+      AggregateFunction[] functions = aggregate(plan, i);
+      Map<String, AggregateFunction> functionMap = new HashMap<>();
+      for (int j = 0; j < functions.length; j++) {
+        functionMap.put(CONFIG.getAggregates().get(j).getName(), functions[j]);
+      }
+      results.add(new LegacyAggregateResult(INPUT_SCHEMA, functionMap));
+    }
+    return results;
+  }
+
+  static byte[] serialize(List<?> objects) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      for (Object object : objects) {
+        out.writeObject(object);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static AggregateFunction[] aggregate(AggregationPlan plan, int group) {
+    AggregateFunction[] functions = plan.newAggregates();
+    for (int i = group; i < group + RECORDS_PER_GROUP; i++) {
+      StructuredRecord record = StructuredRecord.builder(INPUT_SCHEMA)
+        .set("user", "user" + group)
+        .set("quantity", i)
+        .set("price", i % 4 == 0 ? null : i * 1.5d)
+        .build();
+      for (AggregateFunction function : functions) {
+        function.mergeValue(record);
+      }
+    }
+    return functions;
+  }
+
+  /**
+   * The previous serialized form of {@link AggregateResult}.
+   */
+  static final class LegacyAggregateResult implements Serializable {
+    private final Schema inputSchema;
+    private final Map<String, AggregateFunction> functions;
+
+    private LegacyAggregateResult(Schema inputSchema, Map<String, AggregateFunction> functions) {
+      this.inputSchema = inputSchema;
+      this.functions = functions;
+    }
+  }
+
+  private AggregateResultBenchmark() {
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the serialization of {@link AggregateResult}.
+ */
+public class AggregateResultTest {
+  private static final Schema INPUT_SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("quantity", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("price", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+  private static final GroupByConfig CONFIG = new GroupByConfig(
+    "user", "total:sum(price),average:avg(price),cheapest:min(price),largest:max(quantity)," +
+    "numPrices:count(price),num:count(*),deviation:stddev(price),var:variance(price)," +
+    "noPrice:countNulls(price),squares:sumOfSquares(quantity)");
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    AggregationPlan plan = AggregationPlan.compile(INPUT_SCHEMA, CONFIG.getGroupByFields(), CONFIG.getAggregates());
+    AggregateResult result = newResult(plan, 0, 3);
+    AggregateResult other = newResult(plan, 3, 5);
+
+    List<AggregateResult> deserialized = deserialize(serialize(result, other), 2);
+    AggregateFunction[] functions = deserialized.get(0).getFunctions(plan);
+    AggregateFunction[] otherFunctions = deserialized.get(1).getFunctions(plan);
+    for (int i = 0; i < functions.length; i++) {
+      functions[i].mergeAggregates(otherFunctions[i]);
+    }
+
+    AggregateFunction[] expected = newResult(plan, 0, 5).getFunctions(plan);
+    StructuredRecord groupKey = StructuredRecord.builder(Schema.recordOf("key", INPUT_SCHEMA.getField("user")))
+      .set("user", "alice").build();
+    StructuredRecord expectedOutput = plan.buildOutput(groupKey, expected);
+    StructuredRecord actualOutput = plan.buildOutput(groupKey, functions);
+    for (Schema.Field field : plan.getOutputSchema().getFields()) {
+      Object expectedValue = expectedOutput.get(field.getName());
+      Object actualValue = actualOutput.get(field.getName());
+      if (expectedValue instanceof Double) {
+        Assert.assertEquals(field.getName(), (Double) expectedValue, (Double) actualValue, 0.000001d);
+      } else {
+        Assert.assertEquals(field.getName(), expectedValue, actualValue);
+      }
+    }
+  }
+
+  /**
+   * Checks that the serialized size per group is much smaller than with the previous format. The sizes are reported
+   * by {@link AggregateResultBenchmark}.
+   */
+  @Test
+  public void testSerializedSize() throws Exception {
+    int numGroups = 100;
+    int size = AggregateResultBenchmark.serialize(AggregateResultBenchmark.newResults(numGroups)).length / numGroups;
+    int legacySize = AggregateResultBenchmark.serialize(AggregateResultBenchmark.newLegacyResults(numGroups)).length
+      / numGroups;
+    Assert.assertTrue(String.format("Serialized size per group is %d bytes, was %d bytes", size, legacySize),
+                      size * 3 < legacySize);
+  }
+
+  private static AggregateResult newResult(AggregationPlan plan, int from, int to) {
+    AggregateFunction[] functions = plan.newAggregates();
+    for (int i = from; i < to; i++) {
+      StructuredRecord record = StructuredRecord.builder(INPUT_SCHEMA)
+        .set("user", "alice")
+        .set("quantity", i)
+        .set("price", i % 4 == 0 ? null : i * 1.5d)
+        .build();
+      for (AggregateFunction function : functions) {
+        function.mergeValue(record);
+      }
+    }
+    return new AggregateResult(plan.getInputSchema(), functions);
+  }
+
+  private static byte[] serialize(Object... objects) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      for (Object object : objects) {
+        out.writeObject(object);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static List<AggregateResult> deserialize(byte[] bytes, int count) throws Exception {
+    List<AggregateResult> results = new ArrayList<>();
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      for (int i = 0; i < count; i++) {
+        results.add((AggregateResult) in.readObject());
+      }
+    }
+    return results;
+  }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.dataset.lib.KeyValueTable;
+import io.cdap.cdap.api.dataset.table.Table;
+import io.cdap.cdap.etl.api.Arguments;
+import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+import io.cdap.plugin.batch.aggregator.function.PrimitiveState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Tests for {@link AggregateStateStore}.
+ */
+public class AggregateStateStoreTest {
+  private static final Schema INPUT_SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("item", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("price", Schema.of(Schema.Type.DOUBLE)));
+  private static final GroupByConfig CONFIG = new GroupByConfig(
+    "user", "total:sum(price),num:count(*),firstItem:first(item),items:collectSet(item),p50:median(price)");
+  private static final AggregationPlan PLAN =
+    AggregationPlan.compile(INPUT_SCHEMA, CONFIG.getGroupByFields(), CONFIG.getAggregates());
+
+  @Test
+  public void testMergeAcrossRuns() {
+    KeyValueTable table = newTable();
+    runAndCommit(table, 1L, purchase("pen", 2d), purchase("book", 20d));
+    StructuredRecord output = runAndCommit(table, 2L, purchase("ink", 5d));
+
+    StructuredRecord groupKey = PLAN.getGroupKey(purchase("pen", 2d));
+    StructuredRecord expected = PLAN.buildOutput(
+      groupKey, aggregate(purchase("pen", 2d), purchase("book", 20d), purchase("ink", 5d)).getFunctions(PLAN));
+    Assert.assertEquals(expected, output);
+    Assert.assertEquals("pen", output.get("firstItem"));
+    Assert.assertEquals(3L, (long) output.get("num"));
+  }
+
+  @Test
+  public void testRetriedRunIsNotCountedTwice() {
+    KeyValueTable table = newTable();
+    runAndCommit(table, 1L, purchase("pen", 2d));
+    // a retried task, or a speculative attempt, merges the same input again in the same run
+    run(table, 2L, purchase("book", 20d));
+    run(table, 2L, purchase("book", 20d));
+    AggregateStateStore.commit(table, 2L);
+
+    StructuredRecord output = runAndCommit(table, 3L, purchase("ink", 5d));
+    Assert.assertEquals(3L, (long) output.get("num"));
+    Assert.assertEquals(27d, output.get("total"), 0d);
+  }
+
+  @Test
+  public void testFailedRunIsIgnored() {
+    KeyValueTable table = newTable();
+    runAndCommit(table, 1L, purchase("pen", 2d));
+    // the run fails after the aggregator persisted its state, so it is not committed
+    Assert.assertEquals(2L, (long) run(table, 2L, purchase("book", 20d)).get("num"));
+
+    StructuredRecord output = runAndCommit(table, 3L, purchase("book", 20d));
+    Assert.assertEquals(2L, (long) output.get("num"));
+    Assert.assertEquals(22d, output.get("total"), 0d);
+    Assert.assertEquals(Arrays.asList("book", "pen"), sorted(output.get("items")));
+  }
+
+  @Test
+  public void testFirstRunFails() {
+    KeyValueTable table = newTable();
+    run(table, 1L, purchase("pen", 2d));
+    StructuredRecord output = runAndCommit(table, 2L, purchase("book", 20d));
+    Assert.assertEquals(1L, (long) output.get("num"));
+    Assert.assertEquals("book", output.get("firstItem"));
+  }
+
+  @Test
+  public void testRunIds() {
+    // a run started again with the same logical start time still gets a new id
+    Set<Long> runIds = new HashSet<>();
+    for (int i = 0; i < 1000; i++) {
+      runIds.add(AggregateStateStore.newRunId());
+    }
+    Assert.assertEquals(1000, runIds.size());
+
+    Map<String, String> values = new HashMap<>();
+    values.put(AggregateStateStore.getRunIdArgument("group"), "-42");
+    Arguments arguments = arguments(values);
+    Assert.assertEquals(-42L, AggregateStateStore.getRunId(arguments, "group"));
+    try {
+      AggregateStateStore.getRunId(arguments, "other");
+      Assert.fail("A stage without a run id should not read or write state");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("other.state.run.id"));
+    }
+  }
+
+  @Test
+  public void testEncodeValue() {
+    String signature = AggregateStateStore.getSignature(CONFIG.getGroupByFields(), null, CONFIG.getAggregates());
+    byte[] base = AggregateStateStore.encodeState(aggregate(purchase("pen", 2d)), PLAN);
+    byte[] state = AggregateStateStore.encodeState(aggregate(purchase("pen", 2d), purchase("ink", 5d)), PLAN);
+    byte[] value = AggregateStateStore.encodeValue(signature, 7L, base, state);
+    Assert.assertEquals(AggregateStateStore.FORMAT_VERSION, value[0]);
+
+    AggregateStateStore.Row row = AggregateStateStore.decodeValue(signature, value);
+    Assert.assertEquals(7L, row.runId);
+    Assert.assertArrayEquals(base, row.base);
+    Assert.assertArrayEquals(state, row.state);
+
+    StructuredRecord groupKey = PLAN.getGroupKey(purchase("pen", 2d));
+    StructuredRecord expected = PLAN.buildOutput(
+      groupKey, aggregate(purchase("pen", 2d), purchase("ink", 5d)).getFunctions(PLAN));
+    Assert.assertEquals(expected, PLAN.buildOutput(
+      groupKey, AggregateStateStore.decodeState(row.state, PLAN).getFunctions(PLAN)));
+    Assert.assertNull(AggregateStateStore.decodeValue(
+      signature, AggregateStateStore.encodeValue(signature, 7L, null, state)).base);
+  }
+
+  @Test
+  public void testUnsupportedVersion() {
+    String signature = AggregateStateStore.getSignature(CONFIG.getGroupByFields(), null, CONFIG.getAggregates());
+    byte[] value = AggregateStateStore.encodeValue(
+      signature, 1L, null, AggregateStateStore.encodeState(aggregate(purchase("pen", 2d)), PLAN));
+    value[0] = AggregateStateStore.FORMAT_VERSION + 1;
+    try {
+      AggregateStateStore.decodeValue(signature, value);
+      Assert.fail("State of an unknown format version should not be read");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("Use a new state table"));
+    }
+  }
+
+  @Test
+  public void testEncodeKey() {
+    byte[] key = AggregateStateStore.encodeKey(PLAN.getGroupKey(purchase("pen", 2d)));
+    Assert.assertArrayEquals(key, AggregateStateStore.encodeKey(PLAN.getGroupKey(purchase("book", 20d))));
+    Assert.assertEquals("{\"user\":\"alice\"}", Bytes.toString(key));
+  }
+
+  @Test
+  public void testChangedAggregates() {
+    String signature = AggregateStateStore.getSignature(CONFIG.getGroupByFields(), null, CONFIG.getAggregates());
+    byte[] value = AggregateStateStore.encodeValue(
+      signature, 1L, null, AggregateStateStore.encodeState(aggregate(purchase("pen", 2d)), PLAN));
+
+    GroupByConfig changed = new GroupByConfig(
+      "user", "total:max(price),num:count(*),firstItem:first(item),items:collectSet(item),p50:median(price)");
+    String changedSignature = AggregateStateStore.getSignature(changed.getGroupByFields(), null,
+                                                               changed.getAggregates());
+    Assert.assertNotEquals(signature, changedSignature);
+    try {
+      AggregateStateStore.decodeValue(changedSignature, value);
+      Assert.fail("State of different aggregates should not be merged");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("Use a new state table"));
+    }
+  }
+
+  @Test
+  public void testAllFunctionsCanBePersisted() {
+    Schema schema = Schema.recordOf(
+      "record",
+      Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("price", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))),
+      Schema.Field.of("flag", Schema.nullableOf(Schema.of(Schema.Type.BOOLEAN))));
+    for (GroupByConfig.Function function : GroupByConfig.Function.values()) {
+      String field = "price";
+      if (function.name().contains("STRING") || function.name().startsWith("CONCAT")) {
+        field = "name";
+      } else if (function.name().startsWith("LOGICAL")) {
+        field = "flag";
+      }
+      List<String> arguments = function.name().startsWith("PERCENTILE") ?
+        Collections.singletonList("0.5") : Collections.emptyList();
+      String condition = function.isConditional() ? "price > 1" : null;
+      AggregateFunction aggregate = new GroupByConfig.FunctionInfo("agg", field, function, condition, arguments)
+        .getAggregateFunction(schema.getField(field).getSchema());
+      Assert.assertTrue(function.name(), aggregate instanceof PrimitiveState);
+    }
+  }
+
+  private static StructuredRecord runAndCommit(KeyValueTable table, long runId, StructuredRecord... records) {
+    StructuredRecord output = run(table, runId, records);
+    AggregateStateStore.commit(table, runId);
+    return output;
+  }
+
+  /**
+   * Merges the records of a run into the state, as the aggregator does when it finalizes a group.
+   */
+  private static StructuredRecord run(KeyValueTable table, long runId, StructuredRecord... records) {
+    AggregateStateStore store =
+      new AggregateStateStore(table, runId, CONFIG.getGroupByFields(), null, CONFIG.getAggregates());
+    StructuredRecord groupKey = PLAN.getGroupKey(records[0]);
+    AggregateStateStore.GroupState state = store.read(groupKey);
+    AggregateResult result = aggregate(records);
+    AggregateResult previous = state.getResult(PLAN);
+    if (previous != null) {
+      AggregateFunction[] functions = previous.getFunctions(PLAN);
+      AggregateFunction[] others = result.getFunctions(PLAN);
+      for (int i = 0; i < functions.length; i++) {
+        functions[i].mergeAggregates(others[i]);
+      }
+      result = previous;
+    }
+    StructuredRecord output = PLAN.buildOutput(groupKey, result.getFunctions(PLAN));
+    store.write(state, result, PLAN);
+    return output;
+  }
+
+  private static AggregateResult aggregate(StructuredRecord... records) {
+    AggregateFunction[] functions = PLAN.newAggregates();
+    for (StructuredRecord record : records) {
+      for (AggregateFunction function : functions) {
+        function.mergeValue(record);
+      }
+    }
+    return new AggregateResult(PLAN.getInputSchema(), functions);
+  }
+
+  private static List<String> sorted(Iterable<String> values) {
+    List<String> list = new ArrayList<>();
+    values.forEach(list::add);
+    Collections.sort(list);
+    return list;
+  }
+
+  private static StructuredRecord purchase(String item, double price) {
+    return StructuredRecord.builder(INPUT_SCHEMA).set("user", "alice").set("item", item).set("price", price).build();
+  }
+
+  private static Arguments arguments(Map<String, String> values) {
+    return new Arguments() {
+      @Override
+      public boolean has(String name) {
+        return values.containsKey(name);
+      }
+
+      @Override
+      public String get(String name) {
+        return values.get(name);
+      }
+
+      @Override
+      public Iterator<Map.Entry<String, String>> iterator() {
+        return values.entrySet().iterator();
+      }
+    };
+  }
+
+  /**
+   * @return a key value table held in memory, which only supports reads and writes of single keys
+   */
+  private static KeyValueTable newTable() {
+    Map<String, byte[]> rows = new TreeMap<>();
+    Table table = (Table) Proxy.newProxyInstance(
+      Table.class.getClassLoader(), new Class<?>[] {Table.class}, (proxy, method, args) -> {
+        String row = Bytes.toStringBinary((byte[]) args[0]) + "/" + Bytes.toStringBinary((byte[]) args[1]);
+        switch (method.getName()) {
+          case "get":
+            return rows.get(row);
+          case "put":
+            rows.put(row, (byte[]) args[2]);
+            return null;
+          default:
+            throw new UnsupportedOperationException(method.toString());
+        }
+      });
+    return new KeyValueTable("state", table);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AggregationPlan}.
+ */
+public class AggregationPlanTest {
+  private static final Schema INPUT_SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("item", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("price", Schema.of(Schema.Type.DOUBLE)));
+
+  @Test
+  public void testPlan() {
+    GroupByConfig config = new GroupByConfig("user", "total:sum(price),num:count(*)," +
+      "numExpensive:countIf(price):condition(price > 10),totalExpensive:sumIf(price):condition( price > 10)");
+    AggregationPlan plan = AggregationPlan.compile(INPUT_SCHEMA, config.getGroupByFields(), config.getAggregates());
+
+    Schema expectedOutput = Schema.recordOf(
+      "purchase.agg",
+      Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("total", Schema.of(Schema.Type.DOUBLE)),
+      Schema.Field.of("num", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("numExpensive", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("totalExpensive", Schema.of(Schema.Type.DOUBLE)));
+    Assert.assertEquals(expectedOutput, plan.getOutputSchema());
+
+    StructuredRecord record1 = purchase("alice", "pen", 2d);
+    StructuredRecord record2 = purchase("alice", "book", 20d);
+    StructuredRecord groupKey = plan.getGroupKey(record1);
+    Assert.assertEquals(groupKey, plan.getGroupKey(record2));
+
+    AggregateFunction[] functions = plan.newAggregates();
+    AggregateFunction[] otherFunctions = plan.newAggregates();
+    Assert.assertNotSame(functions[0], otherFunctions[0]);
+    for (AggregateFunction function : functions) {
+      function.mergeValue(record1);
+    }
+    for (AggregateFunction function : otherFunctions) {
+      function.mergeValue(record2);
+    }
+    for (int i = 0; i < functions.length; i++) {
+      functions[i].mergeAggregates(otherFunctions[i]);
+    }
+
+    StructuredRecord output = plan.buildOutput(groupKey, functions);
+    Assert.assertEquals(StructuredRecord.builder(expectedOutput)
+                          .set("user", "alice")
+                          .set("total", 22d)
+                          .set("num", 2L)
+                          .set("numExpensive", 1L)
+                          .set("totalExpensive", 20d)
+                          .build(), output);
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testMissingGroupByField() {
+    GroupByConfig config = new GroupByConfig("country", "num:count(*)");
+    AggregationPlan.compile(INPUT_SCHEMA, config.getGroupByFields(), config.getAggregates());
+  }
+
+  private static StructuredRecord purchase(String user, String item, double price) {
+    return StructuredRecord.builder(INPUT_SCHEMA).set("user", user).set("item", item).set("price", price).build();
+  }
+}
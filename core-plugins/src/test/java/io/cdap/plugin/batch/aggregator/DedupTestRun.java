@@ -133,6 +133,12 @@ public class DedupTestRun extends ETLBatchTestBase {
                                "filterOperation", "ts:max"), ImmutableMap.of(), "", Engine.MAPREDUCE);
   }
 
+  @Test
+  public void testDedupFingerprintKeys() throws Exception {
+    testHelper(ImmutableMap.of("uniqueFields", "fname,lname", "filterOperation", "ts:max", "fingerprintKeys", "true"),
+               ImmutableMap.of(), "-fingerprint", Engine.SPARK);
+  }
+
   @Test
   public void testDedupWithMacro() throws Exception {
     testHelper(ImmutableMap.of("uniqueFields", "${uniqueFields}",
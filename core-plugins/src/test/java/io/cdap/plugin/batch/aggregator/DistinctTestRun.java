@@ -143,6 +143,12 @@ public class DistinctTestRun extends ETLBatchTestBase {
     testHelper(ImmutableMap.of("fields", "user_name,item"), ImmutableMap.of(), "", Engine.MAPREDUCE);
   }
 
+  @Test
+  public void testDistinctWithFingerprintKeys() throws Exception {
+    testHelper(ImmutableMap.of("fields", "user_name,item", "fingerprintKeys", "true"), ImmutableMap.of(),
+               "-fingerprint", Engine.SPARK);
+  }
+
   @Test
   public void testDistinctWithMacro() throws Exception {
     testHelper(ImmutableMap.of("fields", "${fields}", "numPartitions", "${numPartitions}"),
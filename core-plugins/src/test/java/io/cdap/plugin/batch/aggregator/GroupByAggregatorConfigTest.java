@@ -17,6 +17,8 @@
 package io.cdap.plugin.batch.aggregator;
 
 import com.google.common.collect.ImmutableList;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.batch.aggregator.function.CollectionLimit;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -55,4 +57,51 @@ public class GroupByAggregatorConfigTest {
     );
     Assert.assertEquals(expected, config.getAggregates());
   }
+
+  @Test
+  public void testParsingArguments() {
+    GroupByConfig config = new GroupByConfig("user", "numItems:approxCountDistinct(item, 14)," +
+      "numCheapItems:approxCountDistinctIf(item):condition(price < 1 && !item.equals('a,b'))," +
+      "numCities:approxCountDistinct(city)");
+    List<GroupByConfig.FunctionInfo> expected = ImmutableList.of(
+      new GroupByConfig.FunctionInfo("numItems", "item", GroupByConfig.Function.APPROXCOUNTDISTINCT, null,
+                                     ImmutableList.of("14")),
+      new GroupByConfig.FunctionInfo("numCheapItems", "item", GroupByConfig.Function.APPROXCOUNTDISTINCTIF,
+                                     "price < 1 && !item.equals('a,b')"),
+      new GroupByConfig.FunctionInfo("numCities", "city", GroupByConfig.Function.APPROXCOUNTDISTINCT)
+    );
+    Assert.assertEquals(expected, config.getAggregates());
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testTooManyArguments() {
+    new GroupByConfig("user", "total:sum(price, 2)").getAggregates();
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testInvalidArgument() {
+    GroupByConfig.FunctionInfo functionInfo = new GroupByConfig("user", "numItems:approxCountDistinct(item, 40)")
+      .getAggregates().get(0);
+    functionInfo.getAggregateFunction(Schema.of(Schema.Type.STRING));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testTooFewArguments() {
+    new GroupByConfig("user", "p90:percentile(price)").getAggregates();
+  }
+
+  @Test
+  public void testCollectionLimit() {
+    Assert.assertFalse(new GroupByConfig("user", "items:collectList(item)").getCollectionLimit().isBounded());
+    CollectionLimit limit = new GroupByConfig("user", "items:collectList(item)", 100, null, "Spill")
+      .getCollectionLimit();
+    Assert.assertEquals(100, limit.getMaxValues());
+    Assert.assertEquals(0L, limit.getMaxBytes());
+    Assert.assertEquals(CollectionLimit.Overflow.SPILL, limit.getOverflow());
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testInvalidCollectionOverflow() {
+    new GroupByConfig("user", "items:collectList(item)", 100, null, "last").getCollectionLimit();
+  }
 }
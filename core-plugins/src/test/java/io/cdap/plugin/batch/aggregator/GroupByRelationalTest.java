@@ -78,6 +78,19 @@ public class GroupByRelationalTest {
     Assert.assertEquals(3, selectExpressions.size());
   }
 
+  @Test
+  public void testRollupGroupBy() throws Exception {
+    GroupByConfig config = new GroupByConfig("profession,name", "avgSalary: avg(salary)", "rollup", "level");
+    GroupByAggregator aggregator = new GroupByAggregator(config);
+    aggregator.transform(relationalTranformContext, relation);
+    GroupByAggregationDefinition aggregationDefinition = aggregator.getAggregationDefinition();
+
+    Assert.assertEquals(1, aggregationDefinition.getGroupByExpressions().size());
+    Assert.assertEquals(4, aggregationDefinition.getSelectExpressions().size());
+    Mockito.verify(expressionFactory).compile("ROLLUP(profession, name)");
+    Mockito.verify(expressionFactory).compile("GROUPING(profession) * 2 + GROUPING(name)");
+  }
+
   @Test
   public void testMixedValidityGroupBy() {
     GroupByConfig config = new GroupByConfig("profession",
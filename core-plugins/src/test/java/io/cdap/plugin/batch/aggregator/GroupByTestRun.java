@@ -32,6 +32,7 @@ import io.cdap.cdap.etl.api.batch.BatchAggregator;
 import io.cdap.cdap.etl.api.batch.BatchSink;
 import io.cdap.cdap.etl.api.batch.BatchSource;
 import io.cdap.cdap.etl.api.validation.ValidationException;
+import io.cdap.cdap.etl.mock.batch.MockSink;
 import io.cdap.cdap.etl.mock.batch.MockSource;
 import io.cdap.cdap.etl.mock.common.MockPipelineConfigurer;
 import io.cdap.cdap.etl.proto.v2.ETLBatchConfig;
@@ -384,6 +385,60 @@ public class GroupByTestRun extends ETLBatchTestBase {
     }
   }
 
+  @Test
+  public void testIncrementalGroupBy() throws Exception {
+    Schema customerSchema = Schema.recordOf(
+      "customers",
+      Schema.Field.of("customer", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("state", Schema.of(Schema.Type.STRING)));
+    Schema outputSchema = Schema.recordOf(
+      "customers.agg",
+      Schema.Field.of("state", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("numCustomers", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("firstCustomer", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    String stateTable = "customersByStateState";
+
+    // the first run aggregates the initial customers and persists the state of every group
+    runIncrementalGroupBy("incrementalCustomers1", "incrementalOutput1", stateTable, ImmutableList.of(
+      StructuredRecord.builder(customerSchema).set("customer", "Smith").set("state", "Texas").build(),
+      StructuredRecord.builder(customerSchema).set("customer", "Rodrigues").set("state", "California").build(),
+      StructuredRecord.builder(customerSchema).set("customer", "Johnson").set("state", "Washington").build()));
+    // the second run only reads the new customers, and outputs the updated groups with their totals over both runs
+    runIncrementalGroupBy("incrementalCustomers2", "incrementalOutput2", stateTable, ImmutableList.of(
+      StructuredRecord.builder(customerSchema).set("customer", "Lopez").set("state", "Texas").build(),
+      StructuredRecord.builder(customerSchema).set("customer", "Brown").set("state", "Oregon").build()));
+
+    DataSetManager<Table> outputManager = getDataset("incrementalOutput2");
+    Set<StructuredRecord> expected = ImmutableSet.of(
+      StructuredRecord.builder(outputSchema)
+        .set("state", "Texas").set("numCustomers", 2L).set("firstCustomer", "Smith").build(),
+      StructuredRecord.builder(outputSchema)
+        .set("state", "Oregon").set("numCustomers", 1L).set("firstCustomer", "Brown").build());
+    Assert.assertEquals(expected, Sets.newHashSet(MockSink.readOutput(outputManager)));
+  }
+
+  private void runIncrementalGroupBy(String inputDataset, String outputDataset, String stateTable,
+                                     List<StructuredRecord> input) throws Exception {
+    ETLStage source = new ETLStage("raw_customers", MockSource.getPlugin(inputDataset, input.get(0).getSchema()));
+    ETLStage groupBy = new ETLStage("groupBy", new ETLPlugin(
+      "GroupByAggregate", GroupByAggregator.PLUGIN_TYPE,
+      ImmutableMap.of("aggregates", "numCustomers:Count(*),firstCustomer:First(customer)",
+                      "groupByFields", "state",
+                      "stateTableName", stateTable),
+      null));
+    ETLStage sink = new ETLStage("sink", MockSink.getPlugin(outputDataset));
+    ETLBatchConfig config = ETLBatchConfig.builder()
+      .addStage(source)
+      .addStage(groupBy)
+      .addStage(sink)
+      .addConnection(source.getName(), groupBy.getName())
+      .addConnection(groupBy.getName(), sink.getName())
+      .build();
+    ApplicationManager appManager = deployETL(config, UUID.randomUUID().toString());
+    MockSource.writeInput(getDataset(inputDataset), input);
+    runETLOnce(appManager);
+  }
+
   @Test
   public void testCountDistinctValidation() {
     String groupByField = "state";
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import com.google.common.collect.ImmutableList;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link GroupingSets}.
+ */
+public class GroupingSetsTest {
+  private static final List<String> FIELDS = ImmutableList.of("country", "city");
+  private static final List<String> COLUMNS = ImmutableList.of("`country`", "`city`");
+
+  @Test
+  public void testRollup() {
+    GroupingSets sets = GroupingSets.parse("ROLLUP", FIELDS, "gid");
+    Assert.assertEquals(3, sets.size());
+    Assert.assertEquals(0L, sets.getGroupingId(0));
+    Assert.assertEquals(1L, sets.getGroupingId(1));
+    Assert.assertEquals(3L, sets.getGroupingId(2));
+    Assert.assertTrue(sets.contains(1, 0));
+    Assert.assertFalse(sets.contains(1, 1));
+    Assert.assertFalse(sets.isInAllSets(0));
+    Assert.assertEquals("ROLLUP(`country`, `city`)", sets.getGroupBySql(COLUMNS));
+    Assert.assertEquals("GROUPING(`country`) * 2 + GROUPING(`city`)", sets.getGroupingIdSql(COLUMNS));
+  }
+
+  @Test
+  public void testCube() {
+    GroupingSets sets = GroupingSets.parse("cube", FIELDS, "gid");
+    Assert.assertEquals(4, sets.size());
+    for (int i = 0; i < sets.size(); i++) {
+      Assert.assertEquals(i, sets.getGroupingId(i));
+    }
+    Assert.assertEquals("CUBE(`country`, `city`)", sets.getGroupBySql(COLUMNS));
+  }
+
+  @Test
+  public void testExplicitSets() {
+    GroupingSets sets = GroupingSets.parse("country, city; (city); ()", FIELDS, "gid");
+    Assert.assertEquals(3, sets.size());
+    Assert.assertEquals(0L, sets.getGroupingId(0));
+    Assert.assertEquals(2L, sets.getGroupingId(1));
+    Assert.assertEquals(3L, sets.getGroupingId(2));
+    Assert.assertEquals("GROUPING SETS((`country`, `city`), (`city`), ())", sets.getGroupBySql(COLUMNS));
+
+    Assert.assertTrue(GroupingSets.parse("country,city;country", FIELDS, "gid").isInAllSets(0));
+  }
+
+  @Test
+  public void testInvalidSets() {
+    assertInvalid("country;state");
+    assertInvalid("country;;()");
+    assertInvalid("country;(country)");
+    try {
+      GroupingSets.parse("rollup", FIELDS, "city");
+      Assert.fail("The grouping id field cannot be a group by field");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testAggregateRollup() {
+    Schema inputSchema = Schema.recordOf(
+      "sale",
+      Schema.Field.of("country", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("city", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("amount", Schema.of(Schema.Type.LONG)));
+    GroupByConfig config = new GroupByConfig("country,city", "total:sum(amount)", "rollup", null);
+    GroupingSets sets = config.getGroupingSets();
+    AggregationPlan plan = AggregationPlan.compile(inputSchema, config.getGroupByFields(), config.getAggregates(),
+                                                   config.getCollectionLimit(), sets);
+    Schema outputSchema = plan.getOutputSchema();
+    Assert.assertEquals(Schema.nullableOf(Schema.of(Schema.Type.STRING)), outputSchema.getField("country").getSchema());
+    Assert.assertEquals(Schema.of(Schema.Type.LONG), outputSchema.getField("groupingId").getSchema());
+
+    Map<StructuredRecord, AggregateFunction[]> groups = new HashMap<>();
+    for (StructuredRecord record : ImmutableList.of(sale(inputSchema, "fr", "paris", 1L),
+                                                    sale(inputSchema, "fr", "lyon", 2L),
+                                                    sale(inputSchema, "us", "nyc", 4L))) {
+      for (int i = 0; i < plan.getNumGroupKeys(); i++) {
+        AggregateFunction[] functions = groups.computeIfAbsent(plan.getGroupKey(record, i),
+                                                               key -> plan.newAggregates());
+        functions[0].mergeValue(record);
+      }
+    }
+
+    Map<String, Long> totals = new HashMap<>();
+    for (Map.Entry<StructuredRecord, AggregateFunction[]> group : groups.entrySet()) {
+      StructuredRecord output = plan.buildOutput(group.getKey(), group.getValue());
+      totals.put(output.get("groupingId") + ":" + output.get("country") + ":" + output.get("city"),
+                 output.get("total"));
+    }
+    Map<String, Long> expected = new HashMap<>();
+    expected.put("0:fr:paris", 1L);
+    expected.put("0:fr:lyon", 2L);
+    expected.put("0:us:nyc", 4L);
+    expected.put("1:fr:null", 3L);
+    expected.put("1:us:null", 4L);
+    expected.put("3:null:null", 7L);
+    Assert.assertEquals(expected, totals);
+  }
+
+  private static StructuredRecord sale(Schema schema, String country, String city, long amount) {
+    return StructuredRecord.builder(schema).set("country", country).set("city", city).set("amount", amount).build();
+  }
+
+  private static void assertInvalid(String spec) {
+    try {
+      GroupingSets.parse(spec, FIELDS, "gid");
+      Assert.fail(String.format("Grouping sets '%s' should be invalid", spec));
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+}
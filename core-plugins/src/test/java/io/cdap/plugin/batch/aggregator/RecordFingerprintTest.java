@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.exception.ErrorType;
+import io.cdap.cdap.api.exception.ProgramFailureException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for {@link RecordFingerprint}.
+ */
+public class RecordFingerprintTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("user", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("item", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("quantity", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("tags", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("payload", Schema.of(Schema.Type.BYTES)));
+  private static final List<String> UNIQUE_FIELDS = ImmutableList.of("user", "item", "tags", "payload");
+
+  @Test
+  public void testEqualValues() {
+    StructuredRecord record1 = purchase("alice", "pen", 1, ImmutableMap.of("a", "1", "b", "2"), new byte[] {1, 2});
+    // map order, byte representation and fields that are not unique do not matter
+    StructuredRecord record2 = purchase("alice", "pen", 5, ImmutableMap.of("b", "2", "a", "1"),
+                                        ByteBuffer.wrap(new byte[] {1, 2}));
+    StructuredRecord fingerprint = RecordFingerprint.of(record1, UNIQUE_FIELDS);
+    Assert.assertEquals(RecordFingerprint.SCHEMA, fingerprint.getSchema());
+    Assert.assertEquals(fingerprint, RecordFingerprint.of(record2, UNIQUE_FIELDS));
+    RecordFingerprint.verify(record1, record2, UNIQUE_FIELDS);
+    Assert.assertNotEquals(RecordFingerprint.of(record1), RecordFingerprint.of(record2));
+  }
+
+  @Test
+  public void testDistinctValues() {
+    Set<StructuredRecord> fingerprints = new HashSet<>();
+    for (int i = 0; i < 10000; i++) {
+      fingerprints.add(RecordFingerprint.of(purchase("user" + (i % 100), "item" + (i / 100), i,
+                                                     ImmutableMap.of(), new byte[0]), UNIQUE_FIELDS));
+    }
+    Assert.assertEquals(10000, fingerprints.size());
+    // values are encoded with their boundaries and nulls
+    Assert.assertNotEquals(RecordFingerprint.of(purchase("ab", "c", 0, ImmutableMap.of(), new byte[0])),
+                           RecordFingerprint.of(purchase("a", "bc", 0, ImmutableMap.of(), new byte[0])));
+    Assert.assertNotEquals(RecordFingerprint.of(purchase(null, "", 0, ImmutableMap.of(), new byte[0])),
+                           RecordFingerprint.of(purchase("", "", 0, ImmutableMap.of(), new byte[0])));
+  }
+
+  @Test
+  public void testEqualValuesOfDifferentTypes() {
+    // records of unioned inputs may hold the same values as different Java types
+    Schema schema = Schema.recordOf(
+      "event",
+      Schema.Field.of("id", Schema.unionOf(Schema.of(Schema.Type.INT), Schema.of(Schema.Type.LONG))),
+      Schema.Field.of("tags", Schema.arrayOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("counts", Schema.mapOf(Schema.of(Schema.Type.LONG), Schema.of(Schema.Type.LONG))));
+    StructuredRecord record1 = StructuredRecord.builder(schema)
+      .set("id", 1)
+      .set("tags", ImmutableList.of("a", "b"))
+      .set("counts", ImmutableMap.of(1, 2L))
+      .build();
+    StructuredRecord record2 = StructuredRecord.builder(schema)
+      .set("id", 1L)
+      .set("tags", new String[] {"a", "b"})
+      .set("counts", ImmutableMap.of(1L, 2))
+      .build();
+    Assert.assertEquals(RecordFingerprint.of(record1), RecordFingerprint.of(record2));
+    RecordFingerprint.verify(record1, record2);
+  }
+
+  @Test
+  public void testVerifyCollision() {
+    try {
+      RecordFingerprint.verify(purchase("alice", "pen", 1, ImmutableMap.of(), new byte[0]),
+                               purchase("bob", "pen", 1, ImmutableMap.of(), new byte[0]), UNIQUE_FIELDS);
+      Assert.fail("Records with different values should fail the verification");
+    } catch (ProgramFailureException e) {
+      Assert.assertEquals(ErrorType.USER, e.getErrorType());
+    }
+  }
+
+  private static StructuredRecord purchase(String user, String item, int quantity, Object tags, Object payload) {
+    return StructuredRecord.builder(SCHEMA)
+      .set("user", user)
+      .set("item", item)
+      .set("quantity", quantity)
+      .set("tags", tags)
+      .set("payload", payload)
+      .build();
+  }
+}
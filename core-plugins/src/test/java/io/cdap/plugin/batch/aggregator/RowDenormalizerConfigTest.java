@@ -18,8 +18,10 @@ package io.cdap.plugin.batch.aggregator;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.etl.api.validation.ValidationException;
+import io.cdap.cdap.etl.mock.common.MockEmitter;
 import io.cdap.cdap.etl.mock.common.MockPipelineConfigurer;
 import org.junit.Assert;
 import org.junit.Test;
@@ -106,4 +108,57 @@ public class RowDenormalizerConfigTest {
     aggregator.configurePipeline(configurer);
     configurer.getStageConfigurer().getFailureCollector().getOrThrowException();
   }
+
+  @Test
+  public void testPartialRowsCombine() throws Exception {
+    Schema inputSchema = Schema.recordOf(
+      "record",
+      Schema.Field.of("KeyField", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("NameField", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("ValueField", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    RowDenormalizerConfig config = new RowDenormalizerConfig("KeyField", "NameField", "ValueField", "Firstname," +
+      "Lastname,Address", "Lastname:lname,Address:addr");
+    RowDenormalizerAggregator aggregator = new RowDenormalizerAggregator(config);
+    aggregator.initialize(null);
+
+    MockEmitter<StructuredRecord> keyEmitter = new MockEmitter<>();
+    aggregator.groupBy(row(inputSchema, "A", "Firstname", "John"), keyEmitter);
+    aggregator.groupBy(row(inputSchema, null, "Firstname", "Jane"), keyEmitter);
+    Assert.assertEquals(1, keyEmitter.getEmitted().size());
+    StructuredRecord groupKey = keyEmitter.getEmitted().get(0);
+
+    // rows for the same key are combined on each side of the shuffle before the partial rows are merged
+    String[] partial1 = aggregator.initializeAggregateValue(row(inputSchema, "A", "Firstname", "John"));
+    partial1 = aggregator.mergeValues(partial1, row(inputSchema, "A", "Salary", "100"));
+    partial1 = aggregator.mergeValues(partial1, row(inputSchema, "A", "Lastname", "Wagh"));
+    String[] partial2 = aggregator.initializeAggregateValue(row(inputSchema, "A", "Address", "NE Lakeside"));
+    partial2 = aggregator.mergeValues(partial2, row(inputSchema, "A", "Lastname", null));
+    String[] aggValue = aggregator.mergePartitions(partial1, partial2);
+
+    MockEmitter<StructuredRecord> emitter = new MockEmitter<>();
+    aggregator.finalize(groupKey, aggValue, emitter);
+    StructuredRecord output = emitter.getEmitted().get(0);
+    Assert.assertEquals("A", output.get("KeyField"));
+    Assert.assertEquals("John", output.get("Firstname"));
+    Assert.assertEquals("Wagh", output.get("lname"));
+    Assert.assertEquals("NE Lakeside", output.get("addr"));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testMissingFieldAtRuntime() throws Exception {
+    Schema inputSchema = Schema.recordOf(
+      "record",
+      Schema.Field.of("KeyField", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("ValueField", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    RowDenormalizerConfig config = new RowDenormalizerConfig("KeyField", "NameField", "ValueField", "Firstname",
+                                                             null);
+    RowDenormalizerAggregator aggregator = new RowDenormalizerAggregator(config);
+    aggregator.initialize(null);
+    aggregator.groupBy(StructuredRecord.builder(inputSchema).set("KeyField", "A").build(), new MockEmitter<>());
+  }
+
+  private static StructuredRecord row(Schema schema, String key, String name, String value) {
+    return StructuredRecord.builder(schema).set("KeyField", key).set("NameField", name).set("ValueField", value)
+      .build();
+  }
 }
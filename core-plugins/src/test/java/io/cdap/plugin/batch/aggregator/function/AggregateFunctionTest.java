@@ -20,6 +20,12 @@ import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import org.junit.Assert;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Supplier;
@@ -46,10 +52,24 @@ public class AggregateFunctionTest {
     for (int i = vals.size() / 2; i < vals.size(); i++) {
       otherFunc.mergeValue(StructuredRecord.builder(schema).set(fieldName, vals.get(i)).build());
     }
+    // the partial aggregate goes through its binary state, as when it is shuffled or persisted
+    if (otherFunc instanceof PrimitiveState) {
+      roundTripState((PrimitiveState) otherFunc);
+    }
     function.mergeAggregates(otherFunc);
     return function.getAggregate();
   }
 
+  private static void roundTripState(PrimitiveState function) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      function.writeState(new DataOutputStream(bytes));
+      function.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   protected Object getAggregateSinglePartition(Supplier<AggregateFunction> supplier,
                                                Schema schema,
                                                String fieldName,
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+
+public class ApproxCountDistinctTest extends AggregateFunctionTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "users", Schema.Field.of("user", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+  private static final Schema ID_SCHEMA = Schema.recordOf("ids", Schema.Field.of("id", Schema.of(Schema.Type.LONG)));
+
+  @Test
+  public void testSmallCardinality() {
+    test(new ApproxCountDistinct("user", HyperLogLog.DEFAULT_PRECISION), SCHEMA, "user", 5L,
+         Arrays.asList("Mountain View", "Sunnyvale", "Sunnyvale", null, "RedwoodCity", "Palo Alto", null),
+         new ApproxCountDistinct("user", HyperLogLog.DEFAULT_PRECISION));
+  }
+
+  @Test
+  public void testLargeCardinality() {
+    ApproxCountDistinct count = new ApproxCountDistinct("id", 14);
+    ApproxCountDistinct other = new ApproxCountDistinct("id", 14);
+    count.initialize();
+    other.initialize();
+    int numValues = 200000;
+    for (long i = 0; i < numValues; i++) {
+      // every value is given twice, split over both partitions
+      StructuredRecord record = StructuredRecord.builder(ID_SCHEMA).set("id", i).build();
+      count.mergeValue(record);
+      other.mergeValue(StructuredRecord.builder(ID_SCHEMA).set("id", (i + 1000) % numValues).build());
+    }
+    count.mergeAggregates(other);
+    // standard error for precision 14 is below 1%
+    Assert.assertEquals(numValues, count.getAggregate(), numValues * 0.03d);
+  }
+
+  @Test
+  public void testStateRoundTrip() throws Exception {
+    for (int numValues : new int[] {10, 50000}) {
+      ApproxCountDistinct count = new ApproxCountDistinct("id", HyperLogLog.DEFAULT_PRECISION);
+      count.initialize();
+      for (long i = 0; i < numValues; i++) {
+        count.mergeValue(StructuredRecord.builder(ID_SCHEMA).set("id", i).build());
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      count.writeState(new DataOutputStream(bytes));
+      // the sketch is fixed size once dense, and smaller than that while sparse
+      Assert.assertTrue(bytes.size() <= (1 << HyperLogLog.DEFAULT_PRECISION) + 3);
+
+      ApproxCountDistinct read = new ApproxCountDistinct("id", HyperLogLog.DEFAULT_PRECISION);
+      read.initialize();
+      read.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+      Assert.assertEquals(count.getAggregate(), read.getAggregate());
+    }
+  }
+
+  @Test
+  public void testCondition() {
+    test(new ApproxCountDistinctIf("user", HyperLogLog.DEFAULT_PRECISION, JexlCondition.of("user != 'Sunnyvale'")),
+         SCHEMA, "user", 2L, Arrays.asList("Mountain View", "Sunnyvale", "Sunnyvale", "RedwoodCity", "RedwoodCity"),
+         new ApproxCountDistinctIf("user", HyperLogLog.DEFAULT_PRECISION, JexlCondition.of("user != 'Sunnyvale'")));
+  }
+}
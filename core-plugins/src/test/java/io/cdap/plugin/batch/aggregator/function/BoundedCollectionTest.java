@@ -0,0 +1,252 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for the collection limits of the collecting aggregate functions.
+ */
+public class BoundedCollectionTest {
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  private static final Schema FIELD_SCHEMA = Schema.of(Schema.Type.STRING);
+  private static final Schema SCHEMA = Schema.recordOf("items", Schema.Field.of("item", FIELD_SCHEMA));
+
+  @Test
+  public void testFirst() {
+    CollectionLimit limit = new CollectionLimit(3, 0L, CollectionLimit.Overflow.FIRST);
+    CollectList<String> list = new CollectList<>("item", FIELD_SCHEMA, limit);
+    CollectList<String> other = new CollectList<>("item", FIELD_SCHEMA, limit);
+    add(list, "a", "b");
+    add(other, "c", "d", "e");
+    list.mergeAggregates(other);
+    Assert.assertEquals(list("a", "b", "c"), list.getAggregate());
+  }
+
+  @Test
+  public void testMaxBytes() {
+    CollectionLimit limit = new CollectionLimit(0, 1000L, CollectionLimit.Overflow.FIRST);
+    Concat concat = new Concat("item", FIELD_SCHEMA, limit);
+    concat.initialize();
+    for (int i = 0; i < 1000; i++) {
+      concat.mergeValue(record("value" + i));
+    }
+    // each value is estimated to take about 60 bytes
+    String aggregate = concat.getAggregate();
+    Assert.assertTrue(aggregate.startsWith("value0, value1, value2"));
+    Assert.assertTrue(aggregate.split(", ").length < 20);
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testFail() {
+    CollectionLimit limit = new CollectionLimit(2, 0L, CollectionLimit.Overflow.FAIL);
+    CollectSet<String> set = new CollectSet<>("item", FIELD_SCHEMA, limit);
+    // duplicates do not count towards the limit
+    add(set, "a", "b", "a", "b");
+    Assert.assertEquals(2, set.getAggregate().size());
+    set.mergeValue(record("c"));
+  }
+
+  @Test
+  public void testSample() {
+    CollectionLimit limit = new CollectionLimit(10, 0L, CollectionLimit.Overflow.SAMPLE);
+    CollectList<String> list = new CollectList<>("item", FIELD_SCHEMA, limit);
+    CollectList<String> other = new CollectList<>("item", FIELD_SCHEMA, limit);
+    list.initialize();
+    other.initialize();
+    for (int i = 0; i < 1000; i++) {
+      list.mergeValue(record("a" + i));
+      other.mergeValue(record("b" + i));
+    }
+    list.mergeAggregates(other);
+    List<String> sample = list.getAggregate();
+    Assert.assertEquals(10, sample.size());
+    Assert.assertEquals(10, new HashSet<>(sample).size());
+    // a sample of the first values only would be very unlikely
+    Assert.assertTrue(sample.stream().anyMatch(value -> Integer.parseInt(value.substring(1)) >= 10));
+  }
+
+  @Test
+  public void testSpill() throws Exception {
+    CollectionLimit limit = new CollectionLimit(10, 0L, CollectionLimit.Overflow.SPILL);
+    CollectList<String> list = new CollectList<>("item", FIELD_SCHEMA, limit);
+    CollectList<String> other = new CollectList<>("item", FIELD_SCHEMA, limit);
+    list.initialize();
+    other.initialize();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      list.mergeValue(record("a" + i));
+      expected.add("a" + i);
+    }
+    for (int i = 0; i < 100; i++) {
+      other.mergeValue(record("b" + i));
+      expected.add("b" + i);
+    }
+
+    // spilled values are serialized inline, as the spill file is local to the executor
+    list.mergeAggregates(roundTrip(other));
+    Assert.assertEquals(expected, roundTrip(list).getAggregate());
+  }
+
+  @Test
+  public void testSpillBatches() throws Exception {
+    CollectionLimit limit = new CollectionLimit(10, 0L, CollectionLimit.Overflow.SPILL);
+    BoundedCollection<String> collection = new BoundedCollection<>(limit, false, "collectList(item)");
+    List<String> expected = new ArrayList<>();
+    StringBuilder padding = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      padding.append('x');
+    }
+    for (int i = 0; i < BoundedCollection.SPILL_BATCH_BYTES / 10; i++) {
+      String value = i + padding.toString();
+      collection.add(value);
+      expected.add(value);
+    }
+    // the values are appended to the file in several batches, and the last ones are still buffered
+    File spillFile = collection.getSpillFile();
+    Assert.assertNotNull(spillFile);
+    Assert.assertTrue(spillFile.length() > BoundedCollection.SPILL_BATCH_BYTES);
+    Assert.assertEquals(expected, collection.toCollection(new ArrayList<>()));
+    Assert.assertFalse(spillFile.exists());
+
+    // serializing the collection leaves it unchanged, so it can be serialized again
+    collection = new BoundedCollection<>(limit, false, "collectList(item)");
+    expected.forEach(collection::add);
+    spillFile = collection.getSpillFile();
+    BoundedCollection<String> copy = roundTrip(collection);
+    Assert.assertTrue(spillFile.exists());
+    Assert.assertEquals(expected, roundTrip(collection).toCollection(new ArrayList<>()));
+    Assert.assertEquals(expected, copy.toCollection(new ArrayList<>()));
+    Assert.assertEquals(expected, collection.toCollection(new ArrayList<>()));
+  }
+
+  @Test
+  public void testSpillDistinct() {
+    CollectionLimit limit = new CollectionLimit(5, 0L, CollectionLimit.Overflow.SPILL);
+    ConcatDistinct concat = new ConcatDistinct("item", FIELD_SCHEMA, limit);
+    ConcatDistinct other = new ConcatDistinct("item", FIELD_SCHEMA, limit);
+    concat.initialize();
+    other.initialize();
+    Set<String> expected = new HashSet<>();
+    for (int i = 0; i < 50; i++) {
+      concat.mergeValue(record("v" + (i % 20)));
+      other.mergeValue(record("v" + (i % 30)));
+      expected.add("v" + (i % 30));
+    }
+    concat.mergeAggregates(other);
+    String[] values = concat.getAggregate().split(", ");
+    Assert.assertEquals(expected.size(), values.length);
+    Assert.assertEquals(expected, new HashSet<>(list(values)));
+  }
+
+  @Test
+  public void testSpillDistinctRuns() throws Exception {
+    CollectionLimit limit = new CollectionLimit(10, 0L, CollectionLimit.Overflow.SPILL);
+    BoundedCollection<String> collection = new BoundedCollection<>(limit, true, "collectSet(item)");
+    Set<String> expected = new HashSet<>();
+    // every value is added many times, in many runs
+    int numDistinct = 20000;
+    int numAdded = 20 * numDistinct;
+    for (int i = 0; i < numAdded; i++) {
+      String value = "value" + (i * 7919 % numDistinct);
+      collection.add(value);
+      expected.add(value);
+    }
+    // the runs are merged, so the spill file grows with the number of distinct values rather than the values added
+    // every added value takes more than 20 bytes serialized
+    Assert.assertTrue(collection.getSpillFile().length() < numAdded * 5L);
+
+    // the serialized values and the values read back hold no duplicates
+    BoundedCollection<String> copy = roundTrip(collection);
+    List<String> values = new ArrayList<>();
+    copy.forEach(values::add);
+    Assert.assertEquals(expected.size(), values.size());
+    Assert.assertEquals(expected, new HashSet<>(values));
+    ByteArrayOutputStream state = new ByteArrayOutputStream();
+    collection.writeState(new DataOutputStream(state), FIELD_SCHEMA);
+    BoundedCollection<String> read = new BoundedCollection<>(limit, true, "collectSet(item)");
+    read.readState(new DataInputStream(new ByteArrayInputStream(state.toByteArray())), FIELD_SCHEMA);
+    Assert.assertEquals(expected, read.toCollection(new HashSet<>()));
+    Assert.assertEquals(expected.size(), collection.toCollection(new ArrayList<>()).size());
+  }
+
+  @Test
+  public void testSpillDirectories() throws Exception {
+    File local1 = TEMP_FOLDER.newFolder();
+    File local2 = TEMP_FOLDER.newFolder();
+    String missing = new File(local1, "missing").getPath();
+    Assert.assertEquals(Arrays.asList(local1, local2), BoundedCollection.getSpillDirectories(
+      ImmutableMap.of("LOCAL_DIRS", local1.getPath() + "," + missing + ", " + local2.getPath())));
+    Assert.assertEquals(Collections.singletonList(local2), BoundedCollection.getSpillDirectories(
+      ImmutableMap.of("SPARK_LOCAL_DIRS", local2.getPath(), "LOCAL_DIRS", local1.getPath())));
+    // the temporary directory of the JVM is used when the container has no usable local directory
+    Assert.assertEquals(Collections.singletonList(new File(System.getProperty("java.io.tmpdir"))),
+                        BoundedCollection.getSpillDirectories(ImmutableMap.of("LOCAL_DIRS", missing)));
+  }
+
+  private static void add(AggregateFunction function, String... values) {
+    function.initialize();
+    for (String value : values) {
+      function.mergeValue(record(value));
+    }
+  }
+
+  private static StructuredRecord record(String value) {
+    return StructuredRecord.builder(SCHEMA).set("item", value).build();
+  }
+
+  private static List<String> list(String... values) {
+    List<String> list = new ArrayList<>();
+    for (String value : values) {
+      list.add(value);
+    }
+    return list;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T roundTrip(T object) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(object);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (T) in.readObject();
+    }
+  }
+}
@@ -30,8 +30,9 @@ public class CollectListIfTest extends AggregateFunctionTest {
     String condition = "x>1";
 
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.INT)));
-    test(new CollectListIf("x", schema, JexlCondition.of(condition)), schema, "x",
-         ImmutableList.of(2, 3, 4), ImmutableList.of(1, 2, 3, 4), new CollectListIf("x", schema,
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectListIf("x", fieldSchema, JexlCondition.of(condition)), schema, "x",
+         ImmutableList.of(2, 3, 4), ImmutableList.of(1, 2, 3, 4), new CollectListIf("x", fieldSchema,
                                                                                     JexlCondition.of(condition)));
   }
 
@@ -40,8 +41,9 @@ public class CollectListIfTest extends AggregateFunctionTest {
     String condition = "x>0L";
 
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.LONG)));
-    test(new CollectListIf("x", schema, JexlCondition.of(condition)), schema, "x",
-         ImmutableList.of(1L, 2L, 3L, 4L), ImmutableList.of(0L, 1L, 2L, 3L, 4L), new CollectList("x", schema));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectListIf("x", fieldSchema, JexlCondition.of(condition)), schema, "x",
+         ImmutableList.of(1L, 2L, 3L, 4L), ImmutableList.of(0L, 1L, 2L, 3L, 4L), new CollectList("x", fieldSchema));
   }
 
   @Test
@@ -49,9 +51,10 @@ public class CollectListIfTest extends AggregateFunctionTest {
     String condition = "x<5.0f";
 
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.FLOAT)));
-    test(new CollectListIf("x", schema, JexlCondition.of(condition)), schema, "x",
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectListIf("x", fieldSchema, JexlCondition.of(condition)), schema, "x",
          ImmutableList.of(1.0F, 2.0F, 3.0F, 4.0F), ImmutableList.of(1.0F, 2.0F, 3.0F, 4.0F, 5.0F),
-         new CollectListIf("x", schema, JexlCondition.of(condition)));
+         new CollectListIf("x", fieldSchema, JexlCondition.of(condition)));
   }
 
   @Test
@@ -59,9 +62,10 @@ public class CollectListIfTest extends AggregateFunctionTest {
     String condition = "x<5.0d";
 
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.DOUBLE)));
-    test(new CollectListIf("x", schema, JexlCondition.of(condition)), schema, "x",
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectListIf("x", fieldSchema, JexlCondition.of(condition)), schema, "x",
          ImmutableList.of(1.0d, 2.0d, 3.0d, 4.0d), ImmutableList.of(1.0d, 2.0d, 3.0d, 4.0d, 5.0d),
-         new CollectListIf("x", schema, JexlCondition.of(condition)));
+         new CollectListIf("x", fieldSchema, JexlCondition.of(condition)));
   }
 
   @Test
@@ -69,8 +73,9 @@ public class CollectListIfTest extends AggregateFunctionTest {
     String condition = "!x.equals(\"e\")";
 
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
-    test(new CollectListIf("x", schema, JexlCondition.of(condition)), schema, "x",
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectListIf("x", fieldSchema, JexlCondition.of(condition)), schema, "x",
          ImmutableList.of("a", "b", "c", "d"), ImmutableList.of("a", "b", "c", "d", "e"),
-         new CollectListIf("x", schema, JexlCondition.of(condition)));
+         new CollectListIf("x", fieldSchema, JexlCondition.of(condition)));
   }
 }
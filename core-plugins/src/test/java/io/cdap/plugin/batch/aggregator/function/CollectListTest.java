@@ -28,37 +28,42 @@ public class CollectListTest extends AggregateFunctionTest {
   @Test
   public void testIntCollectList() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.INT)));
-    test(new CollectList("x", schema), schema, "x",
-         ImmutableList.of(1, 2, 3, 4), ImmutableList.of(1, 2, 3, 4), new CollectList("x", schema));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectList("x", fieldSchema), schema, "x",
+         ImmutableList.of(1, 2, 3, 4), ImmutableList.of(1, 2, 3, 4), new CollectList("x", fieldSchema));
   }
 
   @Test
   public void testLongCollectList() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.LONG)));
-    test(new CollectList("x", schema), schema, "x",
-         ImmutableList.of(1L, 2L, 3L, 4L), ImmutableList.of(1L, 2L, 3L, 4L), new CollectList("x", schema));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectList("x", fieldSchema), schema, "x",
+         ImmutableList.of(1L, 2L, 3L, 4L), ImmutableList.of(1L, 2L, 3L, 4L), new CollectList("x", fieldSchema));
   }
 
   @Test
   public void testFloatCollectList() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.FLOAT)));
-    test(new CollectList("x", schema), schema, "x",
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectList("x", fieldSchema), schema, "x",
          ImmutableList.of(1.0F, 2.0F, 3.0F, 4.0F), ImmutableList.of(1.0F, 2.0F, 3.0F, 4.0F),
-         new CollectList("x", schema));
+         new CollectList("x", fieldSchema));
   }
 
   @Test
   public void testDoubleCollectList() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.DOUBLE)));
-    test(new CollectList("x", schema), schema, "x",
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectList("x", fieldSchema), schema, "x",
          ImmutableList.of(1.0d, 2.0d, 3.0d, 4.0d), ImmutableList.of(1.0d, 2.0d, 3.0d, 4.0d),
-         new CollectList("x", schema));
+         new CollectList("x", fieldSchema));
   }
 
   @Test
   public void testStringCollectList() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
-    test(new CollectList("x", schema), schema, "x",
-         ImmutableList.of("a", "b", "c", "d"), ImmutableList.of("a", "b", "c", "d"), new CollectList("x", schema));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectList("x", fieldSchema), schema, "x",
+         ImmutableList.of("a", "b", "c", "d"), ImmutableList.of("a", "b", "c", "d"), new CollectList("x", fieldSchema));
   }
 }
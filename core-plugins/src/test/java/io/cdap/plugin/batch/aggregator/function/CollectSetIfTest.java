@@ -31,8 +31,9 @@ public class CollectSetIfTest extends AggregateFunctionTest {
     String condition = "x>1";
 
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.INT)));
-    test(new CollectSetIf("x", schema, JexlCondition.of(condition)), schema, "x", ImmutableSet.of(2),
-         ImmutableList.of(1, 2, 2, 1), new CollectSetIf("x", schema, JexlCondition.of(condition)));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectSetIf("x", fieldSchema, JexlCondition.of(condition)), schema, "x", ImmutableSet.of(2),
+         ImmutableList.of(1, 2, 2, 1), new CollectSetIf("x", fieldSchema, JexlCondition.of(condition)));
   }
 
   @Test
@@ -40,8 +41,9 @@ public class CollectSetIfTest extends AggregateFunctionTest {
     String condition = "x>0L";
 
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.LONG)));
-    test(new CollectSetIf("x", schema, JexlCondition.of(condition)), schema, "x", ImmutableSet.of(1L, 2L),
-         ImmutableList.of(1L, 2L, 1L, -1L), new CollectSetIf("x", schema, JexlCondition.of(condition)));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectSetIf("x", fieldSchema, JexlCondition.of(condition)), schema, "x", ImmutableSet.of(1L, 2L),
+         ImmutableList.of(1L, 2L, 1L, -1L), new CollectSetIf("x", fieldSchema, JexlCondition.of(condition)));
   }
 
   @Test
@@ -49,8 +51,10 @@ public class CollectSetIfTest extends AggregateFunctionTest {
     String condition = "x<3.0f";
 
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.FLOAT)));
-    test(new CollectSetIf("x", schema, JexlCondition.of(condition)), schema, "x", ImmutableSet.of(1.0F, 2.0F),
-         ImmutableList.of(1.0F, 2.0F, 1.0F, 3.0F, 4.0F), new CollectSetIf("x", schema, JexlCondition.of(condition)));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectSetIf("x", fieldSchema, JexlCondition.of(condition)), schema, "x", ImmutableSet.of(1.0F, 2.0F),
+         ImmutableList.of(1.0F, 2.0F, 1.0F, 3.0F, 4.0F),
+         new CollectSetIf("x", fieldSchema, JexlCondition.of(condition)));
   }
 
   @Test
@@ -58,8 +62,9 @@ public class CollectSetIfTest extends AggregateFunctionTest {
     String condition = "x>0d";
 
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.DOUBLE)));
-    test(new CollectSetIf("x", schema, JexlCondition.of(condition)), schema, "x", ImmutableSet.of(1.0D, 2.0D),
-         ImmutableList.of(1.0D, 2.0D, 1.0D, -1D), new CollectSetIf("x", schema, JexlCondition.of(condition)));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectSetIf("x", fieldSchema, JexlCondition.of(condition)), schema, "x", ImmutableSet.of(1.0D, 2.0D),
+         ImmutableList.of(1.0D, 2.0D, 1.0D, -1D), new CollectSetIf("x", fieldSchema, JexlCondition.of(condition)));
   }
 
   @Test
@@ -67,7 +72,8 @@ public class CollectSetIfTest extends AggregateFunctionTest {
     String condition = "!x.equals(\"3\")";
 
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
-    test(new CollectSetIf("x", schema, JexlCondition.of(condition)), schema, "x", ImmutableSet.of("1", "2"),
-         ImmutableList.of("1", "2", "1", "3"), new CollectSetIf("x", schema, JexlCondition.of(condition)));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectSetIf("x", fieldSchema, JexlCondition.of(condition)), schema, "x", ImmutableSet.of("1", "2"),
+         ImmutableList.of("1", "2", "1", "3"), new CollectSetIf("x", fieldSchema, JexlCondition.of(condition)));
   }
 }
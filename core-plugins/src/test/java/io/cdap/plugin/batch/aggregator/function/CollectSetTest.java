@@ -29,35 +29,40 @@ public class CollectSetTest extends AggregateFunctionTest {
   @Test
   public void testIntCollectSet() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.INT)));
-    test(new CollectSet("x", schema), schema, "x", ImmutableSet.of(1, 2), ImmutableList.of(1, 2, 1),
-         new CollectSet("x", schema));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectSet("x", fieldSchema), schema, "x", ImmutableSet.of(1, 2), ImmutableList.of(1, 2, 1),
+         new CollectSet("x", fieldSchema));
   }
 
   @Test
   public void testLongCollectSet() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.LONG)));
-    test(new CollectSet("x", schema), schema, "x", ImmutableSet.of(1L, 2L), ImmutableList.of(1L, 2L, 1L),
-         new CollectSet("x", schema));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectSet("x", fieldSchema), schema, "x", ImmutableSet.of(1L, 2L), ImmutableList.of(1L, 2L, 1L),
+         new CollectSet("x", fieldSchema));
   }
 
   @Test
   public void testFloatCollectSet() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.FLOAT)));
-    test(new CollectSet("x", schema), schema, "x", ImmutableSet.of(1.0F, 2.0F), ImmutableList.of(1.0F, 2.0F, 1.0F),
-         new CollectSet("x", schema));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectSet("x", fieldSchema), schema, "x", ImmutableSet.of(1.0F, 2.0F), ImmutableList.of(1.0F, 2.0F, 1.0F),
+         new CollectSet("x", fieldSchema));
   }
 
   @Test
   public void testDoubleCollectSet() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.DOUBLE)));
-    test(new CollectSet("x", schema), schema, "x", ImmutableSet.of(1.0D, 2.0D), ImmutableList.of(1.0D, 2.0D, 1.0D),
-         new CollectSet("x", schema));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectSet("x", fieldSchema), schema, "x", ImmutableSet.of(1.0D, 2.0D), ImmutableList.of(1.0D, 2.0D, 1.0D),
+         new CollectSet("x", fieldSchema));
   }
 
   @Test
   public void testStringCollectSet() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
-    test(new CollectSet("x", schema), schema, "x", ImmutableSet.of("1", "2"), ImmutableList.of("1", "2", "1"),
-         new CollectSet("x", schema));
+    Schema fieldSchema = schema.getField("x").getSchema();
+    test(new CollectSet("x", fieldSchema), schema, "x", ImmutableSet.of("1", "2"), ImmutableList.of("1", "2", "1"),
+         new CollectSet("x", fieldSchema));
   }
 }
@@ -28,8 +28,9 @@ public class CountDistinctIfTest extends AggregateFunctionTest {
     String condition = "city.equals(\"Mountain View\") || city.equals(\"Sunnyvale\") || city.equals(\"RedwoodCity\")";
 
     Schema schema = Schema.recordOf("cities", Schema.Field.of("city", Schema.of(Schema.Type.STRING)));
-    test(new CountDistinctIf("city", JexlCondition.of(condition)), schema, "city", 3,
+    Schema citySchema = schema.getField("city").getSchema();
+    test(new CountDistinctIf("city", citySchema, JexlCondition.of(condition)), schema, "city", 3,
          Arrays.asList("Mountain View", "Sunnyvale", "Sunnyvale", "Sunnyvale", "RedwoodCity", "RedwoodCity",
-                       "Valhalla"), new CountDistinctIf("city", JexlCondition.of(condition)));
+                       "Valhalla"), new CountDistinctIf("city", citySchema, JexlCondition.of(condition)));
   }
 }
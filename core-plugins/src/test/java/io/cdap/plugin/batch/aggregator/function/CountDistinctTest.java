@@ -25,8 +25,9 @@ public class CountDistinctTest extends AggregateFunctionTest {
   @Test
   public void testCountDistinct() {
     Schema schema = Schema.recordOf("cities", Schema.Field.of("city", Schema.of(Schema.Type.STRING)));
-    test(new CountDistinct("city"), schema, "city", 3,
+    Schema citySchema = schema.getField("city").getSchema();
+    test(new CountDistinct("city", citySchema), schema, "city", 3,
          Arrays.asList("Mountain View", "Sunnyvale", "Sunnyvale", "Sunnyvale", "RedwoodCity", "RedwoodCity"),
-         new CountDistinct("city"));
+         new CountDistinct("city", citySchema));
   }
 }
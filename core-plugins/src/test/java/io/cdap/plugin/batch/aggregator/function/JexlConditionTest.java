@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JexlCondition}.
+ */
+public class JexlConditionTest {
+  private static final Schema ADDRESS_SCHEMA = Schema.recordOf(
+    "address",
+    Schema.Field.of("country", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("zip", Schema.nullableOf(Schema.of(Schema.Type.INT))));
+  private static final Schema SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("price", Schema.of(Schema.Type.DOUBLE)),
+    Schema.Field.of("address", Schema.nullableOf(ADDRESS_SCHEMA)));
+
+  @Test
+  public void testNestedFields() {
+    JexlCondition condition = JexlCondition.of("price > 10 && address.country == 'US'");
+    Assert.assertTrue(condition.apply(purchase(20d, "US")));
+    Assert.assertFalse(condition.apply(purchase(5d, "US")));
+    Assert.assertFalse(condition.apply(purchase(20d, "FR")));
+  }
+
+  @Test
+  public void testSchemaChange() {
+    JexlCondition condition = JexlCondition.of("price > 10");
+    Assert.assertTrue(condition.apply(purchase(20d, "US")));
+    Schema otherSchema = Schema.recordOf("other", Schema.Field.of("price", Schema.of(Schema.Type.INT)));
+    Assert.assertFalse(condition.apply(StructuredRecord.builder(otherSchema).set("price", 3).build()));
+  }
+
+  @Test
+  public void testSameRecord() {
+    JexlCondition condition = JexlCondition.of("price > 10");
+    StructuredRecord record = purchase(20d, "US");
+    Assert.assertTrue(condition.apply(record));
+    Assert.assertTrue(condition.apply(record));
+    Assert.assertFalse(condition.apply(purchase(5d, "US")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingField() {
+    JexlCondition.of("quantity > 10").apply(purchase(20d, "US"));
+  }
+
+  private static StructuredRecord purchase(double price, String country) {
+    StructuredRecord address = StructuredRecord.builder(ADDRESS_SCHEMA).set("country", country).build();
+    return StructuredRecord.builder(SCHEMA).set("price", price).set("address", address).build();
+  }
+}
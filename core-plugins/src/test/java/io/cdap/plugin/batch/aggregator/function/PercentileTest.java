@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+
+public class PercentileTest extends AggregateFunctionTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "latencies", Schema.Field.of("latency", Schema.nullableOf(Schema.of(Schema.Type.LONG))));
+
+  @Test
+  public void testSmallGroup() {
+    test(new Percentile("latency", SCHEMA.getField("latency").getSchema(), 0.5d, QuantileSketch.DEFAULT_K), SCHEMA,
+         "latency", 3d, Arrays.asList(5L, null, 1L, 4L, 2L, 3L),
+         new Percentile("latency", SCHEMA.getField("latency").getSchema(), 0.5d, QuantileSketch.DEFAULT_K));
+    test(new Percentile("latency", SCHEMA.getField("latency").getSchema(), 0.9d, QuantileSketch.DEFAULT_K), SCHEMA,
+         "latency", 5d, Arrays.asList(5L, null, 1L, 4L, 2L, 3L),
+         new Percentile("latency", SCHEMA.getField("latency").getSchema(), 0.9d, QuantileSketch.DEFAULT_K));
+  }
+
+  @Test
+  public void testAllNulls() {
+    test(new Percentile("latency", SCHEMA.getField("latency").getSchema(), 0.5d, QuantileSketch.DEFAULT_K), SCHEMA,
+         "latency", null, Arrays.asList(null, null),
+         new Percentile("latency", SCHEMA.getField("latency").getSchema(), 0.5d, QuantileSketch.DEFAULT_K));
+  }
+
+  @Test
+  public void testLargeGroup() {
+    int numValues = 200000;
+    for (double quantile : new double[] {0.01d, 0.5d, 0.9d, 0.99d}) {
+      Percentile percentile = new Percentile("latency", SCHEMA.getField("latency").getSchema(), quantile,
+                                             QuantileSketch.DEFAULT_K);
+      Percentile other = new Percentile("latency", SCHEMA.getField("latency").getSchema(), quantile,
+                                        QuantileSketch.DEFAULT_K);
+      percentile.initialize();
+      other.initialize();
+      for (long i = 0; i < numValues; i++) {
+        // values 0 to numValues - 1 in shuffled order, split over two partitions
+        long value = (i * 7919L) % numValues;
+        (i % 2 == 0 ? percentile : other).mergeValue(StructuredRecord.builder(SCHEMA).set("latency", value).build());
+      }
+      percentile.mergeAggregates(other);
+      // rank error for the default size is about 1%
+      Assert.assertEquals(quantile * numValues, percentile.getAggregate(), numValues * 0.02d);
+    }
+  }
+
+  @Test
+  public void testStateRoundTrip() throws Exception {
+    for (int numValues : new int[] {10, 100000}) {
+      Percentile percentile = new Percentile("latency", SCHEMA.getField("latency").getSchema(), 0.75d,
+                                             QuantileSketch.DEFAULT_K);
+      percentile.initialize();
+      for (long i = 0; i < numValues; i++) {
+        percentile.mergeValue(StructuredRecord.builder(SCHEMA).set("latency", i).build());
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      percentile.writeState(new DataOutputStream(bytes));
+      // the sketch keeps about 3k values regardless of the number of values added
+      Assert.assertTrue(bytes.size() < 4 * QuantileSketch.DEFAULT_K * Double.BYTES);
+
+      Percentile read = new Percentile("latency", SCHEMA.getField("latency").getSchema(), 0.75d,
+                                       QuantileSketch.DEFAULT_K);
+      read.initialize();
+      read.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+      Assert.assertEquals(percentile.getAggregate(), read.getAggregate());
+    }
+  }
+
+  @Test
+  public void testCondition() {
+    test(new PercentileIf("latency", SCHEMA.getField("latency").getSchema(), 0.5d, QuantileSketch.DEFAULT_K,
+                          JexlCondition.of("latency > 2")),
+         SCHEMA, "latency", 4d, Arrays.asList(1L, 2L, 3L, 4L, 5L),
+         new PercentileIf("latency", SCHEMA.getField("latency").getSchema(), 0.5d, QuantileSketch.DEFAULT_K,
+                          JexlCondition.of("latency > 2")));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testNonNumericField() {
+    new Percentile("name", Schema.of(Schema.Type.STRING), 0.5d, QuantileSketch.DEFAULT_K);
+  }
+}
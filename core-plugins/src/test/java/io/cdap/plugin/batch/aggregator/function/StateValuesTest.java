@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Tests for {@link StateValues}.
+ */
+public class StateValuesTest {
+
+  @Test
+  public void testPrimitives() throws IOException {
+    Assert.assertEquals(true, roundTrip(Schema.of(Schema.Type.BOOLEAN), true));
+    Assert.assertEquals(-7, roundTrip(Schema.of(Schema.Type.INT), -7));
+    Assert.assertEquals(Long.MAX_VALUE, roundTrip(Schema.of(Schema.Type.LONG), Long.MAX_VALUE));
+    Assert.assertEquals(1.5f, roundTrip(Schema.of(Schema.Type.FLOAT), 1.5f));
+    Assert.assertEquals(Double.NaN, roundTrip(Schema.of(Schema.Type.DOUBLE), Double.NaN));
+    Assert.assertEquals("caf\u00e9", roundTrip(Schema.of(Schema.Type.STRING), "caf\u00e9"));
+    Assert.assertEquals("b", roundTrip(Schema.enumWith("a", "b"), "b"));
+    Assert.assertEquals(1000L, roundTrip(Schema.of(Schema.LogicalType.TIMESTAMP_MICROS), 1000L));
+    Assert.assertNull(roundTrip(Schema.of(Schema.Type.STRING), null));
+  }
+
+  @Test
+  public void testLongString() throws IOException {
+    char[] chars = new char[100000];
+    Arrays.fill(chars, 'x');
+    String value = new String(chars);
+    Assert.assertEquals(value, roundTrip(Schema.of(Schema.Type.STRING), value));
+  }
+
+  @Test
+  public void testBytes() throws IOException {
+    Schema schema = Schema.of(Schema.Type.BYTES);
+    Assert.assertArrayEquals(new byte[] {1, 2}, (byte[]) roundTrip(schema, new byte[] {1, 2}));
+    ByteBuffer buffer = ByteBuffer.wrap(new byte[] {1, 2, 3});
+    buffer.get();
+    Assert.assertEquals(ByteBuffer.wrap(new byte[] {2, 3}), roundTrip(schema, buffer));
+    // the written buffer is not consumed
+    Assert.assertEquals(2, buffer.remaining());
+  }
+
+  @Test
+  public void testUnion() throws IOException {
+    Schema schema = Schema.unionOf(Schema.of(Schema.Type.NULL), Schema.of(Schema.Type.LONG),
+                                   Schema.of(Schema.Type.STRING));
+    Assert.assertEquals(5L, roundTrip(schema, 5L));
+    Assert.assertEquals("five", roundTrip(schema, "five"));
+    Assert.assertNull(roundTrip(schema, null));
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnionMismatch() throws IOException {
+    roundTrip(Schema.nullableOf(Schema.of(Schema.Type.LONG)), "five");
+  }
+
+  @Test
+  public void testNested() throws IOException {
+    Schema inner = Schema.recordOf("inner", Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+                                   Schema.Field.of("tag", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    Schema schema = Schema.recordOf(
+      "outer",
+      Schema.Field.of("tags", Schema.arrayOf(Schema.nullableOf(Schema.of(Schema.Type.STRING)))),
+      Schema.Field.of("counts", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.LONG))),
+      Schema.Field.of("inner", Schema.nullableOf(inner)),
+      Schema.Field.of("ids", Schema.arrayOf(Schema.of(Schema.Type.INT))));
+    StructuredRecord record = StructuredRecord.builder(schema)
+      .set("tags", Arrays.asList("a", null))
+      .set("counts", ImmutableMap.of("x", 1L, "y", 2L))
+      .set("inner", StructuredRecord.builder(inner).set("id", 3).build())
+      .set("ids", new int[] {4, 5})
+      .build();
+
+    StructuredRecord read = (StructuredRecord) roundTrip(schema, record);
+    Assert.assertEquals(Arrays.asList("a", null), read.get("tags"));
+    Assert.assertEquals(ImmutableMap.of("x", 1L, "y", 2L), read.<Map<String, Long>>get("counts"));
+    Assert.assertEquals(record.<StructuredRecord>get("inner"), read.<StructuredRecord>get("inner"));
+    Assert.assertEquals(Arrays.asList(4, 5), read.get("ids"));
+    Assert.assertEquals(Collections.emptyList(), roundTrip(Schema.arrayOf(schema), Collections.emptyList()));
+  }
+
+  private static Object roundTrip(Schema schema, Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    StateValues.write(new DataOutputStream(bytes), schema, value);
+    return StateValues.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), schema);
+  }
+}
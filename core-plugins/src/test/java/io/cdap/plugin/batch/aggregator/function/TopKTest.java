@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class TopKTest extends AggregateFunctionTest {
+  private static final Schema FIELD_SCHEMA = Schema.nullableOf(Schema.of(Schema.Type.STRING));
+  private static final Schema SCHEMA = Schema.recordOf("items", Schema.Field.of("item", FIELD_SCHEMA));
+  private static final Schema ENTRY_SCHEMA = Schema.recordOf(
+    "item.topk", Schema.Field.of("value", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("count", Schema.of(Schema.Type.LONG)));
+
+  @Test
+  public void testSmallGroup() {
+    test(new TopK("item", FIELD_SCHEMA, 2, 10), SCHEMA, "item",
+         Arrays.asList(entry("pen", 3L), entry("book", 2L)),
+         Arrays.asList("pen", "book", null, "pen", "cup", "book", "pen", null),
+         new TopK("item", FIELD_SCHEMA, 2, 10));
+    Assert.assertEquals(Schema.arrayOf(ENTRY_SCHEMA), new TopK("item", FIELD_SCHEMA, 2, 10).getOutputSchema());
+  }
+
+  @Test
+  public void testHeavyHitters() {
+    // value i occurs 1000 / (i + 1) times, which leaves many more distinct values than the capacity
+    List<Object> values = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      for (int j = 0; j < Math.max(1, 1000 / (i + 1)); j++) {
+        values.add("item" + i);
+      }
+    }
+    Collections.shuffle(values, new Random(0));
+    Iterator<Object> iterator = values.iterator();
+    @SuppressWarnings("unchecked")
+    List<StructuredRecord> topK = (List<StructuredRecord>) getAggregateMultiplePartitions(
+      () -> new TopK("item", FIELD_SCHEMA, 5, 100), SCHEMA, "item", iterator);
+
+    Assert.assertEquals(5, topK.size());
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals("item" + i, topK.get(i).get("value"));
+      // counts never underestimate, and overestimate by at most the group size divided by the capacity
+      long count = topK.get(i).get("count");
+      Assert.assertTrue(count >= 1000 / (i + 1));
+      Assert.assertTrue(count <= 1000 / (i + 1) + values.size() / 100);
+    }
+  }
+
+  @Test
+  public void testMergeUncountedValues() {
+    TopK topK = new TopK("item", FIELD_SCHEMA, 2, 2);
+    TopK other = new TopK("item", FIELD_SCHEMA, 2, 2);
+    topK.initialize();
+    other.initialize();
+    for (String value : Arrays.asList("pen", "pen", "pen", "pen", "pen", "cup")) {
+      topK.mergeValue(StructuredRecord.builder(SCHEMA).set("item", value).build());
+    }
+    // the pen is replaced by the first book, so the other partition does not count it
+    for (String value : Arrays.asList("ink", "ink", "ink", "pen", "book", "book", "book")) {
+      other.mergeValue(StructuredRecord.builder(SCHEMA).set("item", value).build());
+    }
+    topK.mergeAggregates(other);
+    // the pen occurred 6 times, and the other partition may have seen it up to its lowest count of 3 times
+    Assert.assertEquals(Arrays.asList(entry("pen", 8L), entry("book", 5L)), topK.getAggregate());
+  }
+
+  @Test
+  public void testLongTail() {
+    // many more distinct values than counters, so that nearly every record replaces a least frequent value
+    int capacity = 1000;
+    TopK topK = new TopK("item", FIELD_SCHEMA, capacity, capacity);
+    topK.initialize();
+    Random random = new Random(0);
+    int numValues = 500000;
+    int numHeavy = 0;
+    for (int i = 0; i < numValues; i++) {
+      String value = i % 10 == 0 ? "heavy" : "item" + random.nextInt(numValues);
+      numHeavy += i % 10 == 0 ? 1 : 0;
+      topK.mergeValue(StructuredRecord.builder(SCHEMA).set("item", value).build());
+    }
+
+    List<StructuredRecord> counts = topK.getAggregate();
+    Assert.assertEquals(capacity, counts.size());
+    Assert.assertEquals("heavy", counts.get(0).get("value"));
+    long heavyCount = counts.get(0).get("count");
+    Assert.assertTrue(heavyCount >= numHeavy && heavyCount <= numHeavy + numValues / capacity);
+    // every record increments exactly one counter
+    long total = 0L;
+    for (StructuredRecord count : counts) {
+      total += count.<Long>get("count");
+    }
+    Assert.assertEquals(numValues, total);
+  }
+
+  @Test
+  public void testStateRoundTrip() throws Exception {
+    TopK topK = new TopK("item", FIELD_SCHEMA, 3, 30);
+    topK.initialize();
+    for (int i = 0; i < 1000; i++) {
+      topK.mergeValue(StructuredRecord.builder(SCHEMA).set("item", "item" + (i % 7 == 0 ? 0 : i)).build());
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    topK.writeState(new DataOutputStream(bytes));
+
+    TopK read = new TopK("item", FIELD_SCHEMA, 3, 30);
+    read.initialize();
+    read.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    Assert.assertEquals(topK.getAggregate(), read.getAggregate());
+    Assert.assertEquals("item0", read.getAggregate().get(0).get("value"));
+
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject(topK);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+      Assert.assertEquals(topK.getAggregate(), ((TopK) in.readObject()).getAggregate());
+    }
+  }
+
+  @Test
+  public void testCondition() {
+    test(new TopKIf("item", FIELD_SCHEMA, 1, 10, JexlCondition.of("item != 'pen'")), SCHEMA, "item",
+         Collections.singletonList(entry("book", 2L)),
+         Arrays.asList("pen", "book", "pen", "cup", "book", "pen"),
+         new TopKIf("item", FIELD_SCHEMA, 1, 10, JexlCondition.of("item != 'pen'")));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testUnsupportedField() {
+    new TopK("items", Schema.arrayOf(Schema.of(Schema.Type.STRING)), 1, 10);
+  }
+
+  private static StructuredRecord entry(String value, long count) {
+    return StructuredRecord.builder(ENTRY_SCHEMA).set("value", value).set("count", count).build();
+  }
+}
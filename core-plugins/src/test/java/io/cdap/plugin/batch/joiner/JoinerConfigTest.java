@@ -498,4 +498,152 @@ public class JoinerConfigTest {
 
   }
 
+  @Test
+  public void testAutoDistribution() {
+    Map<String, JoinStage> inputStages = ImmutableMap.of(
+      "film", JoinStage.builder("film", FILM_SCHEMA).build(),
+      "filmActor", JoinStage.builder("filmActor", FILM_ACTOR_SCHEMA).build());
+    String selectedFields = "film.film_id, film.film_name, filmActor.actor_name";
+
+    // left outer join, the required input is the skewed stage
+    JoinerConfig config = new JoinerConfig("film.film_id=filmActor.film_id", selectedFields, "filmActor", 4, "auto");
+    FailureCollector collector = new MockFailureCollector();
+    JoinDefinition joinDefinition = new Joiner(config).define(new MockAutoJoinerContext(inputStages, collector));
+    Assert.assertEquals(0, collector.getValidationFailures().size());
+    Assert.assertEquals("filmActor", joinDefinition.getDistribution().getSkewedStageName());
+    Assert.assertEquals(4, joinDefinition.getDistribution().getDistributionFactor());
+    Assert.assertEquals("filmActor", joinDefinition.getStages().get(0).getStageName());
+
+    // inner join, the skewed stage cannot be chosen
+    config = new JoinerConfig("film.film_id=filmActor.film_id", selectedFields, "film,filmActor", 4, "auto");
+    try {
+      new Joiner(config).define(new MockAutoJoinerContext(inputStages, new MockFailureCollector()));
+      Assert.fail();
+    } catch (ValidationException e) {
+      Assert.assertEquals(1, e.getFailures().size());
+      Assert.assertEquals(JoinerConfig.DISTRIBUTION_STAGE,
+                          e.getFailures().get(0).getCauses().get(0).getAttribute(CauseAttributes.STAGE_CONFIG));
+    }
+
+    // manual distribution still requires the distribution size and the skewed stage
+    config = new JoinerConfig("film.film_id=filmActor.film_id", selectedFields, "filmActor", 4, "manual");
+    try {
+      new Joiner(config).define(new MockAutoJoinerContext(inputStages, new MockFailureCollector()));
+      Assert.fail();
+    } catch (ValidationException e) {
+      Assert.assertEquals(2, e.getFailures().size());
+    }
+  }
+
+  @Test
+  public void testAutoDistributionFactor() {
+    JoinerConfig config = new JoinerConfig("film.film_id=filmActor.film_id", SELECTED_FIELDS, "film", null, "auto");
+    Assert.assertEquals(JoinerConfig.MAX_AUTO_DISTRIBUTION_FACTOR, (int) config.getDistributionFactor(null));
+    Assert.assertEquals(8, (int) config.getDistributionFactor(8));
+    Assert.assertEquals(JoinerConfig.MAX_AUTO_DISTRIBUTION_FACTOR, (int) config.getDistributionFactor(1000));
+
+    config = new JoinerConfig("film.film_id=filmActor.film_id", SELECTED_FIELDS, "film", null, "manual");
+    Assert.assertNull(config.getDistributionFactor(8));
+  }
+
+  @Test
+  public void testIntervalCondition() {
+    Schema eventSchema = Schema.recordOf(
+      "event",
+      Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("ts", Schema.of(Schema.Type.LONG)));
+    Schema sessionSchema = Schema.recordOf(
+      "session",
+      Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("id", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("start", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("end", Schema.of(Schema.Type.LONG)));
+    Map<String, JoinStage> inputStages = ImmutableMap.of(
+      "events", JoinStage.builder("events", eventSchema).build(),
+      "user sessions", JoinStage.builder("user sessions", sessionSchema).build());
+    String selectedFields = "events.user, events.ts, user sessions.id";
+
+    // outer interval joins do not need an input in memory
+    JoinerConfig config = new JoinerConfig("events.user=user sessions.user", selectedFields, "events",
+                                           "events.ts", "user sessions.start", "user sessions.end");
+    FailureCollector collector = new MockFailureCollector();
+    JoinDefinition joinDefinition = new Joiner(config).define(new MockAutoJoinerContext(inputStages, collector));
+    Assert.assertEquals(0, collector.getValidationFailures().size());
+    Assert.assertEquals(JoinCondition.Op.EXPRESSION, joinDefinition.getCondition().getOp());
+    String expression = ((JoinCondition.OnExpression) joinDefinition.getCondition()).getExpression();
+    Assert.assertTrue(expression, expression.contains("`events`.`ts` >= `user sessions`.`start` AND " +
+      "`events`.`ts` <= `user sessions`.`end`"));
+    // null keys are joined by default, so the keys are compared with the null-safe equality
+    Assert.assertTrue(expression, expression.startsWith("`events`.`user` <=> `user sessions`.`user` AND ") ||
+      expression.startsWith("`user sessions`.`user` <=> `events`.`user` AND "));
+
+    config = new JoinerConfig("events.user=user sessions.user", selectedFields, "events",
+                              "events.ts", "user sessions.start", "user sessions.end", false);
+    expression = config.getIntervalExpression(new MockFailureCollector());
+    Assert.assertTrue(expression, expression.startsWith("`events`.`user` = `user sessions`.`user` AND ") ||
+      expression.startsWith("`user sessions`.`user` = `events`.`user` AND "));
+
+    // the start and end of the range must be in the same input
+    assertIntervalFailure(new JoinerConfig("events.user=user sessions.user", selectedFields, "events",
+                                           "events.ts", "events.ts", "user sessions.end"),
+                          inputStages, JoinerConfig.RANGE_END_FIELD);
+
+    // the range must be in the other input than the range field
+    assertIntervalFailure(new JoinerConfig("events.user=user sessions.user", selectedFields, "events",
+                                           "user sessions.id", "user sessions.start", "user sessions.end"),
+                          inputStages, JoinerConfig.RANGE_FIELD);
+  }
+
+  private static void assertIntervalFailure(JoinerConfig config, Map<String, JoinStage> inputStages,
+                                            String property) {
+    try {
+      new Joiner(config).define(new MockAutoJoinerContext(inputStages, new MockFailureCollector()));
+      Assert.fail();
+    } catch (ValidationException e) {
+      Assert.assertEquals(1, e.getFailures().size());
+      Assert.assertEquals(property,
+                          e.getFailures().get(0).getCauses().get(0).getAttribute(CauseAttributes.STAGE_CONFIG));
+    }
+  }
+
+  @Test
+  public void testAutoBroadcast() {
+    String joinKeys = "film.film_id=filmActor.film_id=filmCategory.film_id";
+
+    // inner join, the smallest inputs are loaded in memory as long as one input is not
+    JoinerConfig config = new JoinerConfig(joinKeys, SELECTED_FIELDS, "film,filmActor,filmCategory",
+                                           "film:100;filmActor:50;filmCategory:10", 1000L);
+    Assert.assertEquals(ImmutableSet.of("filmActor", "filmCategory"), getBroadcastStages(config));
+
+    config = new JoinerConfig(joinKeys, SELECTED_FIELDS, "film,filmActor,filmCategory",
+                              "film:100;filmActor:5000", 1000L);
+    Assert.assertEquals(ImmutableSet.of("film"), getBroadcastStages(config));
+
+    // outer join, required inputs are not loaded in memory
+    config = new JoinerConfig(joinKeys, SELECTED_FIELDS, "film", "film:100;filmActor:50;filmCategory:5000", 1000L);
+    Assert.assertEquals(ImmutableSet.of("filmActor"), getBroadcastStages(config));
+
+    config = new JoinerConfig(joinKeys, SELECTED_FIELDS, "film", "film:100;actor:50", 1000L);
+    try {
+      getBroadcastStages(config);
+      Assert.fail();
+    } catch (ValidationException e) {
+      Assert.assertEquals(1, e.getFailures().size());
+      Assert.assertEquals(JoinerConfig.INPUT_SIZE_HINTS,
+                          e.getFailures().get(0).getCauses().get(0).getAttribute(CauseAttributes.STAGE_CONFIG));
+    }
+  }
+
+  private static Set<String> getBroadcastStages(JoinerConfig config) {
+    FailureCollector collector = new MockFailureCollector();
+    JoinDefinition joinDefinition = new Joiner(config).define(new MockAutoJoinerContext(INPUT_STAGES, collector));
+    collector.getOrThrowException();
+    Set<String> broadcastStages = new HashSet<>();
+    for (JoinStage stage : joinDefinition.getStages()) {
+      if (stage.isBroadcast()) {
+        broadcastStages.add(stage.getStageName());
+      }
+    }
+    return broadcastStages;
+  }
 }
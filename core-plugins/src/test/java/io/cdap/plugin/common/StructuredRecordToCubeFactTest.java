@@ -141,6 +141,44 @@ public class StructuredRecordToCubeFactTest {
     Assert.assertTrue(1000 + tsEnd / 1000 >= transformed.getTimestamp());
   }
 
+  @Test
+  public void testTransformSchemaChange() throws Exception {
+    Map<String, String> config = Maps.newHashMap();
+    addMeasurement(config, "count", "COUNTER");
+    StructuredRecordToCubeFact transform = new StructuredRecordToCubeFact(config);
+
+    Schema schema1 = Schema.recordOf(
+      "record",
+      Schema.Field.of("dim", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("tags", Schema.arrayOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("count", Schema.of(Schema.Type.LONG)));
+    Schema schema2 = Schema.recordOf(
+      "record",
+      Schema.Field.of("other", Schema.of(Schema.Type.BYTES)),
+      Schema.Field.of("count", Schema.of(Schema.Type.INT)));
+
+    CubeFact fact = transform.transform(StructuredRecord.builder(schema1)
+                                          .set("dim", "a")
+                                          .set("tags", ImmutableList.of("x"))
+                                          .set("count", Long.MAX_VALUE)
+                                          .build());
+    Map<String, String> expected = new HashMap<>();
+    expected.put("dim", "a");
+    expected.put("count", Long.toString(Long.MAX_VALUE));
+    Assert.assertEquals(expected, fact.getDimensionValues());
+    verifyMeasurements(ImmutableList.of(new Measurement("count", MeasureType.COUNTER, Long.MAX_VALUE)),
+                       fact.getMeasurements());
+
+    fact = transform.transform(StructuredRecord.builder(schema2)
+                                 .set("other", Bytes.toBytes("foo"))
+                                 .set("count", 3)
+                                 .build());
+    expected = new HashMap<>();
+    expected.put("other", Bytes.toStringBinary(Bytes.toBytes("foo")));
+    expected.put("count", "3");
+    Assert.assertEquals(expected, fact.getDimensionValues());
+  }
+
   private Map<String, String> createValidConfig() {
     Map<String, String> config = Maps.newHashMap();
     config.put(Properties.Cube.FACT_TS_FIELD, "tsField");
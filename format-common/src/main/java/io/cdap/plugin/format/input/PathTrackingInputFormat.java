@@ -16,6 +16,8 @@
 
 package io.cdap.plugin.format.input;
 
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import org.apache.hadoop.conf.Configuration;
@@ -30,6 +32,12 @@ import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 import org.apache.hadoop.mapreduce.lib.input.TextInputFormat;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import javax.annotation.Nullable;
 
 /**
@@ -50,6 +58,11 @@ public abstract class PathTrackingInputFormat extends FileInputFormat<NullWritab
   static final String FILENAME_ONLY = "path.tracking.filename.only";
   public static final String SOURCE_FILE_ENCODING = "path.tracking.encoding";
   public static final String SCHEMA = "schema";
+  /**
+   * Comma separated names of the fields of the schema to read. The other fields are not read, and the records only
+   * contain the projected fields and the path field. Formats that do not support projection read all the fields.
+   */
+  public static final String PROJECTED_FIELDS = "path.tracking.projected.fields";
   public static final String TARGET_ENCODING = "utf-8";
 
   @Override
@@ -67,10 +80,15 @@ public abstract class PathTrackingInputFormat extends FileInputFormat<NullWritab
     boolean userFilenameOnly = hConf.getBoolean(FILENAME_ONLY, false);
     String path = userFilenameOnly ? fileSplit.getPath().getName() : fileSplit.getPath().toUri().toString();
     String schema = hConf.get(SCHEMA);
-    Schema parsedSchema = schema == null ? null : Schema.parseJson(schema);
-
-    RecordReader<NullWritable, StructuredRecord.Builder> delegate = createRecordReader(fileSplit, context,
-                                                                                       pathField, parsedSchema);
+    // every split of the task has the same schema, so it is parsed and projected once per JVM
+    Schema parsedSchema = schema == null ? null : SchemaCache.getSchema(schema);
+    String projectedFields = hConf.get(PROJECTED_FIELDS);
+    Schema projectedSchema = SchemaCache.getPlan(
+      Arrays.asList(PathTrackingInputFormat.class, parsedSchema, projectedFields, pathField),
+      () -> Optional.ofNullable(getProjectedSchema(parsedSchema, projectedFields, pathField))).orElse(null);
+
+    RecordReader<NullWritable, StructuredRecord.Builder> delegate = createRecordReader(fileSplit, context, pathField,
+                                                                                       parsedSchema, projectedSchema);
     return new TrackingRecordReader(delegate, pathField, path);
   }
 
@@ -92,6 +110,56 @@ public abstract class PathTrackingInputFormat extends FileInputFormat<NullWritab
     FileSplit split, TaskAttemptContext context,
     @Nullable String pathField, @Nullable Schema schema) throws IOException, InterruptedException;
 
+  /**
+   * Creates a record reader that only reads the fields of the projected schema, if there is one. Formats that support
+   * projection override this method, and skip parsing the values of the other fields. By default, all the fields of
+   * the schema are read.
+   *
+   * @param projectedSchema schema of the fields to read, or null to read all the fields of the schema
+   */
+  protected RecordReader<NullWritable, StructuredRecord.Builder> createRecordReader(
+    FileSplit split, TaskAttemptContext context, @Nullable String pathField, @Nullable Schema schema,
+    @Nullable Schema projectedSchema) throws IOException, InterruptedException {
+    return createRecordReader(split, context, pathField, schema);
+  }
+
+  /**
+   * Returns the schema of the projected fields, which keeps the order of the fields in the schema and the path field.
+   *
+   * @param schema schema of the data
+   * @param projectedFields comma separated names of the fields to read
+   * @param pathField field that holds the path of the file
+   * @return the projected schema, or null if all the fields of the schema are read
+   */
+  @Nullable
+  static Schema getProjectedSchema(@Nullable Schema schema, @Nullable String projectedFields,
+                                   @Nullable String pathField) {
+    if (schema == null || schema.getFields() == null || Strings.isNullOrEmpty(projectedFields)) {
+      return null;
+    }
+    Set<String> names = new HashSet<>();
+    for (String name : Splitter.on(',').trimResults().omitEmptyStrings().split(projectedFields)) {
+      if (schema.getField(name) == null) {
+        throw new IllegalArgumentException(
+          String.format("Projected field '%s' does not exist in the schema.", name));
+      }
+      names.add(name);
+    }
+    if (pathField != null) {
+      names.add(pathField);
+    }
+    List<Schema.Field> fields = new ArrayList<>(names.size());
+    for (Schema.Field field : schema.getFields()) {
+      if (names.contains(field.getName())) {
+        fields.add(field);
+      }
+    }
+    if (fields.size() == schema.getFields().size()) {
+      return null;
+    }
+    return Schema.recordOf(schema.getRecordName(), fields);
+  }
+
   /**
    * Supports adding a field to each record that contains the path of the file the record was read from.
    */
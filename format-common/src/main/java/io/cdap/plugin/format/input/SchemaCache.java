@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.input;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Caches the schemas that record readers parse from the configuration, and the plans that they compile from these
+ * schemas, such as the converters of the fields. A task creates a record reader for every split, and for every file of
+ * a combined split, which all use the same schema, so the schema is parsed and the plans are compiled once per JVM
+ * instead of once per file. Both caches are bounded, since executors can run the tasks of many pipelines.
+ *
+ * Schemas are immutable, and the cached plans are shared by all the readers of the JVM, so they must not hold the state
+ * of a reader.
+ */
+public final class SchemaCache {
+  static final int MAX_SIZE = 256;
+  private static final Cache<String, Schema> SCHEMAS = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).build();
+  private static final Cache<List<?>, Object> PLANS = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).build();
+
+  private SchemaCache() {
+  }
+
+  /**
+   * Returns the schema of the given JSON, which is only parsed the first time it is requested.
+   *
+   * @param json JSON representation of the schema
+   * @return the parsed schema
+   * @throws IOException if the JSON is not a valid schema
+   */
+  public static Schema getSchema(String json) throws IOException {
+    try {
+      return SCHEMAS.get(json, () -> Schema.parseJson(json));
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new IOException(e.getCause());
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  /**
+   * Returns the plan for the given key, which is only compiled the first time it is requested. The key holds
+   * everything the plan is compiled from, usually the class that compiles it and the schemas it depends on, and is
+   * compared with {@link Object#equals(Object)}.
+   *
+   * @param key key of the plan, which may contain nulls
+   * @param loader compiles the plan, which must not be null
+   * @param <T> type of the plan
+   * @return the cached plan
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T getPlan(List<?> key, Callable<T> loader) {
+    try {
+      return (T) PLANS.get(key, loader);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  static void invalidateAll() {
+    SCHEMAS.invalidateAll();
+    PLANS.invalidateAll();
+  }
+}
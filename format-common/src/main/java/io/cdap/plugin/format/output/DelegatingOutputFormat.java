@@ -19,6 +19,7 @@ package io.cdap.plugin.format.output;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.dataset.lib.KeyValue;
 import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.OutputCommitter;
 import org.apache.hadoop.mapreduce.OutputFormat;
@@ -65,9 +66,31 @@ public abstract class DelegatingOutputFormat<K, V> extends OutputFormat<NullWrit
 
   protected abstract OutputFormat<K, V> createDelegate() throws IOException, InterruptedException;
 
+  /**
+   * Return a function that converts each record received by the RecordWriter. Since the delegate writes the converted
+   * key and value before the next record is converted, the function may return the same objects for every record.
+   */
   protected abstract Function<StructuredRecord, KeyValue<K, V>> getConversion(TaskAttemptContext context)
     throws IOException;
 
+  /**
+   * Return a conversion into the text of a line that serializes each record into a buffer, for delegates that write
+   * {@link Text} values. The buffer, the text and the key value are reused for every record, so that no String and no
+   * Text is created per record.
+   */
+  protected static Function<StructuredRecord, KeyValue<NullWritable, Text>> getTextConversion(
+    RecordSerializer serializer) {
+    RecordBuffer buffer = new RecordBuffer();
+    Text text = new Text();
+    KeyValue<NullWritable, Text> keyValue = new KeyValue<>(NullWritable.get(), text);
+    return record -> {
+      buffer.reset();
+      serializer.serialize(record, buffer);
+      buffer.copyTo(text);
+      return keyValue;
+    };
+  }
+
   /**
    * Return a function that outputs a header given the first record received by the RecordWriter.
    * Return null if no header should be written.
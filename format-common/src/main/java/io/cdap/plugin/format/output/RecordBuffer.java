@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.output;
+
+import org.apache.hadoop.io.Text;
+
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A growable buffer that a record is serialized into as UTF-8 bytes. The buffer is reused for every record, so that
+ * serializing a record does not build a String that is then encoded again. Characters are encoded like
+ * {@link String#getBytes(java.nio.charset.Charset)} does, which replaces unpaired surrogates with '?'.
+ */
+public final class RecordBuffer {
+  private static final byte REPLACEMENT = '?';
+
+  private byte[] bytes = new byte[1024];
+  private int length;
+  // a high surrogate written through the writer, whose low surrogate may be in the next write
+  private char pendingHighSurrogate;
+  private Writer writer;
+
+  /**
+   * Empties the buffer, keeping its capacity.
+   */
+  public void reset() {
+    length = 0;
+    pendingHighSurrogate = 0;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  public void write(byte b) {
+    ensureCapacity(length + 1);
+    bytes[length++] = b;
+  }
+
+  public void write(byte[] b) {
+    ensureCapacity(length + b.length);
+    System.arraycopy(b, 0, bytes, length, b.length);
+    length += b.length;
+  }
+
+  /**
+   * Writes the UTF-8 bytes of the given characters.
+   */
+  public void write(CharSequence value) {
+    int valueLength = value.length();
+    // most characters are ASCII, and every character takes at most three bytes
+    ensureCapacity(length + valueLength);
+    for (int i = 0; i < valueLength; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        if (length == bytes.length) {
+          ensureCapacity(length + valueLength - i);
+        }
+        bytes[length++] = (byte) c;
+      } else if (Character.isHighSurrogate(c) && i + 1 < valueLength && Character.isLowSurrogate(value.charAt(i + 1))) {
+        writeCodePoint(Character.toCodePoint(c, value.charAt(++i)));
+      } else {
+        writeChar(c);
+      }
+    }
+  }
+
+  /**
+   * Writes the decimal digits of the given value, like {@link Long#toString(long)}.
+   */
+  public void write(long value) {
+    if (value == Long.MIN_VALUE) {
+      write(Long.toString(value));
+      return;
+    }
+    ensureCapacity(length + 20);
+    if (value < 0) {
+      bytes[length++] = '-';
+      value = -value;
+    }
+    int end = length + digits(value);
+    for (int i = end - 1; i >= length; i--) {
+      bytes[i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    length = end;
+  }
+
+  /**
+   * @return a writer that writes the UTF-8 bytes of its characters to this buffer
+   */
+  public Writer asWriter() {
+    if (writer == null) {
+      writer = new Writer() {
+        @Override
+        public void write(int c) {
+          writeFromWriter((char) c);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int count) {
+          for (int i = offset; i < offset + count; i++) {
+            writeFromWriter(chars[i]);
+          }
+        }
+
+        @Override
+        public void write(String value, int offset, int count) {
+          for (int i = offset; i < offset + count; i++) {
+            writeFromWriter(value.charAt(i));
+          }
+        }
+
+        @Override
+        public void flush() {
+          // the characters are always written to the buffer
+        }
+
+        @Override
+        public void close() {
+          // the buffer is reused
+        }
+      };
+    }
+    return writer;
+  }
+
+  /**
+   * Sets the bytes of the buffer to the given text, whose capacity is reused.
+   */
+  public void copyTo(Text text) {
+    if (pendingHighSurrogate != 0) {
+      pendingHighSurrogate = 0;
+      write(REPLACEMENT);
+    }
+    text.set(bytes, 0, length);
+  }
+
+  private void writeFromWriter(char c) {
+    if (pendingHighSurrogate != 0) {
+      char high = pendingHighSurrogate;
+      pendingHighSurrogate = 0;
+      if (Character.isLowSurrogate(c)) {
+        writeCodePoint(Character.toCodePoint(high, c));
+        return;
+      }
+      write(REPLACEMENT);
+    }
+    if (Character.isHighSurrogate(c)) {
+      pendingHighSurrogate = c;
+    } else if (c < 0x80) {
+      write((byte) c);
+    } else {
+      writeChar(c);
+    }
+  }
+
+  private void writeChar(char c) {
+    ensureCapacity(length + 3);
+    if (c < 0x800) {
+      bytes[length++] = (byte) (0xC0 | (c >> 6));
+      bytes[length++] = (byte) (0x80 | (c & 0x3F));
+    } else if (Character.isSurrogate(c)) {
+      bytes[length++] = REPLACEMENT;
+    } else {
+      bytes[length++] = (byte) (0xE0 | (c >> 12));
+      bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+      bytes[length++] = (byte) (0x80 | (c & 0x3F));
+    }
+  }
+
+  private void writeCodePoint(int codePoint) {
+    ensureCapacity(length + 4);
+    bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+    bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+    bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+    bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+  }
+
+  private static int digits(long value) {
+    int digits = 1;
+    for (long limit = 10; digits < 19 && value >= limit; limit *= 10) {
+      digits++;
+    }
+    return digits;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (bytes.length < capacity) {
+      bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.input;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PathTrackingInputFormat}.
+ */
+public class PathTrackingInputFormatTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+    Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("price", Schema.of(Schema.Type.DOUBLE)),
+    Schema.Field.of("file", Schema.of(Schema.Type.STRING)));
+
+  @Test
+  public void testProjectedSchema() {
+    Schema expected = Schema.recordOf(
+      "record",
+      Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("price", Schema.of(Schema.Type.DOUBLE)));
+    Assert.assertEquals(expected, PathTrackingInputFormat.getProjectedSchema(SCHEMA, "price, id", null));
+
+    // the path field is always read
+    expected = Schema.recordOf(
+      "record",
+      Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("file", Schema.of(Schema.Type.STRING)));
+    Assert.assertEquals(expected, PathTrackingInputFormat.getProjectedSchema(SCHEMA, "name", "file"));
+  }
+
+  @Test
+  public void testNoProjection() {
+    Assert.assertNull(PathTrackingInputFormat.getProjectedSchema(SCHEMA, null, null));
+    Assert.assertNull(PathTrackingInputFormat.getProjectedSchema(SCHEMA, "", "file"));
+    Assert.assertNull(PathTrackingInputFormat.getProjectedSchema(null, "id", null));
+    Assert.assertNull(PathTrackingInputFormat.getProjectedSchema(SCHEMA, "id,name,price", "file"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownProjectedField() {
+    PathTrackingInputFormat.getProjectedSchema(SCHEMA, "id,quantity", null);
+  }
+}
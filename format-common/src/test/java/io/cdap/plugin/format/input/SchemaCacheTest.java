@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.input;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link SchemaCache}.
+ */
+public class SchemaCacheTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+    Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+
+  @After
+  public void invalidate() {
+    SchemaCache.invalidateAll();
+  }
+
+  @Test
+  public void testSchema() throws IOException {
+    Schema schema = SchemaCache.getSchema(SCHEMA.toString());
+    Assert.assertEquals(SCHEMA, schema);
+    Assert.assertSame(schema, SchemaCache.getSchema(SCHEMA.toString()));
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidSchema() throws IOException {
+    SchemaCache.getSchema("{\"type\":\"record\"");
+  }
+
+  @Test
+  public void testPlan() throws IOException {
+    AtomicInteger loads = new AtomicInteger();
+    Object plan = SchemaCache.getPlan(Arrays.asList(SchemaCacheTest.class, SCHEMA, null),
+                                      () -> new Object[] {loads.incrementAndGet()});
+    // keys are compared by value, so a schema parsed again finds the same plan
+    Schema parsed = Schema.parseJson(SCHEMA.toString());
+    Assert.assertSame(plan, SchemaCache.getPlan(Arrays.asList(SchemaCacheTest.class, parsed, null),
+                                                () -> new Object[] {loads.incrementAndGet()}));
+    Assert.assertNotSame(plan, SchemaCache.getPlan(Arrays.asList(SchemaCacheTest.class, SCHEMA, "file"),
+                                                   () -> new Object[] {loads.incrementAndGet()}));
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testPlanIsBounded() {
+    for (int i = 0; i <= SchemaCache.MAX_SIZE * 2; i++) {
+      SchemaCache.getPlan(Arrays.asList(SchemaCacheTest.class, i), Object::new);
+    }
+    AtomicInteger loads = new AtomicInteger();
+    for (int i = 0; i <= SchemaCache.MAX_SIZE * 2; i++) {
+      SchemaCache.getPlan(Arrays.asList(SchemaCacheTest.class, i), loads::incrementAndGet);
+    }
+    // the plans of the first keys were evicted
+    Assert.assertTrue(loads.get() > 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPlanFailure() {
+    SchemaCache.getPlan(Arrays.asList(SchemaCacheTest.class, SCHEMA), () -> {
+      throw new IllegalArgumentException("Invalid plan");
+    });
+  }
+}
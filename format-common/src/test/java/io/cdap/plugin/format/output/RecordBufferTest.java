@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.output;
+
+import org.apache.hadoop.io.Text;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests for {@link RecordBuffer}.
+ */
+public class RecordBufferTest {
+  private static final char[] CHARACTERS = {'a', ',', '"', '\u00e9', '\u4e2d', '\ud83d', '\ude00', '\u0000', '\uffff'};
+
+  @Test
+  public void testSameBytesAsString() throws IOException {
+    RecordBuffer buffer = new RecordBuffer();
+    Text text = new Text();
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      StringBuilder value = new StringBuilder();
+      int length = random.nextInt(i % 100 == 0 ? 2000 : 20);
+      for (int j = 0; j < length; j++) {
+        value.append(CHARACTERS[random.nextInt(CHARACTERS.length)]);
+      }
+      String expected = value.toString();
+
+      buffer.reset();
+      buffer.write(expected);
+      buffer.copyTo(text);
+      assertBytes(expected, text);
+
+      // split the characters across writes, which may separate surrogate pairs
+      buffer.reset();
+      Writer writer = buffer.asWriter();
+      int split = length == 0 ? 0 : random.nextInt(length);
+      writer.write(expected, 0, split);
+      writer.write(expected.toCharArray(), split, length - split);
+      buffer.copyTo(text);
+      assertBytes(expected, text);
+    }
+  }
+
+  @Test
+  public void testLongs() {
+    RecordBuffer buffer = new RecordBuffer();
+    Text text = new Text();
+    for (long value : new long[] {0, 7, -7, 10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE,
+      Long.MIN_VALUE, Long.MAX_VALUE / 10, 999999999999999999L, 1000000000000000000L}) {
+      buffer.reset();
+      buffer.write(value);
+      buffer.copyTo(text);
+      Assert.assertEquals(Long.toString(value), text.toString());
+    }
+  }
+
+  private static void assertBytes(String expected, Text text) {
+    Assert.assertArrayEquals(expected, expected.getBytes(StandardCharsets.UTF_8),
+                             Arrays.copyOf(text.getBytes(), text.getLength()));
+  }
+}
@@ -92,6 +92,21 @@ public class DataTypeDetectorStatusKeeper {
     }
   }
 
+  /**
+   * Adds all data types met by another status keeper, for example one that investigated a different data file.
+   *
+   * @param other The status keeper whose data types are added.
+   */
+  public void merge(DataTypeDetectorStatusKeeper other) {
+    for (Map.Entry<String, EnumSet<DataType>> entry : other.getDataTypeDetectionStatus().entrySet()) {
+      if (this.dataTypeDetectionStatus.containsKey(entry.getKey())) {
+        this.dataTypeDetectionStatus.get(entry.getKey()).addAll(entry.getValue());
+      } else {
+        this.dataTypeDetectionStatus.put(entry.getKey(), EnumSet.copyOf(entry.getValue()));
+      }
+    }
+  }
+
   /**
    * Returns an enum set of all data types met while investigating the given column for data type detection.
    *
@@ -30,8 +30,15 @@ import java.util.regex.Pattern;
 
 /**
  * Date time patterns
+ *
+ * All the supported patterns match values that start with a digit or a sign, that are at least four characters long,
+ * and that only contain digits, signs, whitespace and the date time separators and designators. Values that do not
+ * satisfy these conditions are rejected without matching them against the patterns.
  */
 public class DateTimePattern {
+  private static final int MIN_LENGTH = 4;
+  // characters that the supported patterns can match, besides digits and whitespace
+  private static final String DATE_TIME_CHARACTERS = "+-:.,TWZz";
   private static final List<Pattern> DATE_PATTERNS = new ArrayList<>();
   private static final List<Pattern> TIME_PATTERNS = new ArrayList<>();
   private static final String NAME_DATETIME_REGEX_FILE = "datetime-regex.json";
@@ -51,7 +58,7 @@ public class DateTimePattern {
    * @return True if the given value is of type "DATE", false otherwise.
    */
   public static boolean isDate(String value) {
-    if (StringUtils.isEmpty(value)) {
+    if (StringUtils.isEmpty(value) || !mayMatch(value)) {
       return false;
     }
 
@@ -65,7 +72,7 @@ public class DateTimePattern {
    * @return true If the given value is of type "TIME", false otherwise.
    */
   public static boolean isTime(String value) {
-    if (StringUtils.isEmpty(value)) {
+    if (StringUtils.isEmpty(value) || !mayMatch(value)) {
       return false;
     }
     return isValueMatchingPattern(value, TIME_PATTERNS);
@@ -80,18 +87,42 @@ public class DateTimePattern {
    * @return true If value matches one any pattern, false otherwise.
    */
   private static boolean isValueMatchingPattern(String value, List<Pattern> patterns) {
-     for (Pattern pattern : patterns) {
-          try {
-            if (pattern.matcher(value).find()) {
-              return true;
-            }
-          } catch (Exception e) {
-            // do nothing
-          }
-        }
+    for (Pattern pattern : patterns) {
+      if (pattern.matcher(value).find()) {
+        return true;
+      }
+    }
     return false;
   }
 
+  /**
+   * Returns whether the given value can match any of the supported patterns, by checking its length and characters.
+   */
+  private static boolean mayMatch(String value) {
+    if (value.length() < MIN_LENGTH || !Character.isDigit(value.charAt(0)) && !isSign(value.charAt(0))) {
+      return false;
+    }
+    for (int i = 1; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (!Character.isDigit(c) && !Character.isWhitespace(c) && DATE_TIME_CHARACTERS.indexOf(c) < 0
+        && !isLineTerminator(c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSign(char c) {
+    return c == '+' || c == '-';
+  }
+
+  /**
+   * Line terminators that are not whitespace, but can follow the end of an anchored pattern.
+   */
+  private static boolean isLineTerminator(char c) {
+    return c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
   /**
    * Parses and maps json contents of regex files to a {@link SupportedDateTimeStandards} object.
    *
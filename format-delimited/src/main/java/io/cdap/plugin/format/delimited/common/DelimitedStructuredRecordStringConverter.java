@@ -17,9 +17,14 @@
 package io.cdap.plugin.format.delimited.common;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.format.UnexpectedFormatException;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.format.StructuredRecordStringConverter;
-import io.cdap.plugin.common.SchemaValidator;
+import io.cdap.cdap.format.utils.FormatUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 
 /**
  * StructuredRecordStringConverter implementation with additional logic for the delimited format
@@ -36,15 +41,89 @@ public class DelimitedStructuredRecordStringConverter extends StructuredRecordSt
   public static void parseAndSetFieldValue(StructuredRecord.Builder builder,
                                            Schema.Field field,
                                            String part) {
-    if (part.isEmpty()) {
-      builder.set(field.getName(), null);
-    } else {
-      // Ensure if date time field, value is in correct format
-      SchemaValidator.validateDateTimeField(field.getSchema(), field.getName(), part);
-
-      // Call superclass for field conversion logic
-      StructuredRecordStringConverter.handleFieldConversion(builder, field, part);
+    getFieldConverter(field).parseAndSet(builder, part);
+  }
+
+  /**
+   * Returns the converter of the values of a field. The conversion is resolved from the schema of the field once,
+   * so that readers can create the converters of all the fields before reading any record. Each value is then parsed
+   * a single time, and datetime values are validated by that parse.
+   *
+   * @param field field to convert the values of
+   * @return the converter, which sets empty values to null
+   */
+  public static FieldConverter getFieldConverter(Schema.Field field) {
+    String name = field.getName();
+    FieldConverter converter = getValueConverter(field);
+    return (builder, part) -> {
+      if (part.isEmpty()) {
+        builder.set(name, null);
+      } else {
+        converter.parseAndSet(builder, part);
+      }
+    };
+  }
+
+  private static FieldConverter getValueConverter(Schema.Field field) {
+    String name = field.getName();
+    Schema schema = field.getSchema().isNullable() ? field.getSchema().getNonNullable() : field.getSchema();
+    if (schema.getLogicalType() == Schema.LogicalType.DECIMAL) {
+      return (builder, part) -> builder.setDecimal(name, FormatUtils.parseDecimal(schema, part));
     }
+    if (schema.getLogicalType() == Schema.LogicalType.DATETIME) {
+      return (builder, part) -> {
+        try {
+          LocalDateTime.parse(part);
+        } catch (DateTimeParseException e) {
+          throw new UnexpectedFormatException(
+            String.format("Datetime field '%s' with value '%s' is not in ISO-8601 format.", name, part), e);
+        }
+        builder.set(name, part);
+      };
+    }
+    switch (schema.getType()) {
+      case NULL:
+        return (builder, part) -> builder.set(name, null);
+      case BOOLEAN:
+        return (builder, part) -> builder.set(name, Boolean.parseBoolean(part));
+      case INT:
+        return (builder, part) -> builder.set(name, Integer.parseInt(part));
+      case LONG:
+        return (builder, part) -> builder.set(name, Long.parseLong(part));
+      case FLOAT:
+        return (builder, part) -> builder.set(name, Float.parseFloat(part));
+      case DOUBLE:
+        return (builder, part) -> builder.set(name, Double.parseDouble(part));
+      case BYTES:
+        return (builder, part) -> {
+          try {
+            builder.set(name, FormatUtils.base64Decode(part));
+          } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to extract Base64 payload from field " + name, e);
+          }
+        };
+      case STRING:
+        return (builder, part) -> builder.set(name, part);
+      default:
+        // only empty values can be read for fields of other types
+        return (builder, part) -> {
+          throw new UnexpectedFormatException("Cannot convert a string to schema " + field.getSchema());
+        };
+    }
+  }
+
+  /**
+   * Parses the values of a single field of the delimited input and sets them in a record builder.
+   */
+  public interface FieldConverter {
+
+    /**
+     * Parses a value and sets it in the supplied Structured Record Builder.
+     *
+     * @param builder Structured Record Builder instance
+     * @param part    String portion of the delimited input
+     */
+    void parseAndSet(StructuredRecord.Builder builder, String part);
   }
 
   protected DelimitedStructuredRecordStringConverter() {
@@ -17,45 +17,45 @@
 package io.cdap.plugin.format.delimited.common;
 
 import java.math.BigDecimal;
-import java.util.regex.Pattern;
 
 /**
  * Type Interface provides utility functions that allow you to detect the types of data.
+ *
+ * Numbers are recognized by scanning their characters rather than with regular expressions. A single scan of a value
+ * finds the classes of its characters, so that values with characters that no number can contain skip all the number
+ * checks, and the other values are only checked against the number formats their characters allow.
  */
 public class TypeInference {
-  private static final Pattern patternInteger = Pattern.compile("^(\\+|-)?\\d+$");
-
-  private static final Pattern patternDouble = Pattern.compile(
-    "^[-+]?"// Positive/Negative sign
-      + "("// BEGIN Decimal part
-      + "[0-9]+([,\\.][0-9]+)?|"// Alternative I (w/o grouped integer part)
-      + "(" // BEGIN Alternative II (with grouped integer part)
-      + "[0-9]{1,3}" // starting digits
-      + "(" // BEGIN grouped part
-      + "((,[0-9]{3})*"// US integer part
-      + "(\\.[0-9]+)?"// US float part
-      + "|" // OR
-      + "((\\.[0-9]{3})*|([ \u00A0\u2007\u202F][0-9]{3})*)"// EU integer part
-      + "(,[0-9]+)?)"// EU float part
-      + ")"// END grouped part
-      + ")" // END Alternative II
-      + ")" // END Decimal part
-      + "([ ]?[eE][-+]?[0-9]+)?$"); // scientific part
-
-
-  private static final Pattern patternLong = Pattern.compile("[-+]?[0-9]+L");
+  // classes of the characters of a value
+  private static final int DIGIT = 1;
+  private static final int SIGN = 1 << 1;
+  private static final int LONG_SUFFIX = 1 << 2;
+  private static final int DOUBLE_SYMBOL = 1 << 3;
+  private static final int OTHER = 1 << 4;
 
   /**
-   * Detects if the given value is of a double type.
+   * Detects if the given value is of a double type. Doubles have an optional sign, a decimal part and an optional
+   * exponent. The decimal part is either digits with an optional fraction after a '.' or ',', or digits grouped by
+   * three, either with ',' and a fraction after a '.', or with '.' or spaces and a fraction after a ','.
    *
    * @param value The given raw string value.
    * @return True if the value is a double type, false otherwise.
    */
   public static boolean isDouble(String value) {
-    if (!isEmpty(value) && patternDouble.matcher(value).matches()) {
-      return true;
+    if (isEmpty(value)) {
+      return false;
     }
-    return false;
+    int start = isSign(value.charAt(0)) ? 1 : 0;
+    int end = value.length();
+    int exponent = indexOfExponent(value, start);
+    if (exponent >= 0) {
+      int exponentDigits = exponent + 1 < end && isSign(value.charAt(exponent + 1)) ? exponent + 2 : exponent + 1;
+      if (!isDigits(value, exponentDigits, end)) {
+        return false;
+      }
+      end = exponent > start && value.charAt(exponent - 1) == ' ' ? exponent - 1 : exponent;
+    }
+    return isDecimal(value, start, end);
   }
 
   /**
@@ -65,10 +65,10 @@ public class TypeInference {
    * @return Result whether the given value is boolean or not.
    */
   public static boolean isLong(String value) {
-    if (!isEmpty(value) && patternLong.matcher(value).matches()) {
-      return true;
+    if (isEmpty(value) || value.charAt(value.length() - 1) != 'L') {
+      return false;
     }
-    return false;
+    return isDigits(value, isSign(value.charAt(0)) ? 1 : 0, value.length() - 1);
   }
 
   /**
@@ -78,10 +78,10 @@ public class TypeInference {
    * @return true if the value is a integer type, false otherwise.
    */
   public static boolean isInteger(String value) {
-    if (!isEmpty(value) && patternInteger.matcher(value).matches()) {
-      return true;
+    if (isEmpty(value)) {
+      return false;
     }
-    return false;
+    return isDigits(value, isSign(value.charAt(0)) ? 1 : 0, value.length());
   }
 
   /**
@@ -194,17 +194,122 @@ public class TypeInference {
       return DataType.EMPTY;
     } else if (TypeInference.isBoolean(value)) {
       return DataType.BOOLEAN;
-    } else if (TypeInference.isInteger(value)) {
-      return deepInvestigateInt(value);
-    } else if (TypeInference.isLong(value)) {
-      return deepInvestigateLong(value);
-    } else if (TypeInference.isDouble(value)) {
-      return deepInvestigateDouble(value);
-    } else if (isTime(value)) {
+    }
+    int characterClasses = getCharacterClasses(value);
+    if ((characterClasses & OTHER) == 0) {
+      if ((characterClasses & (LONG_SUFFIX | DOUBLE_SYMBOL)) == 0 && TypeInference.isInteger(value)) {
+        return deepInvestigateInt(value);
+      } else if ((characterClasses & DOUBLE_SYMBOL) == 0 && TypeInference.isLong(value)) {
+        return deepInvestigateLong(value);
+      } else if ((characterClasses & LONG_SUFFIX) == 0 && TypeInference.isDouble(value)) {
+        return deepInvestigateDouble(value);
+      }
+    }
+    if (isTime(value)) {
       return DataType.TIME;
     } else if (isDate(value)) {
       return DataType.DATE;
     }
     return DataType.STRING;
   }
+
+  private static int getCharacterClasses(String value) {
+    int characterClasses = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= '0' && c <= '9') {
+        characterClasses |= DIGIT;
+      } else if (isSign(c)) {
+        characterClasses |= SIGN;
+      } else if (c == 'L') {
+        characterClasses |= LONG_SUFFIX;
+      } else if (c == '.' || c == ',' || c == 'e' || c == 'E' || c == ' ' || isGroupSpace(c)) {
+        characterClasses |= DOUBLE_SYMBOL;
+      } else {
+        characterClasses |= OTHER;
+      }
+    }
+    return characterClasses;
+  }
+
+  /**
+   * Returns whether the characters between the given indexes form the decimal part of a double.
+   */
+  private static boolean isDecimal(String value, int start, int end) {
+    int digitsEnd = skipDigits(value, start, end);
+    if (digitsEnd == start) {
+      return false;
+    }
+    if (digitsEnd == end) {
+      return true;
+    }
+    // digits with a fraction
+    char separator = value.charAt(digitsEnd);
+    if ((separator == '.' || separator == ',') && isDigits(value, digitsEnd + 1, end)) {
+      return true;
+    }
+    // digits grouped by three, after a group of one to three digits
+    if (digitsEnd - start > 3) {
+      return false;
+    }
+    // US grouping with ',' and a fraction after '.'
+    int position = skipGroups(value, digitsEnd, end, ',');
+    if (position == end || value.charAt(position) == '.' && isDigits(value, position + 1, end)) {
+      return true;
+    }
+    // EU grouping with '.' or spaces and a fraction after ','
+    position = separator == '.' ? skipGroups(value, digitsEnd, end, '.') : skipGroups(value, digitsEnd, end, ' ');
+    return position == end || value.charAt(position) == ',' && isDigits(value, position + 1, end);
+  }
+
+  /**
+   * Skips the groups of three digits that follow a separator, where a space separator stands for any grouping space.
+   *
+   * @return the index after the last group
+   */
+  private static int skipGroups(String value, int start, int end, char separator) {
+    int position = start;
+    while (position + 4 <= end && isGroupSeparator(value.charAt(position), separator)
+      && skipDigits(value, position + 1, position + 4) == position + 4) {
+      position += 4;
+    }
+    return position;
+  }
+
+  private static boolean isGroupSeparator(char c, char separator) {
+    return separator == ' ' ? c == ' ' || isGroupSpace(c) : c == separator;
+  }
+
+  private static boolean isGroupSpace(char c) {
+    return c == '\u00A0' || c == '\u2007' || c == '\u202F';
+  }
+
+  private static int indexOfExponent(String value, int start) {
+    for (int i = start; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == 'e' || c == 'E') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isSign(char c) {
+    return c == '+' || c == '-';
+  }
+
+  /**
+   * @return whether the characters between the given indexes are one or more digits
+   */
+  private static boolean isDigits(String value, int start, int end) {
+    return start < end && skipDigits(value, start, end) == end;
+  }
+
+  private static int skipDigits(String value, int start, int end) {
+    int position = start;
+    while (position < end && value.charAt(position) >= '0' && value.charAt(position) <= '9') {
+      position++;
+    }
+    return position;
+  }
 }
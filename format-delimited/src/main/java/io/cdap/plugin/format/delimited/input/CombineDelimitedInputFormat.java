@@ -19,6 +19,8 @@ package io.cdap.plugin.format.delimited.input;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.plugin.common.batch.JobUtils;
 import io.cdap.plugin.format.input.PathTrackingInputFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.JobContext;
@@ -43,6 +45,21 @@ public class CombineDelimitedInputFormat extends CombineFileInputFormat<NullWrit
                                               CombineDelimitedInputFormat.super::getSplits);
   }
 
+  /**
+   * Files whose quoted values can span multiple lines are only split when their splits can find where their records
+   * start.
+   */
+  @Override
+  protected boolean isSplitable(JobContext context, Path file) {
+    Configuration conf = context.getConfiguration();
+    if (conf.getBoolean(PathTrackingDelimitedInputFormat.ENABLE_QUOTES_VALUE, false)
+      && conf.getBoolean(PathTrackingDelimitedInputFormat.ENABLE_MULTILINE_SUPPORT, false)
+      && !PathTrackingDelimitedInputFormat.isMultilineSplittable(conf, file)) {
+      return false;
+    }
+    return super.isSplitable(context, file);
+  }
+
   /**
    * Creates a RecordReader that delegates to some other RecordReader for each path in the input split.
    */
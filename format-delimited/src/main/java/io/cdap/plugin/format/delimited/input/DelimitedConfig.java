@@ -39,7 +39,10 @@ public class DelimitedConfig extends PathTrackingConfig {
   public static final String NAME_ENABLE_QUOTES_VALUES = "enableQuotedValues";
   public static final String NAME_OVERRIDE = "override";
   public static final String NAME_SAMPLE_SIZE = "sampleSize";
+  public static final String NAME_SAMPLE_FILES = "sampleFiles";
+  public static final String NAME_SAMPLE_BYTES = "sampleBytes";
   public static final String NAME_ENABLE_MULTILINE_SUPPORT = "enableMultilineSupport";
+  public static final String NAME_SPLIT_MULTILINE_FILES = "splitMultilineFiles";
   public static final Map<String, PluginPropertyField> DELIMITED_FIELDS;
 
   // description
@@ -49,6 +52,10 @@ public class DelimitedConfig extends PathTrackingConfig {
     "Whether to skip the first line of each file. The default value is false.";
   public static final String DESC_ENABLE_MULTILINE =
     "Whether to support content spread over multiple lines if it is between quotes. The default value is false";
+  public static final String DESC_SPLIT_MULTILINE_FILES =
+    "Whether to split files into multiple partitions when multiline support is enabled. The quote state at the start "
+      + "of each partition is inferred from the following quotes, which requires quoted values to start and end at "
+      + "field boundaries. Compressed files are not split. The default value is false.";
 
   static {
     Map<String, PluginPropertyField> fields = new HashMap<>(FIELDS);
@@ -57,6 +64,8 @@ public class DelimitedConfig extends PathTrackingConfig {
                new PluginPropertyField(NAME_ENABLE_QUOTES_VALUES, DESC_ENABLE_QUOTES, "boolean", false, true));
     fields.put(NAME_ENABLE_MULTILINE_SUPPORT,
                new PluginPropertyField(NAME_ENABLE_MULTILINE_SUPPORT, DESC_ENABLE_MULTILINE, "boolean", false, true));
+    fields.put(NAME_SPLIT_MULTILINE_FILES,
+               new PluginPropertyField(NAME_SPLIT_MULTILINE_FILES, DESC_SPLIT_MULTILINE_FILES, "boolean", false, true));
     DELIMITED_FIELDS = Collections.unmodifiableMap(fields);
   }
 
@@ -70,6 +79,11 @@ public class DelimitedConfig extends PathTrackingConfig {
   @Description(DESC_ENABLE_MULTILINE)
   protected Boolean enableMultilineSupport;
 
+  @Macro
+  @Nullable
+  @Description(DESC_SPLIT_MULTILINE_FILES)
+  protected Boolean splitMultilineFiles;
+
   @Macro
   @Nullable
   @Description(DESC_SKIP_HEADER)
@@ -91,10 +105,29 @@ public class DelimitedConfig extends PathTrackingConfig {
     return enableMultilineSupport != null && enableMultilineSupport;
   }
 
+  public boolean getSplitMultilineFiles() {
+    return splitMultilineFiles != null && splitMultilineFiles;
+  }
+
   public long getSampleSize() {
     return Long.parseLong(getProperties().getProperties().getOrDefault(NAME_SAMPLE_SIZE, "1000"));
   }
 
+  /**
+   * @return the maximum number of files read for automatic data type detection
+   */
+  public int getSampleFiles() {
+    return Integer.parseInt(getProperties().getProperties().getOrDefault(NAME_SAMPLE_FILES, "1"));
+  }
+
+  /**
+   * @return the maximum number of bytes read from all files for automatic data type detection
+   */
+  public long getSampleBytes() {
+    String sampleBytes = getProperties().getProperties().get(NAME_SAMPLE_BYTES);
+    return Strings.isNullOrEmpty(sampleBytes) ? Long.MAX_VALUE : Long.parseLong(sampleBytes);
+  }
+
   /**
    * Parses a list of key-value items of column names and their corresponding data types, manually set by the user.
    *
@@ -29,15 +29,11 @@ import io.cdap.cdap.etl.api.validation.FormatContext;
 import io.cdap.cdap.etl.api.validation.InputFile;
 import io.cdap.cdap.etl.api.validation.InputFiles;
 import io.cdap.cdap.etl.api.validation.ValidatingInputFormat;
-import io.cdap.plugin.format.delimited.common.DataTypeDetectorStatusKeeper;
-import io.cdap.plugin.format.delimited.common.DataTypeDetectorUtils;
 import io.cdap.plugin.format.input.PathTrackingConfig;
 import io.cdap.plugin.format.input.PathTrackingInputFormatProvider;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -102,7 +98,9 @@ public class DelimitedInputFormatProvider extends PathTrackingInputFormatProvide
     properties.put(PathTrackingDelimitedInputFormat.ENABLE_QUOTES_VALUE, String.valueOf(conf.getEnableQuotedValues()));
     properties.put(PathTrackingDelimitedInputFormat.ENABLE_MULTILINE_SUPPORT,
                    String.valueOf(conf.getEnableMultilineSupport()));
-    if (conf.getEnableMultilineSupport()) {
+    properties.put(PathTrackingDelimitedInputFormat.SPLIT_MULTILINE_FILES,
+                   String.valueOf(conf.getSplitMultilineFiles()));
+    if (conf.getEnableMultilineSupport() && !conf.getSplitMultilineFiles()) {
       properties.put(FileInputFormat.SPLIT_MINSIZE, Long.toString(Long.MAX_VALUE));
     }
   }
@@ -115,32 +113,15 @@ public class DelimitedInputFormatProvider extends PathTrackingInputFormatProvide
 
   static Schema detectSchema(DelimitedConfig conf, String delimiter,
                              InputFiles inputFiles, FormatContext context) throws IOException {
-    DataTypeDetectorStatusKeeper dataTypeDetectorStatusKeeper = new DataTypeDetectorStatusKeeper();
-    for (InputFile inputFile : inputFiles) {
-      String line;
-      String[] columnNames = null;
-      String[] rowValue;
-      try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputFile.open()))) {
-        for (int rowIndex = 0; rowIndex < conf.getSampleSize() && (line = reader.readLine()) != null; rowIndex++) {
-          rowValue = line.split(delimiter, -1);
-          if (rowIndex == 0) {
-            columnNames = DataTypeDetectorUtils.setColumnNames(line, conf.getSkipHeader(), conf.getEnableQuotedValues(),
-                                                               delimiter);
-            if (conf.getSkipHeader()) {
-              continue;
-            }
-          }
-          DataTypeDetectorUtils.detectDataTypeOfRowValues(conf.getOverride(), dataTypeDetectorStatusKeeper, columnNames,
-                                                          rowValue);
-        }
-        dataTypeDetectorStatusKeeper.validateDataTypeDetector();
-      }
-      List<Schema.Field> fields = DataTypeDetectorUtils.detectDataTypeOfEachDatasetColumn(
-        conf.getOverride(), columnNames, dataTypeDetectorStatusKeeper);
-      Schema schema = Schema.recordOf("text", fields);
-      return PathTrackingInputFormatProvider.addPathField(context.getFailureCollector(), schema, conf.getPathField());
+    List<InputFile> files = DelimitedSchemaSampler.chooseFiles(inputFiles, conf.getSampleFiles());
+    if (files.isEmpty()) {
+      return null;
     }
-    return null;
+    DelimitedSchemaSampler sampler = new DelimitedSchemaSampler(conf.getOverride(), delimiter, conf.getSkipHeader(),
+                                                                conf.getEnableQuotedValues(), conf.getSampleSize(),
+                                                                conf.getSampleBytes());
+    Schema schema = Schema.recordOf("text", sampler.detectFields(files));
+    return PathTrackingInputFormatProvider.addPathField(context.getFailureCollector(), schema, conf.getPathField());
   }
 
   /**
@@ -0,0 +1,203 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits delimited lines into fields by scanning their UTF-8 bytes, without decoding the line into a String. Only the
+ * offsets of the fields are recorded, in arrays that are reused across lines, and a field is decoded when it is read.
+ * Since UTF-8 never uses the bytes of ASCII characters within multi byte characters, matching the bytes of the
+ * delimiter and of the quote character always matches whole characters.
+ *
+ * When quotes are enabled, fields are split like {@link SplitQuotesIterator}: delimiters between a pair of quotes do
+ * not split the field, all quotes are removed from the field, and an empty line has no field. A quoted value that is
+ * not closed at the end of the line can be continued with the next line through {@link #continueWith(byte[], int)}.
+ * Otherwise, fields are split on every delimiter, like {@link com.google.common.base.Splitter}.
+ */
+final class DelimitedLineTokenizer {
+  private static final byte QUOTE = '"';
+  private static final byte LINE_SEPARATOR = '\n';
+
+  private final byte[] delimiter;
+  private final boolean quotesEnabled;
+
+  // bytes of the current record, which are either the bytes of the line or the buffer
+  private byte[] bytes;
+  private int length;
+  // holds the lines of a record that spans multiple lines
+  private byte[] buffer = new byte[0];
+  private byte[] unquoteBuffer = new byte[0];
+
+  private int[] starts = new int[16];
+  private int[] ends = new int[16];
+  private boolean[] quoted = new boolean[16];
+  private int numFields;
+  private boolean hasQuote;
+
+  // scan state, kept to continue a quoted value on the next line
+  private int position;
+  private int fieldStart;
+  private boolean withinQuotes;
+  private boolean fieldQuoted;
+
+  DelimitedLineTokenizer(String delimiter, boolean quotesEnabled) {
+    if (delimiter.isEmpty()) {
+      throw new IllegalArgumentException("The delimiter may not be the empty string.");
+    }
+    this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+    this.quotesEnabled = quotesEnabled;
+  }
+
+  /**
+   * Splits a line into fields. The bytes must not be modified until the fields are read, unless the line ends within
+   * a quoted value, in which case they are copied.
+   *
+   * @param line bytes of the line
+   * @param lineLength number of bytes of the line
+   * @return true if the line was split, false if it ends within a quoted value that continues on the next line
+   */
+  boolean tokenize(byte[] line, int lineLength) {
+    bytes = line;
+    length = lineLength;
+    numFields = 0;
+    hasQuote = false;
+    position = 0;
+    fieldStart = 0;
+    withinQuotes = false;
+    fieldQuoted = false;
+    if (quotesEnabled && lineLength == 0) {
+      return true;
+    }
+    return scan();
+  }
+
+  /**
+   * Continues a quoted value that was not closed at the end of the previous line with the next line. The lines are
+   * separated by a line separator in the value.
+   *
+   * @param line bytes of the next line
+   * @param lineLength number of bytes of the next line
+   * @return true if the record was split, false if it still ends within a quoted value
+   */
+  boolean continueWith(byte[] line, int lineLength) {
+    ensureBufferCapacity(length + 1 + lineLength);
+    buffer[length] = LINE_SEPARATOR;
+    System.arraycopy(line, 0, buffer, length + 1, lineLength);
+    length += 1 + lineLength;
+    return scan();
+  }
+
+  int getNumFields() {
+    return numFields;
+  }
+
+  /**
+   * @return whether the record contains a quote, which is only tracked when quotes are enabled
+   */
+  boolean hasQuote() {
+    return hasQuote;
+  }
+
+  /**
+   * @return the decoded value of the field at the given index, without its quotes
+   */
+  String getField(int index) {
+    int start = starts[index];
+    int end = ends[index];
+    if (!quoted[index]) {
+      return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+    if (unquoteBuffer.length < end - start) {
+      unquoteBuffer = new byte[end - start];
+    }
+    int unquotedLength = 0;
+    for (int i = start; i < end; i++) {
+      if (bytes[i] != QUOTE) {
+        unquoteBuffer[unquotedLength++] = bytes[i];
+      }
+    }
+    return new String(unquoteBuffer, 0, unquotedLength, StandardCharsets.UTF_8);
+  }
+
+  private boolean scan() {
+    byte firstDelimiterByte = delimiter[0];
+    while (position < length) {
+      byte current = bytes[position];
+      if (quotesEnabled && current == QUOTE) {
+        withinQuotes = !withinQuotes;
+        fieldQuoted = true;
+        hasQuote = true;
+        position++;
+      } else if (current == firstDelimiterByte && !withinQuotes && isDelimiter(position)) {
+        addField(fieldStart, position);
+        position += delimiter.length;
+        fieldStart = position;
+        fieldQuoted = false;
+      } else {
+        position++;
+      }
+    }
+    if (withinQuotes) {
+      // keep the bytes of the record, since the reader overwrites them when it reads the next line
+      if (bytes != buffer) {
+        ensureBufferCapacity(length);
+        System.arraycopy(bytes, 0, buffer, 0, length);
+        bytes = buffer;
+      }
+      return false;
+    }
+    addField(fieldStart, length);
+    return true;
+  }
+
+  private boolean isDelimiter(int offset) {
+    if (offset + delimiter.length > length) {
+      return false;
+    }
+    for (int i = 1; i < delimiter.length; i++) {
+      if (bytes[offset + i] != delimiter[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void addField(int start, int end) {
+    if (numFields == starts.length) {
+      starts = Arrays.copyOf(starts, numFields * 2);
+      ends = Arrays.copyOf(ends, numFields * 2);
+      quoted = Arrays.copyOf(quoted, numFields * 2);
+    }
+    starts[numFields] = start;
+    ends[numFields] = end;
+    quoted[numFields] = fieldQuoted;
+    numFields++;
+  }
+
+  private void ensureBufferCapacity(int capacity) {
+    if (buffer.length < capacity) {
+      byte[] newBuffer = new byte[Math.max(capacity, buffer.length * 2)];
+      if (bytes == buffer) {
+        System.arraycopy(buffer, 0, newBuffer, 0, length);
+        bytes = newBuffer;
+      }
+      buffer = newBuffer;
+    }
+  }
+}
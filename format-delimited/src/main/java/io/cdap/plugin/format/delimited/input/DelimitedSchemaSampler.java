@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.api.validation.InputFile;
+import io.cdap.plugin.format.delimited.common.DataTypeDetectorStatusKeeper;
+import io.cdap.plugin.format.delimited.common.DataTypeDetectorUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * Detects the fields of delimited files from a sample of their rows.
+ *
+ * The first file is always sampled, and the other sampled files are chosen uniformly at random among the remaining
+ * files with reservoir sampling, so that files listed later are as likely to be sampled as the ones listed first. The
+ * sampled files are read concurrently by a bounded number of threads, each into its own
+ * {@link DataTypeDetectorStatusKeeper}, and the data types met in all files are merged. The column names are the ones
+ * of the first file that is not empty. The files stop being read once the given number of bytes has been read from
+ * all of them, although each file that is read contributes at least one row.
+ */
+final class DelimitedSchemaSampler {
+  // reading the sample is mostly waiting for the file system, but a large directory should not create many threads
+  static final int MAX_THREADS = 8;
+  // the files are chosen with a fixed seed so that the schema detected for the same files does not change
+  private static final long SEED = 0L;
+
+  private final Map<String, Schema> override;
+  private final String delimiter;
+  private final boolean skipHeader;
+  private final boolean enableQuotedValues;
+  private final long sampleSize;
+  private final AtomicLong remainingBytes;
+
+  DelimitedSchemaSampler(Map<String, Schema> override, String delimiter, boolean skipHeader,
+                         boolean enableQuotedValues, long sampleSize, long sampleBytes) {
+    this.override = override;
+    this.delimiter = delimiter;
+    this.skipHeader = skipHeader;
+    this.enableQuotedValues = enableQuotedValues;
+    this.sampleSize = sampleSize;
+    this.remainingBytes = new AtomicLong(sampleBytes);
+  }
+
+  /**
+   * Detects the fields of the given files.
+   *
+   * @param files files to sample, where the first one provides the column names
+   * @return the detected fields
+   * @throws IOException if a file could not be read
+   */
+  List<Schema.Field> detectFields(List<InputFile> files) throws IOException {
+    List<Sample> samples = new ArrayList<>();
+    if (files.size() == 1) {
+      samples.add(sample(files.get(0), true));
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(files.size(), MAX_THREADS),
+        new ThreadFactoryBuilder().setNameFormat("delimited-schema-detection-%d").setDaemon(true).build());
+      try {
+        List<Future<Sample>> futures = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+          InputFile file = files.get(i);
+          boolean first = i == 0;
+          futures.add(executor.submit(() -> sample(file, first)));
+        }
+        for (Future<Sample> future : futures) {
+          samples.add(getSample(future));
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    String[] columnNames = null;
+    DataTypeDetectorStatusKeeper dataTypeDetectorStatusKeeper = new DataTypeDetectorStatusKeeper();
+    for (Sample sample : samples) {
+      if (sample == null || sample.columnNames == null) {
+        continue;
+      }
+      if (columnNames == null) {
+        columnNames = sample.columnNames;
+      }
+      dataTypeDetectorStatusKeeper.merge(sample.dataTypeDetectorStatusKeeper);
+    }
+    dataTypeDetectorStatusKeeper.validateDataTypeDetector();
+    return DataTypeDetectorUtils.detectDataTypeOfEachDatasetColumn(override, columnNames,
+                                                                   dataTypeDetectorStatusKeeper);
+  }
+
+  /**
+   * Chooses the files to sample, which are the first file and files chosen at random among the other files.
+   *
+   * @param inputFiles files to choose from
+   * @param numFiles maximum number of files to choose
+   * @return the chosen files, in the order they are listed
+   */
+  static List<InputFile> chooseFiles(Iterable<InputFile> inputFiles, int numFiles) {
+    List<InputFile> chosen = new ArrayList<>();
+    Iterator<InputFile> iterator = inputFiles.iterator();
+    if (numFiles <= 0 || !iterator.hasNext()) {
+      return chosen;
+    }
+    chosen.add(iterator.next());
+
+    // the chosen files by their position in the listing, to keep the listing order
+    TreeMap<Integer, InputFile> reservoir = new TreeMap<>();
+    List<Integer> positions = new ArrayList<>();
+    Random random = new Random(SEED);
+    for (int position = 0; iterator.hasNext(); position++) {
+      InputFile file = iterator.next();
+      if (positions.size() < numFiles - 1) {
+        positions.add(position);
+        reservoir.put(position, file);
+      } else {
+        int index = random.nextInt(position + 1);
+        if (index < positions.size()) {
+          reservoir.remove(positions.get(index));
+          positions.set(index, position);
+          reservoir.put(position, file);
+        }
+      }
+    }
+    chosen.addAll(reservoir.values());
+    return chosen;
+  }
+
+  /**
+   * Reads the rows of a file until the sample size or the byte budget is reached.
+   *
+   * @return the sample of the file, or null if the byte budget was reached before the file was read
+   */
+  @Nullable
+  private Sample sample(InputFile file, boolean first) throws IOException {
+    if (!first && remainingBytes.get() <= 0) {
+      return null;
+    }
+    DataTypeDetectorStatusKeeper dataTypeDetectorStatusKeeper = new DataTypeDetectorStatusKeeper();
+    String[] columnNames = null;
+    try (CountingInputStream in = new CountingInputStream(file.open());
+         BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
+      long countedBytes = 0;
+      boolean sampledRow = false;
+      String line;
+      for (int rowIndex = 0; rowIndex < sampleSize && (line = reader.readLine()) != null; rowIndex++) {
+        if (rowIndex == 0) {
+          columnNames = DataTypeDetectorUtils.setColumnNames(line, skipHeader, enableQuotedValues, delimiter);
+        }
+        if (rowIndex > 0 || !skipHeader) {
+          DataTypeDetectorUtils.detectDataTypeOfRowValues(override, dataTypeDetectorStatusKeeper, columnNames,
+                                                          line.split(delimiter, -1));
+          sampledRow = true;
+        }
+        long remaining = remainingBytes.addAndGet(countedBytes - in.getCount());
+        countedBytes = in.getCount();
+        if (sampledRow && remaining <= 0) {
+          break;
+        }
+      }
+    }
+    return new Sample(columnNames, dataTypeDetectorStatusKeeper);
+  }
+
+  private static Sample getSample(Future<Sample> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while sampling the files for schema detection.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException("Failed to sample the files for schema detection.", e.getCause());
+    }
+  }
+
+  /**
+   * The column names and the data types met in the sampled rows of a file.
+   */
+  private static final class Sample {
+    private final String[] columnNames;
+    private final DataTypeDetectorStatusKeeper dataTypeDetectorStatusKeeper;
+
+    private Sample(String[] columnNames, DataTypeDetectorStatusKeeper dataTypeDetectorStatusKeeper) {
+      this.columnNames = columnNames;
+      this.dataTypeDetectorStatusKeeper = dataTypeDetectorStatusKeeper;
+    }
+  }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.util.LineReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the lines of the delimited records that start in a split of an uncompressed file, when quoted values can span
+ * multiple lines. Like Hadoop's LineRecordReader, a split owns the lines that start after its first line separator and
+ * at or before its end. In addition, the lines of a record that starts in the split are read past the end of the split,
+ * and the lines at the start of the split that continue a record of the previous split are skipped.
+ *
+ * Whether a split starts within a quoted value is the parity of the quotes before its first line. Instead of counting
+ * all these quotes, it is speculated from the quotes that follow the first line: quoted values start after a delimiter
+ * or a line separator and end before one, so a quote next to other characters shows whether it opens or closes a
+ * value. When the quotes that follow do not tell, as when they hold no quote at all, the line is assumed to start
+ * outside quoted values, rather than counting the quotes from the start of the file, which would make reading all the
+ * splits of a file quadratic in its size. Each reader then verifies the quote state assumed by the next split against
+ * the quote state it reaches at the start of that split, and fails if they differ, so that records are never silently
+ * split at the wrong line.
+ */
+final class MultilineSplitLineRecordReader extends RecordReader<LongWritable, Text> {
+  private static final Logger LOG = LoggerFactory.getLogger(MultilineSplitLineRecordReader.class);
+  // maximum number of bytes after the first line of a split that are used to speculate its quote state
+  @VisibleForTesting
+  static final int MAX_SPECULATION_LENGTH = 1024 * 1024;
+  private static final byte QUOTE = '"';
+
+  private final byte[] delimiter;
+  private final int maxSpeculationLength;
+  private final LongWritable key = new LongWritable();
+  private final Text value = new Text();
+  private FileSystem fs;
+  private Path path;
+  private long fileLength;
+  private long start;
+  private long end;
+  private long position;
+  private FSDataInputStream in;
+  private LineReader reader;
+  private boolean withinQuotes;
+  private boolean verified;
+
+  MultilineSplitLineRecordReader(String delimiter) {
+    this(delimiter, MAX_SPECULATION_LENGTH);
+  }
+
+  @VisibleForTesting
+  MultilineSplitLineRecordReader(String delimiter, int maxSpeculationLength) {
+    this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+    this.maxSpeculationLength = maxSpeculationLength;
+  }
+
+  @Override
+  public void initialize(InputSplit split, TaskAttemptContext context) throws IOException {
+    FileSplit fileSplit = (FileSplit) split;
+    Configuration conf = context.getConfiguration();
+    path = fileSplit.getPath();
+    fs = path.getFileSystem(conf);
+    fileLength = fs.getFileStatus(path).getLen();
+    start = fileSplit.getStart();
+    end = start + fileSplit.getLength();
+
+    in = fs.open(path);
+    in.seek(start);
+    reader = new LineReader(in, conf);
+    position = start;
+    if (start != 0) {
+      // the first line belongs to the previous split, even if the split starts at its first byte
+      position += reader.readLine(new Text(), 0, Integer.MAX_VALUE);
+      withinQuotes = isWithinQuotes(position);
+      // the lines that end the quoted value belong to the record of the previous split
+      while (withinQuotes && readLine()) {
+        // skip the line
+      }
+    }
+  }
+
+  @Override
+  public boolean nextKeyValue() throws IOException {
+    // the lines of the current record are read past the end of the split, but records that start after the end of
+    // the split belong to the next split
+    if (!withinQuotes && position > end) {
+      return false;
+    }
+    key.set(position);
+    return readLine();
+  }
+
+  @Override
+  public LongWritable getCurrentKey() {
+    return key;
+  }
+
+  @Override
+  public Text getCurrentValue() {
+    return value;
+  }
+
+  @Override
+  public float getProgress() {
+    if (start == end) {
+      return 0.0f;
+    }
+    return Math.min(1.0f, (position - start) / (float) (end - start));
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (in != null) {
+      in.close();
+    }
+  }
+
+  private boolean readLine() throws IOException {
+    int size = reader.readLine(value, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    if (size == 0) {
+      return false;
+    }
+    position += size;
+    byte[] bytes = value.getBytes();
+    for (int i = 0; i < value.getLength(); i++) {
+      if (bytes[i] == QUOTE) {
+        withinQuotes = !withinQuotes;
+      }
+    }
+    if (!verified && position > end) {
+      // this is the first line of the next split, whose quote state is now known
+      verified = true;
+      verify(position);
+    }
+    return true;
+  }
+
+  private void verify(long nextSplitPosition) throws IOException {
+    if (nextSplitPosition >= fileLength) {
+      return;
+    }
+    if (isWithinQuotes(nextSplitPosition) != withinQuotes) {
+      throw new IOException(String.format(
+        "Could not determine whether the line at offset %d of file '%s' is within a quoted value. Ensure that quoted "
+          + "values start and end at field boundaries, or disable splitting multiline files.",
+        nextSplitPosition, path));
+    }
+  }
+
+  /**
+   * Returns whether the line at the given position is assumed to be within a quoted value, which is the speculation if
+   * it tells, and otherwise that it is not.
+   */
+  private boolean isWithinQuotes(long linePosition) throws IOException {
+    Boolean speculated = speculate(linePosition);
+    if (speculated != null) {
+      return speculated;
+    }
+    LOG.debug("Assuming that the line at offset {} of file '{}' is not within a quoted value.", linePosition, path);
+    return false;
+  }
+
+  @Nullable
+  private Boolean speculate(long linePosition) throws IOException {
+    int length = (int) Math.min(maxSpeculationLength, fileLength - linePosition);
+    byte[] window = new byte[length];
+    try (FSDataInputStream stream = fs.open(path)) {
+      stream.readFully(linePosition, window);
+    }
+    return speculate(window, length, linePosition + length == fileLength, delimiter);
+  }
+
+  /**
+   * Speculates whether the given bytes, which start at the start of a line, start within a quoted value.
+   *
+   * @param bytes bytes that follow the start of the line
+   * @param length number of bytes
+   * @param endOfFile whether the bytes end at the end of the file
+   * @param delimiter bytes of the delimiter
+   * @return whether the line starts within a quoted value, or null if the bytes do not tell
+   */
+  @Nullable
+  @VisibleForTesting
+  static Boolean speculate(byte[] bytes, int length, boolean endOfFile, byte[] delimiter) {
+    boolean outsideValid = true;
+    boolean insideValid = true;
+    // whether the line starts within a quoted value if the quotes so far are balanced
+    boolean balanced = true;
+    for (int i = 0; i < length; i++) {
+      if (bytes[i] != QUOTE) {
+        continue;
+      }
+      boolean nextKnown = i + 1 + delimiter.length <= length || endOfFile;
+      if (!nextKnown) {
+        break;
+      }
+      boolean canOpen = i == 0 || isLineSeparator(bytes[i - 1]) || bytes[i - 1] == QUOTE
+        || endsWith(bytes, i, delimiter);
+      boolean canClose = i + 1 == length || isLineSeparator(bytes[i + 1]) || bytes[i + 1] == QUOTE
+        || startsWith(bytes, i + 1, length, delimiter);
+      // if the line does not start within a quoted value, the quote opens a value when the quotes so far are balanced
+      outsideValid &= balanced ? canOpen : canClose;
+      insideValid &= balanced ? canClose : canOpen;
+      balanced = !balanced;
+      if (outsideValid != insideValid) {
+        return insideValid;
+      }
+      if (!outsideValid) {
+        return null;
+      }
+    }
+    // a file cannot end within a quoted value
+    return endOfFile ? !balanced : null;
+  }
+
+  private static boolean isLineSeparator(byte b) {
+    return b == '\n' || b == '\r';
+  }
+
+  private static boolean endsWith(byte[] bytes, int offset, byte[] delimiter) {
+    if (offset < delimiter.length) {
+      return false;
+    }
+    for (int i = 0; i < delimiter.length; i++) {
+      if (bytes[offset - delimiter.length + i] != delimiter[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean startsWith(byte[] bytes, int offset, int length, byte[] delimiter) {
+    if (offset + delimiter.length > length) {
+      return false;
+    }
+    for (int i = 0; i < delimiter.length; i++) {
+      if (bytes[offset + i] != delimiter[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
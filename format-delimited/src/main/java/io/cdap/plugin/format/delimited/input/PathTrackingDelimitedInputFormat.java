@@ -16,21 +16,26 @@
 
 package io.cdap.plugin.format.delimited.input;
 
-import com.google.common.base.Splitter;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.format.delimited.common.DelimitedStructuredRecordStringConverter;
+import io.cdap.plugin.format.delimited.common.DelimitedStructuredRecordStringConverter.FieldConverter;
 import io.cdap.plugin.format.input.PathTrackingInputFormat;
+import io.cdap.plugin.format.input.SchemaCache;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 
 import java.io.IOException;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.List;
 import javax.annotation.Nullable;
 
 /**
@@ -41,22 +46,41 @@ public class PathTrackingDelimitedInputFormat extends PathTrackingInputFormat {
   static final String ENABLE_QUOTES_VALUE = "enable_quotes_value";
   static final String SKIP_HEADER = "skip_header";
   static final String ENABLE_MULTILINE_SUPPORT = "enable_multiline_support";
+  static final String SPLIT_MULTILINE_FILES = "split_multiline_files";
 
   private static final String QUOTE = "\"";
+  private static final String RECORD_DELIMITER = "textinputformat.record.delimiter";
 
   @Override
   protected RecordReader<NullWritable, StructuredRecord.Builder> createRecordReader(FileSplit split,
                                                                                     TaskAttemptContext context,
                                                                                     @Nullable String pathField,
                                                                                     @Nullable Schema schema) {
+    return createRecordReader(split, context, pathField, schema, null);
+  }
+
+  @Override
+  protected RecordReader<NullWritable, StructuredRecord.Builder> createRecordReader(FileSplit split,
+                                                                                    TaskAttemptContext context,
+                                                                                    @Nullable String pathField,
+                                                                                    @Nullable Schema schema,
+                                                                                    @Nullable Schema projectedSchema) {
 
-    RecordReader<LongWritable, Text> delegate = getDefaultRecordReaderDelegate(split, context);
     String delimiter = context.getConfiguration().get(DELIMITER);
     boolean skipHeader = context.getConfiguration().getBoolean(SKIP_HEADER, false);
     boolean enableQuotesValue = context.getConfiguration().getBoolean(ENABLE_QUOTES_VALUE, false);
     boolean enableMultilineSupport = context.getConfiguration().getBoolean(ENABLE_MULTILINE_SUPPORT, false);
+    RecordReader<LongWritable, Text> delegate =
+      enableQuotesValue && enableMultilineSupport && isMultilineSplittable(context.getConfiguration(), split.getPath())
+        ? new MultilineSplitLineRecordReader(delimiter) : getDefaultRecordReaderDelegate(split, context);
+    Schema recordSchema = projectedSchema == null ? schema : projectedSchema;
+    // the converters are stateless, so the readers of all the splits share them
+    FieldConverter[] converters = schema == null ? null : SchemaCache.getPlan(
+      Arrays.asList(PathTrackingDelimitedInputFormat.class, schema, projectedSchema),
+      () -> getFieldConverters(schema, projectedSchema));
 
     return new RecordReader<NullWritable, StructuredRecord.Builder>() {
+      private final DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(delimiter, enableQuotesValue);
       StructuredRecord.Builder builder = null;
 
       @Override
@@ -75,30 +99,43 @@ public class PathTrackingDelimitedInputFormat extends PathTrackingInputFormat {
           }
           // this logic must be in nextKeyValue to prevent multiple calls to getCurrentValue
           // from advancing the delegate reader
-          String delimitedString = delegate.getCurrentValue().toString();
-          builder = StructuredRecord.builder(schema);
-          Iterator<Schema.Field> fields = schema.getFields().iterator();
-          Iterator<String> splitsIterator = getSplitsIterator(enableQuotesValue, delimitedString, delimiter);
-          int dataFieldsCount = 0;
-          while (splitsIterator.hasNext()) {
-            dataFieldsCount++;
-            String part = splitsIterator.next();
-            if (!fields.hasNext()) {
-              while (splitsIterator.hasNext()) {
-                splitsIterator.next();
-                dataFieldsCount++;
-              }
-              handleImproperString(delimitedString.contains(QUOTE), dataFieldsCount);
+          Text line = delegate.getCurrentValue();
+          if (!tokenizer.tokenize(line.getBytes(), line.getLength())) {
+            readQuotedLines();
+          }
+          builder = StructuredRecord.builder(recordSchema);
+          int dataFieldsCount = tokenizer.getNumFields();
+          if (dataFieldsCount > converters.length) {
+            handleImproperString(tokenizer.hasQuote() || line.find(QUOTE) >= 0, dataFieldsCount);
+          }
+          for (int i = 0; i < dataFieldsCount; i++) {
+            // cells of fields that are not projected are neither decoded nor converted
+            if (converters[i] != null) {
+              converters[i].parseAndSet(builder, tokenizer.getField(i));
             }
-
-            Schema.Field nextField = fields.next();
-            DelimitedStructuredRecordStringConverter.parseAndSetFieldValue(builder, nextField, part);
           }
           return true;
         }
         return false;
       }
 
+      /**
+       * Reads the next lines of a record that ends within a quoted value, which is only valid with multiline support.
+       */
+      private void readQuotedLines() throws IOException, InterruptedException {
+        do {
+          if (!enableMultilineSupport || !delegate.nextKeyValue()) {
+            throw new IllegalArgumentException(
+              "Found a line with an unenclosed quote. Ensure that all values are properly"
+                + " quoted, or disable quoted values.");
+          }
+          Text line = delegate.getCurrentValue();
+          if (tokenizer.continueWith(line.getBytes(), line.getLength())) {
+            return;
+          }
+        } while (true);
+      }
+
       private void handleImproperString(boolean containsQuote, int numDataFields) throws IOException {
         int numSchemaFields = schema.getFields().size();
         String message =
@@ -132,14 +169,6 @@ public class PathTrackingDelimitedInputFormat extends PathTrackingInputFormat {
         return builder;
       }
 
-      private Iterator<String> getSplitsIterator(boolean enableQuotesValue, String delimitedString, String delimiter) {
-        if (enableQuotesValue) {
-          return new SplitQuotesIterator(delimitedString, delimiter, delegate, enableMultilineSupport);
-        } else {
-          return Splitter.on(delimiter).split(delimitedString).iterator();
-        }
-      }
-
       @Override
       public float getProgress() throws IOException, InterruptedException {
         return delegate.getProgress();
@@ -151,4 +180,32 @@ public class PathTrackingDelimitedInputFormat extends PathTrackingInputFormat {
       }
     };
   }
+
+  /**
+   * Returns whether a file whose quoted values can span multiple lines can be read from multiple splits. This requires
+   * splitting to be enabled, and the file to be uncompressed and read with the default encoding and line separators.
+   */
+  static boolean isMultilineSplittable(Configuration conf, Path file) {
+    return conf.getBoolean(SPLIT_MULTILINE_FILES, false) && conf.get(SOURCE_FILE_ENCODING) == null
+      && conf.get(RECORD_DELIMITER) == null && new CompressionCodecFactory(conf).getCodec(file) == null;
+  }
+
+  /**
+   * @return the converters of the fields of the schema, which are null for the fields that are not projected
+   */
+  @Nullable
+  static FieldConverter[] getFieldConverters(@Nullable Schema schema, @Nullable Schema projectedSchema) {
+    if (schema == null) {
+      return null;
+    }
+    List<Schema.Field> fields = schema.getFields();
+    FieldConverter[] converters = new FieldConverter[fields.size()];
+    for (int i = 0; i < fields.size(); i++) {
+      Schema.Field field = fields.get(i);
+      if (projectedSchema == null || projectedSchema.getField(field.getName()) != null) {
+        converters[i] = DelimitedStructuredRecordStringConverter.getFieldConverter(field);
+      }
+    }
+    return converters;
+  }
 }
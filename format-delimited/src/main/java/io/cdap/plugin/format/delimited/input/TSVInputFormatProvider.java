@@ -81,7 +81,9 @@ public class TSVInputFormatProvider extends PathTrackingInputFormatProvider<Deli
     properties.put(PathTrackingDelimitedInputFormat.ENABLE_QUOTES_VALUE, String.valueOf(conf.getEnableQuotedValues()));
     properties.put(PathTrackingDelimitedInputFormat.ENABLE_MULTILINE_SUPPORT,
                    String.valueOf(conf.getEnableMultilineSupport()));
-    if (conf.getEnableMultilineSupport()) {
+    properties.put(PathTrackingDelimitedInputFormat.SPLIT_MULTILINE_FILES,
+                   String.valueOf(conf.getSplitMultilineFiles()));
+    if (conf.getEnableMultilineSupport() && !conf.getSplitMultilineFiles()) {
       properties.put(FileInputFormat.SPLIT_MINSIZE, Long.toString(Long.MAX_VALUE));
     }
   }
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.output;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.format.utils.FormatUtils;
+import io.cdap.plugin.format.output.RecordBuffer;
+import io.cdap.plugin.format.output.RecordSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Serializes records into delimited lines, like
+ * {@link io.cdap.cdap.format.StructuredRecordStringConverter#toDelimitedString(StructuredRecord, String)}. How each
+ * field is written is decided once per schema instead of once per value.
+ */
+final class DelimitedRecordSerializer implements RecordSerializer {
+  private final byte[] delimiter;
+  private Schema schema;
+  private FieldWriter[] fieldWriters;
+
+  DelimitedRecordSerializer(String delimiter) {
+    this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void serialize(StructuredRecord record, RecordBuffer buffer) {
+    Schema recordSchema = record.getSchema();
+    if (recordSchema != schema && !recordSchema.equals(schema)) {
+      fieldWriters = getFieldWriters(recordSchema);
+    }
+    schema = recordSchema;
+    for (int i = 0; i < fieldWriters.length; i++) {
+      if (i > 0) {
+        buffer.write(delimiter);
+      }
+      fieldWriters[i].write(record, buffer);
+    }
+  }
+
+  private static FieldWriter[] getFieldWriters(Schema schema) {
+    List<Schema.Field> fields = schema.getFields();
+    FieldWriter[] fieldWriters = new FieldWriter[fields.size()];
+    for (int i = 0; i < fieldWriters.length; i++) {
+      fieldWriters[i] = getFieldWriter(fields.get(i));
+    }
+    return fieldWriters;
+  }
+
+  private static FieldWriter getFieldWriter(Schema.Field field) {
+    String name = field.getName();
+    Schema fieldSchema = field.getSchema().isNullable() ? field.getSchema().getNonNullable() : field.getSchema();
+    if (fieldSchema.getLogicalType() == Schema.LogicalType.DECIMAL) {
+      return (record, buffer) -> {
+        if (record.get(name) != null) {
+          BigDecimal decimal = record.getDecimal(name);
+          if (decimal == null) {
+            throw new IllegalArgumentException("Invalid schema for field " + name + ". Decimal was expected.");
+          }
+          buffer.write(decimal.toPlainString());
+        }
+      };
+    }
+    switch (fieldSchema.getType()) {
+      case BYTES:
+        return (record, buffer) -> {
+          Object value = record.get(name);
+          if (value != null) {
+            try {
+              buffer.write(FormatUtils.base64Encode(value));
+            } catch (IOException e) {
+              throw new IllegalArgumentException(
+                "Invalid schema for field " + name + ". ByteBuffer or Byte Array was expected.", e);
+            }
+          }
+        };
+      case INT:
+      case LONG:
+        return (record, buffer) -> {
+          Object value = record.get(name);
+          if (value instanceof Integer || value instanceof Long) {
+            buffer.write(((Number) value).longValue());
+          } else if (value != null) {
+            buffer.write(value.toString());
+          }
+        };
+      default:
+        return (record, buffer) -> {
+          Object value = record.get(name);
+          if (value != null) {
+            buffer.write(value.toString());
+          }
+        };
+    }
+  }
+
+  /**
+   * Writes the value of a field.
+   */
+  private interface FieldWriter {
+    void write(StructuredRecord record, RecordBuffer buffer);
+  }
+}
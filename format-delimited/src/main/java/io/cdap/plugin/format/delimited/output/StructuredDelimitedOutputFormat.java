@@ -19,7 +19,6 @@ package io.cdap.plugin.format.delimited.output;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.dataset.lib.KeyValue;
-import io.cdap.cdap.format.StructuredRecordStringConverter;
 import io.cdap.plugin.format.output.DelegatingOutputFormat;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.NullWritable;
@@ -38,7 +37,7 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 /**
- * Converts StructuredRecord into string before delegating to TextOutputFormat.
+ * Serializes StructuredRecord into delimited text before delegating to TextOutputFormat.
  */
 public class StructuredDelimitedOutputFormat extends DelegatingOutputFormat<NullWritable, Text> {
   static final String DELIMITER_KEY = "delimiter";
@@ -62,9 +61,7 @@ public class StructuredDelimitedOutputFormat extends DelegatingOutputFormat<Null
 
   @Override
   protected Function<StructuredRecord, KeyValue<NullWritable, Text>> getConversion(TaskAttemptContext context) {
-    String delimiter = getDelimiter(context.getConfiguration());
-    return record -> new KeyValue<>(NullWritable.get(),
-                                    new Text(StructuredRecordStringConverter.toDelimitedString(record, delimiter)));
+    return getTextConversion(new DelimitedRecordSerializer(getDelimiter(context.getConfiguration())));
   }
 
   @Nullable
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.common;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.format.UnexpectedFormatException;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Tests for {@link DelimitedStructuredRecordStringConverter}.
+ */
+public class DelimitedStructuredRecordStringConverterTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("bool", Schema.of(Schema.Type.BOOLEAN)),
+    Schema.Field.of("int", Schema.nullableOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("long", Schema.of(Schema.Type.LONG)),
+    Schema.Field.of("float", Schema.of(Schema.Type.FLOAT)),
+    Schema.Field.of("double", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))),
+    Schema.Field.of("bytes", Schema.of(Schema.Type.BYTES)),
+    Schema.Field.of("string", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("decimal", Schema.nullableOf(Schema.decimalOf(5, 2))),
+    Schema.Field.of("date", Schema.of(Schema.LogicalType.DATE)),
+    Schema.Field.of("datetime", Schema.nullableOf(Schema.of(Schema.LogicalType.DATETIME))),
+    Schema.Field.of("array", Schema.nullableOf(Schema.arrayOf(Schema.of(Schema.Type.STRING)))));
+
+  @Test
+  public void testFieldConverters() {
+    StructuredRecord record = parse("true", "", "12345678901", "1.5", "2.25", "aGVsbG8=", "abc", "123.45", "18628",
+                                    "2021-01-01T10:15:30", "");
+    Assert.assertEquals(true, record.get("bool"));
+    Assert.assertNull(record.get("int"));
+    Assert.assertEquals(12345678901L, (long) record.get("long"));
+    Assert.assertEquals(1.5f, record.get("float"), 0f);
+    Assert.assertEquals(2.25d, record.get("double"), 0d);
+    Assert.assertEquals(ByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8)), record.get("bytes"));
+    Assert.assertEquals("abc", record.get("string"));
+    Assert.assertEquals(new BigDecimal("123.45"), record.getDecimal("decimal"));
+    Assert.assertEquals(LocalDate.of(2021, 1, 1), record.getDate("date"));
+    Assert.assertEquals(LocalDateTime.of(2021, 1, 1, 10, 15, 30), record.getDateTime("datetime"));
+    Assert.assertNull(record.get("array"));
+  }
+
+  @Test
+  public void testInvalidValues() {
+    assertInvalid(SCHEMA.getField("datetime"), "2021-01-01 10:15:30", UnexpectedFormatException.class);
+    assertInvalid(SCHEMA.getField("int"), "1.5", NumberFormatException.class);
+    assertInvalid(SCHEMA.getField("array"), "a", UnexpectedFormatException.class);
+  }
+
+  private static StructuredRecord parse(String... values) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(SCHEMA);
+    for (int i = 0; i < values.length; i++) {
+      DelimitedStructuredRecordStringConverter.getFieldConverter(SCHEMA.getFields().get(i))
+        .parseAndSet(builder, values[i]);
+    }
+    return builder.build();
+  }
+
+  private static void assertInvalid(Schema.Field field, String value, Class<? extends Exception> exceptionClass) {
+    DelimitedStructuredRecordStringConverter.FieldConverter converter =
+      DelimitedStructuredRecordStringConverter.getFieldConverter(field);
+    try {
+      converter.parseAndSet(StructuredRecord.builder(SCHEMA), value);
+      Assert.fail(String.format("Value '%s' of field '%s' should not be valid", value, field.getName()));
+    } catch (Exception e) {
+      Assert.assertEquals(exceptionClass, e.getClass());
+    }
+  }
+}
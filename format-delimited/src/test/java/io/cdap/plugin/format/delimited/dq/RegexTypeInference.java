@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.dq;
+
+import com.google.gson.Gson;
+import io.cdap.plugin.format.delimited.common.DataType;
+import io.cdap.plugin.format.delimited.common.TypeInference;
+import io.cdap.plugin.format.delimited.dto.DateTimeStandard;
+import io.cdap.plugin.format.delimited.dto.SupportedDateTimeStandards;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Type inference with the regular expressions that {@link TypeInference} used to match values with, which is the
+ * reference for its behavior and the baseline of its benchmark.
+ */
+final class RegexTypeInference {
+  static final Pattern INTEGER = Pattern.compile("^(\\+|-)?\\d+$");
+  static final Pattern DOUBLE = Pattern.compile(
+    "^[-+]?"
+      + "("
+      + "[0-9]+([,\\.][0-9]+)?|"
+      + "("
+      + "[0-9]{1,3}"
+      + "("
+      + "((,[0-9]{3})*"
+      + "(\\.[0-9]+)?"
+      + "|"
+      + "((\\.[0-9]{3})*|([ \u00A0\u2007\u202F][0-9]{3})*)"
+      + "(,[0-9]+)?)"
+      + ")"
+      + ")"
+      + ")"
+      + "([ ]?[eE][-+]?[0-9]+)?$");
+  static final Pattern LONG = Pattern.compile("[-+]?[0-9]+L");
+  static final List<DateTimeStandard> DATE_STANDARDS = getStandards("datetime-regex.json");
+  static final List<DateTimeStandard> TIME_STANDARDS = getStandards("time-regex.json");
+  private static final List<Pattern> DATE_PATTERNS = getPatterns(DATE_STANDARDS);
+  private static final List<Pattern> TIME_PATTERNS = getPatterns(TIME_STANDARDS);
+
+  static boolean isInteger(String value) {
+    return !TypeInference.isEmpty(value) && INTEGER.matcher(value).matches();
+  }
+
+  static boolean isLong(String value) {
+    return !TypeInference.isEmpty(value) && LONG.matcher(value).matches();
+  }
+
+  static boolean isDouble(String value) {
+    return !TypeInference.isEmpty(value) && DOUBLE.matcher(value).matches();
+  }
+
+  static boolean isDate(String value) {
+    return matches(value, DATE_PATTERNS);
+  }
+
+  static boolean isTime(String value) {
+    return matches(value, TIME_PATTERNS);
+  }
+
+  static DataType getDataType(String value) {
+    if (TypeInference.isEmpty(value)) {
+      return DataType.EMPTY;
+    } else if (TypeInference.isBoolean(value)) {
+      return DataType.BOOLEAN;
+    } else if (isInteger(value)) {
+      try {
+        Integer.parseInt(value);
+        return DataType.INTEGER;
+      } catch (NumberFormatException e) {
+        return parsesAsLong(value) ? DataType.LONG : DataType.STRING;
+      }
+    } else if (isLong(value)) {
+      return parsesAsLong(value.replace("L", "")) ? DataType.LONG : DataType.STRING;
+    } else if (isDouble(value)) {
+      try {
+        Double doubleValue = Double.parseDouble(value);
+        boolean exact = doubleValue.toString().equals(new BigDecimal(value).stripTrailingZeros().toString());
+        return exact ? DataType.DOUBLE : DataType.STRING;
+      } catch (NumberFormatException e) {
+        return DataType.STRING;
+      }
+    } else if (isTime(value)) {
+      return DataType.TIME;
+    } else if (isDate(value)) {
+      return DataType.DATE;
+    }
+    return DataType.STRING;
+  }
+
+  private static boolean parsesAsLong(String value) {
+    try {
+      Long.parseLong(value);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static boolean matches(String value, List<Pattern> patterns) {
+    if (value == null || value.isEmpty()) {
+      return false;
+    }
+    for (Pattern pattern : patterns) {
+      if (pattern.matcher(value).find()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<DateTimeStandard> getStandards(String fileName) {
+    try (Reader reader = new InputStreamReader(RegexTypeInference.class.getResourceAsStream("/" + fileName),
+                                               StandardCharsets.UTF_8)) {
+      return new Gson().fromJson(reader, SupportedDateTimeStandards.class).getSupportedStandards();
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to read " + fileName, e);
+    }
+  }
+
+  private static List<Pattern> getPatterns(List<DateTimeStandard> standards) {
+    List<Pattern> patterns = new ArrayList<>();
+    for (DateTimeStandard standard : standards) {
+      for (String regex : standard.getRegex()) {
+        patterns.add(Pattern.compile(regex));
+      }
+    }
+    return patterns;
+  }
+
+  private RegexTypeInference() {
+  }
+}
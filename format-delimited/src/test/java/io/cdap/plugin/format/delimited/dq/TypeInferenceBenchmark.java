@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.dq;
+
+import io.cdap.plugin.format.delimited.common.DataType;
+import io.cdap.plugin.format.delimited.common.TypeInference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Compares the throughput of {@link TypeInference#getDataType(String)} with the regular expressions it used to match
+ * values with, over values like the columns of a delimited file. It is not run as part of the tests:
+ *
+ * java -cp ... io.cdap.plugin.format.delimited.dq.TypeInferenceBenchmark
+ */
+public final class TypeInferenceBenchmark {
+  private static final int NUM_VALUES = 100000;
+  private static final int ITERATIONS = 10;
+
+  public static void main(String[] args) {
+    List<String> values = getValues(new Random(42));
+    for (int i = 0; i < 3; i++) {
+      run("regular expressions", RegexTypeInference::getDataType, values);
+      run("scanners", TypeInference::getDataType, values);
+    }
+  }
+
+  private static void run(String name, Function<String, DataType> inference, List<String> values) {
+    long start = System.nanoTime();
+    int strings = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      for (String value : values) {
+        if (inference.apply(value) == DataType.STRING) {
+          strings++;
+        }
+      }
+    }
+    long nanos = System.nanoTime() - start;
+    System.out.printf("%-20s %8.1f ns/value (%d strings)%n", name, nanos / (double) (ITERATIONS * values.size()),
+                      strings);
+  }
+
+  private static List<String> getValues(Random random) {
+    List<String> values = new ArrayList<>();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      switch (i % 8) {
+        case 0:
+          values.add(Integer.toString(random.nextInt()));
+          break;
+        case 1:
+          values.add(Long.toString(random.nextLong()));
+          break;
+        case 2:
+          values.add(String.format("%.2f", random.nextDouble() * 10000));
+          break;
+        case 3:
+          values.add(String.format("%,d.%02d", random.nextInt(10000000), random.nextInt(100)));
+          break;
+        case 4:
+          values.add(String.format("2021-%02d-%02dT%02d:%02d:%02dZ", 1 + random.nextInt(12), 1 + random.nextInt(28),
+                                   random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+          break;
+        case 5:
+          values.add(String.format("%02d:%02d", random.nextInt(24), random.nextInt(60)));
+          break;
+        case 6:
+          values.add(random.nextBoolean() ? "true" : "false");
+          break;
+        default:
+          values.add("customer " + random.nextInt(1000) + " from city " + random.nextInt(100));
+      }
+    }
+    return values;
+  }
+
+  private TypeInferenceBenchmark() {
+  }
+}
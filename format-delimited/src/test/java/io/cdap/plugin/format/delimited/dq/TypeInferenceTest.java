@@ -18,10 +18,15 @@ package io.cdap.plugin.format.delimited.dq;
 
 import io.cdap.plugin.format.delimited.common.DataType;
 import io.cdap.plugin.format.delimited.common.TypeInference;
+import io.cdap.plugin.format.delimited.dto.DateTimeStandard;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -223,4 +228,63 @@ public class TypeInferenceTest {
     timeStringValues.forEach(val -> assertEquals(TypeInference.getDataType(val), DataType.TIME));
 
   }
+
+  @Test
+  public void testSameTypesAsRegularExpressions() {
+    List<String> values = Arrays.asList(
+      "0", "+1", "-1", "+", "-", "01", "1 ", " 1", "1L", "-12L", "+L", "L", "1l", "1LL", "1.5L", "1,234.5", "1.234,5",
+      "1 234", "1 234,5", "1\u00A0234,5", "1\u2007234", "1\u202F234,56", "1 234.5", "1,234,567", "1,23", "12,30",
+      "1234,567.8", "1.234.567", "1.23.4", "1,2.3", ".5", "5.", "1e5", "1E-5", "1 e5", "1  e5", "e5", "1e", "1e+",
+      "1.5e5", "1,5e-3", "1 234e2", "1\u00A0e5", "\u0661\u0662", "12:30", "23:59:59Z", "2021-05-19", "2021-W21-2",
+      "2021-05-19 14:39:22+0600", "20210621T0545Z", "2021", "-2021", "2021\n", "9999999999", "99999999999999999999L",
+      "13004.012312312423112122121121212", "NaN", "Infinity", "0x10", "1_000");
+    for (String value : values) {
+      assertRegularExpressionTypes(value);
+    }
+
+    String characters = "0123456789+-.,eEL :TWZ\u00A0";
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      StringBuilder value = new StringBuilder();
+      int length = 1 + random.nextInt(12);
+      for (int j = 0; j < length; j++) {
+        // favor digits, which most numbers are made of
+        value.append(characters.charAt(random.nextInt(random.nextBoolean() ? 10 : characters.length())));
+      }
+      assertRegularExpressionTypes(value.toString());
+    }
+  }
+
+  @Test
+  public void testDateTimeExamples() {
+    for (DateTimeStandard standard : RegexTypeInference.DATE_STANDARDS) {
+      for (String example : getExamples(standard)) {
+        assertTrue(example, TypeInference.isDate(example));
+      }
+    }
+    for (DateTimeStandard standard : RegexTypeInference.TIME_STANDARDS) {
+      for (String example : getExamples(standard)) {
+        assertTrue(example, TypeInference.isTime(example));
+      }
+    }
+  }
+
+  private static void assertRegularExpressionTypes(String value) {
+    assertEquals(value, RegexTypeInference.isInteger(value), TypeInference.isInteger(value));
+    assertEquals(value, RegexTypeInference.isLong(value), TypeInference.isLong(value));
+    assertEquals(value, RegexTypeInference.isDouble(value), TypeInference.isDouble(value));
+    assertEquals(value, RegexTypeInference.isDate(value), TypeInference.isDate(value));
+    assertEquals(value, RegexTypeInference.isTime(value), TypeInference.isTime(value));
+    assertEquals(value, RegexTypeInference.getDataType(value), TypeInference.getDataType(value));
+  }
+
+  private static List<String> getExamples(DateTimeStandard standard) {
+    List<String> examples = new ArrayList<>();
+    String comment = standard.getComment() == null ? "" : standard.getComment();
+    Matcher matcher = Pattern.compile("\"([^\"]+)\"").matcher(comment);
+    while (matcher.find()) {
+      examples.add(matcher.group(1));
+    }
+    return examples;
+  }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link DelimitedLineTokenizer}.
+ */
+public class DelimitedLineTokenizerTest {
+  private static final String[] DELIMITERS = {",", "##", "\u00e9", "\t"};
+  private static final char[] CHARACTERS = {'a', 'b', ',', '#', '"', '\u00e9', '\u4e2d', '\t', ' '};
+
+  @Test
+  public void testSameSplitsAsIterators() {
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      String delimiter = DELIMITERS[random.nextInt(DELIMITERS.length)];
+      StringBuilder line = new StringBuilder();
+      int lineLength = random.nextInt(12);
+      for (int j = 0; j < lineLength; j++) {
+        line.append(CHARACTERS[random.nextInt(CHARACTERS.length)]);
+      }
+      String value = line.toString();
+
+      Assert.assertEquals(value, Lists.newArrayList(Splitter.on(delimiter).split(value)),
+                          tokenize(new DelimitedLineTokenizer(delimiter, false), value));
+
+      List<String> expected;
+      try {
+        expected = Lists.newArrayList(new SplitQuotesIterator(value, delimiter, null, false));
+      } catch (IllegalArgumentException e) {
+        expected = null;
+      }
+      Assert.assertEquals(value, expected, tokenize(new DelimitedLineTokenizer(delimiter, true), value));
+    }
+  }
+
+  @Test
+  public void testReuse() {
+    DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(",", true);
+    StringBuilder longLine = new StringBuilder("0");
+    List<String> expected = new ArrayList<>();
+    expected.add("0");
+    for (int i = 1; i < 100; i++) {
+      longLine.append(",\"").append(i).append('"');
+      expected.add(Integer.toString(i));
+    }
+    Assert.assertEquals(expected, tokenize(tokenizer, longLine.toString()));
+    Assert.assertEquals(ImmutableList.of("a", "b,c"), tokenize(tokenizer, "a,\"b,c\""));
+    Assert.assertEquals(ImmutableList.of(), tokenize(tokenizer, ""));
+  }
+
+  @Test
+  public void testMultiline() {
+    DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(",", true);
+    byte[] line = "a,\"b,".getBytes(StandardCharsets.UTF_8);
+    Assert.assertFalse(tokenizer.tokenize(line, line.length));
+    // the reader reuses the bytes of the line
+    byte[] next = "x".getBytes(StandardCharsets.UTF_8);
+    System.arraycopy(next, 0, line, 0, next.length);
+    Assert.assertFalse(tokenizer.continueWith(new byte[0], 0));
+    next = "c\",d".getBytes(StandardCharsets.UTF_8);
+    Assert.assertTrue(tokenizer.continueWith(next, next.length));
+    Assert.assertEquals(ImmutableList.of("a", "b,\n\nc", "d"), getFields(tokenizer));
+    Assert.assertTrue(tokenizer.hasQuote());
+  }
+
+  private static List<String> tokenize(DelimitedLineTokenizer tokenizer, String line) {
+    byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+    // add bytes after the line, like the buffer of a reused Text
+    byte[] buffer = new byte[bytes.length + 3];
+    System.arraycopy(bytes, 0, buffer, 0, bytes.length);
+    buffer[bytes.length] = ',';
+    buffer[bytes.length + 1] = '"';
+    return tokenizer.tokenize(buffer, bytes.length) ? getFields(tokenizer) : null;
+  }
+
+  private static List<String> getFields(DelimitedLineTokenizer tokenizer) {
+    List<String> fields = new ArrayList<>();
+    for (int i = 0; i < tokenizer.getNumFields(); i++) {
+      fields.add(tokenizer.getField(i));
+    }
+    return fields;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.api.validation.InputFile;
+import io.cdap.plugin.format.FileSystemInputFile;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Tests for {@link DelimitedSchemaSampler}.
+ */
+public class DelimitedSchemaSamplerTest {
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testChooseFiles() throws IOException {
+    List<InputFile> files = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      files.add(write("a\n" + i));
+    }
+    Assert.assertEquals(Collections.emptyList(), DelimitedSchemaSampler.chooseFiles(Collections.emptyList(), 5));
+    Assert.assertEquals(files.subList(0, 1), DelimitedSchemaSampler.chooseFiles(files, 1));
+    Assert.assertEquals(files, DelimitedSchemaSampler.chooseFiles(files, 200));
+
+    List<InputFile> chosen = DelimitedSchemaSampler.chooseFiles(files, 10);
+    Assert.assertEquals(10, chosen.size());
+    Assert.assertSame(files.get(0), chosen.get(0));
+    Assert.assertEquals(10, new HashSet<>(chosen).size());
+    for (int i = 1; i < chosen.size(); i++) {
+      Assert.assertTrue(files.indexOf(chosen.get(i - 1)) < files.indexOf(chosen.get(i)));
+    }
+    // the files are not just the first ones
+    Assert.assertNotEquals(files.subList(0, 10), chosen);
+  }
+
+  @Test
+  public void testMergeFiles() throws IOException {
+    List<InputFile> files = Arrays.asList(write("id,price,name\n1,2,a\n2,3,b"),
+                                          write(""),
+                                          write("id,price,name\n3,4.5,\n"));
+    Schema expected = Schema.recordOf("text",
+                                      Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+                                      Schema.Field.of("price", Schema.of(Schema.Type.DOUBLE)),
+                                      Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    Assert.assertEquals(expected, detectSchema(Long.MAX_VALUE, files));
+
+    // the first file that is not empty provides the column names
+    Assert.assertEquals(expected, detectSchema(Long.MAX_VALUE, files.subList(1, 3)));
+  }
+
+  @Test
+  public void testSampleBytes() throws IOException {
+    List<InputFile> files = Collections.singletonList(write("id\n1\n2.5\n"));
+    Assert.assertEquals(Schema.recordOf("text", Schema.Field.of("id", Schema.of(Schema.Type.DOUBLE))),
+                        detectSchema(Long.MAX_VALUE, files));
+    // the budget is spent by the header, but the file still contributes one row
+    Assert.assertEquals(Schema.recordOf("text", Schema.Field.of("id", Schema.of(Schema.Type.INT))),
+                        detectSchema(1, files));
+  }
+
+  private static Schema detectSchema(long sampleBytes, List<InputFile> files) throws IOException {
+    DelimitedSchemaSampler sampler = new DelimitedSchemaSampler(Collections.emptyMap(), ",", true, false, 1000,
+                                                                sampleBytes);
+    return Schema.recordOf("text", sampler.detectFields(files));
+  }
+
+  private static InputFile write(String content) throws IOException {
+    File file = TEMP_FOLDER.newFile();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    FileSystem fs = FileSystem.getLocal(new Configuration());
+    return new FileSystemInputFile(fs, fs.getFileStatus(new Path(file.toURI())));
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.StorageStatistics;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link MultilineSplitLineRecordReader}.
+ */
+public class MultilineSplitLineRecordReaderTest {
+  private static final byte[] COMMA = ",".getBytes(StandardCharsets.UTF_8);
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testSplits() throws Exception {
+    StringBuilder content = new StringBuilder("id,name,notes\n");
+    for (int i = 0; i < 200; i++) {
+      content.append(i).append(',');
+      if (i % 3 == 0) {
+        content.append("\"name ").append(i).append("\",");
+      } else {
+        content.append("name ").append(i).append(',');
+      }
+      if (i % 4 == 0) {
+        content.append("\"first line\r\nsecond, \"\"quoted\"\" line\n\nlast line\"");
+      } else if (i % 4 == 1) {
+        content.append("\"\"");
+      }
+      content.append(i % 5 == 0 ? "\r\n" : "\n");
+    }
+    File file = write(content.toString());
+    List<String> expected = read(file, file.length());
+    Assert.assertEquals(content.toString().split("\r?\n", -1).length - 1, expected.size());
+
+    for (long splitSize : new long[] {1, 7, 64, 100, 333, 1024}) {
+      Assert.assertEquals("Split size " + splitSize, expected, read(file, splitSize));
+    }
+  }
+
+  @Test
+  public void testAssumeOutsideQuotes() throws Exception {
+    // no quote in the window after the start of the second line tells whether it is within a quoted value
+    StringBuilder content = new StringBuilder("1,\"a\",b\n");
+    for (int i = 0; i < 10; i++) {
+      content.append("2,c\n");
+    }
+    File file = write(content.toString());
+    List<String> expected = read(file, file.length());
+    Assert.assertEquals(expected, read(file, new Configuration(), 8, 0, 3, 9, 10, 20));
+
+    // the second line is within a quoted value, which the first split finds when it verifies the assumption
+    file = write(content.toString().replace("\"a\",b\n", "\"a\n\",b\n"));
+    try {
+      read(file, new Configuration(), 8, 0, 3);
+      Assert.fail("The assumption of the second split should fail the verification");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("offset 5"));
+    }
+  }
+
+  @Test
+  public void testSplitsWithoutQuotes() throws Exception {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; content.length() < 1024 * 1024; i++) {
+      content.append(i).append(",name ").append(i).append('\n');
+    }
+    File file = write(content.toString());
+    List<String> expected = read(file, file.length());
+
+    Configuration conf = new Configuration();
+    conf.setInt("io.file.buffer.size", 4096);
+    // the statistics of the local file system are registered once it is created
+    FileSystem.getLocal(conf);
+    StorageStatistics statistics = FileSystem.getGlobalStorageStatistics().get("file");
+    long bytesRead = statistics.getLong("bytesRead");
+    Assert.assertEquals(expected, read(file, conf, 1024, splitStarts(file, 4096)));
+    // every split reads its lines and the speculation windows, rather than the whole file before it
+    bytesRead = statistics.getLong("bytesRead") - bytesRead;
+    Assert.assertTrue("Read " + bytesRead + " bytes", bytesRead < 8 * file.length());
+  }
+
+  @Test
+  public void testVerification() throws Exception {
+    // the quote that closes the value is not followed by a delimiter, so the second split speculates that it opens one
+    File file = write("1,\"a\nb,\"c\n2,d\n");
+    try {
+      read(file, 4);
+      Assert.fail("The speculation of the second split should fail the verification");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("offset 5"));
+    }
+  }
+
+  @Test
+  public void testSpeculate() {
+    Assert.assertFalse(speculate("1,\"a\",b\n", false));
+    Assert.assertTrue(speculate("still quoted\",b\n", false));
+    Assert.assertTrue(speculate("c\"\"d\",b\n", false));
+    // escaped and empty quotes do not tell
+    Assert.assertNull(speculate("1,\"\",b\n", false));
+    Assert.assertNull(speculate("1,b\n", false));
+    // quotes within values are invalid for both
+    Assert.assertNull(speculate("1,a\"b\"c\n", false));
+    // a file does not end within a quoted value
+    Assert.assertFalse(speculate("1,b\n", true));
+    Assert.assertTrue(speculate("1,\"\",b\"\n", true));
+  }
+
+  private static Boolean speculate(String value, boolean endOfFile) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    return MultilineSplitLineRecordReader.speculate(bytes, bytes.length, endOfFile, COMMA);
+  }
+
+  private static File write(String content) throws IOException {
+    File file = TEMP_FOLDER.newFile();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static List<String> read(File file, long splitSize) throws IOException {
+    return read(file, new Configuration(), MultilineSplitLineRecordReader.MAX_SPECULATION_LENGTH,
+                splitStarts(file, splitSize));
+  }
+
+  private static long[] splitStarts(File file, long splitSize) {
+    long[] starts = new long[(int) ((file.length() + splitSize - 1) / splitSize)];
+    for (int i = 0; i < starts.length; i++) {
+      starts[i] = i * splitSize;
+    }
+    return starts;
+  }
+
+  /**
+   * Reads the lines of the splits that start at the given offsets, and checks that every split ends at the end of a
+   * record.
+   */
+  private static List<String> read(File file, Configuration conf, int maxSpeculationLength,
+                                   long... starts) throws IOException {
+    TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < starts.length; i++) {
+      long end = i + 1 < starts.length ? starts[i + 1] : file.length();
+      FileSplit split = new FileSplit(new Path(file.toURI()), starts[i], end - starts[i], new String[0]);
+      boolean withinQuotes = false;
+      try (MultilineSplitLineRecordReader reader = new MultilineSplitLineRecordReader(",", maxSpeculationLength)) {
+        reader.initialize(split, context);
+        while (reader.nextKeyValue()) {
+          String line = reader.getCurrentValue().toString();
+          lines.add(line);
+          withinQuotes ^= line.chars().filter(c -> c == '"').count() % 2 == 1;
+        }
+      }
+      Assert.assertFalse("Split at " + starts[i] + " ends within a quoted value", withinQuotes);
+    }
+    return lines;
+  }
+}
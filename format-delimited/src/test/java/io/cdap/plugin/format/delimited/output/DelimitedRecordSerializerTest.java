@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.output;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.format.StructuredRecordStringConverter;
+import io.cdap.plugin.format.output.RecordBuffer;
+import org.apache.hadoop.io.Text;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Tests for {@link DelimitedRecordSerializer}.
+ */
+public class DelimitedRecordSerializerTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("int", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("long", Schema.nullableOf(Schema.of(Schema.Type.LONG))),
+    Schema.Field.of("float", Schema.of(Schema.Type.FLOAT)),
+    Schema.Field.of("double", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))),
+    Schema.Field.of("boolean", Schema.of(Schema.Type.BOOLEAN)),
+    Schema.Field.of("string", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("bytes", Schema.nullableOf(Schema.of(Schema.Type.BYTES))),
+    Schema.Field.of("decimal", Schema.nullableOf(Schema.decimalOf(10, 3))),
+    Schema.Field.of("date", Schema.nullableOf(Schema.of(Schema.LogicalType.DATE))),
+    Schema.Field.of("datetime", Schema.nullableOf(Schema.of(Schema.LogicalType.DATETIME))),
+    Schema.Field.of("array", Schema.nullableOf(Schema.arrayOf(Schema.of(Schema.Type.INT)))));
+
+  @Test
+  public void testSameAsStringConverter() {
+    StructuredRecord full = StructuredRecord.builder(SCHEMA)
+      .set("int", Integer.MIN_VALUE)
+      .set("long", Long.MAX_VALUE)
+      .set("float", 1.5f)
+      .set("double", -0.000001d)
+      .set("boolean", true)
+      .set("string", "a\u00e9\u4e2d\ud83d\ude00,\"b\"")
+      .set("bytes", ByteBuffer.wrap(new byte[] {0, 1, -1}))
+      .setDecimal("decimal", new BigDecimal("-1234567.890"))
+      .setDate("date", LocalDate.of(2026, 1, 2))
+      .setDateTime("datetime", LocalDateTime.of(2026, 1, 2, 3, 4, 5))
+      .set("array", Arrays.asList(1, 2))
+      .build();
+    StructuredRecord nulls = StructuredRecord.builder(SCHEMA)
+      .set("int", 0)
+      .set("float", 0f)
+      .set("boolean", false)
+      .build();
+
+    DelimitedRecordSerializer serializer = new DelimitedRecordSerializer("||");
+    for (StructuredRecord record : Arrays.asList(full, nulls, full)) {
+      // the string converter consumes the bytes of ByteBuffer values, so each conversion gets its own copy
+      String expected = StructuredRecordStringConverter.toDelimitedString(copy(record), "||");
+      Assert.assertEquals(expected, serialize(serializer, copy(record)));
+    }
+  }
+
+  @Test
+  public void testSchemaChange() {
+    DelimitedRecordSerializer serializer = new DelimitedRecordSerializer(",");
+    Schema first = Schema.recordOf("first", Schema.Field.of("a", Schema.of(Schema.Type.STRING)),
+                                   Schema.Field.of("b", Schema.of(Schema.Type.INT)));
+    Schema second = Schema.recordOf("second", Schema.Field.of("b", Schema.of(Schema.Type.INT)));
+    Assert.assertEquals("x,1",
+                        serialize(serializer, StructuredRecord.builder(first).set("a", "x").set("b", 1).build()));
+    Assert.assertEquals("2", serialize(serializer, StructuredRecord.builder(second).set("b", 2).build()));
+  }
+
+  private static String serialize(DelimitedRecordSerializer serializer, StructuredRecord record) {
+    RecordBuffer buffer = new RecordBuffer();
+    serializer.serialize(record, buffer);
+    Text text = new Text();
+    buffer.copyTo(text);
+    return new String(text.getBytes(), 0, text.getLength(), StandardCharsets.UTF_8);
+  }
+
+  private static StructuredRecord copy(StructuredRecord record) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(record.getSchema());
+    for (Schema.Field field : record.getSchema().getFields()) {
+      Object value = record.get(field.getName());
+      builder.set(field.getName(), value instanceof ByteBuffer ? ((ByteBuffer) value).duplicate() : value);
+    }
+    return builder.build();
+  }
+}
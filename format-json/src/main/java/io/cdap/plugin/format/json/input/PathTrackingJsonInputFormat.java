@@ -21,6 +21,7 @@ import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.format.StructuredRecordStringConverter;
 import io.cdap.plugin.common.SchemaValidator;
 import io.cdap.plugin.format.input.PathTrackingInputFormat;
+import io.cdap.plugin.format.input.SchemaCache;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
@@ -31,6 +32,7 @@ import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javax.annotation.Nullable;
 
@@ -40,7 +42,7 @@ import javax.annotation.Nullable;
 public class PathTrackingJsonInputFormat extends PathTrackingInputFormat {
 
 
-  private Schema getModifiedSchema(Schema schema, @Nullable String pathField) {
+  private static Schema getModifiedSchema(Schema schema, @Nullable String pathField) {
     // if the path field is set, it might not be nullable
     // if it's not nullable, decoding a string into a StructuredRecord will fail because a non-nullable
     // field will have a null value.
@@ -65,11 +67,24 @@ public class PathTrackingJsonInputFormat extends PathTrackingInputFormat {
                                                                                     TaskAttemptContext context,
                                                                                     @Nullable String pathField,
                                                                                     @Nullable Schema schema) {
+    return createRecordReader(split, context, pathField, schema, null);
+  }
+
+  @Override
+  protected RecordReader<NullWritable, StructuredRecord.Builder> createRecordReader(FileSplit split,
+                                                                                    TaskAttemptContext context,
+                                                                                    @Nullable String pathField,
+                                                                                    @Nullable Schema schema,
+                                                                                    @Nullable Schema projectedSchema) {
     RecordReader<LongWritable, Text> delegate = getDefaultRecordReaderDelegate(split, context);
     if (schema == null) {
       throw new IllegalStateException("The file you have selected requires a schema to be parsed.");
     }
-    Schema modifiedSchema = getModifiedSchema(schema, pathField);
+    // the decoder skips the values of the json fields that are not in the schema
+    Schema recordSchema = projectedSchema == null ? schema : projectedSchema;
+    Schema modifiedSchema = SchemaCache.getPlan(
+      Arrays.asList(PathTrackingJsonInputFormat.class, recordSchema, pathField),
+      () -> getModifiedSchema(recordSchema, pathField));
 
     return new RecordReader<NullWritable, StructuredRecord.Builder>() {
 
@@ -92,8 +107,8 @@ public class PathTrackingJsonInputFormat extends PathTrackingInputFormat {
       public StructuredRecord.Builder getCurrentValue() throws IOException, InterruptedException {
         String json = delegate.getCurrentValue().toString();
         StructuredRecord record = StructuredRecordStringConverter.fromJsonString(json, modifiedSchema);
-        StructuredRecord.Builder builder = StructuredRecord.builder(schema);
-        for (Schema.Field field : schema.getFields()) {
+        StructuredRecord.Builder builder = StructuredRecord.builder(recordSchema);
+        for (Schema.Field field : recordSchema.getFields()) {
           Object value = record.get(field.getName());
           SchemaValidator.validateDateTimeField(field.getSchema(), field.getName(), value);
           builder.set(field.getName(), value);
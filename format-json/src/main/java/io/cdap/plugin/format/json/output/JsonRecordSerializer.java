@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.json.output;
+
+import com.google.gson.stream.JsonWriter;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.format.io.JsonEncoder;
+import io.cdap.cdap.format.io.JsonStructuredRecordDatumWriter;
+import io.cdap.plugin.format.output.RecordBuffer;
+import io.cdap.plugin.format.output.RecordSerializer;
+
+import java.io.IOException;
+
+/**
+ * Serializes records into JSON objects like
+ * {@link io.cdap.cdap.format.StructuredRecordStringConverter#toJsonString(StructuredRecord)}, writing the JSON
+ * directly into the buffer instead of into a String.
+ */
+final class JsonRecordSerializer implements RecordSerializer {
+  private static final JsonStructuredRecordDatumWriter DATUM_WRITER = new JsonStructuredRecordDatumWriter();
+
+  @Override
+  public void serialize(StructuredRecord record, RecordBuffer buffer) {
+    try {
+      // a JsonWriter only writes a single top level value
+      JsonWriter jsonWriter = new JsonWriter(buffer.asWriter());
+      DATUM_WRITER.encode(record, new JsonEncoder(jsonWriter));
+      jsonWriter.flush();
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to convert record into a json object", e);
+    }
+  }
+}
@@ -18,7 +18,6 @@ package io.cdap.plugin.format.json.output;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.dataset.lib.KeyValue;
-import io.cdap.cdap.format.StructuredRecordStringConverter;
 import io.cdap.plugin.format.output.DelegatingOutputFormat;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
@@ -26,11 +25,10 @@ import org.apache.hadoop.mapreduce.OutputFormat;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
 
-import java.io.IOException;
 import java.util.function.Function;
 
 /**
- * Converts StructuredRecord into string before delegating to TextOutputFormat.
+ * Serializes StructuredRecord into JSON text before delegating to TextOutputFormat.
  */
 public class StructuredJsonOutputFormat extends DelegatingOutputFormat<NullWritable, Text> {
 
@@ -41,13 +39,7 @@ public class StructuredJsonOutputFormat extends DelegatingOutputFormat<NullWrita
 
   @Override
   protected Function<StructuredRecord, KeyValue<NullWritable, Text>> getConversion(TaskAttemptContext context) {
-    return record -> {
-      try {
-        return new KeyValue<>(NullWritable.get(), new Text(StructuredRecordStringConverter.toJsonString(record)));
-      } catch (IOException e) {
-        throw new RuntimeException("Unable to convert record into a json object", e);
-      }
-    };
+    return getTextConversion(new JsonRecordSerializer());
   }
 
 }
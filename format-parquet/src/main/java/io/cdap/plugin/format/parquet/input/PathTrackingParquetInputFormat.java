@@ -20,6 +20,7 @@ import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.format.avro.AvroToStructuredTransformer;
 import io.cdap.plugin.format.input.PathTrackingInputFormat;
+import io.cdap.plugin.format.input.SchemaCache;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.InputSplit;
@@ -88,10 +89,10 @@ public class PathTrackingParquetInputFormat extends PathTrackingInputFormat {
       // set the schema based on the schema of the record
       if (schema == null) {
         if (pathField == null) {
-          schema = Schema.parseJson(genericRecord.getSchema().toString());
+          schema = SchemaCache.getSchema(genericRecord.getSchema().toString());
         } else {
           // if there is a path field, add the path as a field in the schema
-          Schema schemaWithoutPath = Schema.parseJson(genericRecord.getSchema().toString());
+          Schema schemaWithoutPath = SchemaCache.getSchema(genericRecord.getSchema().toString());
           List<Schema.Field> fields = new ArrayList<>(schemaWithoutPath.getFields().size() + 1);
           fields.addAll(schemaWithoutPath.getFields());
           fields.add(Schema.Field.of(pathField, Schema.of(Schema.Type.STRING)));
@@ -69,10 +69,9 @@ public class XlsInputFormat extends PathTrackingInputFormat {
     Configuration jobConf = context.getConfiguration();
     boolean skipFirstRow = jobConf.getBoolean(NAME_SKIP_HEADER, false);
     boolean terminateIfEmptyRow = jobConf.getBoolean(TERMINATE_IF_EMPTY_ROW, false);
-    Schema outputSchema = schema != null ? Schema.parseJson(context.getConfiguration().get("schema")) : null;
     String sheet = jobConf.get(SHEET_NUM);
     String sheetValue = jobConf.get(SHEET_VALUE, "0");
-    return new XlsRecordReader(sheet, sheetValue, outputSchema, terminateIfEmptyRow, skipFirstRow);
+    return new XlsRecordReader(sheet, sheetValue, schema, terminateIfEmptyRow, skipFirstRow);
   }
 
   public boolean isSplitable(JobContext context, Path file) {